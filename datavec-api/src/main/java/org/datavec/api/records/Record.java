@@ -0,0 +1,381 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A Record is a single row (example) with a schema-typed, primitive layout: Double columns are stored in a double[],
+ * Integer, Long and Time columns and the state indexes of Categorical columns are stored in a long[], and only
+ * String and Bytes columns are stored as Writables. Each array has one slot per column of the corresponding type.<br>
+ * Records are mutable, and are intended to be reused: for example, with
+ * {@link org.datavec.api.records.reader.RecordReader#next(Record)}.<br>
+ * Records created with {@link #newRecord()} share the (immutable) schema information, including the categorical
+ * state lookup tables, with the original record.
+ */
+public class Record implements RowView, Serializable {
+
+    private final Layout layout;
+    private final double[] doubles;
+    private final long[] longs;
+    private final Writable[] writables;
+
+    /**
+     * @param schema Schema of the record. Must not be a sequence schema
+     */
+    public Record(Schema schema) {
+        this(new Layout(schema));
+    }
+
+    private Record(Layout layout) {
+        this.layout = layout;
+        this.doubles = new double[layout.numDoubles];
+        this.longs = new long[layout.numLongs];
+        this.writables = new Writable[layout.numWritables];
+    }
+
+    /**
+     * Create a record from the given writables
+     *
+     * @param schema Schema of the record
+     * @param values Values for the record
+     */
+    public static Record fromWritables(Schema schema, List<Writable> values) {
+        Record r = new Record(schema);
+        r.set(values);
+        return r;
+    }
+
+    /**
+     * @return A new (empty) record with the same schema as this record
+     */
+    public Record newRecord() {
+        return new Record(layout);
+    }
+
+    /**
+     * @return A copy of this record
+     */
+    public Record copy() {
+        Record r = new Record(layout);
+        System.arraycopy(doubles, 0, r.doubles, 0, doubles.length);
+        System.arraycopy(longs, 0, r.longs, 0, longs.length);
+        System.arraycopy(writables, 0, r.writables, 0, writables.length);
+        return r;
+    }
+
+    @Override
+    public Schema getSchema() {
+        return layout.schema;
+    }
+
+    @Override
+    public int numColumns() {
+        return layout.types.length;
+    }
+
+    /**
+     * Set all values in this record from the given writables.
+     *
+     * @param values Values. Must have the same number of values as the schema has columns
+     */
+    public void set(List<Writable> values) {
+        if (values.size() != layout.types.length) {
+            throw new IllegalStateException("Cannot set record values: number of values (" + values.size()
+                    + ") does not match number of columns in schema (" + layout.types.length + ")");
+        }
+        int i = 0;
+        for (Writable w : values) {
+            setWritable(i++, w);
+        }
+    }
+
+    /**
+     * Set the value of the specified column from a Writable: the value is converted to the primitive representation
+     * of the column where appropriate
+     *
+     * @throws IllegalStateException If the column is Categorical, and the value is not one of the states
+     */
+    public void setWritable(int column, Writable value) {
+        switch (layout.types[column]) {
+            case Double:
+                doubles[layout.slots[column]] = value.toDouble();
+                break;
+            case Integer:
+                longs[layout.slots[column]] = value.toInt();
+                break;
+            case Long:
+            case Time:
+                longs[layout.slots[column]] = value.toLong();
+                break;
+            case Categorical:
+                setCategorical(column, value.toString());
+                break;
+            default:
+                writables[layout.slots[column]] = value;
+        }
+    }
+
+    public void setDouble(int column, double value) {
+        checkType(column, ColumnType.Double);
+        doubles[layout.slots[column]] = value;
+    }
+
+    public void setLong(int column, long value) {
+        ColumnType type = layout.types[column];
+        if (type != ColumnType.Long && type != ColumnType.Time) checkType(column, ColumnType.Long);
+        longs[layout.slots[column]] = value;
+    }
+
+    public void setInt(int column, int value) {
+        checkType(column, ColumnType.Integer);
+        longs[layout.slots[column]] = value;
+    }
+
+    public void setCategoricalIndex(int column, int stateIndex) {
+        checkType(column, ColumnType.Categorical);
+        if (stateIndex < 0 || stateIndex >= layout.stateNames[column].size()) {
+            throw new IllegalArgumentException("Invalid state index for column \"" + layout.schema.getName(column)
+                    + "\": " + stateIndex + " (number of states: " + layout.stateNames[column].size() + ")");
+        }
+        longs[layout.slots[column]] = stateIndex;
+    }
+
+    /**
+     * Set the value of a Categorical column by state name
+     *
+     * @throws IllegalStateException If the value is not one of the states for the column
+     */
+    public void setCategorical(int column, String state) {
+        checkType(column, ColumnType.Categorical);
+        Integer idx = layout.stateIndexes[column].get(state);
+        if (idx == null) throw new IllegalStateException("Unknown state (index not found) for column \""
+                + layout.schema.getName(column) + "\": " + state);
+        longs[layout.slots[column]] = idx;
+    }
+
+    @Override
+    public double getDouble(int column) {
+        switch (layout.types[column]) {
+            case Double:
+                return doubles[layout.slots[column]];
+            case Integer:
+            case Long:
+            case Time:
+                return longs[layout.slots[column]];
+            case Categorical:
+                throw new IllegalStateException("Cannot get Categorical column \"" + layout.schema.getName(column)
+                        + "\" as a double: use getCategoricalIndex");
+            default:
+                return writables[layout.slots[column]].toDouble();
+        }
+    }
+
+    @Override
+    public long getLong(int column) {
+        switch (layout.types[column]) {
+            case Integer:
+            case Long:
+            case Time:
+                return longs[layout.slots[column]];
+            case Double:
+                return (long) doubles[layout.slots[column]];
+            case Categorical:
+                throw new IllegalStateException("Cannot get Categorical column \"" + layout.schema.getName(column)
+                        + "\" as a long: use getCategoricalIndex");
+            default:
+                return writables[layout.slots[column]].toLong();
+        }
+    }
+
+    @Override
+    public int getInt(int column) {
+        switch (layout.types[column]) {
+            case Integer:
+                return (int) longs[layout.slots[column]];
+            default:
+                return (int) getLong(column);
+        }
+    }
+
+    @Override
+    public int getCategoricalIndex(int column) {
+        checkType(column, ColumnType.Categorical);
+        return (int) longs[layout.slots[column]];
+    }
+
+    @Override
+    public Writable getWritable(int column) {
+        switch (layout.types[column]) {
+            case Double:
+                return new DoubleWritable(doubles[layout.slots[column]]);
+            case Integer:
+                return new IntWritable((int) longs[layout.slots[column]]);
+            case Long:
+            case Time:
+                return new LongWritable(longs[layout.slots[column]]);
+            case Categorical:
+                return new Text(layout.stateNames[column].get((int) longs[layout.slots[column]]));
+            default:
+                return writables[layout.slots[column]];
+        }
+    }
+
+    /**
+     * @return The values of this record, as a new list of Writables
+     */
+    public List<Writable> toList() {
+        int n = layout.types.length;
+        List<Writable> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(getWritable(i));
+        }
+        return out;
+    }
+
+    /**
+     * Copy the values of this record, as doubles, into the given array. If all columns are Double columns, this is a
+     * single bulk copy. Categorical columns are copied as their state index.
+     *
+     * @param out    Array to copy into
+     * @param offset Offset in the array for the first value
+     */
+    public void toDoubleArray(double[] out, int offset) {
+        int n = layout.types.length;
+        if (layout.allDouble) {
+            System.arraycopy(doubles, 0, out, offset, n);
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            switch (layout.types[i]) {
+                case Double:
+                    out[offset + i] = doubles[layout.slots[i]];
+                    break;
+                case Integer:
+                case Long:
+                case Time:
+                case Categorical:
+                    out[offset + i] = longs[layout.slots[i]];
+                    break;
+                default:
+                    out[offset + i] = writables[layout.slots[i]].toDouble();
+            }
+        }
+    }
+
+    /**
+     * @return The values of this record as a new double[]
+     * @see #toDoubleArray(double[], int)
+     */
+    public double[] toDoubleArray() {
+        double[] out = new double[layout.types.length];
+        toDoubleArray(out, 0);
+        return out;
+    }
+
+    private void checkType(int column, ColumnType expected) {
+        if (layout.types[column] != expected) {
+            throw new IllegalStateException("Column " + column + " (\"" + layout.schema.getName(column) + "\") is not a "
+                    + expected + " column: is " + layout.types[column]);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Record)) return false;
+        Record r = (Record) o;
+        return layout.schema.getColumnNames().equals(r.layout.schema.getColumnNames())
+                && Arrays.equals(layout.types, r.layout.types)
+                && Arrays.equals(doubles, r.doubles) && Arrays.equals(longs, r.longs)
+                && Arrays.equals(writables, r.writables);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(doubles);
+        result = 31 * result + Arrays.hashCode(longs);
+        result = 31 * result + Arrays.hashCode(writables);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Record(" + toList() + ")";
+    }
+
+    //Schema information shared between records
+    private static class Layout implements Serializable {
+        private final Schema schema;
+        private final ColumnType[] types;
+        private final boolean allDouble;
+        private final List<String>[] stateNames;
+        private final Map<String, Integer>[] stateIndexes;
+        //Index of each column in the array for its type (doubles, longs or writables), and the size of each array
+        private final int[] slots;
+        private final int numDoubles;
+        private final int numLongs;
+        private final int numWritables;
+
+        @SuppressWarnings("unchecked")
+        private Layout(Schema schema) {
+            this.schema = schema;
+            int n = schema.numColumns();
+            this.types = new ColumnType[n];
+            this.stateNames = new List[n];
+            this.stateIndexes = new Map[n];
+            this.slots = new int[n];
+            boolean allDouble = true;
+            int numDoubles = 0;
+            int numLongs = 0;
+            int numWritables = 0;
+            for (int i = 0; i < n; i++) {
+                types[i] = schema.getType(i);
+                allDouble &= (types[i] == ColumnType.Double);
+                switch (types[i]) {
+                    case Double:
+                        slots[i] = numDoubles++;
+                        break;
+                    case Integer:
+                    case Long:
+                    case Time:
+                    case Categorical:
+                        slots[i] = numLongs++;
+                        break;
+                    default:
+                        slots[i] = numWritables++;
+                }
+                if (types[i] == ColumnType.Categorical) {
+                    stateNames[i] = ((CategoricalMetaData) schema.getMetaData(i)).getStateNames();
+                    stateIndexes[i] = new HashMap<>();
+                    for (int j = 0; j < stateNames[i].size(); j++) {
+                        stateIndexes[i].put(stateNames[i].get(j), j);
+                    }
+                }
+            }
+            this.allDouble = allDouble;
+            this.numDoubles = numDoubles;
+            this.numLongs = numLongs;
+            this.numWritables = numWritables;
+        }
+    }
+}
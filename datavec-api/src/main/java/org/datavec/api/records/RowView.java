@@ -0,0 +1,65 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records;
+
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+/**
+ * A read-only view of a single row (example), with typed access to the values of each column.<br>
+ * Unlike a {@code Collection<Writable>}, numerical values can be read as primitives without boxing or virtual calls
+ * on each value, when the underlying implementation stores them as primitives (see {@link Record}).
+ */
+public interface RowView {
+
+    /**
+     * @return The schema of the row
+     */
+    Schema getSchema();
+
+    /**
+     * @return Number of columns in the row
+     */
+    int numColumns();
+
+    /**
+     * Get the value of a numerical (Double, Integer, Long or Time) column as a double
+     */
+    double getDouble(int column);
+
+    /**
+     * Get the value of an Integer, Long or Time column as a long
+     */
+    long getLong(int column);
+
+    /**
+     * Get the value of an Integer column as an int
+     */
+    int getInt(int column);
+
+    /**
+     * Get the index of the state of a Categorical column: i.e., the index of the value in
+     * {@link org.datavec.api.transform.metadata.CategoricalMetaData#getStateNames()}
+     */
+    int getCategoricalIndex(int column);
+
+    /**
+     * Get the value of any column as a Writable. This may create a new Writable object.
+     */
+    Writable getWritable(int column);
+
+}
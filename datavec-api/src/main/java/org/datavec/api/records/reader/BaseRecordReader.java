@@ -18,7 +18,10 @@ package org.datavec.api.records.reader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import org.datavec.api.records.Record;
 import org.datavec.api.records.listener.RecordListener;
+import org.datavec.api.writable.Writable;
 
 /**
  * Manages record listeners.
@@ -36,6 +39,31 @@ public abstract class BaseRecordReader implements RecordReader {
         }
     }
 
+    /**
+     * Default implementation: copies the values from {@link #next()} into the provided list.
+     * Record readers that can avoid allocating new records should override this.
+     */
+    @Override
+    public boolean next(List<Writable> reuse) {
+        if (!hasNext()) return false;
+        Collection<Writable> next = next();
+        reuse.clear();
+        reuse.addAll(next);
+        return true;
+    }
+
+    /**
+     * Default implementation: reads the record via {@link #next(List)}, then converts the values.
+     * Record readers that can parse values directly should override this.
+     */
+    @Override
+    public boolean next(Record record) {
+        List<Writable> values = new ArrayList<>(record.numColumns());
+        if (!next(values)) return false;
+        record.set(values);
+        return true;
+    }
+
     @Override
     public Collection<RecordListener> getListeners() {
         return listeners;
@@ -16,6 +16,7 @@
 
 package org.datavec.api.records.reader;
 
+import org.datavec.api.records.Record;
 import org.datavec.api.conf.Configurable;
 import org.datavec.api.records.listener.RecordListener;
 import org.datavec.api.split.InputSplit;
@@ -64,6 +65,27 @@ public interface RecordReader extends Closeable,Serializable,Configurable {
      */
     Collection<Writable> next();
 
+    /**
+     * Get the next record, reusing the provided list (and where possible, the writables in it) instead of allocating
+     * a new record. This is an opt-in alternative to {@link #next()} for high throughput use cases:
+     * the caller may pre-populate the list with mutable writables (such as {@link org.datavec.api.writable.DoubleWritable})
+     * which readers may set directly. Note that the contents of the list are only valid until the next call.
+     *
+     * @param reuse List to store the record in. Its contents are replaced with the next record
+     * @return True if a record was read, false if there are no more records
+     */
+    boolean next(List<Writable> reuse);
+
+    /**
+     * Get the next record, storing the values in the provided {@link Record}. Values are converted to the primitive
+     * representation of each column, as defined by the record's schema. As with {@link #next(List)}, the record is
+     * reused, and the values are only valid until the next call.
+     *
+     * @param record Record to store the values in
+     * @return True if a record was read, false if there are no more records
+     */
+    boolean next(Record record);
+
 
     /**
      * Whether there are anymore records
@@ -0,0 +1,422 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.SequenceRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.writable.Writable;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A RecordReader decorator that prefetches records from another RecordReader (or SequenceRecordReader)
+ * in the background.<br>
+ * Records (or sequences) are read from the underlying reader on a dedicated reader thread, and the (optional)
+ * {@link TransformProcess} is then executed on a pool of worker threads. Results are made available to the consumer
+ * via a bounded buffer, so at most bufferSize records are read ahead of the consumer.<br>
+ * In ordered mode (the default), records are returned in the same order as the underlying reader; in unordered
+ * mode, records are returned as soon as they are available. Records removed by a filter in the TransformProcess
+ * are skipped.<br>
+ * Whether {@link #next()} or {@link #sequenceRecord()} should be used depends on the type of the underlying reader:
+ * a SequenceRecordReader is read via sequenceRecord(), any other reader via next().
+ * Note that the underlying reader is only ever accessed from one thread at a time.
+ */
+public class AsyncRecordReader extends BaseRecordReader implements SequenceRecordReader {
+
+    public static final int DEFAULT_BUFFER_SIZE = 128;
+
+    private static final Object END = new Object();
+
+    private final RecordReader underlying;
+    private final boolean sequence;
+    private final TransformProcess transformProcess;
+    private final int numWorkers;
+    private final int bufferSize;
+    private final boolean ordered;
+
+    private transient ExecutorService workers;
+    private transient Thread readerThread;
+    private transient volatile boolean stopped;
+    private transient BlockingQueue<Object> queue;
+    private transient Semaphore permits;
+    private transient Object nextItem;
+    private transient boolean exhausted;
+
+    private AsyncRecordReader(Builder builder) {
+        this.underlying = builder.underlying;
+        this.sequence = builder.underlying instanceof SequenceRecordReader;
+        this.transformProcess = builder.transformProcess;
+        this.numWorkers = builder.numWorkers;
+        this.bufferSize = builder.bufferSize;
+        this.ordered = builder.ordered;
+    }
+
+    /**
+     * Create an AsyncRecordReader with the default settings: ordered, 1 worker thread, no transform process
+     *
+     * @param underlying Reader to prefetch records from
+     */
+    public AsyncRecordReader(RecordReader underlying) {
+        this(new Builder(underlying));
+    }
+
+    public RecordReader getUnderlying() {
+        return underlying;
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        stop();
+        underlying.initialize(split);
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        stop();
+        underlying.initialize(conf, split);
+    }
+
+    @Override
+    public Collection<Writable> next() {
+        if (sequence)
+            throw new UnsupportedOperationException("Underlying reader is a SequenceRecordReader: use sequenceRecord() instead");
+        return nextItem();
+    }
+
+    @Override
+    public Collection<Collection<Writable>> sequenceRecord() {
+        if (!sequence)
+            throw new UnsupportedOperationException("Underlying reader is not a SequenceRecordReader: use next() instead");
+        return nextItem();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextItem != null) return true;
+        if (exhausted) return false;
+        if (readerThread == null) start();
+
+        try {
+            while (true) {
+                Object o = queue.take();
+                if (ordered && o instanceof Future) {
+                    o = ((Future<?>) o).get();
+                }
+                if (o == END) {
+                    exhausted = true;
+                    return false;
+                }
+                if (!ordered) permits.release();
+                if (o instanceof Failure) {
+                    exhausted = true;
+                    throw new RuntimeException("Error in AsyncRecordReader background thread", ((Failure) o).cause);
+                }
+                if (o != Filtered.INSTANCE) {
+                    nextItem = o;
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for next record", e);
+        } catch (ExecutionException e) {
+            exhausted = true;
+            throw new RuntimeException("Error executing transform process in AsyncRecordReader", e.getCause());
+        }
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return underlying.getLabels();
+    }
+
+    @Override
+    public void reset() {
+        stop();
+        underlying.reset();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        Object out = process(underlying.record(uri, dataInputStream));
+        return (out == Filtered.INSTANCE ? null : (Collection<Writable>) out);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<Collection<Writable>> sequenceRecord(URI uri, DataInputStream dataInputStream) throws IOException {
+        if (!sequence)
+            throw new UnsupportedOperationException("Underlying reader is not a SequenceRecordReader");
+        Object out = process(((SequenceRecordReader) underlying).sequenceRecord(uri, dataInputStream));
+        return (out == Filtered.INSTANCE ? null : (Collection<Collection<Writable>>) out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+        underlying.close();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        underlying.setConf(conf);
+    }
+
+    @Override
+    public Configuration getConf() {
+        return underlying.getConf();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T nextItem() {
+        if (!hasNext()) throw new NoSuchElementException("No more elements found!");
+        Object out = nextItem;
+        nextItem = null;
+        invokeListeners(out);
+        return (T) out;
+    }
+
+    /**
+     * Execute the transform process (if any) on a single record or sequence
+     */
+    @SuppressWarnings("unchecked")
+    private Object process(Object raw) {
+        if (transformProcess == null) return raw;
+        Object out;
+        if (sequence) {
+            Collection<Collection<Writable>> seq = (Collection<Collection<Writable>>) raw;
+            List<List<Writable>> list = new ArrayList<>(seq.size());
+            for (Collection<Writable> step : seq) {
+                list.add(step instanceof List ? (List<Writable>) step : new ArrayList<>(step));
+            }
+            out = transformProcess.executeSequenceToSequence(list);
+        } else {
+            Collection<Writable> record = (Collection<Writable>) raw;
+            out = transformProcess.execute(record instanceof List ? (List<Writable>) record : new ArrayList<>(record));
+        }
+        return (out == null ? Filtered.INSTANCE : out);
+    }
+
+    private void start() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(numWorkers, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "AsyncRecordReader-worker-" + count.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+
+        stopped = false;
+        exhausted = false;
+        nextItem = null;
+        //New queue and permits for each run: any tasks still running from a previous run can't affect this one
+        final BlockingQueue<Object> q = (ordered ? new ArrayBlockingQueue<>(bufferSize) : new LinkedBlockingQueue<>());
+        final Semaphore p = new Semaphore(bufferSize);
+        queue = q;
+        permits = p;
+
+        readerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                if (ordered) {
+                    readOrdered(q);
+                } else {
+                    readUnordered(q, p);
+                }
+            }
+        }, "AsyncRecordReader-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    private Object readRaw() {
+        return (sequence ? ((SequenceRecordReader) underlying).sequenceRecord() : underlying.next());
+    }
+
+    private void readOrdered(BlockingQueue<Object> q) {
+        try {
+            while (!stopped && underlying.hasNext()) {
+                final Object raw = readRaw();
+                q.put(workers.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        return process(raw);
+                    }
+                }));
+            }
+            q.put(END);
+        } catch (InterruptedException e) {
+            //Stopped via reset/close
+        } catch (Throwable t) {
+            if (stopped) return;
+            //Block (rather than offer) so the failure isn't lost when the queue is full; interrupted by reset/close
+            try {
+                q.put(new Failure(t));
+            } catch (InterruptedException e) {
+                //Stopped via reset/close
+            }
+        }
+    }
+
+    private void readUnordered(final BlockingQueue<Object> q, Semaphore p) {
+        //One count for the reader thread, plus one for each in-flight task. Whoever decrements to 0 adds the END marker
+        final AtomicInteger pending = new AtomicInteger(1);
+        try {
+            while (!stopped && underlying.hasNext()) {
+                p.acquire();
+                final Object raw = readRaw();
+                pending.incrementAndGet();
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        Object out;
+                        try {
+                            out = process(raw);
+                        } catch (Throwable t) {
+                            out = new Failure(t);
+                        }
+                        q.add(out);
+                        if (pending.decrementAndGet() == 0) q.add(END);
+                    }
+                });
+            }
+            if (pending.decrementAndGet() == 0) q.add(END);
+        } catch (InterruptedException e) {
+            //Stopped via reset/close
+        } catch (Throwable t) {
+            if (!stopped) q.add(new Failure(t));
+        }
+    }
+
+    /**
+     * Stop the reader thread (if running) and discard any prefetched records
+     */
+    private void stop() {
+        stopped = true;
+        if (readerThread != null) {
+            readerThread.interrupt();
+            try {
+                readerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            readerThread = null;
+        }
+        if (queue != null && ordered) {
+            for (Object o : queue) {
+                if (o instanceof Future) ((Future<?>) o).cancel(true);
+            }
+        }
+        queue = null;
+        permits = null;
+        nextItem = null;
+        exhausted = false;
+    }
+
+    private static class Filtered {
+        private static final Filtered INSTANCE = new Filtered();
+    }
+
+    private static class Failure {
+        private final Throwable cause;
+
+        private Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Builder for AsyncRecordReader
+     */
+    public static class Builder {
+
+        private final RecordReader underlying;
+        private TransformProcess transformProcess;
+        private int numWorkers = 1;
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+        private boolean ordered = true;
+
+        /**
+         * @param underlying Reader to prefetch records from. If the reader is a {@link SequenceRecordReader}, sequences
+         *                   are read via {@link SequenceRecordReader#sequenceRecord()}; otherwise records are read via
+         *                   {@link RecordReader#next()}
+         */
+        public Builder(RecordReader underlying) {
+            if (underlying == null) throw new IllegalArgumentException("Underlying record reader cannot be null");
+            this.underlying = underlying;
+        }
+
+        /**
+         * Optional transform process to execute on each record (or sequence) on the worker threads.
+         * For sequences, {@link TransformProcess#executeSequenceToSequence(List)} is used.
+         */
+        public Builder transformProcess(TransformProcess transformProcess) {
+            this.transformProcess = transformProcess;
+            return this;
+        }
+
+        /**
+         * Number of worker threads used to execute the transform process. Default: 1
+         */
+        public Builder numWorkers(int numWorkers) {
+            if (numWorkers <= 0) throw new IllegalArgumentException("Number of workers must be positive: got " + numWorkers);
+            this.numWorkers = numWorkers;
+            return this;
+        }
+
+        /**
+         * Maximum number of records to read ahead of the consumer. Default: {@link #DEFAULT_BUFFER_SIZE}
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive: got " + bufferSize);
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * If true (default): records are returned in the same order as the underlying reader returns them.
+         * If false: records are returned in whatever order the workers finish them.
+         */
+        public Builder ordered(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        public AsyncRecordReader build() {
+            return new AsyncRecordReader(this);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import java.util.*;
 public class FileRecordReader extends BaseRecordReader {
 
     protected Iterator<File> iter;
+    protected List<File> files;
     protected Configuration conf;
     protected File currentFile;
     protected List<String> labels;
@@ -80,15 +81,16 @@ public class FileRecordReader extends BaseRecordReader {
                         allFiles.add(iter);
                 }
 
-                iter = allFiles.listIterator();
+                files = allFiles;
             }
             else {
                 File curr = new File(locations[0]);
                 if(curr.isDirectory())
-                    iter = FileUtils.iterateFiles(curr,null,true);
+                    files = new ArrayList<>(FileUtils.listFiles(curr,null,true));
                 else
-                    iter = Collections.singletonList(curr).iterator();
+                    files = Collections.singletonList(curr);
             }
+            iter = files.iterator();
         }
 
     }
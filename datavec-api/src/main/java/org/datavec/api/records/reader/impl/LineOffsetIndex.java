@@ -0,0 +1,221 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records.reader.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An index of the byte offsets at which each record (line) of a text file starts, allowing records to be read
+ * in any order.<br>
+ * Lines may be terminated by LF, CRLF or CR. If a quote character is specified, line breaks within quoted fields
+ * (RFC 4180 style, as supported by {@link org.datavec.api.records.reader.impl.csv.CSVByteTokenizer}) do not start
+ * a new record.<br>
+ * Indexes are persisted to a sidecar file (the data file name plus {@link #INDEX_FILE_EXTENSION}) so that they
+ * only need to be built once per file. The sidecar is memory mapped when loaded, and is rebuilt automatically if
+ * the length or modification time of the data file changes.<br>
+ * Sidecar layout (big-endian): int MAGIC, int VERSION, long fileLength, long lastModified, int delimiter,
+ * int quote, long numRecords, then one long offset per record.
+ */
+public class LineOffsetIndex {
+    private static Logger log = LoggerFactory.getLogger(LineOffsetIndex.class);
+
+    public static final String INDEX_FILE_EXTENSION = ".idx";
+    public static final int MAGIC = 0x44564c49;     //"DVLI"
+    public static final int VERSION = 1;
+    /** Value for the quote character to use when records do not contain quoted fields */
+    public static final int NO_QUOTE = -1;
+
+    private static final int HEADER_BYTES = 40;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long fileLength;
+    private final LongBuffer offsets;
+
+    private LineOffsetIndex(long fileLength, LongBuffer offsets) {
+        this.fileLength = fileLength;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Load the index for the given (unquoted) file from its sidecar file, or build (and persist) it if the sidecar
+     * does not exist or is out of date
+     */
+    public static LineOffsetIndex loadOrBuild(File file) throws IOException {
+        return loadOrBuild(file, NO_QUOTE, NO_QUOTE);
+    }
+
+    /**
+     * Load the index for the given file from its sidecar file, or build (and persist) it if the sidecar
+     * does not exist or is out of date.
+     *
+     * @param file      Data file
+     * @param delimiter Field delimiter (used to detect the start of quoted fields), or {@link #NO_QUOTE}
+     * @param quote     Quote character, or {@link #NO_QUOTE} if line breaks always terminate a record
+     */
+    public static LineOffsetIndex loadOrBuild(File file, int delimiter, int quote) throws IOException {
+        File indexFile = new File(file.getPath() + INDEX_FILE_EXTENSION);
+        if (indexFile.exists()) {
+            LineOffsetIndex index = load(file, indexFile, delimiter, quote);
+            if (index != null) return index;
+        }
+
+        long[] offsets = build(file, delimiter, quote);
+        try {
+            write(file, indexFile, offsets, delimiter, quote);
+        } catch (IOException e) {
+            //Not fatal: for example, the directory may be read-only
+            log.warn("Could not write line offset index file {}: {}", indexFile, e.getMessage());
+        }
+        return new LineOffsetIndex(file.length(), LongBuffer.wrap(offsets));
+    }
+
+    /**
+     * Scan the file and return the offsets of the start of each record
+     */
+    public static long[] build(File file, int delimiter, int quote) throws IOException {
+        long[] offsets = new long[1024];
+        int count = 0;
+        long fileLength = file.length();
+        if (fileLength == 0) return new long[0];
+        offsets[count++] = 0;
+
+        boolean inQuotes = false;
+        boolean atFieldStart = true;
+        boolean closedQuote = false;   //Previous byte closed a quoted section: a quote now is an escaped quote
+        boolean prevCR = false;
+        boolean quoted = (quote != NO_QUOTE);
+        long pos = 0;
+        byte[] buf = new byte[BUFFER_SIZE];
+        try (InputStream is = new FileInputStream(file)) {
+            int n;
+            while ((n = is.read(buf)) != -1) {
+                for (int i = 0; i < n; i++, pos++) {
+                    byte b = buf[i];
+                    if (prevCR) {
+                        prevCR = false;
+                        if (b == '\n') {
+                            //CRLF: the record starts after the LF
+                            offsets[count - 1] = pos + 1;
+                            continue;
+                        }
+                    }
+
+                    if (inQuotes) {
+                        if (b == quote) {
+                            inQuotes = false;
+                            closedQuote = true;
+                        }
+                        continue;
+                    }
+                    if (quoted && b == quote && (atFieldStart || closedQuote)) {
+                        inQuotes = true;
+                        atFieldStart = false;
+                        closedQuote = false;
+                        continue;
+                    }
+                    closedQuote = false;
+
+                    if (b == '\n' || b == '\r') {
+                        if (count == offsets.length) {
+                            long[] tmp = new long[offsets.length * 2];
+                            System.arraycopy(offsets, 0, tmp, 0, count);
+                            offsets = tmp;
+                        }
+                        offsets[count++] = pos + 1;
+                        prevCR = (b == '\r');
+                        atFieldStart = true;
+                    } else {
+                        atFieldStart = (quoted && b == delimiter);
+                    }
+                }
+            }
+        }
+
+        //No record starts at the very end of the file (i.e., after a final line terminator)
+        if (offsets[count - 1] >= fileLength) count--;
+
+        long[] out = new long[count];
+        System.arraycopy(offsets, 0, out, 0, count);
+        return out;
+    }
+
+    private static void write(File file, File indexFile, long[] offsets, int delimiter, int quote) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile), BUFFER_SIZE))) {
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeLong(file.length());
+            dos.writeLong(file.lastModified());
+            dos.writeInt(delimiter);
+            dos.writeInt(quote);
+            dos.writeLong(offsets.length);
+            for (long l : offsets) dos.writeLong(l);
+        }
+    }
+
+    /**
+     * Load the index from the sidecar file. Returns null if the sidecar is invalid or out of date
+     */
+    private static LineOffsetIndex load(File file, File indexFile, int delimiter, int quote) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) return null;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) ;
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) return null;
+            if (header.getLong() != file.length() || header.getLong() != file.lastModified()) return null;
+            if (header.getInt() != delimiter || header.getInt() != quote) return null;
+            long numRecords = header.getLong();
+            if (size != HEADER_BYTES + 8 * numRecords) return null;
+            if (numRecords > Integer.MAX_VALUE / 8) {
+                throw new UnsupportedOperationException("Line offset indexes are limited to " + (Integer.MAX_VALUE / 8)
+                        + " records; file " + file + " has " + numRecords);
+            }
+            LongBuffer offsets = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, 8 * numRecords).asLongBuffer();
+            return new LineOffsetIndex(file.length(), offsets);
+        }
+    }
+
+    /**
+     * @return Number of records in the file
+     */
+    public int numRecords() {
+        return offsets.limit();
+    }
+
+    /**
+     * @return Offset of the first byte of the given record
+     */
+    public long getStart(int record) {
+        return offsets.get(record);
+    }
+
+    /**
+     * @return Offset one past the last byte of the given record, including its line terminator (if any)
+     */
+    public long getEnd(int record) {
+        return (record + 1 < offsets.limit() ? offsets.get(record + 1) : fileLength);
+    }
+}
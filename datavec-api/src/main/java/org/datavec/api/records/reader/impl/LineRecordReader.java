@@ -24,6 +24,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.ByteRangeSplit;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.split.InputStreamInputSplit;
 import org.datavec.api.split.StringSplit;
@@ -32,6 +33,10 @@ import org.datavec.api.writable.Writable;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
@@ -48,16 +53,32 @@ public class LineRecordReader extends BaseRecordReader {
     protected Configuration conf;
     protected InputSplit inputSplit;
 
+    //Random access: one line offset index (and open channel) per location, built on first use
+    private transient InputSplit indexedSplit;
+    private transient LineOffsetIndex[] indexes;
+    private transient FileChannel[] indexChannels;
+    private transient int[] indexFirstRecord;
+    private transient int[] indexSkipRecords;
+    private transient ByteBuffer indexBuffer;
+
     @Override
     public void initialize(InputSplit split) throws IOException, InterruptedException {
+        this.currIndex = 0;
         if(split instanceof StringSplit) {
             StringSplit stringSplit = (StringSplit) split;
+            this.locations = null;
             iter = Arrays.asList(stringSplit.getData()).listIterator();
         } else if (split instanceof InputStreamInputSplit){
+            //Reset the locations, in case this reader is being reused: the stream is the only location
+            this.locations = null;
             InputStream is = ((InputStreamInputSplit) split).getIs();
             if(is != null){
                 iter =  IOUtils.lineIterator(new InputStreamReader(is));
             }
+        } else if (split instanceof ByteRangeSplit) {
+            //Single file: only read the lines that start within the split's byte range
+            this.locations = split.locations();
+            iter = IOUtils.lineIterator(new InputStreamReader(((ByteRangeSplit) split).openStream()));
         } else {
             this.locations = split.locations();
             if (locations != null && locations.length > 0) {
@@ -85,7 +106,7 @@ public class LineRecordReader extends BaseRecordReader {
             if ( !(inputSplit instanceof StringSplit) && currIndex < locations.length-1 ) {
                 currIndex++;
                 try {
-                    close();
+                    closeIterator();
                     iter = IOUtils.lineIterator(new InputStreamReader(locations[currIndex].toURL().openStream()));
                     onLocationOpen(locations[currIndex]);
                 } catch (IOException e) {
@@ -112,7 +133,7 @@ public class LineRecordReader extends BaseRecordReader {
             if (locations != null && !(inputSplit instanceof StringSplit) && currIndex < locations.length-1 ) {
                 currIndex++;
                 try {
-                    close();
+                    closeIterator();
                     iter = IOUtils.lineIterator(new InputStreamReader(locations[currIndex].toURL().openStream()));
                     onLocationOpen(locations[currIndex]);
                 } catch (IOException e) {
@@ -130,8 +151,156 @@ public class LineRecordReader extends BaseRecordReader {
 
     }
 
+    /**
+     * Get the total number of records in the input split, using a (persisted) line offset index.
+     * See {@link #next(int)}
+     */
+    public int numRecords() {
+        ensureIndex();
+        return indexFirstRecord[indexFirstRecord.length - 1];
+    }
+
+    /**
+     * Get the record with the given index, in the order in which records would be returned by {@link #next()}.
+     * Records are located using a {@link LineOffsetIndex} for each file, which is built (and saved as a sidecar file)
+     * on first use, so after the first call the cost of this method is independent of the index. Unlike
+     * {@link #next()}, the position of the reader is not modified.<br>
+     * Only supported for input splits containing local files.
+     *
+     * @param index Index of the record, between 0 and {@link #numRecords()}-1
+     */
+    public Collection<Writable> next(int index) {
+        ensureIndex();
+        if (index < 0 || index >= indexFirstRecord[indexFirstRecord.length - 1]) {
+            throw new IllegalArgumentException("Invalid record index: " + index + " (number of records: "
+                    + indexFirstRecord[indexFirstRecord.length - 1] + ")");
+        }
+        int loc = Arrays.binarySearch(indexFirstRecord, index);
+        if (loc < 0) loc = -loc - 2;
+        while (indexFirstRecord[loc + 1] == index) loc++;     //Skip locations with no records
+        int record = index - indexFirstRecord[loc] + indexSkipRecords[loc];
+
+        LineOffsetIndex idx = indexes[loc];
+        long start = idx.getStart(record);
+        int length = (int) (idx.getEnd(record) - start);
+        if (indexBuffer == null || indexBuffer.capacity() < length) {
+            indexBuffer = ByteBuffer.allocate(Math.max(length, 1024));
+        }
+        indexBuffer.clear();
+        indexBuffer.limit(length);
+        try {
+            while (indexBuffer.hasRemaining()) {
+                if (indexChannels[loc].read(indexBuffer, start + indexBuffer.position()) < 0) break;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading record " + index, e);
+        }
+        Collection<Writable> out = parseIndexedRecord(indexBuffer.array(), indexBuffer.position());
+        invokeListeners(out);
+        return out;
+    }
+
+    /**
+     * Load the records with the given indices (see {@link #next(int)}), in the order specified
+     */
+    public List<Collection<Writable>> loadFromIndex(int[] indices) {
+        List<Collection<Writable>> out = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            out.add(next(i));
+        }
+        return out;
+    }
+
+    /**
+     * Parse a record read via {@link #next(int)}
+     *
+     * @param bytes  Raw bytes of the record, including the line terminator (if any)
+     * @param length Number of bytes
+     */
+    protected Collection<Writable> parseIndexedRecord(byte[] bytes, int length) {
+        return Collections.singletonList((Writable) new Text(new String(bytes, 0, trimLineEnding(bytes, length), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return The length of the record, excluding any trailing line terminator
+     */
+    protected static int trimLineEnding(byte[] bytes, int length) {
+        while (length > 0 && (bytes[length - 1] == '\n' || bytes[length - 1] == '\r')) length--;
+        return length;
+    }
+
+    /**
+     * Build or load the line offset index for a location. Subclasses may override this to build an index that
+     * accounts for quoted line breaks
+     */
+    protected LineOffsetIndex loadIndex(File file) throws IOException {
+        return LineOffsetIndex.loadOrBuild(file);
+    }
+
+    /**
+     * Number of records at the start of the given location that are not returned by the reader (i.e., header lines)
+     */
+    protected int numSkippedRecords(int locationIndex) {
+        return 0;
+    }
+
+    private void ensureIndex() {
+        if (inputSplit == null) throw new UnsupportedOperationException("Cannot access records by index without first initializing");
+        if (indexes != null && indexedSplit == inputSplit) return;
+        if (inputSplit instanceof StringSplit || inputSplit instanceof InputStreamInputSplit || inputSplit instanceof ByteRangeSplit) {
+            throw new UnsupportedOperationException("Access by record index is only supported for splits of local files; got "
+                    + inputSplit.getClass().getSimpleName());
+        }
+        closeIndex();
+        URI[] locs = inputSplit.locations();
+        int n = (locs == null ? 0 : locs.length);
+        indexes = new LineOffsetIndex[n];
+        indexChannels = new FileChannel[n];
+        indexFirstRecord = new int[n + 1];
+        indexSkipRecords = new int[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                File f = new File(locs[i]);
+                indexes[i] = loadIndex(f);
+                indexChannels[i] = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+                indexSkipRecords[i] = Math.min(numSkippedRecords(i), indexes[i].numRecords());
+                long count = (long) indexFirstRecord[i] + indexes[i].numRecords() - indexSkipRecords[i];
+                if (count > Integer.MAX_VALUE) throw new UnsupportedOperationException("Too many records for access by index: " + count);
+                indexFirstRecord[i + 1] = (int) count;
+            }
+        } catch (IOException e) {
+            closeIndex();
+            throw new RuntimeException("Error building line offset index", e);
+        }
+        indexedSplit = inputSplit;
+    }
+
+    private void closeIndex() {
+        if (indexChannels != null) {
+            for (FileChannel c : indexChannels) {
+                if (c == null) continue;
+                try {
+                    c.close();
+                } catch (IOException e) {
+                    //Ignore
+                }
+            }
+        }
+        indexes = null;
+        indexChannels = null;
+        indexedSplit = null;
+    }
+
     @Override
     public void close() throws IOException {
+        closeIndex();
+        closeIterator();
+    }
+
+    /**
+     * Close the iterator over the current location (but not the index used for random access)
+     */
+    protected void closeIterator() throws IOException {
         if(iter != null) {
             if(iter instanceof LineIterator) {
                 LineIterator iter2 = (LineIterator) iter;
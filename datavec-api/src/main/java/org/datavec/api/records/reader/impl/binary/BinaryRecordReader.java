@@ -0,0 +1,317 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records.reader.impl.binary;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.records.writer.impl.binary.BinaryRecordWriter;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Reads binary record files, as written by {@link BinaryRecordWriter}.<br>
+ * The data section of the file is memory mapped: values are read directly from the mapped buffer by offset, with no
+ * parsing. Records can be accessed in any order by index (see {@link #seek(long)} and {@link #getRecord(long)}),
+ * and {@link #reset()} is O(1), so repeated passes over the data run at disk (or page cache) speed.<br>
+ * The schema of the data is stored in the file, and is available via {@link #getSchema()} after initialization.
+ * The input split must contain exactly one file.
+ */
+public class BinaryRecordReader extends BaseRecordReader {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private Schema schema;
+    private ColumnType[] types;
+    private int[] columnOffsets;
+    private String[][] categoricalStates;
+    private String[] dictionary;
+    private int rowWidth;
+    private long numRecords;
+    private long position;
+    private Configuration conf;
+
+    //Each chunk maps a whole number of rows, as a single MappedByteBuffer is limited to 2GB
+    private int rowsPerChunk;
+    private transient ByteBuffer[] chunks;
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        URI[] locations = split.locations();
+        if (locations == null || locations.length != 1) {
+            throw new IllegalArgumentException("BinaryRecordReader requires an input split with exactly one location; got "
+                    + (locations == null ? 0 : locations.length));
+        }
+        open(new File(locations[0]));
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        setConf(conf);
+        initialize(split);
+    }
+
+    private void open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            if (length < BinaryRecordWriter.HEADER_BYTES + BinaryRecordWriter.TRAILER_BYTES) {
+                throw new IOException("Invalid binary record file (too short): " + file);
+            }
+            if (raf.readInt() != BinaryRecordWriter.MAGIC) {
+                throw new IOException("Invalid binary record file (bad header): " + file);
+            }
+            int version = raf.readInt();
+            if (version != BinaryRecordWriter.VERSION) {
+                throw new IOException("Unsupported binary record file version: " + version);
+            }
+            int numColumns = raf.readInt();
+            rowWidth = raf.readInt();
+
+            raf.seek(length - BinaryRecordWriter.TRAILER_BYTES);
+            numRecords = raf.readLong();
+            long footerOffset = raf.readLong();
+            if (raf.readInt() != BinaryRecordWriter.MAGIC) {
+                throw new IOException("Invalid binary record file (bad trailer; file may not have been closed): " + file);
+            }
+
+            //Footer: dictionary, then schema
+            byte[] footer = new byte[(int) (length - BinaryRecordWriter.TRAILER_BYTES - footerOffset)];
+            raf.seek(footerOffset);
+            raf.readFully(footer);
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(footer));
+            dictionary = new String[dis.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] b = new byte[dis.readInt()];
+                dis.readFully(b);
+                dictionary[i] = new String(b, UTF8);
+            }
+            byte[] schemaBytes = new byte[dis.readInt()];
+            dis.readFully(schemaBytes);
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(schemaBytes))) {
+                schema = (Schema) ois.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Could not read schema from binary record file", e);
+            }
+            if (schema.numColumns() != numColumns) {
+                throw new IOException("Invalid binary record file: header has " + numColumns
+                        + " columns, schema has " + schema.numColumns());
+            }
+
+            types = new ColumnType[numColumns];
+            columnOffsets = new int[numColumns];
+            categoricalStates = new String[numColumns][];
+            int offset = 0;
+            for (int i = 0; i < numColumns; i++) {
+                types[i] = schema.getType(i);
+                columnOffsets[i] = offset;
+                offset += BinaryRecordWriter.columnWidth(types[i]);
+                if (types[i] == ColumnType.Categorical) {
+                    List<String> states = ((CategoricalMetaData) schema.getMetaData(i)).getStateNames();
+                    categoricalStates[i] = states.toArray(new String[states.size()]);
+                }
+            }
+
+            //Map the data section
+            rowsPerChunk = Math.max(1, Integer.MAX_VALUE / Math.max(1, rowWidth));
+            int numChunks = (int) ((numRecords + rowsPerChunk - 1) / rowsPerChunk);
+            chunks = new ByteBuffer[numChunks];
+            FileChannel channel = raf.getChannel();
+            for (int i = 0; i < numChunks; i++) {
+                long firstRow = (long) i * rowsPerChunk;
+                long rows = Math.min(rowsPerChunk, numRecords - firstRow);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        BinaryRecordWriter.HEADER_BYTES + firstRow * rowWidth, rows * rowWidth);
+            }
+        }
+        position = 0;
+    }
+
+    /**
+     * @return The schema of the data in the file
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return Total number of records in the file
+     */
+    public long numRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Set the index of the record that will be returned by the next call to next()
+     */
+    public void seek(long recordIndex) {
+        if (recordIndex < 0 || recordIndex > numRecords) {
+            throw new IllegalArgumentException("Invalid record index: " + recordIndex + " (number of records: " + numRecords + ")");
+        }
+        position = recordIndex;
+    }
+
+    /**
+     * Get the record with the given index. Unlike {@link #next()}, the position of the reader is not modified
+     */
+    public List<Writable> getRecord(long recordIndex) {
+        if (recordIndex < 0 || recordIndex >= numRecords) {
+            throw new IllegalArgumentException("Invalid record index: " + recordIndex + " (number of records: " + numRecords + ")");
+        }
+        List<Writable> out = new ArrayList<>(types.length);
+        ByteBuffer buffer = chunks[(int) (recordIndex / rowsPerChunk)];
+        int rowStart = (int) (recordIndex % rowsPerChunk) * rowWidth;
+        for (int i = 0; i < types.length; i++) {
+            out.add(readWritable(buffer, rowStart, i));
+        }
+        return out;
+    }
+
+    private Writable readWritable(ByteBuffer buffer, int rowStart, int column) {
+        int pos = rowStart + columnOffsets[column];
+        switch (types[column]) {
+            case Double:
+                return new DoubleWritable(buffer.getDouble(pos));
+            case Integer:
+                return new IntWritable(buffer.getInt(pos));
+            case Long:
+            case Time:
+                return new LongWritable(buffer.getLong(pos));
+            case Categorical:
+                return new Text(categoricalStates[column][buffer.getInt(pos)]);
+            default:
+                return new Text(dictionary[buffer.getInt(pos)]);
+        }
+    }
+
+    @Override
+    public Collection<Writable> next() {
+        if (!hasNext()) throw new NoSuchElementException("No next element");
+        List<Writable> out = getRecord(position++);
+        invokeListeners(out);
+        return out;
+    }
+
+    @Override
+    public boolean next(List<Writable> reuse) {
+        if (!hasNext()) return false;
+        long recordIndex = position++;
+        ByteBuffer buffer = chunks[(int) (recordIndex / rowsPerChunk)];
+        int rowStart = (int) (recordIndex % rowsPerChunk) * rowWidth;
+        for (int i = 0; i < types.length; i++) {
+            Writable w = (i < reuse.size() ? reuse.get(i) : null);
+            int pos = rowStart + columnOffsets[i];
+            if (types[i] == ColumnType.Double && w instanceof DoubleWritable) {
+                ((DoubleWritable) w).set(buffer.getDouble(pos));
+            } else if (types[i] == ColumnType.Integer && w instanceof IntWritable) {
+                ((IntWritable) w).set(buffer.getInt(pos));
+            } else if ((types[i] == ColumnType.Long || types[i] == ColumnType.Time) && w instanceof LongWritable) {
+                ((LongWritable) w).set(buffer.getLong(pos));
+            } else {
+                w = readWritable(buffer, rowStart, i);
+                if (i < reuse.size()) reuse.set(i, w);
+                else reuse.add(w);
+            }
+        }
+        while (reuse.size() > types.length) reuse.remove(reuse.size() - 1);
+        invokeListeners(reuse);
+        return true;
+    }
+
+    /**
+     * Read the next record into the provided Record. Numerical and categorical values are copied directly from the
+     * mapped file, without creating any Writables
+     */
+    @Override
+    public boolean next(Record record) {
+        if (!hasNext()) return false;
+        if (record.numColumns() != types.length) {
+            throw new IllegalStateException("Cannot read record: number of values (" + types.length + ") does not match number " +
+                    "of columns in record schema (" + record.numColumns() + ")");
+        }
+        long recordIndex = position++;
+        ByteBuffer buffer = chunks[(int) (recordIndex / rowsPerChunk)];
+        int rowStart = (int) (recordIndex % rowsPerChunk) * rowWidth;
+        for (int i = 0; i < types.length; i++) {
+            int pos = rowStart + columnOffsets[i];
+            switch (types[i]) {
+                case Double:
+                    record.setDouble(i, buffer.getDouble(pos));
+                    break;
+                case Integer:
+                    record.setInt(i, buffer.getInt(pos));
+                    break;
+                case Long:
+                case Time:
+                    record.setLong(i, buffer.getLong(pos));
+                    break;
+                case Categorical:
+                    record.setCategoricalIndex(i, buffer.getInt(pos));
+                    break;
+                default:
+                    record.setWritable(i, new Text(dictionary[buffer.getInt(pos)]));
+            }
+        }
+        invokeListeners(record);
+        return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return chunks != null && position < numRecords;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+    }
+
+    @Override
+    public Collection<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        throw new UnsupportedOperationException("Reading binary record data from DataInputStream not supported");
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunks = null;
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+}
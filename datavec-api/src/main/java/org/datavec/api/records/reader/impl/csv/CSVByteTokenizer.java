@@ -0,0 +1,374 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.csv;
+
+import org.datavec.api.writable.Text;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single pass, byte level CSV tokenizer.<br>
+ * Scans the raw UTF-8 bytes of a {@link ReadableByteChannel} for delimiters, quotes and line endings,
+ * and exposes the fields of the current record as offset/length views into a reusable buffer.
+ * No intermediate Strings are created unless explicitly requested via {@link #getString(int)}.<br>
+ * Quoting follows RFC 4180: a field starting with the quote character may contain delimiters, line breaks
+ * and doubled (escaped) quote characters. Escaped quotes are collapsed in place in the buffer.<br>
+ * Records may be terminated by LF, CRLF or CR.<br>
+ * The channel must be in blocking mode: reads wait for data to become available.<br>
+ * Field views are only valid until the next call to {@link #nextRecord()}.
+ */
+public class CSVByteTokenizer implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final char DEFAULT_QUOTE = '"';
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final double[] POWERS_OF_10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15};
+
+    private final byte delimiter;
+    private final byte quote;
+
+    private ReadableByteChannel channel;
+    private byte[] buf;
+    private ByteBuffer byteBuffer;
+    private int pos;
+    private int limit;
+    private int recordStart;
+    private boolean eof;
+
+    private int numFields;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldLengths = new int[16];
+
+    public CSVByteTokenizer(ReadableByteChannel channel, char delimiter) {
+        this(channel, delimiter, DEFAULT_QUOTE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel    Channel to read from. Must be in blocking mode. May be null, in which case
+     *                   {@link #reset(ReadableByteChannel)} must be called before reading
+     * @param delimiter  Field delimiter. Must be a single byte (ASCII) character
+     * @param quote      Quote character. Must be a single byte (ASCII) character
+     * @param bufferSize Initial buffer size, in bytes. The buffer grows as required for records longer than this
+     */
+    public CSVByteTokenizer(ReadableByteChannel channel, char delimiter, char quote, int bufferSize) {
+        if (!isSingleByte(delimiter)) throw new IllegalArgumentException("Delimiter must be a single byte (ASCII) character: got \"" + delimiter + "\"");
+        if (!isSingleByte(quote)) throw new IllegalArgumentException("Quote must be a single byte (ASCII) character: got \"" + quote + "\"");
+        if (delimiter == quote) throw new IllegalArgumentException("Delimiter and quote characters must differ");
+        if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive: got " + bufferSize);
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.buf = new byte[bufferSize];
+        this.byteBuffer = ByteBuffer.wrap(buf);
+        reset(channel);
+    }
+
+    /**
+     * @return True if the given character can be used as a delimiter or quote character by this tokenizer
+     */
+    public static boolean isSingleByte(char c) {
+        return c > 0 && c < 128 && c != LF && c != CR;
+    }
+
+    /**
+     * Start reading from a new channel, reusing the existing buffer. The previous channel (if any) is not closed.
+     *
+     * @param channel Channel to read from. Must be in blocking mode
+     */
+    public void reset(ReadableByteChannel channel) {
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("Channel must be in blocking mode: non-blocking channels are not supported");
+        }
+        this.channel = channel;
+        this.pos = 0;
+        this.limit = 0;
+        this.recordStart = 0;
+        this.eof = (channel == null);
+        this.numFields = 0;
+    }
+
+    /**
+     * Advance to the next record
+     *
+     * @return True if a record was read; false if the end of the channel has been reached
+     */
+    public boolean nextRecord() throws IOException {
+        numFields = 0;
+        recordStart = pos;
+        int i = pos;
+        if (i >= limit) {
+            i -= refill();
+            if (i >= limit) return false;
+        }
+
+        int fieldStart = i;
+        int w = i;  //Write position: lags behind i only when escaped quotes have been collapsed
+        boolean atFieldStart = true;
+        boolean inQuotes = false;
+        while (true) {
+            if (i >= limit) {
+                int shift = refill();
+                i -= shift;
+                w -= shift;
+                fieldStart -= shift;
+                if (i >= limit) {
+                    //End of input terminates the record (and implicitly closes any open quote)
+                    addField(fieldStart, w - fieldStart);
+                    pos = i;
+                    return true;
+                }
+            }
+
+            byte b = buf[i];
+            if (inQuotes) {
+                if (b == quote) {
+                    if (i + 1 >= limit) {
+                        int shift = refill();
+                        i -= shift;
+                        w -= shift;
+                        fieldStart -= shift;
+                    }
+                    if (i + 1 < limit && buf[i + 1] == quote) {
+                        buf[w++] = quote;
+                        i += 2;
+                    } else {
+                        inQuotes = false;
+                        i++;
+                    }
+                } else {
+                    buf[w++] = b;
+                    i++;
+                }
+            } else if (b == delimiter) {
+                addField(fieldStart, w - fieldStart);
+                i++;
+                fieldStart = i;
+                w = i;
+                atFieldStart = true;
+            } else if (b == LF || b == CR) {
+                addField(fieldStart, w - fieldStart);
+                i++;
+                if (b == CR) {
+                    if (i >= limit) i -= refill();
+                    if (i < limit && buf[i] == LF) i++;
+                }
+                pos = i;
+                return true;
+            } else if (b == quote && atFieldStart) {
+                inQuotes = true;
+                atFieldStart = false;
+                i++;
+                fieldStart = i;
+                w = i;
+            } else {
+                buf[w++] = b;
+                i++;
+                atFieldStart = false;
+            }
+        }
+    }
+
+    /**
+     * Number of fields in the current record
+     */
+    public int numFields() {
+        return numFields;
+    }
+
+    /**
+     * The buffer that the field offsets refer to. Contents are only valid until the next call to {@link #nextRecord()}
+     */
+    public byte[] getBuffer() {
+        return buf;
+    }
+
+    /**
+     * Offset of the specified field (in the current record) in the buffer returned by {@link #getBuffer()}
+     */
+    public int fieldOffset(int field) {
+        checkField(field);
+        return fieldStarts[field];
+    }
+
+    /**
+     * Length, in bytes, of the specified field (in the current record), after removal of quotes
+     */
+    public int fieldLength(int field) {
+        checkField(field);
+        return fieldLengths[field];
+    }
+
+    /**
+     * Decode the specified field of the current record as a String
+     */
+    public String getString(int field) {
+        checkField(field);
+        return new String(buf, fieldStarts[field], fieldLengths[field], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copy the raw UTF-8 bytes of the specified field of the current record into the given Text object
+     */
+    public void getText(int field, Text out) {
+        checkField(field);
+        out.set(buf, fieldStarts[field], fieldLengths[field]);
+    }
+
+    /**
+     * Parse the specified field of the current record as a long. Equivalent to Long.parseLong(getString(field)),
+     * but no String is created for simple values
+     */
+    public long getLong(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int end = start + fieldLengths[field];
+        if (end > start && end - start <= 18) {
+            int i = start;
+            boolean negative = (buf[i] == '-');
+            if (negative || buf[i] == '+') i++;
+            if (i < end) {
+                long value = 0;
+                for (; i < end; i++) {
+                    int d = buf[i] - '0';
+                    if (d < 0 || d > 9) break;
+                    value = 10 * value + d;
+                }
+                if (i == end) return (negative ? -value : value);
+            }
+        }
+        //Long values (possible overflow) or invalid input
+        return Long.parseLong(getString(field));
+    }
+
+    /**
+     * Parse the specified field of the current record as an int. Equivalent to Integer.parseInt(getString(field)),
+     * but no String is created for simple values
+     */
+    public int getInt(int field) {
+        long value = getLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(getString(field));  //Throws NumberFormatException
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse the specified field of the current record as a double. Equivalent to Double.parseDouble(getString(field)),
+     * but no String is created for simple decimal values (no exponent, at most 15 digits)
+     */
+    public double getDouble(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int end = start + fieldLengths[field];
+        int i = start;
+        boolean negative = (i < end && buf[i] == '-');
+        if (negative || (i < end && buf[i] == '+')) i++;
+        long mantissa = 0;
+        int numDigits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = 10 * mantissa + (b - '0');
+                numDigits++;
+                if (fractionDigits >= 0) fractionDigits++;
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == end && numDigits > 0 && numDigits <= 15) {
+            //Both mantissa and power of 10 are exactly representable: a single (correctly rounded) division gives
+            // the same result as Double.parseDouble
+            double value = (fractionDigits > 0 ? mantissa / POWERS_OF_10[fractionDigits] : mantissa);
+            return (negative ? -value : value);
+        }
+        return Double.parseDouble(getString(field));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        eof = true;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= numFields)
+            throw new IndexOutOfBoundsException("Invalid field index " + field + ": record has " + numFields + " fields");
+    }
+
+    private void addField(int start, int length) {
+        if (numFields == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, 2 * numFields);
+            fieldLengths = Arrays.copyOf(fieldLengths, 2 * numFields);
+        }
+        fieldStarts[numFields] = start;
+        fieldLengths[numFields] = length;
+        numFields++;
+    }
+
+    /**
+     * Move the partial record at the end of the buffer to the start (growing the buffer if the record already fills
+     * it), and read more bytes from the channel. After returning, either at least one new byte is available or the
+     * end of the channel has been reached.
+     *
+     * @return The number of positions that the current record was shifted towards the start of the buffer
+     */
+    private int refill() throws IOException {
+        int shift = recordStart;
+        if (shift > 0) {
+            System.arraycopy(buf, shift, buf, 0, limit - shift);
+            limit -= shift;
+            pos -= shift;
+            recordStart = 0;
+            for (int j = 0; j < numFields; j++) {
+                fieldStarts[j] -= shift;
+            }
+        } else if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, 2 * buf.length);
+            byteBuffer = ByteBuffer.wrap(buf);
+        }
+
+        if (eof) return shift;
+
+        byteBuffer.limit(buf.length);
+        byteBuffer.position(limit);
+        //Blocking channel with space remaining in the buffer: returns at least one byte, or -1 at the end of the channel
+        int read;
+        do {
+            read = channel.read(byteBuffer);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+        return shift;
+    }
+}
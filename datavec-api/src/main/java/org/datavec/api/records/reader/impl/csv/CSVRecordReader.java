@@ -19,18 +19,38 @@ package org.datavec.api.records.reader.impl.csv;
 
 
 import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.reader.impl.LineOffsetIndex;
 import org.datavec.api.records.reader.impl.LineRecordReader;
-import org.datavec.api.writable.Text;
+import org.datavec.api.split.ByteRangeSplit;
+import org.datavec.api.split.InputStreamInputSplit;
+import org.datavec.api.split.StringSplit;
+import org.datavec.api.writable.*;
 import org.datavec.api.split.InputSplit;
-import org.datavec.api.writable.Writable;
+import org.datavec.api.transform.schema.Schema;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
- * Simple csv record reader.
+ * Simple csv record reader.<br>
+ * For single character (ASCII) delimiters, records are parsed directly from the raw bytes using a
+ * {@link CSVByteTokenizer}, which also supports RFC 4180 style quoting (quoted fields may contain delimiters,
+ * line breaks and doubled quote characters).<br>
+ * Other delimiters are interpreted as a regular expression, and lines are split using {@link String#split(String, int)}
  *
  * @author Adam Gibson
  */
@@ -38,8 +58,18 @@ public class CSVRecordReader extends LineRecordReader {
     private boolean skippedLines = false;
     private int skipNumLines = 0;
     private String delimiter = ",";
+    private char quote = CSVByteTokenizer.DEFAULT_QUOTE;
     public final static String SKIP_NUM_LINES = NAME_SPACE + ".skipnumlines";
     public final static String DELIMITER = NAME_SPACE + ".delimiter";
+    public final static String QUOTE = NAME_SPACE + ".quote";
+    private static final int RECORD_BUFFER_SIZE = 8 * 1024;
+
+    private int headerLines = 0;
+    private transient CSVByteTokenizer tokenizer;
+    private transient CSVByteTokenizer indexTokenizer;
+    private URI[] locations;
+    private int currIndex;
+    private boolean recordAvailable;
 
     /**
      * Skip first n lines
@@ -55,23 +85,107 @@ public class CSVRecordReader extends LineRecordReader {
      * @param delimiter the delimiter
      */
     public CSVRecordReader(int skipNumLines,String delimiter) {
+        this(skipNumLines, delimiter, CSVByteTokenizer.DEFAULT_QUOTE);
+    }
+
+    /**
+     * Skip lines, use delimiter and quote character
+     * @param skipNumLines the number of lines to skip
+     * @param delimiter the delimiter
+     * @param quote the quote character. Only used for single character delimiters
+     */
+    public CSVRecordReader(int skipNumLines, String delimiter, char quote) {
         this.skipNumLines = skipNumLines;
+        this.headerLines = skipNumLines;
         this.delimiter = delimiter;
+        this.quote = quote;
     }
 
     public CSVRecordReader() {
         this(0,",");
     }
 
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        if (tokenizer != null) tokenizer.close();
+        closeIterator();
+        //Header lines are only present in a byte range that starts at the beginning of the file
+        skippedLines = (split instanceof ByteRangeSplit && ((ByteRangeSplit) split).getStart() > 0);
+        recordAvailable = false;
+        if (!useTokenizer()) {
+            tokenizer = null;
+            super.initialize(split);
+            return;
+        }
+
+        this.inputSplit = split;
+        this.currIndex = 0;
+        ReadableByteChannel channel = null;
+        if (split instanceof StringSplit) {
+            locations = null;
+            byte[] bytes = ((StringSplit) split).getData().getBytes(StandardCharsets.UTF_8);
+            channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+        } else if (split instanceof InputStreamInputSplit) {
+            locations = null;
+            InputStream is = ((InputStreamInputSplit) split).getIs();
+            if (is != null) channel = Channels.newChannel(is);
+        } else if (split instanceof ByteRangeSplit) {
+            locations = null;
+            channel = Channels.newChannel(((ByteRangeSplit) split).openStream());
+        } else {
+            locations = split.locations();
+            if (locations != null && locations.length > 0) channel = openChannel(locations[0]);
+        }
+
+        if (tokenizer == null) {
+            tokenizer = new CSVByteTokenizer(channel, delimiter.charAt(0), quote, CSVByteTokenizer.DEFAULT_BUFFER_SIZE);
+        } else {
+            tokenizer.reset(channel);
+        }
+    }
+
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
-        super.initialize(conf, split);
         this.skipNumLines = conf.getInt(SKIP_NUM_LINES,this.skipNumLines);
-        this.delimiter = conf.get(DELIMITER, ",");
+        this.headerLines = this.skipNumLines;
+        this.delimiter = conf.get(DELIMITER, this.delimiter);
+        String q = conf.get(QUOTE);
+        if (q != null && q.length() == 1) this.quote = q.charAt(0);
+        initialize(split);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (tokenizer == null) return super.hasNext();
+        try {
+            if (!skippedLines && skipNumLines > 0) {
+                for (int i = 0; i < skipNumLines && advance(); i++) {
+                    recordAvailable = false;
+                }
+                skippedLines = true;
+            }
+            return recordAvailable || advance();
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV data", e);
+        }
     }
 
     @Override
     public Collection<Writable> next() {
+        if (tokenizer != null) {
+            if (!hasNext()) throw new NoSuchElementException("No more elements found!");
+            recordAvailable = false;
+            int n = tokenizer.numFields();
+            List<Writable> ret = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Text t = new Text();
+                tokenizer.getText(i, t);
+                ret.add(t);
+            }
+            invokeListeners(ret);
+            return ret;
+        }
+
         if(!skippedLines && skipNumLines > 0) {
             for(int i = 0; i < skipNumLines; i++) {
                 if(!hasNext()) {
@@ -91,16 +205,181 @@ public class CSVRecordReader extends LineRecordReader {
 
     }
 
+    /**
+     * Read the next record into the provided list. For single character delimiters, the writables already in the list
+     * are reused: {@link Text} values are overwritten, and {@link DoubleWritable}, {@link FloatWritable},
+     * {@link IntWritable} and {@link LongWritable} values are parsed directly from the raw bytes. Any other
+     * (or missing) values are replaced by new Text objects.
+     */
+    @Override
+    public boolean next(List<Writable> reuse) {
+        if (tokenizer == null) return super.next(reuse);
+        if (!hasNext()) return false;
+        recordAvailable = false;
+        int n = tokenizer.numFields();
+        for (int i = 0; i < n; i++) {
+            Writable w = (i < reuse.size() ? reuse.get(i) : null);
+            if (w instanceof Text) {
+                tokenizer.getText(i, (Text) w);
+            } else if (w instanceof DoubleWritable) {
+                ((DoubleWritable) w).set(tokenizer.getDouble(i));
+            } else if (w instanceof IntWritable) {
+                ((IntWritable) w).set(tokenizer.getInt(i));
+            } else if (w instanceof LongWritable) {
+                ((LongWritable) w).set(tokenizer.getLong(i));
+            } else if (w instanceof FloatWritable) {
+                ((FloatWritable) w).set(Float.parseFloat(tokenizer.getString(i)));
+            } else {
+                Text t = new Text();
+                tokenizer.getText(i, t);
+                if (i < reuse.size()) reuse.set(i, t);
+                else reuse.add(t);
+            }
+        }
+        while (reuse.size() > n) reuse.remove(reuse.size() - 1);
+        invokeListeners(reuse);
+        return true;
+    }
+
+    /**
+     * Read the next record into the provided Record. For single character delimiters, numerical values are parsed
+     * directly from the raw bytes.
+     */
+    @Override
+    public boolean next(Record record) {
+        if (tokenizer == null) return super.next(record);
+        if (!hasNext()) return false;
+        recordAvailable = false;
+        int n = tokenizer.numFields();
+        if (n != record.numColumns()) {
+            throw new IllegalStateException("Cannot read record: number of values (" + n + ") does not match number " +
+                    "of columns in record schema (" + record.numColumns() + ")");
+        }
+        Schema schema = record.getSchema();
+        for (int i = 0; i < n; i++) {
+            switch (schema.getType(i)) {
+                case Double:
+                    record.setDouble(i, tokenizer.getDouble(i));
+                    break;
+                case Integer:
+                    record.setInt(i, tokenizer.getInt(i));
+                    break;
+                case Long:
+                case Time:
+                    record.setLong(i, tokenizer.getLong(i));
+                    break;
+                case Categorical:
+                    record.setCategorical(i, tokenizer.getString(i));
+                    break;
+                default:
+                    Text t = new Text();
+                    tokenizer.getText(i, t);
+                    record.setWritable(i, t);
+            }
+        }
+        invokeListeners(record);
+        return true;
+    }
+
+    /**
+     * Build or load the record offset index for a file. For single character delimiters, line breaks within quoted
+     * fields do not start a new record
+     */
+    @Override
+    protected LineOffsetIndex loadIndex(File file) throws IOException {
+        if (useTokenizer()) return LineOffsetIndex.loadOrBuild(file, delimiter.charAt(0), quote);
+        return LineOffsetIndex.loadOrBuild(file);
+    }
+
+    @Override
+    protected int numSkippedRecords(int locationIndex) {
+        //As per onLocationOpen: header lines are only skipped in the first location
+        return (locationIndex == 0 ? headerLines : 0);
+    }
+
+    @Override
+    protected Collection<Writable> parseIndexedRecord(byte[] bytes, int length) {
+        if (!useTokenizer()) {
+            String line = new String(bytes, 0, trimLineEnding(bytes, length), StandardCharsets.UTF_8);
+            List<Writable> ret = new ArrayList<>();
+            for (String s : line.split(delimiter, -1)) ret.add(new Text(s));
+            return ret;
+        }
+
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes, 0, length));
+        if (indexTokenizer == null) {
+            indexTokenizer = new CSVByteTokenizer(channel, delimiter.charAt(0), quote, Math.max(length, 1024));
+        } else {
+            indexTokenizer.reset(channel);
+        }
+        List<Writable> ret = new ArrayList<>();
+        try {
+            if (!indexTokenizer.nextRecord()) return ret;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV data", e);
+        }
+        int n = indexTokenizer.numFields();
+        for (int i = 0; i < n; i++) {
+            Text t = new Text();
+            indexTokenizer.getText(i, t);
+            ret.add(t);
+        }
+        return ret;
+    }
+
+    /**
+     * Read a single record from the stream: the first record after the header lines (if any) are skipped.
+     * An empty record is returned if the stream contains no records.<br>
+     * To read all of the records in a stream, initialize the record reader with an {@link InputStreamInputSplit} instead
+     */
     @Override
     public Collection<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
-        //Here: we are reading a single line from the DataInputStream. How to handle skipLines???
-        throw new UnsupportedOperationException("Reading CSV data from DataInputStream not yet implemented");
+        invokeListeners(uri);
+        List<Writable> ret = new ArrayList<>();
+        if (!useTokenizer()) {
+            BufferedReader br = new BufferedReader(new InputStreamReader(dataInputStream, StandardCharsets.UTF_8));
+            String line = null;
+            for (int i = 0; i <= skipNumLines; i++) {
+                line = br.readLine();
+                if (line == null) return ret;
+            }
+            for (String s : line.split(delimiter, -1)) ret.add(new Text(s));
+            return ret;
+        }
+
+        //Note that the tokenizer is not closed, as this would close the stream
+        CSVByteTokenizer t = new CSVByteTokenizer(Channels.newChannel(dataInputStream), delimiter.charAt(0), quote,
+                RECORD_BUFFER_SIZE);
+        for (int i = 0; i <= skipNumLines; i++) {
+            if (!t.nextRecord()) return ret;
+        }
+        int n = t.numFields();
+        for (int i = 0; i < n; i++) {
+            Text text = new Text();
+            t.getText(i, text);
+            ret.add(text);
+        }
+        return ret;
     }
 
     @Override
     public void reset() {
-        super.reset();
-        skippedLines = false;
+        if (tokenizer == null) {
+            super.reset();
+            return;
+        }
+        if (inputSplit == null) throw new UnsupportedOperationException("Cannot reset without first initializing");
+        try {
+            initialize(inputSplit);
+        } catch (Exception e) {
+            throw new RuntimeException("Error during CSVRecordReader reset", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (tokenizer != null) tokenizer.close();
+        super.close();
     }
 
     @Override
@@ -108,4 +387,30 @@ public class CSVRecordReader extends LineRecordReader {
         skippedLines = false;
         skipNumLines = 0;
     }
-}
\ No newline at end of file
+
+    private boolean useTokenizer() {
+        return delimiter != null && delimiter.length() == 1 && CSVByteTokenizer.isSingleByte(delimiter.charAt(0))
+                && CSVByteTokenizer.isSingleByte(quote) && delimiter.charAt(0) != quote;
+    }
+
+    /**
+     * Read the next record into the tokenizer, moving on to the next location when the current one is exhausted
+     */
+    private boolean advance() throws IOException {
+        while (!tokenizer.nextRecord()) {
+            if (locations == null || currIndex >= locations.length - 1) return false;
+            tokenizer.close();
+            currIndex++;
+            tokenizer.reset(openChannel(locations[currIndex]));
+        }
+        recordAvailable = true;
+        return true;
+    }
+
+    private static ReadableByteChannel openChannel(URI location) throws IOException {
+        if ("file".equals(location.getScheme())) {
+            return FileChannel.open(Paths.get(location), StandardOpenOption.READ);
+        }
+        return Channels.newChannel(location.toURL().openStream());
+    }
+}
@@ -27,6 +27,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * CSV Sequence Record Reader
@@ -104,5 +105,41 @@ public class CSVSequenceRecordReader extends FileRecordReader implements Sequenc
         return out;
     }
 
+    /**
+     * @return The number of sequences (files) in the input split
+     */
+    public int numSequences() {
+        if (files == null) throw new UnsupportedOperationException("Cannot get number of sequences without first initializing");
+        return files.size();
+    }
+
+    /**
+     * Get the sequence with the given index, in the order in which they would be returned by {@link #sequenceRecord()}.
+     * As each sequence is stored in its own file, no line index is required. Unlike {@link #sequenceRecord()}, the
+     * position of the reader is not modified.
+     *
+     * @param index Index of the sequence, between 0 and {@link #numSequences()}-1
+     */
+    public Collection<Collection<Writable>> sequenceRecord(int index) {
+        if (index < 0 || index >= numSequences()) {
+            throw new IllegalArgumentException("Invalid sequence index: " + index + " (number of sequences: " + numSequences() + ")");
+        }
+        File f = files.get(index);
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            return sequenceRecord(f.toURI(), dis);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
+    /**
+     * Load the sequences with the given indices (see {@link #sequenceRecord(int)}), in the order specified
+     */
+    public List<Collection<Collection<Writable>>> loadSequencesFromIndex(int[] indices) {
+        List<Collection<Collection<Writable>>> out = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            out.add(sequenceRecord(i));
+        }
+        return out;
+    }
 }
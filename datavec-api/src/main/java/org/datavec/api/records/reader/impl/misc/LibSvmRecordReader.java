@@ -20,6 +20,7 @@ import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.reader.impl.LineRecordReader;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.writable.Writable;
@@ -39,10 +40,13 @@ public class LibSvmRecordReader extends LineRecordReader {
     public static final String CLASSIFICATION = "libsvm.classification";
     public static final String NAME_SPACE = LibSvmRecordReader.class.getName();
     public static final String NUM_FEATURES = NAME_SPACE + ".numfeatures";
+    /** If true: return the features as a single {@link SparseVectorWritable} column, instead of one column per feature */
+    public static final String SPARSE = NAME_SPACE + ".sparse";
 
     private boolean appendLabel = false;
     private boolean classification = true;
     private int numFeatures;
+    private boolean sparse = false;
 
     @Override
     public void initialize(InputSplit split) throws IOException, InterruptedException {
@@ -55,6 +59,7 @@ public class LibSvmRecordReader extends LineRecordReader {
         appendLabel = conf.getBoolean(APPEND_LABEL,false);
         classification = conf.getBoolean(CLASSIFICATION,true);
         numFeatures = conf.getInt(NUM_FEATURES, 0);
+        sparse = conf.getBoolean(SPARSE, false);
     }
 
     @Override
@@ -81,6 +86,25 @@ public class LibSvmRecordReader extends LineRecordReader {
         tokens = line.trim().split("\\s+");
 
         Collection<Writable> record = new ArrayList<>();
+        if (sparse) {
+            int[] indices = new int[tokens.length - 1];
+            double[] values = new double[tokens.length - 1];
+            for (int k = 1; k < tokens.length; k++) {
+                String[] pair = tokens[k].split(":");
+                if (pair.length != 2) {
+                    throw new NumberFormatException("Invalid data: " + tokens[k]);
+                }
+                indices[k - 1] = Integer.valueOf(pair[0]) - 1;
+                values[k - 1] = Double.valueOf(pair[1]);
+            }
+            int length = (indices.length > 0 ? Math.max(numFeatures, indices[indices.length - 1] + 1) : numFeatures);
+            record.add(new SparseVectorWritable(length, indices, values));
+            if(classification && appendLabel || !classification) {
+                record.add(new DoubleWritable(response));
+            }
+            return record;
+        }
+
         int read = 0;
         for (int k = 1; k < tokens.length; k++) {
             String[] pair = tokens[k].split(":");
@@ -19,6 +19,7 @@ package org.datavec.api.records.reader.impl.misc;
 
 import org.datavec.api.records.reader.impl.LineRecordReader;
 import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.writable.Writable;
@@ -31,6 +32,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.StringTokenizer;
 
 /**
@@ -46,6 +48,9 @@ public class SVMLightRecordReader extends LineRecordReader {
     private static Logger log = LoggerFactory.getLogger(SVMLightRecordReader.class);
     private int numAttributes = -1;
     public final static String NUM_ATTRIBUTES = SVMLightRecordReader.class.getName() + ".numattributes";
+    /** If true: return the attributes as a single {@link SparseVectorWritable} column, instead of one column per attribute */
+    public final static String SPARSE = SVMLightRecordReader.class.getName() + ".sparse";
+    private boolean sparse = false;
     public SVMLightRecordReader() {
     }
 
@@ -84,6 +89,11 @@ public class SVMLightRecordReader extends LineRecordReader {
 
             // 1. class
             double classVal = Double.parseDouble(tok.nextToken());
+            if (sparse) {
+                ret.add(toSparseVector(tok, max));
+                ret.add(new DoubleWritable(classVal));
+                return ret;
+            }
             int numAttributesAdded = 0;
             // 2. attributes
             while (tok.hasMoreTokens()) {
@@ -131,6 +141,7 @@ public class SVMLightRecordReader extends LineRecordReader {
         super.initialize(conf, split);
         if(conf.get(NUM_ATTRIBUTES) != null)
             numAttributes = conf.getInt(NUM_ATTRIBUTES,-1);
+        sparse = conf.getBoolean(SPARSE, false);
 
     }
 
@@ -139,6 +150,29 @@ public class SVMLightRecordReader extends LineRecordReader {
         super.setConf(conf);
         if(conf.get(NUM_ATTRIBUTES) != null)
             numAttributes = conf.getInt(NUM_ATTRIBUTES,-1);
+        sparse = conf.getBoolean(SPARSE, false);
+    }
+
+    private SparseVectorWritable toSparseVector(StringTokenizer tok, int maxIndex) {
+        List<Integer> indices = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        while (tok.hasMoreTokens()) {
+            String col = tok.nextToken();
+            if (col.startsWith("#"))
+                break;
+            if (col.startsWith("qid:"))
+                continue;
+            int colonIdx = col.indexOf(":");
+            indices.add(Integer.parseInt(col.substring(0, colonIdx)) - 1);
+            values.add(Double.parseDouble(col.substring(colonIdx + 1)));
+        }
+        int[] idx = new int[indices.size()];
+        double[] vals = new double[idx.length];
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = indices.get(i);
+            vals[i] = values.get(i);
+        }
+        return new SparseVectorWritable(Math.max(numAttributes, maxIndex), idx, vals);
     }
 
     @Override
@@ -0,0 +1,263 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records.writer.impl.binary;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.RowView;
+import org.datavec.api.records.writer.RecordWriter;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Writes records to a compact, schema-aware binary file, for reading with
+ * {@link org.datavec.api.records.reader.impl.binary.BinaryRecordReader}.<br>
+ * Each record is stored as a fixed-width row of primitive values: Double columns as 8 byte doubles, Integer columns
+ * as 4 byte ints, Long and Time columns as 8 byte longs, and Categorical columns as 4 byte state indexes.
+ * String columns are stored as 4 byte indexes into a dictionary of distinct values, which is held in memory while
+ * writing and is written to the footer of the file when the writer is closed. Bytes columns are not supported.<br>
+ * <br>
+ * File layout (all values big-endian):
+ * <pre>
+ * Header:  int MAGIC, int VERSION, int numColumns, int rowWidth (bytes)
+ * Data:    numRecords rows of rowWidth bytes each
+ * Footer:  int dictionarySize, then for each entry: int numBytes, UTF-8 bytes
+ *          int schemaLength, then the Java-serialized Schema
+ * Trailer: long numRecords, long footerOffset, int MAGIC
+ * </pre>
+ * The file is not readable until {@link #close()} has been called.
+ */
+public class BinaryRecordWriter implements RecordWriter {
+
+    public static final int MAGIC = 0x44564252;    //"DVBR"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int TRAILER_BYTES = 20;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Schema schema;
+    private final ColumnType[] types;
+    private final Map<String, Integer>[] categoricalIndexes;
+    private final int rowWidth;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> dictionaryValues = new ArrayList<>();
+
+    private DataOutputStream out;
+    private long numRecords;
+    private Configuration conf;
+
+    public BinaryRecordWriter(File path, Schema schema) throws IOException {
+        this(open(path, schema), schema);
+    }
+
+    //Validate the schema before opening the file, so the stream isn't leaked if the schema is rejected
+    private static FileOutputStream open(File path, Schema schema) throws IOException {
+        checkSupported(schema);
+        return new FileOutputStream(path, false);
+    }
+
+    private static void checkSupported(Schema schema) {
+        for (int i = 0; i < schema.numColumns(); i++) {
+            ColumnType type = schema.getType(i);
+            if (type == ColumnType.Bytes || type == ColumnType.SparseVector) {
+                throw new UnsupportedOperationException("Cannot write column \"" + schema.getName(i)
+                        + "\": " + type + " columns are not supported by BinaryRecordWriter");
+            }
+        }
+    }
+
+    /**
+     * Write records to the given stream, which is closed when the writer is closed. Note that the output
+     * is only readable by BinaryRecordReader once it has been written to a (local) file
+     *
+     * @param os     Output stream to write to
+     * @param schema Schema of the records
+     */
+    public BinaryRecordWriter(OutputStream os, Schema schema) throws IOException {
+        checkSupported(schema);
+        this.schema = schema;
+        int n = schema.numColumns();
+        this.types = new ColumnType[n];
+        this.categoricalIndexes = new Map[n];
+        int width = 0;
+        for (int i = 0; i < n; i++) {
+            types[i] = schema.getType(i);
+            width += columnWidth(types[i]);
+            if (types[i] == ColumnType.Categorical) {
+                List<String> states = ((CategoricalMetaData) schema.getMetaData(i)).getStateNames();
+                Map<String, Integer> m = new HashMap<>();
+                for (int j = 0; j < states.size(); j++) m.put(states.get(j), j);
+                categoricalIndexes[i] = m;
+            }
+        }
+        this.rowWidth = width;
+
+        out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(n);
+        out.writeInt(rowWidth);
+    }
+
+    /**
+     * Number of bytes used to store a value of the given type
+     */
+    public static int columnWidth(ColumnType type) {
+        switch (type) {
+            case Double:
+            case Long:
+            case Time:
+                return 8;
+            default:
+                return 4;
+        }
+    }
+
+    @Override
+    public void write(Collection<Writable> record) throws IOException {
+        if (record.size() != types.length) {
+            throw new IllegalStateException("Cannot write record: number of values (" + record.size()
+                    + ") does not match number of columns in schema (" + types.length + ")");
+        }
+        int i = 0;
+        for (Writable w : record) {
+            switch (types[i]) {
+                case Double:
+                    out.writeDouble(w.toDouble());
+                    break;
+                case Integer:
+                    out.writeInt(w.toInt());
+                    break;
+                case Long:
+                case Time:
+                    out.writeLong(w.toLong());
+                    break;
+                case Categorical:
+                    out.writeInt(stateIndex(i, w.toString()));
+                    break;
+                default:
+                    out.writeInt(dictionaryIndex(w.toString()));
+            }
+            i++;
+        }
+        numRecords++;
+    }
+
+    /**
+     * Write a record from its primitive representation, without converting values to Writables
+     */
+    public void write(RowView record) throws IOException {
+        if (record.numColumns() != types.length) {
+            throw new IllegalStateException("Cannot write record: number of values (" + record.numColumns()
+                    + ") does not match number of columns in schema (" + types.length + ")");
+        }
+        for (int i = 0; i < types.length; i++) {
+            switch (types[i]) {
+                case Double:
+                    out.writeDouble(record.getDouble(i));
+                    break;
+                case Integer:
+                    out.writeInt(record.getInt(i));
+                    break;
+                case Long:
+                case Time:
+                    out.writeLong(record.getLong(i));
+                    break;
+                case Categorical:
+                    out.writeInt(record.getCategoricalIndex(i));
+                    break;
+                default:
+                    out.writeInt(dictionaryIndex(record.getWritable(i).toString()));
+            }
+        }
+        numRecords++;
+    }
+
+    private int stateIndex(int column, String state) {
+        Integer idx = categoricalIndexes[column].get(state);
+        if (idx == null) throw new IllegalStateException("Unknown state (index not found) for column \""
+                + schema.getName(column) + "\": " + state);
+        return idx;
+    }
+
+    private int dictionaryIndex(String value) {
+        Integer idx = dictionary.get(value);
+        if (idx == null) {
+            idx = dictionaryValues.size();
+            dictionary.put(value, idx);
+            dictionaryValues.add(value);
+        }
+        return idx;
+    }
+
+    /**
+     * @return Number of records written so far
+     */
+    public long numRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Write the footer and close the file
+     */
+    @Override
+    public void close() {
+        if (out == null) return;
+        try {
+            long footerOffset = HEADER_BYTES + numRecords * rowWidth;
+            out.writeInt(dictionaryValues.size());
+            for (String s : dictionaryValues) {
+                byte[] b = s.getBytes(UTF8);
+                out.writeInt(b.length);
+                out.write(b);
+            }
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+                oos.writeObject(schema);
+            }
+            out.writeInt(baos.size());
+            baos.writeTo(out);
+
+            out.writeLong(numRecords);
+            out.writeLong(footerOffset);
+            out.writeInt(MAGIC);
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            out = null;
+        }
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+}
@@ -20,6 +20,7 @@ import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.writer.impl.LineRecordWriter;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.writable.ArrayWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -34,7 +35,9 @@ import java.util.List;
  * label i:value
  *
  * where is is the current index and value is a double
- * separated by space
+ * separated by space<br>
+ * Array columns ({@link ArrayWritable}) are expanded in place: feature indices of subsequent columns are offset by
+ * the length of the array. {@link SparseVectorWritable} columns are written directly from their non-zero entries.
  *
  * @author Adam Gibson
  */
@@ -71,17 +74,31 @@ public class LibSvmRecordWriter extends LineRecordWriter {
             write.append(response);
         write.append(" ");
 
+        //Offset for feature indices, due to array columns before the current column
+        long offset = 0;
         for(int i = 0; i < asList.size() - 1; i++) {
+            if(asList.get(i) instanceof SparseVectorWritable) {
+                SparseVectorWritable v = (SparseVectorWritable) asList.get(i);
+                int[] indices = v.getIndices();
+                double[] values = v.getValues();
+                for(int j = 0; j < indices.length; j++) {
+                    if(values[j] == 0.0)
+                        continue;
+                    write.append(offset + i + indices[j] + 1).append(":").append(values[j]).append(" ");
+                }
+                offset += v.length() - 1;
+                continue;
+            }
             //sparse format
             try {
                 double val = Double.valueOf(asList.get(i).toString());
                 if(val == 0.0)
                     continue;
                 try {
-                    write.append((i + 1)  + ":" + Integer.valueOf(asList.get(i).toString()));
+                    write.append((offset + i + 1)  + ":" + Integer.valueOf(asList.get(i).toString()));
                 }
                 catch(NumberFormatException e) {
-                    write.append((i + 1)  + ":" + Double.valueOf(asList.get(i).toString()));
+                    write.append((offset + i + 1)  + ":" + Double.valueOf(asList.get(i).toString()));
 
                 }
                 if(i < asList.size() - 1)
@@ -95,10 +112,11 @@ public class LibSvmRecordWriter extends LineRecordWriter {
                         double val = a.getDouble(j);
                         if(val == 0.0)
                             continue;
-                        write.append((j + 1)  + ":" + a.getDouble(j));
+                        write.append((offset + i + j + 1)  + ":" + a.getDouble(j));
                         if(j < a.length() - 1)
                             write.append(" ");
                     }
+                    offset += a.length() - 1;
                 } else {
                     throw e;
                 }
@@ -20,6 +20,7 @@ package org.datavec.api.records.writer.impl.misc;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.writer.impl.FileRecordWriter;
 import org.datavec.api.writable.ArrayWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Writable;
 
 import java.io.*;
@@ -30,7 +31,9 @@ import java.util.List;
 /**
  *
  *
- * SVM Light Record Writer
+ * SVM Light Record Writer<br>
+ * Array columns ({@link ArrayWritable}) are expanded in place: feature indices of subsequent columns are offset by
+ * the length of the array. {@link SparseVectorWritable} columns are written directly from their non-zero entries.
  *
  * @author Adam Gibson
  *
@@ -59,16 +62,30 @@ public class SVMLightRecordWriter extends FileRecordWriter {
             // get the label
             result.append(recordList.get(recordList.size() - 1).toString());
 
-            // get only the non-zero entries
+            // get only the non-zero (positive or negative) entries
             Double value = 0.0;
-            
+            //Offset for feature indices, due to array columns before the current column
+            long offset = 0;
+
             for (int i = 0; i < recordList.size() - 1; i++) {
+                if (recordList.get(i) instanceof SparseVectorWritable) {
+                    SparseVectorWritable v = (SparseVectorWritable) recordList.get(i);
+                    int[] indices = v.getIndices();
+                    double[] values = v.getValues();
+                    for (int j = 0; j < indices.length; j++) {
+                        if (values[j] != 0.0) {
+                            result.append(" ").append(offset + i + indices[j] + 1).append(":").append(values[j]);
+                        }
+                    }
+                    offset += v.length() - 1;
+                    continue;
+                }
 
                 try {
                     value = Double.valueOf(recordList.get(i).toString());
 
-                    if ( value > 0.0 ) {
-                            result.append(" " + (i + 1) + ":"
+                    if ( value != 0.0 ) {
+                            result.append(" " + (offset + i + 1) + ":"
                             + Double.valueOf(recordList.get(i).toString()));
                     }
 
@@ -79,10 +96,11 @@ public class SVMLightRecordWriter extends FileRecordWriter {
                         ArrayWritable a = (ArrayWritable)w;
                         for (long j = 0; j < a.length(); j++) {
                             value = a.getDouble(j);
-                            if ( value > 0.0 ) {
-                                result.append(" " + (j + 1) + ":" + value);
+                            if ( value != 0.0 ) {
+                                result.append(" " + (offset + i + j + 1) + ":" + value);
                             }
                         }
+                        offset += a.length() - 1;
                     } else {
                         throw e;
                     }
@@ -0,0 +1,167 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.split;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.*;
+import java.net.URI;
+
+/**
+ * An input split that covers the byte range [start, start+length) of a single text file.<br>
+ * As with Hadoop's FileSplit, the raw byte range is aligned to line boundaries when it is opened:
+ * a split owns exactly those lines whose first byte lies within its range. Consequently a set of
+ * contiguous, non-overlapping ranges covering a file (such as those returned by {@link #createSplits(File, int)})
+ * will read every line of that file exactly once, regardless of where the range boundaries fall.<br>
+ * Lines must be terminated by LF or CRLF. Records spanning multiple lines (for example, quoted CSV fields
+ * containing line breaks) are not supported when the file is split into more than one range.
+ */
+public class ByteRangeSplit extends BaseInputSplit {
+
+    private URI uri;
+    private long start;
+
+    public ByteRangeSplit() {
+        //No-arg constructor for use with readFields
+    }
+
+    /**
+     * @param uri    Location of the file
+     * @param start  Offset of the first byte of the range
+     * @param length Length of the range, in bytes
+     */
+    public ByteRangeSplit(URI uri, long start, long length) {
+        if (start < 0 || length < 0)
+            throw new IllegalArgumentException("Invalid range: start=" + start + ", length=" + length);
+        this.uri = uri;
+        this.start = start;
+        this.length = length;
+        this.locations = new URI[]{uri};
+    }
+
+    public ByteRangeSplit(File file, long start, long length) {
+        this(file.toURI(), start, length);
+    }
+
+    /**
+     * Cut a file into (at most) numSplits contiguous byte ranges of approximately equal size, so that the file may be
+     * read by multiple record readers concurrently.
+     *
+     * @param file      File to split
+     * @param numSplits Number of splits
+     * @return The byte range splits, in file order
+     */
+    public static ByteRangeSplit[] createSplits(File file, int numSplits) {
+        if (numSplits <= 0) throw new IllegalArgumentException("Number of splits must be positive: got " + numSplits);
+        long fileLength = file.length();
+        if (fileLength < numSplits) numSplits = (int) Math.max(1, fileLength);
+
+        ByteRangeSplit[] splits = new ByteRangeSplit[numSplits];
+        URI uri = file.toURI();
+        long splitStart = 0;
+        for (int i = 0; i < numSplits; i++) {
+            long splitEnd = (i == numSplits - 1 ? fileLength : (fileLength * (i + 1)) / numSplits);
+            splits[i] = new ByteRangeSplit(uri, splitStart, splitEnd - splitStart);
+            splitStart = splitEnd;
+        }
+        return splits;
+    }
+
+    /**
+     * Open an input stream over the line-aligned byte range of this split: i.e., from the first line starting at
+     * or after {@link #getStart()}, up to (but not including) the first line starting at or after {@link #getEnd()}.
+     * The caller is responsible for closing the returned stream.
+     */
+    public InputStream openStream() throws IOException {
+        long alignedStart = alignToLineStart(start);
+        long alignedEnd = (length == 0 ? alignedStart : Math.max(alignedStart, alignToLineStart(getEnd())));
+
+        InputStream is = uri.toURL().openStream();
+        try {
+            IOUtils.skipFully(is, alignedStart);
+        } catch (IOException e) {
+            is.close();
+            throw e;
+        }
+        BoundedInputStream bounded = new BoundedInputStream(is, alignedEnd - alignedStart);
+        bounded.setPropagateClose(true);
+        return bounded;
+    }
+
+    /**
+     * Find the offset of the first line that starts at or after the given offset.
+     * Returns the length of the file if no line starts at or after the offset.
+     */
+    protected long alignToLineStart(long offset) throws IOException {
+        if (offset == 0) return 0;
+        try (InputStream is = new BufferedInputStream(uri.toURL().openStream())) {
+            //A line starts at p iff the byte at p-1 is a line feed: scan from offset-1 up to and including the next LF
+            long pos = IOUtils.skip(is, offset - 1);
+            if (pos < offset - 1) return pos;
+            int b;
+            while ((b = is.read()) != -1) {
+                pos++;
+                if (b == '\n') return pos;
+            }
+            return pos;
+        }
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * @return Offset of the first byte of the (unaligned) range
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return Offset one past the last byte of the (unaligned) range
+     */
+    public long getEnd() {
+        return start + length;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(uri.toString());
+        out.writeLong(start);
+        out.writeLong(length);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        this.uri = URI.create(in.readUTF());
+        this.start = in.readLong();
+        this.length = in.readLong();
+        this.locations = new URI[]{uri};
+    }
+
+    @Override
+    public String toString() {
+        return "ByteRangeSplit(uri=" + uri + ",start=" + start + ",length=" + length + ")";
+    }
+}
@@ -26,6 +26,7 @@ public enum ColumnType {
     Double,
     Categorical,
     Time,
-    Bytes    //Arbitrary byte[] data
+    Bytes,    //Arbitrary byte[] data
+    SparseVector    //Sparse vector of double values: SparseVectorWritable
 
 }
@@ -30,6 +30,7 @@ import org.datavec.api.transform.reduce.Reducer;
  * Stdev: Reduce by calculating the sample standard deviation<br>
  * Count: Reduce by doing a simple count<br>
  * CountUnique: Reduce by counting the number of unique values<br>
+ * CountUniqueApprox: Reduce by estimating the number of unique values, in bounded memory (HyperLogLog)<br>
  * TakeFirst: Take the first possible  value in the list<br>
  * TakeLast: Take the last possible value in the list<br>
  *
@@ -48,6 +49,7 @@ public enum ReduceOp {
     Stdev,
     Count,
     CountUnique,
+    CountUniqueApprox,
     TakeFirst,   //First value
     TakeLast     //Last value
 
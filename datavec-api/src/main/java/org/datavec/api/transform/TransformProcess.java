@@ -16,7 +16,15 @@
 
 package org.datavec.api.transform;
 
+import org.datavec.api.records.RowView;
+import org.datavec.api.records.Record;
+import org.datavec.api.transform.fused.FusedRowOperator;
 import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.transform.batch.BatchCondition;
+import org.datavec.api.transform.batch.BatchFilter;
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.BatchUtils;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.transform.condition.Condition;
 import org.datavec.api.transform.filter.Filter;
 import org.datavec.api.transform.rank.CalculateSortedRank;
@@ -26,6 +34,8 @@ import org.datavec.api.transform.sequence.ConvertToSequence;
 import org.datavec.api.transform.sequence.SequenceSplit;
 import org.datavec.api.transform.sequence.window.ReduceSequenceByWindowTransform;
 import org.datavec.api.transform.sequence.window.WindowFunction;
+import org.datavec.api.transform.transform.categorical.CategoricalDecodeTransform;
+import org.datavec.api.transform.transform.categorical.CategoricalEncodeTransform;
 import org.datavec.api.transform.transform.categorical.CategoricalToIntegerTransform;
 import org.datavec.api.transform.transform.categorical.IntegerToCategoricalTransform;
 import org.datavec.api.transform.transform.categorical.StringToCategoricalTransform;
@@ -46,7 +56,10 @@ import org.datavec.api.transform.transform.time.TimeMathOpTransform;
 import org.datavec.api.transform.analysis.columns.NumericalColumnAnalysis;
 import org.datavec.api.transform.sequence.SequenceComparator;
 import org.datavec.api.transform.transform.categorical.CategoricalToOneHotTransform;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.analysis.DataAnalysis;
 import org.datavec.api.transform.reduce.IReducer;
@@ -68,6 +81,8 @@ public class TransformProcess implements Serializable {
 
     private final Schema initialSchema;
     private List<DataAction> actionList;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private transient FusedRowOperator fusedOperator;
 
     private TransformProcess(Builder builder) {
         actionList = builder.actionList;
@@ -176,22 +191,67 @@ public class TransformProcess implements Serializable {
     /**
      * Execute the full sequence of transformations for a single example. May return null if example is filtered
      * <b>NOTE:</b> Some TransformProcess operations cannot be done on examples individually. Most notably, ConvertToSequence
-     * and ConvertFromSequence operations require the full data set to be processed at once
+     * and ConvertFromSequence operations require the full data set to be processed at once.<br>
+     * The transforms and filters are executed in a single pass, without intermediate lists: see {@link FusedRowOperator}
      *
      * @param input
      * @return
      */
     public List<Writable> execute(List<Writable> input) {
-        List<Writable> currValues = input;
+        return getFusedOperator().execute(input);
+    }
+
+    /**
+     * Execute the full sequence of transformations for a single example, reading the input from a {@link RowView}
+     * and storing the result in a {@link Record}. Only the input columns used by the transforms and filters are read.
+     *
+     * @param input  Input example, with the initial schema of this TransformProcess
+     * @param output Record to store the output in. Must have the final schema of this TransformProcess
+     * @return True if the example was transformed, false if the example was removed by a filter
+     */
+    public boolean execute(RowView input, Record output) {
+        return getFusedOperator().execute(input, output);
+    }
+
+    /**
+     * Get the row-wise operator used by {@link #execute(List)}: all actions, compiled into a single {@link FusedRowOperator}
+     */
+    private FusedRowOperator getFusedOperator() {
+        if (fusedOperator == null) {
+            for (DataAction d : actionList) {
+                if (d.getConvertToSequence() != null) {
+                    throw new RuntimeException("Cannot execute examples individually: TransformProcess contains a ConvertToSequence operation");
+                } else if (d.getConvertFromSequence() != null) {
+                    throw new RuntimeException("Unexpected operation: TransformProcess contains a ConvertFromSequence operation");
+                } else if (d.getSequenceSplit() != null) {
+                    throw new RuntimeException("Cannot execute examples individually: TransformProcess contains a SequenceSplit operation");
+                } else if (!FusedRowOperator.canFuse(d)) {
+                    throw new RuntimeException("Unknown action: " + d);
+                }
+            }
+            fusedOperator = FusedRowOperator.compile(initialSchema, actionList);
+        }
+        return fusedOperator;
+    }
+
+    /**
+     * Execute the full sequence of transformations on a batch of examples, in columnar format.
+     * Transforms, filters and conditions that implement {@link BatchTransform}, {@link BatchFilter} or {@link BatchCondition}
+     * are executed on the whole batch at once; all other operations are executed one example at a time.
+     * Examples removed by filters are removed from the returned batch.<br>
+     * <b>NOTE:</b> As with {@link #execute(List)}, only transforms and filters are supported.
+     *
+     * @param batch Batch of examples, with the initial schema of this TransformProcess. May be modified in place
+     * @return The transformed batch
+     */
+    public ColumnarBatch executeBatch(ColumnarBatch batch) {
+        ColumnarBatch currBatch = batch;
 
         for (DataAction d : actionList) {
             if (d.getTransform() != null) {
-                Transform t = d.getTransform();
-                currValues = t.map(currValues);
-
+                currBatch = BatchUtils.mapBatch(d.getTransform(), currBatch);
             } else if (d.getFilter() != null) {
-                Filter f = d.getFilter();
-                if (f.removeExample(currValues)) return null;
+                BatchUtils.filter(d.getFilter(), currBatch);
             } else if (d.getConvertToSequence() != null) {
                 throw new RuntimeException("Cannot execute examples individually: TransformProcess contains a ConvertToSequence operation");
             } else if (d.getConvertFromSequence() != null) {
@@ -203,7 +263,17 @@ public class TransformProcess implements Serializable {
             }
         }
 
-        return currValues;
+        return currBatch;
+    }
+
+    /**
+     * Execute the full sequence of transformations on a list of examples, using the columnar batch execution mode.
+     * Examples removed by filters are not present in the output list.
+     *
+     * @see #executeBatch(ColumnarBatch)
+     */
+    public List<List<Writable>> executeBatch(List<List<Writable>> input) {
+        return executeBatch(ColumnarBatch.fromRows(initialSchema, input)).toRows();
     }
 
     public List<List<Writable>> executeSequenceToSequence(List<List<Writable>> input) {
@@ -233,12 +303,15 @@ public class TransformProcess implements Serializable {
     }
 
     /**
-     * Execute the full sequence of transformations for a single time series (sequence). May return null if example is filtered
+     * Execute the full sequence of transformations for a single time series (sequence). May return null if example is filtered<br>
+     * Not yet implemented: to execute a TransformProcess on a set of sequences (or one that converts examples to
+     * sequences, reduces or calculates ranks) without Spark, use
+     * {@link org.datavec.api.transform.local.LocalTransformExecutor}
      */
     public List<List<Writable>> executeSequence(List<List<Writable>> inputSequence) {
 
 
-        throw new UnsupportedOperationException("Not yet implemented");
+        throw new UnsupportedOperationException("Not yet implemented: use LocalTransformExecutor to execute on sequences");
     }
 
 
@@ -438,6 +511,21 @@ public class TransformProcess implements Serializable {
             return this;
         }
 
+        /**
+         * Convert the specified column(s) from a categorical representation to a sparse one-hot representation.
+         * Unlike {@link #categoricalToOneHot(String...)}, each column is replaced by a single sparse vector column
+         * (values: {@link org.datavec.api.writable.SparseVectorWritable}), which is much more efficient for
+         * categorical columns with a large number of states.
+         *
+         * @param columnNames Names of the categorical column(s) to convert to a sparse one-hot representation
+         */
+        public Builder categoricalToSparseOneHot(String... columnNames) {
+            for (String s : columnNames) {
+                transform(new CategoricalToOneHotTransform(s, true));
+            }
+            return this;
+        }
+
         /**
          * Convert the specified column(s) from a categorical representation to an integer representation.
          * This will replace the specified categorical column(s) with an integer repreesentation, where
@@ -452,6 +540,35 @@ public class TransformProcess implements Serializable {
             return this;
         }
 
+        /**
+         * Dictionary encode the specified categorical column(s): values are replaced by
+         * {@link org.datavec.api.writable.CategoricalWritable} values (int codes), so that subsequent categorical
+         * transforms, conditions and reductions do not require String lookups, and only the int codes are written in
+         * Spark shuffles (with the datavec-spark Kryo serializers).
+         * Use {@link #decodeCategorical(String...)} to convert the column(s) back to Text values.
+         *
+         * @param columnNames Names of the categorical column(s) to encode
+         */
+        public Builder encodeCategorical(String... columnNames){
+            for(String s : columnNames){
+                transform(new CategoricalEncodeTransform(s));
+            }
+            return this;
+        }
+
+        /**
+         * Convert the specified dictionary encoded categorical column(s) (see {@link #encodeCategorical(String...)})
+         * back to Text values
+         *
+         * @param columnNames Names of the categorical column(s) to decode
+         */
+        public Builder decodeCategorical(String... columnNames){
+            for(String s : columnNames){
+                transform(new CategoricalDecodeTransform(s));
+            }
+            return this;
+        }
+
         /**
          * Convert the specified column from an integer representation (assume values 0 to numCategories-1) to
          * a categorical representation, given the specified state names
@@ -512,6 +629,14 @@ public class TransformProcess implements Serializable {
                     //mean excluding min value: (sum - countMin*min)/(totalCount - countMin)
                     double meanExMin = (mean * ca.getCountTotal() - countMin * min) / (ca.getCountTotal() - countMin);
                     return transform(new Log2Normalizer(column, meanExMin, min, 0.5));
+                case Robust:
+                    if (nca.getQuantiles() == null)
+                        throw new IllegalStateException("Cannot apply robust normalization to column \"" + column
+                                + "\": analysis does not include quantiles");
+                    double median = nca.getQuantile(0.5);
+                    double iqr = nca.getQuantile(0.75) - nca.getQuantile(0.25);
+                    //As per standardization, but centered on the median and scaled by the IQR (if non-zero)
+                    return transform(new StandardizeNormalizer(column, median, (iqr > 0 ? iqr : 1.0)));
                 default:
                     throw new RuntimeException("Unknown/not implemented normalization type: " + type);
             }
@@ -611,6 +736,23 @@ public class TransformProcess implements Serializable {
             return this;
         }
 
+        /**
+         * Calculate an approximate percentile rank for each example, according to a numerical column.<br>
+         * The percentile rank (the estimated fraction of examples that come before each example in the sort order) will be
+         * added in a new Double column, with values between 0 and 1. Unlike {@link #calculateSortedRank(String, String, Comparator, boolean)},
+         * this is calculated using a quantile sketch, and does not require the data to be sorted.<br>
+         *
+         * Currently, this can only be applied on standard (i.e., non-sequence) data
+         *
+         * @param newColumnName    Name of the new column (will contain the percentile rank for each example)
+         * @param sortOnColumn     Numerical column to rank on
+         * @param ascending        If true: rank ascending. False: descending
+         */
+        public Builder calculateApproximatePercentileRank(String newColumnName, String sortOnColumn, boolean ascending){
+            actionList.add(new DataAction(CalculateSortedRank.approximatePercentile(newColumnName, sortOnColumn, ascending)));
+            return this;
+        }
+
         /**
          * Convert the specified String column to a categorical column. The state names must be provided.
          *
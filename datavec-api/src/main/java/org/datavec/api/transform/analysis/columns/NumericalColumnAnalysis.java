@@ -17,6 +17,7 @@
 package org.datavec.api.transform.analysis.columns;
 
 import lombok.Data;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
 
 /**
  * Abstract class for numerical column analysis
@@ -35,6 +36,8 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
     protected final long countMinValue;
     protected final long countMaxValue;
     protected final long countTotal;
+    protected final long countUnique;
+    protected final QuantileSketch quantiles;
     protected double[] histogramBuckets;
     protected long[] histogramBucketCounts;
 
@@ -48,6 +51,8 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
         this.countMinValue = builder.countMinValue;
         this.countMaxValue = builder.countMaxValue;
         this.countTotal = builder.countTotal;
+        this.countUnique = builder.countUnique;
+        this.quantiles = builder.quantiles;
         this.histogramBuckets = builder.histogramBuckets;
         this.histogramBucketCounts = builder.histogramBucketCounts;
     }
@@ -56,7 +61,18 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
     public String toString() {
         return "mean=" + mean + ",sampleStDev=" + sampleStdev + ",sampleVariance=" + sampleVariance + ",countZero=" + countZero
                 + ",countNegative=" + countNegative + ",countPositive=" + countPositive + ",countMinValue=" + countMinValue
-                + ",countMaxValue=" + countMaxValue + ",count=" + countTotal;
+                + ",countMaxValue=" + countMaxValue + ",count=" + countTotal + ",countUnique=" + countUnique;
+    }
+
+    /**
+     * Get an (approximate) quantile of the values in the column, from the quantile sketch
+     *
+     * @param q Quantile, between 0 and 1. For example, 0.5 for the median
+     * @return Approximate quantile, or NaN if no quantile sketch is available
+     */
+    public double getQuantile(double q) {
+        if (quantiles == null) return Double.NaN;
+        return quantiles.getQuantile(q);
     }
 
     public abstract double getMinDouble();
@@ -74,6 +90,8 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
         protected long countMinValue;
         protected long countMaxValue;
         protected long countTotal;
+        protected long countUnique;
+        protected QuantileSketch quantiles;
         protected double[] histogramBuckets;
         protected long[] histogramBucketCounts;
 
@@ -122,6 +140,22 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
             return (T) this;
         }
 
+        /**
+         * @param countUnique Number of unique values (may be approximate)
+         */
+        public T countUnique(long countUnique) {
+            this.countUnique = countUnique;
+            return (T) this;
+        }
+
+        /**
+         * @param quantiles Sketch of the distribution of values, for estimating quantiles
+         */
+        public T quantiles(QuantileSketch quantiles) {
+            this.quantiles = quantiles;
+            return (T) this;
+        }
+
         public T histogramBuckets(double[] histogramBuckets) {
             this.histogramBuckets = histogramBuckets;
             return (T) this;
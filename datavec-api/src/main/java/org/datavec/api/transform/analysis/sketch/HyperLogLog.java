@@ -0,0 +1,160 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * HyperLogLog sketch, for estimating the number of distinct values in a data set in bounded memory.<br>
+ * Sketches are mergeable: the merge of sketches built over two data sets is the sketch of their union.<br>
+ * The relative standard error of the estimate is approximately 1.04/sqrt(2^precision): about 0.8% for the default
+ * precision of 14, using 16 kB of memory. Small sets of values are counted exactly (in a set of 64-bit hashes); the
+ * registers are only allocated once the number of distinct hashes exceeds 2^precision / 8.
+ */
+public class HyperLogLog implements Serializable {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private Set<Long> sparse = new HashSet<>();
+    private byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision Number of bits of the hash used to select a register: 4 to 18 (inclusive)
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18)
+            throw new IllegalArgumentException("Precision must be between 4 and 18 inclusive: got " + precision);
+        this.precision = precision;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    public void add(double value) {
+        addHash(mix(Double.doubleToLongBits(value)));
+    }
+
+    public void add(String value) {
+        //64-bit FNV-1a over the characters, followed by a full avalanche
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        addHash(mix(h));
+    }
+
+    /**
+     * Add the value of a Writable, by its string representation
+     */
+    public void add(Writable value) {
+        add(value.toString());
+    }
+
+    private void addHash(long hash) {
+        if (registers == null) {
+            sparse.add(hash);
+            if (sparse.size() > (1 << precision) / 8) toDense();
+            return;
+        }
+        int idx = (int) (hash >>> (64 - precision));
+        //Position of the first 1 bit in the remaining bits. The guard bit bounds this at 64 - precision + 1
+        long w = (hash << precision) | (1L << (precision - 1));
+        byte rho = (byte) (Long.numberOfLeadingZeros(w) + 1);
+        if (rho > registers[idx]) registers[idx] = rho;
+    }
+
+    private void toDense() {
+        registers = new byte[1 << precision];
+        Set<Long> hashes = sparse;
+        sparse = null;
+        for (Long l : hashes) {
+            addHash(l);
+        }
+    }
+
+    /**
+     * Merge another sketch (of the same precision) into this sketch
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision)
+            throw new IllegalArgumentException("Cannot merge sketches of different precision: " + precision + " vs. " + other.precision);
+        if (other.registers == null) {
+            for (Long l : other.sparse) {
+                addHash(l);
+            }
+        } else {
+            if (registers == null) toDense();
+            for (int i = 0; i < registers.length; i++) {
+                if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return Estimated number of distinct values added to this sketch
+     */
+    public long cardinality() {
+        if (registers == null) return sparse.size();
+
+        int m = registers.length;
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) zeros++;
+        }
+        double alpha = 0.7213 / (1.0 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            //Small range correction: linear counting
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /** MurmurHash3 64-bit finalizer */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog(precision=" + precision + ",cardinality=" + cardinality() + ")";
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.analysis.sketch;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A mergeable sketch for estimating quantiles (and ranks) of a stream of values in bounded memory.<br>
+ * Values are held in a hierarchy of buffers ("compactors") of capacity k: values at level h each represent 2^h
+ * original values. When a buffer fills, it is sorted and every second value (starting at a random offset) is promoted
+ * to the next level, and the rest are discarded, as in the KLL family of sketches. The rank error is of the order of
+ * 1/k with high probability; memory is O(k log(n/k)).<br>
+ * Sketches are mergeable: the merge of sketches built over two data sets is a sketch of their union.
+ * NaN values are ignored.
+ */
+public class QuantileSketch implements Serializable {
+
+    public static final int DEFAULT_K = 200;
+
+    private final int k;
+    private final Random random;
+    private double[][] levels = new double[1][];
+    private int[] levelSizes = new int[1];
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    //Sorted (value, cumulative weight) view, for queries. Invalidated on modification. Immutable once created, so it
+    //can be safely published to (and shared by) concurrent readers
+    private transient volatile SortedView sortedView;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k Capacity of each compactor. Larger values give more accurate estimates, using more memory
+     */
+    public QuantileSketch(int k) {
+        this(k, new Random().nextLong());
+    }
+
+    /**
+     * @param k    Capacity of each compactor
+     * @param seed Seed for the random compaction offsets
+     */
+    public QuantileSketch(int k, long seed) {
+        if (k < 2) throw new IllegalArgumentException("k must be at least 2: got " + k);
+        this.k = k;
+        this.random = new Random(seed);
+        this.levels[0] = new double[k];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        if (count == 0 || value < min) min = value;
+        if (count == 0 || value > max) max = value;
+        count++;
+        append(0, value);
+        if (levelSizes[0] >= k) compress();
+        sortedView = null;
+    }
+
+    private void append(int level, double value) {
+        if (level >= levels.length) {
+            int oldLength = levels.length;
+            levels = Arrays.copyOf(levels, level + 1);
+            levelSizes = Arrays.copyOf(levelSizes, level + 1);
+            for (int h = oldLength; h <= level; h++) levels[h] = new double[k];
+        }
+        double[] buffer = levels[level];
+        if (levelSizes[level] == buffer.length) {
+            buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            levels[level] = buffer;
+        }
+        buffer[levelSizes[level]++] = value;
+    }
+
+    /**
+     * Compact every full level, from the bottom up: compacting a level may fill the level above it
+     */
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (levelSizes[h] >= k) compact(h);
+        }
+    }
+
+    private void compact(int level) {
+        double[] buffer = levels[level];
+        int size = levelSizes[level];
+        Arrays.sort(buffer, 0, size);
+        //For an odd number of values, the largest value is left at this level
+        int n = size - (size % 2);
+        int offset = random.nextBoolean() ? 1 : 0;
+        for (int i = offset; i < n; i += 2) {
+            append(level + 1, buffer[i]);
+        }
+        if (n < size) buffer[0] = buffer[size - 1];
+        levelSizes[level] = size - n;
+    }
+
+    /**
+     * Merge another sketch into this sketch
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.count == 0) return this;
+        if (count == 0 || other.min < min) min = other.min;
+        if (count == 0 || other.max > max) max = other.max;
+        count += other.count;
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.levelSizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        compress();
+        sortedView = null;
+        return this;
+    }
+
+    /**
+     * @return Number of (non-NaN) values added to the sketch
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Number of values currently retained by the sketch, over all levels
+     */
+    public int getNumRetained() {
+        int total = 0;
+        for (int s : levelSizes) total += s;
+        return total;
+    }
+
+    /**
+     * @return Minimum value (exact), or NaN if no values have been added
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return Maximum value (exact), or NaN if no values have been added
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Estimate the q-th quantile of the values
+     *
+     * @param q Quantile, between 0 and 1 inclusive. For example, 0.5 for the median
+     * @return Estimated quantile, or NaN if no values have been added
+     */
+    public double getQuantile(double q) {
+        if (q < 0.0 || q > 1.0) throw new IllegalArgumentException("Quantile must be between 0 and 1: got " + q);
+        if (count == 0) return Double.NaN;
+        if (q == 0.0) return min;
+        if (q == 1.0) return max;
+        SortedView view = getSortedView();
+        long target = (long) Math.ceil(q * count);
+        int idx = Arrays.binarySearch(view.cumulativeWeights, target);
+        if (idx < 0) idx = -(idx + 1);
+        return view.values[Math.min(idx, view.values.length - 1)];
+    }
+
+    /**
+     * Estimate the normalized rank of a value: the fraction of values that are less than or equal to it
+     *
+     * @param value Value
+     * @return Estimated fraction of values <= value, between 0 and 1; or NaN if no values have been added
+     */
+    public double getRank(double value) {
+        return getRank(value, true);
+    }
+
+    /**
+     * Estimate the normalized rank of a value: the fraction of values that are less than (or, if inclusive, less than
+     * or equal to) it
+     *
+     * @param value     Value
+     * @param inclusive If true: count values equal to the value as well as those less than it
+     * @return Estimated fraction of values, between 0 and 1; or NaN if no values have been added
+     */
+    public double getRank(double value, boolean inclusive) {
+        if (count == 0) return Double.NaN;
+        SortedView view = getSortedView();
+        double[] sortedValues = view.values;
+        //Index of the first sorted value greater than (or, if exclusive, greater than or equal to) the value
+        int lo = 0;
+        int hi = sortedValues.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedValues[mid] < value || (inclusive && sortedValues[mid] == value)) lo = mid + 1;
+            else hi = mid;
+        }
+        return (lo == 0 ? 0.0 : (double) view.cumulativeWeights[lo - 1] / count);
+    }
+
+    /**
+     * Build the sorted view of the sketch used for quantile and rank queries, if it is not already built.<br>
+     * Queries call this automatically, and are safe to call concurrently (provided the sketch is not being modified).
+     * Calling this once before querying the sketch from multiple threads avoids each thread building the view.
+     */
+    public void prepare() {
+        getSortedView();
+    }
+
+    private SortedView getSortedView() {
+        SortedView view = sortedView;
+        if (view == null) {
+            view = new SortedView(levels, levelSizes);
+            sortedView = view;
+        }
+        return view;
+    }
+
+    /**
+     * Values retained by the sketch in sorted order, with their cumulative weights
+     */
+    private static class SortedView {
+        private final double[] values;
+        private final long[] cumulativeWeights;
+
+        private SortedView(double[][] levels, int[] levelSizes) {
+            //Sort each level, then merge the (few) sorted levels
+            int numLevels = levelSizes.length;
+            double[][] sortedLevels = new double[numLevels][];
+            int total = 0;
+            for (int h = 0; h < numLevels; h++) {
+                sortedLevels[h] = Arrays.copyOf(levels[h], levelSizes[h]);
+                Arrays.sort(sortedLevels[h]);
+                total += levelSizes[h];
+            }
+            values = new double[total];
+            cumulativeWeights = new long[total];
+            int[] pos = new int[numLevels];
+            long sum = 0;
+            for (int i = 0; i < total; i++) {
+                int minLevel = -1;
+                for (int h = 0; h < numLevels; h++) {
+                    if (pos[h] < sortedLevels[h].length && (minLevel < 0
+                            || sortedLevels[h][pos[h]] < sortedLevels[minLevel][pos[minLevel]])) {
+                        minLevel = h;
+                    }
+                }
+                values[i] = sortedLevels[minLevel][pos[minLevel]++];
+                sum += 1L << minLevel;
+                cumulativeWeights[i] = sum;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch(k=" + k + ",count=" + count + ",min=" + min + ",median=" + getQuantile(0.5) + ",max=" + max + ")";
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+/**
+ * A batch (vectorized) kernel for a {@link org.datavec.api.transform.condition.Condition}
+ */
+public interface BatchCondition {
+
+    /**
+     * Evaluate the condition for every row in the batch
+     *
+     * @param batch Batch to evaluate the condition on
+     * @param out   Output array, length at least batch.numRows(). For each row: set to true if the condition is
+     *              satisfied, false otherwise
+     */
+    void conditionBatch(ColumnarBatch batch, boolean[] out);
+
+}
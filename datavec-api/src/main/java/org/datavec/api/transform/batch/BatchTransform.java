@@ -0,0 +1,40 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import org.datavec.api.transform.Transform;
+
+/**
+ * A batch (vectorized) kernel for a {@link Transform}.<br>
+ * Transforms implementing this interface are executed on a whole {@link ColumnarBatch} at once by
+ * {@link org.datavec.api.transform.TransformProcess#executeBatch(ColumnarBatch)}; other transforms are executed
+ * row by row via {@link Transform#map(java.util.List)}.
+ */
+public interface BatchTransform {
+
+    /**
+     * Execute the transform on all rows of the batch.
+     * The input batch has the transform's input schema; the returned batch must have the schema returned by
+     * {@link Transform#transform(org.datavec.api.transform.schema.Schema)}.
+     * Implementations may modify the input batch in place, and may return it.
+     *
+     * @param batch Batch to transform
+     * @return Transformed batch
+     */
+    ColumnarBatch mapBatch(ColumnarBatch batch);
+
+}
@@ -0,0 +1,84 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilities for executing transforms, filters and conditions on a {@link ColumnarBatch}: the batch kernel is used
+ * where the operation provides one, otherwise the operation is executed row by row.
+ */
+public class BatchUtils {
+
+    private BatchUtils() {
+    }
+
+    /**
+     * Execute the transform on the batch, using {@link BatchTransform#mapBatch(ColumnarBatch)} if available, or
+     * {@link Transform#map(List)} on each row otherwise
+     */
+    public static ColumnarBatch mapBatch(Transform transform, ColumnarBatch batch) {
+        if (transform instanceof BatchTransform) {
+            return ((BatchTransform) transform).mapBatch(batch);
+        }
+        int n = batch.numRows();
+        List<List<Writable>> out = new ArrayList<>(n);
+        for (int r = 0; r < n; r++) {
+            out.add(transform.map(batch.getRow(r)));
+        }
+        return ColumnarBatch.fromRows(transform.transform(transform.getInputSchema()), out);
+    }
+
+    /**
+     * Evaluate the condition on every row of the batch, using {@link BatchCondition#conditionBatch(ColumnarBatch, boolean[])}
+     * if available, or {@link Condition#condition(List)} on each row otherwise
+     */
+    public static void condition(Condition condition, ColumnarBatch batch, boolean[] out) {
+        if (condition instanceof BatchCondition) {
+            ((BatchCondition) condition).conditionBatch(batch, out);
+            return;
+        }
+        int n = batch.numRows();
+        for (int r = 0; r < n; r++) {
+            out[r] = condition.condition(batch.getRow(r));
+        }
+    }
+
+    /**
+     * Remove the examples from the batch that are removed by the filter, using
+     * {@link BatchFilter#removeExamples(ColumnarBatch, boolean[])} if available, or {@link Filter#removeExample(List)}
+     * on each row otherwise
+     */
+    public static void filter(Filter filter, ColumnarBatch batch) {
+        int n = batch.numRows();
+        boolean[] remove = new boolean[n];
+        if (filter instanceof BatchFilter) {
+            ((BatchFilter) filter).removeExamples(batch, remove);
+        } else {
+            for (int r = 0; r < n; r++) {
+                remove[r] = filter.removeExample(batch.getRow(r));
+            }
+        }
+        batch.removeRows(remove);
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A batch of examples (rows) stored in columnar format, for use with {@link org.datavec.api.transform.TransformProcess#executeBatch(ColumnarBatch)}.<br>
+ * Each column is stored either in its primitive representation, according to the column type in the schema:<br>
+ * - Integer: int[]<br>
+ * - Long and Time: long[]<br>
+ * - Double: double[]<br>
+ * - Categorical: int[], with each value being the index of the state in the column's {@link CategoricalMetaData#getStateNames()}
+ * (i.e., dictionary encoded)<br>
+ * or as a Writable[] (always the case for String and Bytes columns).<br>
+ * Columns created via {@link #fromRows(Schema, List)} are initially stored as Writable[], and are decoded into their
+ * primitive representation the first time a batch kernel requests them (for example, via {@link #getDoubleColumn(int)}).
+ * When converted back to rows, primitive columns are materialized as IntWritable, LongWritable, DoubleWritable or
+ * (for categorical columns) Text - or CategoricalWritable, if the column is
+ * {@link CategoricalMetaData#isDictionaryEncoded()}.<br>
+ * Note that the column arrays may be longer than {@link #numRows()}; only the first numRows() values are valid.
+ */
+public class ColumnarBatch implements Serializable {
+
+    private Schema schema;
+    private int numRows;
+    private Object[] columns;
+
+    private ColumnarBatch(Schema schema, int numRows, Object[] columns) {
+        if (columns.length != schema.numColumns())
+            throw new IllegalArgumentException("Number of columns (" + columns.length + ") does not match schema (" + schema.numColumns() + " columns)");
+        this.schema = schema;
+        this.numRows = numRows;
+        this.columns = columns;
+    }
+
+    /**
+     * Allocate a new batch with the specified number of rows. Columns are allocated in their primitive representation
+     * (according to the schema) where possible, and as Writable[] otherwise. All values are initially 0 (or null)
+     *
+     * @param schema  Schema for the batch
+     * @param numRows Number of rows
+     */
+    public static ColumnarBatch allocate(Schema schema, int numRows) {
+        Object[] columns = new Object[schema.numColumns()];
+        for (int i = 0; i < columns.length; i++) {
+            switch (schema.getType(i)) {
+                case Integer:
+                case Categorical:
+                    columns[i] = new int[numRows];
+                    break;
+                case Long:
+                case Time:
+                    columns[i] = new long[numRows];
+                    break;
+                case Double:
+                    columns[i] = new double[numRows];
+                    break;
+                default:
+                    columns[i] = new Writable[numRows];
+            }
+        }
+        return new ColumnarBatch(schema, numRows, columns);
+    }
+
+    /**
+     * Create a columnar batch from a list of examples. The writables are not converted until a column is requested
+     * in its primitive form.
+     *
+     * @param schema Schema of the examples
+     * @param rows   Examples to convert
+     */
+    public static ColumnarBatch fromRows(Schema schema, List<? extends List<Writable>> rows) {
+        int nCols = schema.numColumns();
+        int nRows = rows.size();
+        Object[] columns = new Object[nCols];
+        Writable[][] values = new Writable[nCols][];
+        for (int c = 0; c < nCols; c++) {
+            values[c] = new Writable[nRows];
+            columns[c] = values[c];
+        }
+        int r = 0;
+        for (List<Writable> row : rows) {
+            if (row.size() != nCols) {
+                throw new IllegalStateException("Cannot create batch: example " + r + " has " + row.size()
+                        + " values, but schema has " + nCols + " columns");
+            }
+            int c = 0;
+            for (Writable w : row) {
+                values[c++][r] = w;
+            }
+            r++;
+        }
+        return new ColumnarBatch(schema, nRows, columns);
+    }
+
+    /**
+     * Convert this batch back to a list of examples
+     */
+    public List<List<Writable>> toRows() {
+        List<List<Writable>> out = new ArrayList<>(numRows);
+        for (int r = 0; r < numRows; r++) {
+            out.add(getRow(r));
+        }
+        return out;
+    }
+
+    /**
+     * Materialize a single row (example) of this batch
+     */
+    public List<Writable> getRow(int row) {
+        List<Writable> out = new ArrayList<>(columns.length);
+        for (int c = 0; c < columns.length; c++) {
+            out.add(getWritable(c, row));
+        }
+        return out;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public int numRows() {
+        return numRows;
+    }
+
+    public int numColumns() {
+        return columns.length;
+    }
+
+    /**
+     * Get the value at the specified column and row as a Writable. For primitive columns, a new Writable is created
+     */
+    public Writable getWritable(int column, int row) {
+        Object col = columns[column];
+        if (col instanceof Writable[]) return ((Writable[]) col)[row];
+        switch (schema.getType(column)) {
+            case Integer:
+                return new IntWritable(((int[]) col)[row]);
+            case Categorical:
+                CategoricalMetaData meta = (CategoricalMetaData) schema.getMetaData(column);
+                if (meta.isDictionaryEncoded()) return new CategoricalWritable(meta.getDictionary(), ((int[]) col)[row]);
+                return new Text(meta.getStateNames().get(((int[]) col)[row]));
+            case Long:
+            case Time:
+                return new LongWritable(((long[]) col)[row]);
+            case Double:
+                return new DoubleWritable(((double[]) col)[row]);
+            default:
+                throw new IllegalStateException("Unexpected storage for column " + column + " of type " + schema.getType(column));
+        }
+    }
+
+    /**
+     * @return True if the column is currently stored in its primitive representation
+     */
+    public boolean isPrimitive(int column) {
+        return !(columns[column] instanceof Writable[]);
+    }
+
+    /**
+     * Get the column as a Writable[], converting primitive columns to Writables if necessary.
+     * Modifications to the returned array are reflected in the batch.
+     */
+    public Writable[] getWritableColumn(int column) {
+        Object col = columns[column];
+        if (col instanceof Writable[]) return (Writable[]) col;
+        Writable[] out = new Writable[numRows];
+        for (int r = 0; r < numRows; r++) {
+            out[r] = getWritable(column, r);
+        }
+        columns[column] = out;
+        return out;
+    }
+
+    /**
+     * Get an Integer column as an int[], decoding it if necessary. Modifications to the returned array are reflected
+     * in the batch.
+     */
+    public int[] getIntColumn(int column) {
+        checkType(column, ColumnType.Integer);
+        Object col = columns[column];
+        if (col instanceof int[]) return (int[]) col;
+        Writable[] w = (Writable[]) col;
+        int[] out = new int[w.length];
+        for (int r = 0; r < numRows; r++) {
+            out[r] = w[r].toInt();
+        }
+        columns[column] = out;
+        return out;
+    }
+
+    /**
+     * Get a Long or Time column as a long[], decoding it if necessary. Modifications to the returned array are
+     * reflected in the batch.
+     */
+    public long[] getLongColumn(int column) {
+        ColumnType type = schema.getType(column);
+        if (type != ColumnType.Long && type != ColumnType.Time)
+            throw new IllegalStateException("Column " + column + " (\"" + schema.getName(column) + "\") is not a Long or Time column: is " + type);
+        Object col = columns[column];
+        if (col instanceof long[]) return (long[]) col;
+        Writable[] w = (Writable[]) col;
+        long[] out = new long[w.length];
+        for (int r = 0; r < numRows; r++) {
+            out[r] = w[r].toLong();
+        }
+        columns[column] = out;
+        return out;
+    }
+
+    /**
+     * Get a Double column as a double[], decoding it if necessary. Modifications to the returned array are reflected
+     * in the batch.
+     */
+    public double[] getDoubleColumn(int column) {
+        checkType(column, ColumnType.Double);
+        Object col = columns[column];
+        if (col instanceof double[]) return (double[]) col;
+        Writable[] w = (Writable[]) col;
+        double[] out = new double[w.length];
+        for (int r = 0; r < numRows; r++) {
+            out[r] = w[r].toDouble();
+        }
+        columns[column] = out;
+        return out;
+    }
+
+    /**
+     * Get the values of a numeric column (of any type) as a new double[]. Unlike {@link #getDoubleColumn(int)}, the
+     * storage of the column is not changed, and modifications to the returned array are not reflected in the batch.
+     */
+    public double[] getColumnAsDouble(int column) {
+        Object col = columns[column];
+        double[] out = new double[numRows];
+        if (col instanceof double[]) {
+            System.arraycopy(col, 0, out, 0, numRows);
+        } else if (col instanceof long[]) {
+            long[] a = (long[]) col;
+            for (int r = 0; r < numRows; r++) out[r] = a[r];
+        } else if (col instanceof int[] && schema.getType(column) == ColumnType.Integer) {
+            int[] a = (int[]) col;
+            for (int r = 0; r < numRows; r++) out[r] = a[r];
+        } else {
+            for (int r = 0; r < numRows; r++) out[r] = getWritable(column, r).toDouble();
+        }
+        return out;
+    }
+
+    /**
+     * Get a Categorical column as an int[] of state indexes, encoding it if necessary. Modifications to the returned
+     * array are reflected in the batch.
+     *
+     * @throws IllegalStateException If any value is not one of the column's states
+     */
+    public int[] getCategoricalColumn(int column) {
+        checkType(column, ColumnType.Categorical);
+        Object col = columns[column];
+        if (col instanceof int[]) return (int[]) col;
+        //Values that are already dictionary encoded (CategoricalWritable) are not looked up
+        CategoricalDictionary dictionary = ((CategoricalMetaData) schema.getMetaData(column)).getDictionary();
+        Writable[] w = (Writable[]) col;
+        int[] out = new int[w.length];
+        for (int r = 0; r < numRows; r++) {
+            int idx = dictionary.indexOf(w[r]);
+            if (idx < 0) throw new IllegalStateException("Unknown state (index not found) in column \""
+                    + schema.getName(column) + "\": " + w[r]);
+            out[r] = idx;
+        }
+        columns[column] = out;
+        return out;
+    }
+
+    /**
+     * Return a new batch with the given schema, and columns selected (by index) from this batch. Column arrays are
+     * shared with this batch, except where the same source column is selected more than once (in which case the
+     * additional columns are copies).
+     *
+     * @param newSchema     Schema of the new batch
+     * @param sourceColumns For each column in the new batch: the index of the column in this batch
+     */
+    public ColumnarBatch selectColumns(Schema newSchema, int[] sourceColumns) {
+        Object[] out = new Object[sourceColumns.length];
+        boolean[] used = new boolean[columns.length];
+        for (int i = 0; i < sourceColumns.length; i++) {
+            int src = sourceColumns[i];
+            out[i] = (used[src] ? copyOf(columns[src]) : columns[src]);
+            used[src] = true;
+        }
+        return new ColumnarBatch(newSchema, numRows, out);
+    }
+
+    /**
+     * Return a new batch with the given schema, sharing all of the column arrays with this batch.
+     * Used when the representation of each column is unchanged, or has been set via the setXColumn methods
+     */
+    public ColumnarBatch withSchema(Schema newSchema) {
+        return new ColumnarBatch(newSchema, numRows, columns.clone());
+    }
+
+    /**
+     * Replace the storage for the specified column. The array must be of the appropriate type for the column in the
+     * schema of the batch it will be used with (int[], long[], double[] or Writable[]), and have at least numRows() elements
+     */
+    public void setColumn(int column, Object values) {
+        if (!(values instanceof int[] || values instanceof long[] || values instanceof double[] || values instanceof Writable[]))
+            throw new IllegalArgumentException("Invalid column storage type: " + (values == null ? null : values.getClass()));
+        columns[column] = values;
+    }
+
+    /**
+     * Remove rows from the batch, compacting all columns in place
+     *
+     * @param remove For each row: true to remove, false to keep. Length must be at least numRows()
+     */
+    public void removeRows(boolean[] remove) {
+        int[] keep = new int[numRows];
+        int nKeep = 0;
+        for (int r = 0; r < numRows; r++) {
+            if (!remove[r]) keep[nKeep++] = r;
+        }
+        if (nKeep == numRows) return;
+
+        for (Object col : columns) {
+            if (col instanceof int[]) {
+                int[] a = (int[]) col;
+                for (int i = 0; i < nKeep; i++) a[i] = a[keep[i]];
+            } else if (col instanceof long[]) {
+                long[] a = (long[]) col;
+                for (int i = 0; i < nKeep; i++) a[i] = a[keep[i]];
+            } else if (col instanceof double[]) {
+                double[] a = (double[]) col;
+                for (int i = 0; i < nKeep; i++) a[i] = a[keep[i]];
+            } else {
+                Object[] a = (Object[]) col;
+                for (int i = 0; i < nKeep; i++) a[i] = a[keep[i]];
+                Arrays.fill(a, nKeep, numRows, null);
+            }
+        }
+        numRows = nKeep;
+    }
+
+    private void checkType(int column, ColumnType expected) {
+        ColumnType type = schema.getType(column);
+        if (type != expected)
+            throw new IllegalStateException("Column " + column + " (\"" + schema.getName(column) + "\") is not a " + expected + " column: is " + type);
+    }
+
+    private static Object copyOf(Object col) {
+        if (col instanceof int[]) return ((int[]) col).clone();
+        if (col instanceof long[]) return ((long[]) col).clone();
+        if (col instanceof double[]) return ((double[]) col).clone();
+        return ((Writable[]) col).clone();
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarBatch(numRows=" + numRows + ",columns=" + schema.getColumnNames() + ")";
+    }
+}
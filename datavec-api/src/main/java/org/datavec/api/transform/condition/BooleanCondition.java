@@ -16,6 +16,9 @@
 
 package org.datavec.api.transform.condition;
 
+import org.datavec.api.transform.batch.ColumnarBatch;
+import org.datavec.api.transform.batch.BatchUtils;
+import org.datavec.api.transform.batch.BatchCondition;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 
@@ -27,7 +30,7 @@ import java.util.List;
  *
  * @author Alex Black
  */
-public class BooleanCondition implements Condition {
+public class BooleanCondition implements Condition, BatchCondition {
 
     public enum Type {AND, OR, NOT, XOR};
 
@@ -96,6 +99,33 @@ public class BooleanCondition implements Condition {
         }
     }
 
+    @Override
+    public void conditionBatch(ColumnarBatch batch, boolean[] out) {
+        int n = batch.numRows();
+        BatchUtils.condition(conditions[0], batch, out);
+        if (type == Type.NOT) {
+            for (int i = 0; i < n; i++) out[i] = !out[i];
+            return;
+        }
+        boolean[] temp = new boolean[n];
+        for (int j = 1; j < conditions.length; j++) {
+            BatchUtils.condition(conditions[j], batch, temp);
+            switch (type) {
+                case AND:
+                    for (int i = 0; i < n; i++) out[i] &= temp[i];
+                    break;
+                case OR:
+                    for (int i = 0; i < n; i++) out[i] |= temp[i];
+                    break;
+                case XOR:
+                    for (int i = 0; i < n; i++) out[i] ^= temp[i];
+                    break;
+                default:
+                    throw new RuntimeException("Unknown condition type: " + type);
+            }
+        }
+    }
+
     @Override
     public void setInputSchema(Schema schema) {
         for(Condition c : conditions){
@@ -16,6 +16,8 @@
 
 package org.datavec.api.transform.condition.column;
 
+import org.datavec.api.transform.batch.ColumnarBatch;
+import org.datavec.api.transform.batch.BatchCondition;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.condition.Condition;
@@ -28,7 +30,7 @@ import java.util.List;
  *
  * @author Alex Black
  */
-public abstract class BaseColumnCondition implements Condition {
+public abstract class BaseColumnCondition implements Condition, BatchCondition {
 
     public static final SequenceConditionMode DEFAULT_SEQUENCE_CONDITION_MODE = SequenceConditionMode.Or;
 
@@ -83,6 +85,14 @@ public abstract class BaseColumnCondition implements Condition {
 
     public abstract boolean columnCondition(Writable writable);
 
+    @Override
+    public void conditionBatch(ColumnarBatch batch, boolean[] out) {
+        int n = batch.numRows();
+        for (int i = 0; i < n; i++) {
+            out[i] = columnCondition(batch.getWritable(columnIdx, i));
+        }
+    }
+
     @Override
     public abstract String toString();
 }
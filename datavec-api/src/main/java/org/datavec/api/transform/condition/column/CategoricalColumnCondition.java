@@ -16,6 +16,10 @@
 
 package org.datavec.api.transform.condition.column;
 
+import org.datavec.api.writable.CategoricalDictionary;
+import org.datavec.api.writable.CategoricalWritable;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.condition.ConditionOp;
@@ -32,6 +36,7 @@ public class CategoricalColumnCondition extends BaseColumnCondition {
     private final ConditionOp op;
     private final String value;
     private final Set<String> set;
+    private transient volatile StateResults stateResults;
 
     /**
      * Constructor for conditions equal or not equal.
@@ -99,15 +104,25 @@ public class CategoricalColumnCondition extends BaseColumnCondition {
 
     @Override
     public boolean columnCondition(Writable writable) {
+        if (writable instanceof CategoricalWritable) {
+            //Dictionary encoded: look up the result for the state, rather than comparing Strings
+            CategoricalWritable cw = (CategoricalWritable) writable;
+            CategoricalDictionary dictionary = cw.getDictionary();
+            if (dictionary != null) return getStateResults(dictionary)[cw.getIndex()];
+        }
+        return columnCondition(writable.toString());
+    }
+
+    private boolean columnCondition(String str) {
         switch (op) {
             case Equal:
-                return value.equals(writable.toString());
+                return value.equals(str);
             case NotEqual:
-                return !value.equals(writable.toString());
+                return !value.equals(str);
             case InSet:
-                return set.contains(writable.toString());
+                return set.contains(str);
             case NotInSet:
-                return !set.contains(writable.toString());
+                return !set.contains(str);
             case LessThan:
             case LessOrEqual:
             case GreaterThan:
@@ -118,6 +133,48 @@ public class CategoricalColumnCondition extends BaseColumnCondition {
         }
     }
 
+    @Override
+    public void conditionBatch(ColumnarBatch batch, boolean[] out) {
+        if (!batch.isPrimitive(columnIdx)) {
+            //Not encoded: check each value directly, so that invalid states are handled as in the row-wise case
+            super.conditionBatch(batch, out);
+            return;
+        }
+        //Encoded as state indexes: evaluate the condition once per state
+        boolean[] stateResult = getStateResults(((CategoricalMetaData) schema.getMetaData(columnIdx)).getDictionary());
+        int[] values = batch.getCategoricalColumn(columnIdx);
+        int n = batch.numRows();
+        for (int i = 0; i < n; i++) {
+            out[i] = stateResult[values[i]];
+        }
+    }
+
+    /**
+     * Get the result of the condition for each state of the dictionary, calculating and caching it if necessary
+     */
+    private boolean[] getStateResults(CategoricalDictionary dictionary) {
+        StateResults r = stateResults;
+        if (r == null || r.dictionary != dictionary) {
+            boolean[] results = new boolean[dictionary.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = columnCondition(dictionary.getState(i));
+            }
+            r = new StateResults(dictionary, results);
+            stateResults = r;
+        }
+        return r.results;
+    }
+
+    private static class StateResults {
+        private final CategoricalDictionary dictionary;
+        private final boolean[] results;
+
+        private StateResults(CategoricalDictionary dictionary, boolean[] results) {
+            this.dictionary = dictionary;
+            this.results = results;
+        }
+    }
+
     @Override
     public String toString() {
         return "CategoricalColumnCondition(colName=\"" + column + "\"," + op + "," +
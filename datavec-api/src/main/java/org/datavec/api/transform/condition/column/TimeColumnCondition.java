@@ -16,6 +16,8 @@
 
 package org.datavec.api.transform.condition.column;
 
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.transform.condition.ConditionOp;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.writable.Writable;
@@ -98,23 +100,40 @@ public class TimeColumnCondition extends BaseColumnCondition {
 
     @Override
     public boolean columnCondition(Writable writable) {
+        return doCondition(writable.toLong());
+    }
+
+    @Override
+    public void conditionBatch(ColumnarBatch batch, boolean[] out) {
+        if (schema.getType(columnIdx) != ColumnType.Time) {
+            super.conditionBatch(batch, out);
+            return;
+        }
+        long[] values = batch.getLongColumn(columnIdx);
+        int n = batch.numRows();
+        for (int i = 0; i < n; i++) {
+            out[i] = doCondition(values[i]);
+        }
+    }
+
+    private boolean doCondition(long input) {
         switch (op) {
             case LessThan:
-                return writable.toLong() < value;
+                return input < value;
             case LessOrEqual:
-                return writable.toLong() <= value;
+                return input <= value;
             case GreaterThan:
-                return writable.toLong() > value;
+                return input > value;
             case GreaterOrEqual:
-                return writable.toLong() >= value;
+                return input >= value;
             case Equal:
-                return writable.toLong() == value;
+                return input == value;
             case NotEqual:
-                return writable.toLong() != value;
+                return input != value;
             case InSet:
-                return set.contains(writable.toLong());
+                return set.contains(input);
             case NotInSet:
-                return !set.contains(writable.toLong());
+                return !set.contains(input);
             default:
                 throw new RuntimeException("Unknown or not implemented op: " + op);
         }
@@ -16,6 +16,9 @@
 
 package org.datavec.api.transform.filter;
 
+import org.datavec.api.transform.batch.ColumnarBatch;
+import org.datavec.api.transform.batch.BatchUtils;
+import org.datavec.api.transform.batch.BatchFilter;
 import org.datavec.api.transform.condition.Condition;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
@@ -29,7 +32,7 @@ import java.util.List;
  *
  * @author Alex Black
  */
-public class ConditionFilter implements Filter {
+public class ConditionFilter implements Filter, BatchFilter {
 
     private final Condition condition;
 
@@ -47,6 +50,11 @@ public class ConditionFilter implements Filter {
         return condition.conditionSequence(sequence);
     }
 
+    @Override
+    public void removeExamples(ColumnarBatch batch, boolean[] out) {
+        BatchUtils.condition(condition, batch, out);
+    }
+
     @Override
     public void setInputSchema(Schema schema) {
         condition.setInputSchema(schema);
@@ -0,0 +1,402 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.fused;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.RowView;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.transform.transform.column.ProjectionTransform;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A FusedRowOperator executes a sequence of consecutive row-wise {@link DataAction}s (i.e., transforms and filters)
+ * in a single pass over each example, without creating intermediate lists for each step.<br>
+ * When compiled, the sequence of actions is optimized as follows:<br>
+ * - Consecutive {@link ProjectionTransform}s (remove, reorder, rename, duplicate columns) are merged into a single
+ * projection, and are executed by index mapping only<br>
+ * - Single column transforms ({@link BaseColumnTransform}) are executed in place, on the row buffer<br>
+ * - Columns that are removed by a projection are never copied from the input, and column transforms on those
+ * columns are skipped entirely<br>
+ * Any other transforms are executed as normal, via {@link Transform#map(List)}.<br>
+ * A compiled FusedRowOperator is immutable, and may be shared between threads. All mutable state is held in a
+ * {@link RowBuffer}, which may be reused for all examples processed by a single thread.
+ */
+public class FusedRowOperator implements Serializable {
+
+    private final Schema inputSchema;
+    private final Schema outputSchema;
+    private final int[] inputColumns;   //buffer[i] = input.get(inputColumns[i]), or null if inputColumns[i] < 0
+    private final Step[] steps;
+    private final int maxWidth;
+
+    private FusedRowOperator(Schema inputSchema, Schema outputSchema, int[] inputColumns, Step[] steps, int maxWidth) {
+        this.inputSchema = inputSchema;
+        this.outputSchema = outputSchema;
+        this.inputColumns = inputColumns;
+        this.steps = steps;
+        this.maxWidth = maxWidth;
+    }
+
+    /**
+     * @return True if the action can be executed as part of a FusedRowOperator (i.e., it is a transform or a filter)
+     */
+    public static boolean canFuse(DataAction action) {
+        return action.getTransform() != null || action.getFilter() != null;
+    }
+
+    /**
+     * Compile a FusedRowOperator for the given actions. The input schemas of the actions must already have been set
+     * (as is done by TransformProcess)
+     *
+     * @param inputSchema Schema of the input to the first action
+     * @param actions     Actions to execute. All must be transforms or filters
+     */
+    public static FusedRowOperator compile(Schema inputSchema, List<DataAction> actions) {
+        List<Step> steps = new ArrayList<>();
+        Schema currSchema = inputSchema;
+        int maxWidth = inputSchema.numColumns();
+        for (DataAction d : actions) {
+            int width = currSchema.numColumns();
+            if (d.getTransform() != null) {
+                Transform t = d.getTransform();
+                if (t instanceof ProjectionTransform) {
+                    int[] source = ((ProjectionTransform) t).getSourceColumns();
+                    Step last = (steps.isEmpty() ? null : steps.get(steps.size() - 1));
+                    if (last instanceof ProjectionStep) {
+                        //Merge consecutive projections
+                        int[] prev = ((ProjectionStep) last).sourceColumns;
+                        for (int i = 0; i < source.length; i++) source[i] = prev[source[i]];
+                        steps.set(steps.size() - 1, new ProjectionStep(last.inputWidth, source));
+                    } else {
+                        steps.add(new ProjectionStep(width, source));
+                    }
+                } else if (t instanceof BaseColumnTransform && !overridesMap(t)) {
+                    steps.add(new ColumnStep(width, (BaseColumnTransform) t));
+                } else {
+                    steps.add(new TransformStep(width, t));
+                }
+                currSchema = t.transform(currSchema);
+            } else if (d.getFilter() != null) {
+                steps.add(new FilterStep(width, d.getFilter()));
+            } else {
+                throw new IllegalArgumentException("Cannot fuse action: only transforms and filters are supported. Action = " + d);
+            }
+            maxWidth = Math.max(maxWidth, currSchema.numColumns());
+        }
+
+        //Work backwards to find which columns are actually used at each step, and remove column steps on unused columns
+        boolean[] live = new boolean[currSchema.numColumns()];
+        Arrays.fill(live, true);
+        boolean[] liveAfterProjection = null;  //Columns used after the earliest projection
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            Step s = steps.get(i);
+            if (s instanceof ProjectionStep) {
+                liveAfterProjection = live;
+                int[] source = ((ProjectionStep) s).sourceColumns;
+                boolean[] newLive = new boolean[s.inputWidth];
+                for (int j = 0; j < source.length; j++) {
+                    if (live[j]) newLive[source[j]] = true;
+                }
+                live = newLive;
+            } else if (s instanceof ColumnStep) {
+                if (!live[((ColumnStep) s).column]) steps.remove(i);
+            } else {
+                //Any other transform or filter: may use any column
+                live = new boolean[s.inputWidth];
+                Arrays.fill(live, true);
+            }
+        }
+
+        //Push the first projection (if any) into the loading of the input. Unused columns are never loaded
+        int[] inputColumns;
+        if (!steps.isEmpty() && steps.get(0) instanceof ProjectionStep) {
+            inputColumns = ((ProjectionStep) steps.remove(0)).sourceColumns;
+            for (int i = 0; i < inputColumns.length; i++) {
+                if (!liveAfterProjection[i]) inputColumns[i] = -1;
+            }
+        } else {
+            inputColumns = new int[inputSchema.numColumns()];
+            for (int i = 0; i < inputColumns.length; i++) {
+                inputColumns[i] = (live[i] ? i : -1);
+            }
+        }
+
+        return new FusedRowOperator(inputSchema, currSchema, inputColumns, steps.toArray(new Step[steps.size()]), maxWidth);
+    }
+
+    private static boolean overridesMap(Transform t) {
+        try {
+            return t.getClass().getMethod("map", List.class).getDeclaringClass() != BaseColumnTransform.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    public Schema getInputSchema() {
+        return inputSchema;
+    }
+
+    public Schema getOutputSchema() {
+        return outputSchema;
+    }
+
+    /**
+     * Create a new row buffer for use with {@link #execute(List, RowBuffer)}. Row buffers are not thread safe
+     */
+    public RowBuffer newRowBuffer() {
+        return new RowBuffer(maxWidth);
+    }
+
+    /**
+     * Execute the operator on a single example
+     *
+     * @param input Input example
+     * @return Output example, or null if the example was removed by a filter
+     */
+    public List<Writable> execute(List<Writable> input) {
+        return execute(input, newRowBuffer());
+    }
+
+    /**
+     * Execute the operator on a single example, using the provided row buffer
+     *
+     * @param input  Input example
+     * @param buffer Row buffer, as created by {@link #newRowBuffer()}
+     * @return Output example (a new list, independent of the buffer), or null if the example was removed by a filter
+     */
+    public List<Writable> execute(List<Writable> input, RowBuffer buffer) {
+        if (input.size() != inputSchema.numColumns()) {
+            throw new IllegalStateException("Cannot execute transform: input writables list length (" + input.size() + ") does not " +
+                    "match expected number of elements (schema: " + inputSchema.numColumns() + ")");
+        }
+        buffer.load(input, inputColumns);
+        for (Step s : steps) {
+            if (!s.execute(buffer)) return null;
+        }
+        return new ArrayList<>(buffer);
+    }
+
+    /**
+     * Execute the operator on a single example read from a {@link RowView}, storing the result in a {@link Record}.
+     * Only the input columns that are used by the operator are read from the row
+     *
+     * @param input  Input example
+     * @param output Record to store the output in. Must have the output schema of this operator
+     * @return True if the example was transformed, false if the example was removed by a filter
+     */
+    public boolean execute(RowView input, Record output) {
+        return execute(input, output, newRowBuffer());
+    }
+
+    /**
+     * Execute the operator on a single example read from a {@link RowView}, storing the result in a {@link Record}
+     * and using the provided row buffer
+     *
+     * @param input  Input example
+     * @param output Record to store the output in. Must have the output schema of this operator
+     * @param buffer Row buffer, as created by {@link #newRowBuffer()}
+     * @return True if the example was transformed, false if the example was removed by a filter
+     */
+    public boolean execute(RowView input, Record output, RowBuffer buffer) {
+        if (input.numColumns() != inputSchema.numColumns()) {
+            throw new IllegalStateException("Cannot execute transform: input row length (" + input.numColumns() + ") does not " +
+                    "match expected number of elements (schema: " + inputSchema.numColumns() + ")");
+        }
+        buffer.load(input, inputColumns);
+        for (Step s : steps) {
+            if (!s.execute(buffer)) return false;
+        }
+        output.set(buffer);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "FusedRowOperator(inputColumns=" + Arrays.toString(inputColumns) + ",steps=" + Arrays.toString(steps) + ")";
+    }
+
+    /**
+     * A reusable buffer for the current row, used by a FusedRowOperator. The buffer is also a (read only) view of
+     * the current row, that is passed to filters and transforms.
+     */
+    public static class RowBuffer extends AbstractList<Writable> implements RandomAccess {
+        private Writable[] values;
+        private Writable[] temp;
+        private int size;
+
+        private RowBuffer(int width) {
+            values = new Writable[width];
+            temp = new Writable[width];
+        }
+
+        private void load(List<Writable> input, int[] columns) {
+            if (!(input instanceof RandomAccess)) input = new ArrayList<>(input);
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = (columns[i] >= 0 ? input.get(columns[i]) : null);
+            }
+            size = columns.length;
+        }
+
+        private void load(RowView input, int[] columns) {
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = (columns[i] >= 0 ? input.getWritable(columns[i]) : null);
+            }
+            size = columns.length;
+        }
+
+        private void project(int[] sourceColumns) {
+            for (int i = 0; i < sourceColumns.length; i++) {
+                temp[i] = values[sourceColumns[i]];
+            }
+            swap(sourceColumns.length);
+        }
+
+        private void setAll(List<Writable> list) {
+            int n = list.size();
+            if (temp.length < n) temp = new Writable[n];
+            int i = 0;
+            for (Writable w : list) temp[i++] = w;
+            swap(n);
+        }
+
+        private void swap(int newSize) {
+            Writable[] t = values;
+            values = temp;
+            temp = t;
+            if (temp.length < values.length) temp = new Writable[values.length];
+            size = newSize;
+        }
+
+        @Override
+        public Writable get(int index) {
+            if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOf(values, size, Object[].class);
+        }
+    }
+
+    private static abstract class Step implements Serializable {
+        protected final int inputWidth;
+
+        protected Step(int inputWidth) {
+            this.inputWidth = inputWidth;
+        }
+
+        /**
+         * @return False if the example should be removed
+         */
+        protected abstract boolean execute(RowBuffer buffer);
+    }
+
+    private static class ProjectionStep extends Step {
+        private final int[] sourceColumns;
+
+        private ProjectionStep(int inputWidth, int[] sourceColumns) {
+            super(inputWidth);
+            this.sourceColumns = sourceColumns;
+        }
+
+        @Override
+        protected boolean execute(RowBuffer buffer) {
+            buffer.project(sourceColumns);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Projection(" + Arrays.toString(sourceColumns) + ")";
+        }
+    }
+
+    private static class ColumnStep extends Step {
+        private final BaseColumnTransform transform;
+        private final int column;
+
+        private ColumnStep(int inputWidth, BaseColumnTransform transform) {
+            super(inputWidth);
+            this.transform = transform;
+            this.column = transform.getColumnNumber();
+        }
+
+        @Override
+        protected boolean execute(RowBuffer buffer) {
+            buffer.values[column] = transform.map(buffer.values[column]);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Column(" + column + "," + transform + ")";
+        }
+    }
+
+    private static class TransformStep extends Step {
+        private final Transform transform;
+
+        private TransformStep(int inputWidth, Transform transform) {
+            super(inputWidth);
+            this.transform = transform;
+        }
+
+        @Override
+        protected boolean execute(RowBuffer buffer) {
+            List<Writable> out = transform.map(buffer);
+            if (out != buffer) buffer.setAll(out);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return transform.toString();
+        }
+    }
+
+    private static class FilterStep extends Step {
+        private final Filter filter;
+
+        private FilterStep(int inputWidth, Filter filter) {
+            super(inputWidth);
+            this.filter = filter;
+        }
+
+        @Override
+        protected boolean execute(RowBuffer buffer) {
+            return !filter.removeExample(buffer);
+        }
+
+        @Override
+        public String toString() {
+            return filter.toString();
+        }
+    }
+}
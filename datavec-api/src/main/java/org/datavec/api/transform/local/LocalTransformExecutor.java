@@ -0,0 +1,704 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.local;
+
+import org.apache.commons.math3.util.Pair;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.fused.FusedRowOperator;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.rank.CalculateSortedRank;
+import org.datavec.api.transform.reduce.IReducer;
+import org.datavec.api.transform.reduce.MergeableReducer;
+import org.datavec.api.transform.reduce.ReducerAccumulator;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.transform.sequence.ConvertToSequence;
+import org.datavec.api.transform.sequence.SequenceComparator;
+import org.datavec.api.transform.sequence.SequenceSplit;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executes a {@link TransformProcess} (including sequence operations, reductions, sorted rank calculations) and
+ * joins on a single machine, using a fork-join pool. The semantics are the same as those of the Spark executor
+ * (SparkTransformExecutor in datavec-spark); the order of the output examples (or sequences) may differ.<br>
+ * <br>
+ * Consecutive transforms and filters on examples are fused into a single pass, and executed in parallel on batches of
+ * examples. Operations that group examples by key (reductions, conversion to sequences and joins) hash partition the
+ * examples, and then process each partition in parallel. If the (estimated) size of the partitioned examples exceeds
+ * the memory budget, they are spilled to temporary files; each partition is read back as it is processed. Exact
+ * sorted ranks are calculated with a parallel merge sort.<br>
+ * When the input is provided by a {@link RecordReader}, examples are read (and transformed) in batches, so that the
+ * input does not have to fit in memory prior to the first grouping operation.
+ */
+public class LocalTransformExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalTransformExecutor.class);
+
+    /** Default memory budget for the partitioned examples of each grouping operation: 1/4 of the maximum heap size */
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = Runtime.getRuntime().maxMemory() / 4;
+    /** Default number of examples to read and transform in each parallel batch */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    /** Default number of partitions per thread for grouping operations */
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final int numThreads;
+    private final int numPartitions;
+    private final long memoryBudgetBytes;
+    private final File spillDirectory;
+    private final int batchSize;
+
+    /**
+     * Create an executor with the default configuration: one thread per processor
+     */
+    public LocalTransformExecutor() {
+        this(new Builder());
+    }
+
+    private LocalTransformExecutor(Builder builder) {
+        this.numThreads = builder.numThreads;
+        this.numPartitions = (builder.numPartitions > 0 ? builder.numPartitions : PARTITIONS_PER_THREAD * numThreads);
+        this.memoryBudgetBytes = builder.memoryBudgetBytes;
+        this.spillDirectory = builder.spillDirectory;
+        this.batchSize = builder.batchSize;
+    }
+
+    /**
+     * Execute the TransformProcess on the examples
+     *
+     * @return Transformed (non-sequence) examples
+     */
+    public List<List<Writable>> execute(List<List<Writable>> inputWritables, TransformProcess transformProcess) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+        return execute(inputWritables.iterator(), null, transformProcess).getFirst();
+    }
+
+    /**
+     * Execute the TransformProcess on all examples from the record reader. Examples are read and transformed in
+     * batches: see {@link Builder#batchSize(int)}
+     *
+     * @return Transformed (non-sequence) examples
+     */
+    public List<List<Writable>> execute(RecordReader recordReader, TransformProcess transformProcess) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+        return execute(new RecordReaderIterator(recordReader), null, transformProcess).getFirst();
+    }
+
+    /**
+     * Execute the TransformProcess on the examples. The TransformProcess should convert the examples to sequences
+     *
+     * @return Transformed sequences
+     */
+    public List<List<List<Writable>>> executeToSequence(List<List<Writable>> inputWritables, TransformProcess transformProcess) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+        return execute(inputWritables.iterator(), null, transformProcess).getSecond();
+    }
+
+    /**
+     * Execute the TransformProcess on all examples from the record reader. The TransformProcess should convert the
+     * examples to sequences
+     *
+     * @return Transformed sequences
+     */
+    public List<List<List<Writable>>> executeToSequence(RecordReader recordReader, TransformProcess transformProcess) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+        return execute(new RecordReaderIterator(recordReader), null, transformProcess).getSecond();
+    }
+
+    /**
+     * Execute the TransformProcess on sequences. The TransformProcess should convert the sequences to (non-sequence)
+     * examples
+     *
+     * @return Transformed examples
+     */
+    public List<List<Writable>> executeSequenceToSeparate(List<List<List<Writable>>> inputSequence,
+                                                          TransformProcess transformProcess) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+        return execute(null, inputSequence, transformProcess).getFirst();
+    }
+
+    /**
+     * Execute the TransformProcess on sequences
+     *
+     * @return Transformed sequences
+     */
+    public List<List<List<Writable>>> executeSequenceToSequence(List<List<List<Writable>>> inputSequence,
+                                                                TransformProcess transformProcess) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+        return execute(null, inputSequence, transformProcess).getSecond();
+    }
+
+    private Pair<List<List<Writable>>, List<List<List<Writable>>>> execute(Iterator<List<Writable>> inputWritables,
+                                                                             List<List<List<Writable>>> inputSequence,
+                                                                             TransformProcess transformProcess) {
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            Iterator<List<Writable>> currentWritables = inputWritables;
+            List<List<List<Writable>>> currentSequence = inputSequence;
+
+            List<DataAction> list = transformProcess.getActionList();
+
+            int count = 1;
+            for (int i = 0; i < list.size(); i++) {
+                DataAction d = list.get(i);
+
+                if (currentWritables != null && FusedRowOperator.canFuse(d)) {
+                    //Execute all consecutive transforms and filters in a single pass over each batch of examples
+                    int end = i + 1;
+                    while (end < list.size() && FusedRowOperator.canFuse(list.get(end))) end++;
+                    log.info("Starting execution of stages {} to {} of {} (fused)", count, count + end - i - 1, list.size());
+
+                    Schema inputSchema = (d.getTransform() != null ? d.getTransform().getInputSchema() : d.getFilter().getInputSchema());
+                    FusedRowOperator op = FusedRowOperator.compile(inputSchema, list.subList(i, end));
+                    currentWritables = new BatchIterator(pool, currentWritables, new FusedRowFunction(op), batchSize);
+
+                    count += end - i;
+                    i = end - 1;
+                    continue;
+                }
+
+                log.info("Starting execution of stage {} of {}", count, list.size());
+
+                if (d.getTransform() != null) {
+                    final Transform t = d.getTransform();
+                    currentSequence = ParallelTasks.flatMap(pool, currentSequence,
+                            new ParallelTasks.FlatMapFunction<List<List<Writable>>, List<List<Writable>>>() {
+                                @Override
+                                void apply(List<List<Writable>> input, List<List<List<Writable>>> out) {
+                                    out.add(t.mapSequence(input));
+                                }
+                            });
+                } else if (d.getFilter() != null) {
+                    final Filter f = d.getFilter();
+                    currentSequence = ParallelTasks.flatMap(pool, currentSequence,
+                            new ParallelTasks.FlatMapFunction<List<List<Writable>>, List<List<Writable>>>() {
+                                @Override
+                                void apply(List<List<Writable>> input, List<List<List<Writable>>> out) {
+                                    if (!f.removeSequence(input)) out.add(input);
+                                }
+                            });
+                } else if (d.getConvertToSequence() != null) {
+                    if (currentWritables == null) {
+                        throw new IllegalStateException("Cannot execute ConvertToSequence operation: current writables are null");
+                    }
+                    currentSequence = convertToSequence(pool, currentWritables, d.getConvertToSequence());
+                    currentWritables = null;
+                } else if (d.getConvertFromSequence() != null) {
+                    if (currentSequence == null) {
+                        throw new IllegalStateException("Cannot execute ConvertFromSequence operation: current sequence is null");
+                    }
+                    List<List<Writable>> flattened = new ArrayList<>();
+                    for (List<List<Writable>> sequence : currentSequence) {
+                        flattened.addAll(sequence);
+                    }
+                    currentWritables = flattened.iterator();
+                    currentSequence = null;
+                } else if (d.getSequenceSplit() != null) {
+                    if (currentSequence == null) {
+                        throw new IllegalStateException("Error during execution of SequenceSplit: currentSequence is null");
+                    }
+                    final SequenceSplit split = d.getSequenceSplit();
+                    currentSequence = ParallelTasks.flatMap(pool, currentSequence,
+                            new ParallelTasks.FlatMapFunction<List<List<Writable>>, List<List<Writable>>>() {
+                                @Override
+                                void apply(List<List<Writable>> input, List<List<List<Writable>>> out) {
+                                    out.addAll(split.split(input));
+                                }
+                            });
+                } else if (d.getReducer() != null) {
+                    if (currentWritables == null) {
+                        throw new IllegalStateException("Error during execution of reduction: current writables are null. "
+                                + "Trying to execute a reduce operation on a sequence?");
+                    }
+                    currentWritables = reduce(pool, currentWritables, d.getReducer()).iterator();
+                } else if (d.getCalculateSortedRank() != null) {
+                    if (currentWritables == null) {
+                        throw new IllegalStateException("Error during execution of CalculateSortedRank: current writables are null. "
+                                + "Trying to execute a CalculateSortedRank operation on a sequence? (not currently supported)");
+                    }
+                    currentWritables = calculateSortedRank(pool, collect(currentWritables), d.getCalculateSortedRank()).iterator();
+                } else {
+                    throw new RuntimeException("Unknown/not implemented action: " + d);
+                }
+
+                count++;
+            }
+
+            log.info("Completed {} of {} execution steps", count - 1, list.size());
+
+            return new Pair<>(currentWritables == null ? null : collect(currentWritables), currentSequence);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Join two data sets. Both data sets are hash partitioned by key (spilling to disk if required), and each partition
+     * is joined in parallel. Keys may occur any number of times on each side (many-to-many joins)
+     *
+     * @param join  Join to execute
+     * @param left  Left data set
+     * @param right Right data set
+     * @return Joined data
+     */
+    public List<List<Writable>> executeJoin(final Join join, List<List<Writable>> left, List<List<Writable>> right) {
+        final int[] leftKeyIdxs = joinKeyColumns(join, true);
+        final int[] rightKeyIdxs = joinKeyColumns(join, false);
+        final CompositeKeyWritable.Encoding[] encodings = joinKeyEncodings(join);
+
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try (PartitionedSpillBuffer leftBuffer = new PartitionedSpillBuffer(numPartitions, memoryBudgetBytes / 2, spillDirectory);
+             PartitionedSpillBuffer rightBuffer = new PartitionedSpillBuffer(numPartitions, memoryBudgetBytes / 2, spillDirectory)) {
+            for (List<Writable> example : left) {
+                leftBuffer.add(partition(CompositeKeyWritable.create(example, leftKeyIdxs, encodings)), example);
+            }
+            for (List<Writable> example : right) {
+                rightBuffer.add(partition(CompositeKeyWritable.create(example, rightKeyIdxs, encodings)), example);
+            }
+            logSpills("join", leftBuffer);
+            logSpills("join", rightBuffer);
+
+            final PartitionedSpillBuffer l = leftBuffer;
+            final PartitionedSpillBuffer r = rightBuffer;
+            final Join.JoinType joinType = join.getJoinType();
+            return ParallelTasks.flatMap(pool, partitionIndices(), new ParallelTasks.FlatMapFunction<Integer, List<Writable>>() {
+                @Override
+                void apply(Integer partition, List<List<Writable>> out) {
+                    Map<CompositeKeyWritable, List<List<Writable>>> rightByKey = new LinkedHashMap<>();
+                    for (List<Writable> example : r.takePartition(partition)) {
+                        CompositeKeyWritable key = CompositeKeyWritable.create(example, rightKeyIdxs, encodings);
+                        List<List<Writable>> examples = rightByKey.get(key);
+                        if (examples == null) {
+                            examples = new ArrayList<>();
+                            rightByKey.put(key, examples);
+                        }
+                        examples.add(example);
+                    }
+
+                    Set<CompositeKeyWritable> matched = new HashSet<>();
+                    for (List<Writable> leftExample : l.takePartition(partition)) {
+                        CompositeKeyWritable key = CompositeKeyWritable.create(leftExample, leftKeyIdxs, encodings);
+                        List<List<Writable>> rightExamples = rightByKey.get(key);
+                        if (rightExamples != null) {
+                            matched.add(key);
+                            for (List<Writable> rightExample : rightExamples) {
+                                out.add(join.joinExamples(leftExample, rightExample));
+                            }
+                        } else if (joinType == Join.JoinType.LeftOuter || joinType == Join.JoinType.FullOuter) {
+                            out.add(join.joinExamples(leftExample, null));
+                        }
+                    }
+
+                    if (joinType == Join.JoinType.RightOuter || joinType == Join.JoinType.FullOuter) {
+                        for (Map.Entry<CompositeKeyWritable, List<List<Writable>>> e : rightByKey.entrySet()) {
+                            if (matched.contains(e.getKey())) continue;
+                            for (List<Writable> rightExample : e.getValue()) {
+                                out.add(join.joinExamples(null, rightExample));
+                            }
+                        }
+                    }
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<List<List<Writable>>> convertToSequence(ForkJoinPool pool, Iterator<List<Writable>> input,
+                                                         ConvertToSequence cts) {
+        Schema schema = cts.getInputSchema();
+        final int colIdx = schema.getIndexOfColumn(cts.getKeyColumn());
+        final CompositeKeyWritable.Encoding encoding = CompositeKeyWritable.encodingFor(schema.getType(colIdx));
+        final SequenceComparator comparator = cts.getComparator();
+
+        try (PartitionedSpillBuffer buffer = new PartitionedSpillBuffer(numPartitions, memoryBudgetBytes, spillDirectory)) {
+            while (input.hasNext()) {
+                List<Writable> example = input.next();
+                buffer.add(partition(CompositeKeyWritable.create(example.get(colIdx), encoding)), example);
+            }
+            logSpills("ConvertToSequence", buffer);
+
+            final PartitionedSpillBuffer b = buffer;
+            return ParallelTasks.flatMap(pool, partitionIndices(), new ParallelTasks.FlatMapFunction<Integer, List<List<Writable>>>() {
+                @Override
+                void apply(Integer partition, List<List<List<Writable>>> out) {
+                    Map<CompositeKeyWritable, List<List<Writable>>> sequences = new LinkedHashMap<>();
+                    for (List<Writable> example : b.takePartition(partition)) {
+                        CompositeKeyWritable key = CompositeKeyWritable.create(example.get(colIdx), encoding);
+                        List<List<Writable>> sequence = sequences.get(key);
+                        if (sequence == null) {
+                            sequence = new ArrayList<>();
+                            sequences.put(key, sequence);
+                        }
+                        sequence.add(example);
+                    }
+                    for (List<List<Writable>> sequence : sequences.values()) {
+                        Collections.sort(sequence, comparator);
+                        out.add(sequence);
+                    }
+                }
+            });
+        }
+    }
+
+    private List<List<Writable>> reduce(ForkJoinPool pool, Iterator<List<Writable>> input, final IReducer reducer) {
+        List<String> keyColumns = reducer.getKeyColumns();
+        Schema schema = reducer.getInputSchema();
+        final int[] keyIdxs = new int[keyColumns.size()];
+        final CompositeKeyWritable.Encoding[] encodings = new CompositeKeyWritable.Encoding[keyIdxs.length];
+        for (int i = 0; i < keyIdxs.length; i++) {
+            keyIdxs[i] = schema.getIndexOfColumn(keyColumns.get(i));
+            encodings[i] = CompositeKeyWritable.encodingFor(schema.getType(keyIdxs[i]));
+        }
+
+        try (PartitionedSpillBuffer buffer = new PartitionedSpillBuffer(numPartitions, memoryBudgetBytes, spillDirectory)) {
+            while (input.hasNext()) {
+                List<Writable> example = input.next();
+                buffer.add(partition(CompositeKeyWritable.create(example, keyIdxs, encodings)), example);
+            }
+            logSpills("reduction", buffer);
+
+            final PartitionedSpillBuffer b = buffer;
+            return ParallelTasks.flatMap(pool, partitionIndices(), new ParallelTasks.FlatMapFunction<Integer, List<Writable>>() {
+                @Override
+                void apply(Integer partition, List<List<Writable>> out) {
+                    List<List<Writable>> examples = b.takePartition(partition);
+                    if (reducer instanceof MergeableReducer) {
+                        //Reduce incrementally: only one accumulator per key is held, rather than all examples per key
+                        MergeableReducer mr = (MergeableReducer) reducer;
+                        Map<CompositeKeyWritable, ReducerAccumulator> accumulators = new LinkedHashMap<>();
+                        for (List<Writable> example : examples) {
+                            CompositeKeyWritable key = CompositeKeyWritable.create(example, keyIdxs, encodings);
+                            ReducerAccumulator acc = accumulators.get(key);
+                            if (acc == null) {
+                                acc = mr.newAccumulator();
+                                accumulators.put(key, acc);
+                            }
+                            acc.add(example);
+                        }
+                        for (ReducerAccumulator acc : accumulators.values()) {
+                            out.add(acc.get());
+                        }
+                    } else {
+                        Map<CompositeKeyWritable, List<List<Writable>>> groups = new LinkedHashMap<>();
+                        for (List<Writable> example : examples) {
+                            CompositeKeyWritable key = CompositeKeyWritable.create(example, keyIdxs, encodings);
+                            List<List<Writable>> group = groups.get(key);
+                            if (group == null) {
+                                group = new ArrayList<>();
+                                groups.put(key, group);
+                            }
+                            group.add(example);
+                        }
+                        for (List<List<Writable>> group : groups.values()) {
+                            out.add(reducer.reduce(group));
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private List<List<Writable>> calculateSortedRank(ForkJoinPool pool, List<List<Writable>> input, CalculateSortedRank csr) {
+        final int sortColumnIdx = csr.getInputSchema().getIndexOfColumn(csr.getSortOnColumn());
+        final boolean ascending = csr.isAscending();
+
+        if (csr.isApproximate()) {
+            //Estimate percentile ranks from a quantile sketch of the column: no sort required
+            final QuantileSketch sketch = new QuantileSketch();
+            for (List<Writable> example : input) {
+                sketch.add(example.get(sortColumnIdx).toDouble());
+            }
+            //Build the sketch's sorted view once, on this thread, before it is queried concurrently
+            sketch.prepare();
+            return ParallelTasks.flatMap(pool, input, new ParallelTasks.FlatMapFunction<List<Writable>, List<Writable>>() {
+                @Override
+                void apply(List<Writable> example, List<List<Writable>> out) {
+                    double value = example.get(sortColumnIdx).toDouble();
+                    double percentile = (ascending ? sketch.getRank(value, false) : 1.0 - sketch.getRank(value, true));
+                    List<Writable> newExample = new ArrayList<>(example);
+                    newExample.add(new DoubleWritable(percentile));
+                    out.add(newExample);
+                }
+            });
+        }
+
+        //For the built-in comparators, sort on binary keys in their natural order; otherwise use the comparator
+        final CompositeKeyWritable.Encoding encoding = CompositeKeyWritable.encodingFor(csr.getComparator());
+        final Comparator<Writable> comparator = csr.getComparator();
+        List<RankEntry> entryList = ParallelTasks.flatMap(pool, input, new ParallelTasks.FlatMapFunction<List<Writable>, RankEntry>() {
+            @Override
+            void apply(List<Writable> example, List<RankEntry> out) {
+                Writable key = example.get(sortColumnIdx);
+                if (encoding != null) key = CompositeKeyWritable.create(key, encoding);
+                out.add(new RankEntry(key, example));
+            }
+        });
+        RankEntry[] entries = entryList.toArray(new RankEntry[entryList.size()]);
+        ParallelTasks.sort(pool, entries, new Comparator<RankEntry>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public int compare(RankEntry o1, RankEntry o2) {
+                int c = (encoding == null ? comparator.compare(o1.key, o2.key)
+                        : ((Comparable<Writable>) o1.key).compareTo(o2.key));
+                return (ascending ? c : -c);
+            }
+        });
+
+        List<List<Writable>> out = new ArrayList<>(entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            List<Writable> example = new ArrayList<>(entries[i].example);
+            example.add(new LongWritable(i));
+            out.add(example);
+        }
+        return out;
+    }
+
+    private int partition(CompositeKeyWritable key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % numPartitions;
+    }
+
+    private List<Integer> partitionIndices() {
+        List<Integer> out = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) out.add(i);
+        return out;
+    }
+
+    private static void logSpills(String operation, PartitionedSpillBuffer buffer) {
+        if (buffer.getNumSpills() > 0) {
+            log.info("Memory budget exceeded during {}: examples were spilled to disk {} times", operation,
+                    buffer.getNumSpills());
+        }
+    }
+
+    private static int[] joinKeyColumns(Join join, boolean left) {
+        Schema schema = (left ? join.getLeftSchema() : join.getRightSchema());
+        String[] keyColumns = (left ? join.getKeyColumnsLeft() : join.getKeyColumnsRight());
+        int[] idxs = new int[keyColumns.length];
+        for (int i = 0; i < idxs.length; i++) {
+            idxs[i] = schema.getIndexOfColumn(keyColumns[i]);
+        }
+        return idxs;
+    }
+
+    private static CompositeKeyWritable.Encoding[] joinKeyEncodings(Join join) {
+        //As per the Spark executor: if the left and right key column types differ, compare keys as strings
+        Schema leftSchema = join.getLeftSchema();
+        Schema rightSchema = join.getRightSchema();
+        String[] keyColumnsLeft = join.getKeyColumnsLeft();
+        String[] keyColumnsRight = join.getKeyColumnsRight();
+        CompositeKeyWritable.Encoding[] encodings = new CompositeKeyWritable.Encoding[keyColumnsLeft.length];
+        for (int i = 0; i < encodings.length; i++) {
+            ColumnType leftType = leftSchema.getType(leftSchema.getIndexOfColumn(keyColumnsLeft[i]));
+            ColumnType rightType = rightSchema.getType(rightSchema.getIndexOfColumn(keyColumnsRight[i]));
+            CompositeKeyWritable.Encoding leftEnc = CompositeKeyWritable.encodingFor(leftType);
+            CompositeKeyWritable.Encoding rightEnc = CompositeKeyWritable.encodingFor(rightType);
+            encodings[i] = (leftEnc == rightEnc ? leftEnc : CompositeKeyWritable.Encoding.STRING);
+        }
+        return encodings;
+    }
+
+    private static List<List<Writable>> collect(Iterator<List<Writable>> iterator) {
+        List<List<Writable>> out = new ArrayList<>();
+        while (iterator.hasNext()) {
+            out.add(iterator.next());
+        }
+        return out;
+    }
+
+    private static class RankEntry {
+        private final Writable key;
+        private final List<Writable> example;
+
+        private RankEntry(Writable key, List<Writable> example) {
+            this.key = key;
+            this.example = example;
+        }
+    }
+
+    /**
+     * Executes a fused set of transforms and filters. Each thread uses its own row buffer
+     */
+    private static class FusedRowFunction extends ParallelTasks.FlatMapFunction<List<Writable>, List<Writable>> {
+        private final FusedRowOperator op;
+        private final ThreadLocal<FusedRowOperator.RowBuffer> buffers = new ThreadLocal<>();
+
+        private FusedRowFunction(FusedRowOperator op) {
+            this.op = op;
+        }
+
+        @Override
+        void apply(List<Writable> input, List<List<Writable>> out) {
+            FusedRowOperator.RowBuffer buffer = buffers.get();
+            if (buffer == null) {
+                buffer = op.newRowBuffer();
+                buffers.set(buffer);
+            }
+            List<Writable> result = op.execute(input, buffer);
+            if (result != null) out.add(result);
+        }
+    }
+
+    /**
+     * Lazily applies a function to the examples of an iterator, in parallel on batches of examples
+     */
+    private static class BatchIterator implements Iterator<List<Writable>> {
+        private final ForkJoinPool pool;
+        private final Iterator<List<Writable>> source;
+        private final ParallelTasks.FlatMapFunction<List<Writable>, List<Writable>> function;
+        private final int batchSize;
+        private Iterator<List<Writable>> current = Collections.emptyIterator();
+
+        private BatchIterator(ForkJoinPool pool, Iterator<List<Writable>> source,
+                              ParallelTasks.FlatMapFunction<List<Writable>, List<Writable>> function, int batchSize) {
+            this.pool = pool;
+            this.source = source;
+            this.function = function;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && source.hasNext()) {
+                List<List<Writable>> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && source.hasNext()) {
+                    batch.add(source.next());
+                }
+                current = ParallelTasks.flatMap(pool, batch, function).iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public List<Writable> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class RecordReaderIterator implements Iterator<List<Writable>> {
+        private final RecordReader recordReader;
+
+        private RecordReaderIterator(RecordReader recordReader) {
+            this.recordReader = recordReader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return recordReader.hasNext();
+        }
+
+        @Override
+        public List<Writable> next() {
+            return new ArrayList<>(recordReader.next());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public static class Builder {
+
+        private int numThreads = Runtime.getRuntime().availableProcessors();
+        private int numPartitions = -1;
+        private long memoryBudgetBytes = DEFAULT_MEMORY_BUDGET_BYTES;
+        private File spillDirectory;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        /**
+         * Number of threads to use. Default: the number of available processors
+         */
+        public Builder numThreads(int numThreads) {
+            if (numThreads <= 0) throw new IllegalArgumentException("Number of threads must be > 0: got " + numThreads);
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * Number of hash partitions for reductions, conversions to sequences and joins. Default: 4 per thread
+         */
+        public Builder numPartitions(int numPartitions) {
+            if (numPartitions <= 0) throw new IllegalArgumentException("Number of partitions must be > 0: got " + numPartitions);
+            this.numPartitions = numPartitions;
+            return this;
+        }
+
+        /**
+         * Maximum estimated size of the examples buffered by each grouping operation (reduction, conversion to
+         * sequence or join), before they are spilled to disk. Default: {@link LocalTransformExecutor#DEFAULT_MEMORY_BUDGET_BYTES}
+         */
+        public Builder memoryBudgetBytes(long memoryBudgetBytes) {
+            if (memoryBudgetBytes <= 0) throw new IllegalArgumentException("Memory budget must be > 0: got " + memoryBudgetBytes);
+            this.memoryBudgetBytes = memoryBudgetBytes;
+            return this;
+        }
+
+        /**
+         * Directory for temporary files, when examples are spilled to disk. Default: the default temporary directory
+         */
+        public Builder spillDirectory(File spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        /**
+         * Number of examples to read and transform (in parallel) at a time. Default: {@link #DEFAULT_BATCH_SIZE}
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be > 0: got " + batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public LocalTransformExecutor build() {
+            return new LocalTransformExecutor(this);
+        }
+    }
+}
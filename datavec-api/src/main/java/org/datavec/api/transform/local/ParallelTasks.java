@@ -0,0 +1,142 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join implementations of the parallel operations used by {@link LocalTransformExecutor}: an (order
+ * preserving) flat map over a list, and a stable parallel merge sort
+ */
+class ParallelTasks {
+
+    /** Number of tasks per thread to split work into, to balance work across threads */
+    private static final int TASKS_PER_THREAD = 4;
+    /** Minimum number of elements to sort per task */
+    private static final int MIN_SORT_TASK_SIZE = 8192;
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * A function that maps each input to zero or more outputs
+     */
+    static abstract class FlatMapFunction<I, O> {
+        abstract void apply(I input, List<O> out);
+    }
+
+    /**
+     * Apply the function to each element of the input, in parallel. The outputs are returned in the order of the inputs
+     */
+    static <I, O> List<O> flatMap(ForkJoinPool pool, List<I> input, FlatMapFunction<I, O> function) {
+        if (input.isEmpty()) return new ArrayList<>();
+        int taskSize = Math.max(1, input.size() / (TASKS_PER_THREAD * pool.getParallelism()));
+        return pool.invoke(new FlatMapTask<>(input, 0, input.size(), taskSize, function));
+    }
+
+    /**
+     * Sort the array in parallel. The sort is stable: equal elements retain their relative order
+     */
+    static <T> void sort(ForkJoinPool pool, T[] array, Comparator<? super T> comparator) {
+        int taskSize = Math.max(MIN_SORT_TASK_SIZE, array.length / (TASKS_PER_THREAD * pool.getParallelism()) + 1);
+        if (array.length <= taskSize) {
+            Arrays.sort(array, comparator);
+            return;
+        }
+        T[] temp = Arrays.copyOf(array, array.length);
+        pool.invoke(new SortTask<>(array, temp, 0, array.length, taskSize, comparator));
+    }
+
+    private static class FlatMapTask<I, O> extends RecursiveTask<List<O>> {
+        private final List<I> input;
+        private final int from;
+        private final int to;
+        private final int taskSize;
+        private final FlatMapFunction<I, O> function;
+
+        private FlatMapTask(List<I> input, int from, int to, int taskSize, FlatMapFunction<I, O> function) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+            this.taskSize = taskSize;
+            this.function = function;
+        }
+
+        @Override
+        protected List<O> compute() {
+            if (to - from <= taskSize) {
+                List<O> out = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    function.apply(input.get(i), out);
+                }
+                return out;
+            }
+            int mid = (from + to) >>> 1;
+            FlatMapTask<I, O> right = new FlatMapTask<>(input, mid, to, taskSize, function);
+            right.fork();
+            List<O> out = new FlatMapTask<>(input, from, mid, taskSize, function).compute();
+            out.addAll(right.join());
+            return out;
+        }
+    }
+
+    private static class SortTask<T> extends RecursiveAction {
+        private final T[] array;
+        private final T[] temp;
+        private final int from;
+        private final int to;
+        private final int taskSize;
+        private final Comparator<? super T> comparator;
+
+        private SortTask(T[] array, T[] temp, int from, int to, int taskSize, Comparator<? super T> comparator) {
+            this.array = array;
+            this.temp = temp;
+            this.from = from;
+            this.to = to;
+            this.taskSize = taskSize;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= taskSize) {
+                Arrays.sort(array, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask<>(array, temp, from, mid, taskSize, comparator),
+                    new SortTask<>(array, temp, mid, to, taskSize, comparator));
+
+            //Merge the sorted halves via the temp array. Ties: take from the left half first (stable)
+            System.arraycopy(array, from, temp, from, to - from);
+            int i = from;
+            int j = mid;
+            int k = from;
+            while (i < mid && j < to) {
+                array[k++] = (comparator.compare(temp[j], temp[i]) < 0 ? temp[j++] : temp[i++]);
+            }
+            while (i < mid) array[k++] = temp[i++];
+            while (j < to) array[k++] = temp[j++];
+        }
+    }
+}
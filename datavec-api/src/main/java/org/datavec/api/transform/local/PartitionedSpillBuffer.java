@@ -0,0 +1,260 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.local;
+
+import org.datavec.api.io.WritableUtils;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.SparseVectorWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers examples in a fixed number of (hash) partitions, as used by {@link LocalTransformExecutor} for operations
+ * that group examples by key. When the estimated in-memory size of the buffered examples exceeds the memory budget,
+ * all buffered examples are written ("spilled") to one temporary file per partition.<br>
+ * Examples are added from a single thread. Once all examples have been added, each partition can be retrieved (from
+ * any thread) via {@link #takePartition(int)}, in the order in which its examples were added.
+ */
+public class PartitionedSpillBuffer implements Closeable {
+
+    private static final int NULL_ID = 0;
+    private static final int NULL_WRITABLE_ID = 1;
+    private static final int FIRST_CLASS_ID = 2;
+
+    private final int numPartitions;
+    private final long memoryBudgetBytes;
+    private final File spillDirectory;
+    private final List<List<Writable>>[] buffers;
+    private final File[] spillFiles;
+    private final DataOutputStream[] spillStreams;
+    private final List<Map<Class<?>, Integer>> classIds;
+    private long bufferedBytes;
+    private int numSpills;
+
+    /**
+     * @param numPartitions     Number of partitions
+     * @param memoryBudgetBytes Maximum estimated size of the buffered examples, before they are spilled to disk
+     * @param spillDirectory    Directory for the temporary files. If null: the default temporary directory is used
+     */
+    @SuppressWarnings("unchecked")
+    public PartitionedSpillBuffer(int numPartitions, long memoryBudgetBytes, File spillDirectory) {
+        if (numPartitions <= 0) throw new IllegalArgumentException("Number of partitions must be > 0: got " + numPartitions);
+        this.numPartitions = numPartitions;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.spillDirectory = spillDirectory;
+        this.buffers = new List[numPartitions];
+        this.spillFiles = new File[numPartitions];
+        this.spillStreams = new DataOutputStream[numPartitions];
+        this.classIds = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            buffers[i] = new ArrayList<>();
+            classIds.add(new HashMap<Class<?>, Integer>());
+        }
+    }
+
+    /**
+     * Add an example to the given partition
+     */
+    public void add(int partition, List<Writable> example) {
+        buffers[partition].add(example);
+        bufferedBytes += estimateSizeBytes(example);
+        if (bufferedBytes > memoryBudgetBytes) {
+            spill();
+        }
+    }
+
+    /**
+     * @return Number of partitions
+     */
+    public int numPartitions() {
+        return numPartitions;
+    }
+
+    /**
+     * @return Number of times the buffered examples have been spilled to disk
+     */
+    public int getNumSpills() {
+        return numSpills;
+    }
+
+    /**
+     * Get all examples in the given partition (spilled examples are read back from disk), and release them from this
+     * buffer. Each partition can be taken only once
+     */
+    public List<List<Writable>> takePartition(int partition) {
+        List<List<Writable>> inMemory = buffers[partition];
+        if (inMemory == null) throw new IllegalStateException("Partition " + partition + " has already been taken");
+        buffers[partition] = null;
+        if (spillFiles[partition] == null) return inMemory;
+
+        List<List<Writable>> out = new ArrayList<>();
+        try {
+            spillStreams[partition].close();
+            spillStreams[partition] = null;
+            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFiles[partition])))) {
+                List<Class<?>> classes = new ArrayList<>();
+                int size;
+                while ((size = readSize(dis)) >= 0) {
+                    out.add(readExample(dis, size, classes));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading spilled examples for partition " + partition + " from "
+                    + spillFiles[partition], e);
+        }
+        spillFiles[partition].delete();
+        spillFiles[partition] = null;
+        out.addAll(inMemory);
+        return out;
+    }
+
+    /**
+     * Write all buffered examples to disk
+     */
+    public void spill() {
+        try {
+            for (int i = 0; i < numPartitions; i++) {
+                if (buffers[i] == null || buffers[i].isEmpty()) continue;
+                if (spillStreams[i] == null) {
+                    spillFiles[i] = File.createTempFile("datavec_spill_" + i + "_", ".bin", spillDirectory);
+                    spillFiles[i].deleteOnExit();
+                    spillStreams[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFiles[i])));
+                }
+                for (List<Writable> example : buffers[i]) {
+                    writeExample(spillStreams[i], example, classIds.get(i));
+                }
+                buffers[i].clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error spilling examples to disk", e);
+        }
+        bufferedBytes = 0;
+        numSpills++;
+    }
+
+    /**
+     * Close any open temporary files, and delete them
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < numPartitions; i++) {
+            if (spillStreams[i] != null) {
+                try {
+                    spillStreams[i].close();
+                } catch (IOException e) {
+                    //Ignore: file is deleted anyway
+                }
+                spillStreams[i] = null;
+            }
+            if (spillFiles[i] != null) {
+                spillFiles[i].delete();
+                spillFiles[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Estimate the in-memory size (in bytes) of an example. This is a rough estimate only, intended to keep the memory
+     * used for buffering within (approximately) the memory budget
+     */
+    public static long estimateSizeBytes(List<Writable> example) {
+        long size = 48 + 8L * example.size();
+        for (Writable w : example) {
+            if (w instanceof Text) {
+                size += 64 + ((Text) w).getLength();
+            } else if (w instanceof SparseVectorWritable) {
+                size += 80 + 12L * ((SparseVectorWritable) w).numEntries();
+            } else {
+                size += 24;
+            }
+        }
+        return size;
+    }
+
+    private static void writeExample(DataOutputStream out, List<Writable> example, Map<Class<?>, Integer> classIds)
+            throws IOException {
+        WritableUtils.writeVInt(out, example.size());
+        for (Writable w : example) {
+            if (w == null) {
+                WritableUtils.writeVInt(out, NULL_ID);
+                continue;
+            }
+            if (w instanceof NullWritable) {
+                WritableUtils.writeVInt(out, NULL_WRITABLE_ID);
+                continue;
+            }
+            Integer id = classIds.get(w.getClass());
+            if (id == null) {
+                //First time this class is written to this file: write the class name after the (new) id
+                id = FIRST_CLASS_ID + classIds.size();
+                classIds.put(w.getClass(), id);
+                WritableUtils.writeVInt(out, id);
+                out.writeUTF(w.getClass().getName());
+            } else {
+                WritableUtils.writeVInt(out, id);
+            }
+            w.write(out);
+        }
+    }
+
+    private static int readSize(DataInputStream in) throws IOException {
+        in.mark(1);
+        if (in.read() < 0) return -1;
+        in.reset();
+        return WritableUtils.readVInt(in);
+    }
+
+    private static List<Writable> readExample(DataInputStream in, int size, List<Class<?>> classes) throws IOException {
+        List<Writable> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int id = WritableUtils.readVInt(in);
+            if (id == NULL_ID) {
+                out.add(null);
+                continue;
+            }
+            if (id == NULL_WRITABLE_ID) {
+                out.add(NullWritable.INSTANCE);
+                continue;
+            }
+            int idx = id - FIRST_CLASS_ID;
+            if (idx == classes.size()) {
+                String className = in.readUTF();
+                try {
+                    classes.add(Class.forName(className));
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unknown Writable class in spill file: " + className, e);
+                }
+            }
+            Writable w;
+            try {
+                w = (Writable) classes.get(idx).newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new IOException("Cannot create instance of Writable class " + classes.get(idx).getName()
+                        + " (no public no-argument constructor?)", e);
+            }
+            w.readFields(in);
+            out.add(w);
+        }
+        return out;
+    }
+}
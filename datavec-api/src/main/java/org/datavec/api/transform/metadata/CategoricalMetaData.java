@@ -17,29 +17,48 @@
 package org.datavec.api.transform.metadata;
 
 import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.CategoricalDictionary;
 import org.datavec.api.writable.Writable;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
- * Metadata for categorical columns.
- * Here, each
+ * Metadata for categorical columns.<br>
+ * Values may be stored either as Text, or dictionary encoded (as {@link org.datavec.api.writable.CategoricalWritable}
+ * values using this column's {@link #getDictionary()}). Columns with {@link #isDictionaryEncoded()} set (see
+ * {@link org.datavec.api.transform.transform.categorical.CategoricalEncodeTransform}) are materialized as encoded
+ * values by {@link org.datavec.api.transform.batch.ColumnarBatch}.
  */
 public class CategoricalMetaData implements ColumnMetaData {
 
     private List<String> stateNames;
     private Set<String> stateNamesSet;  //For fast lookup
+    //Not transient: deserializing the metadata registers the dictionary, so that values read later are attached to it
+    private CategoricalDictionary dictionary;
+    private boolean dictionaryEncoded;
 
     public CategoricalMetaData(String... stateNames) {
         this(Arrays.asList(stateNames));
     }
 
     public CategoricalMetaData(List<String> stateNames) {
+        this(stateNames, false);
+    }
+
+    /**
+     * @param stateNames        State names for the column
+     * @param dictionaryEncoded Whether values in this column are dictionary encoded
+     */
+    public CategoricalMetaData(List<String> stateNames, boolean dictionaryEncoded) {
         this.stateNames = stateNames;
         stateNamesSet = new HashSet<>(stateNames);
+        this.dictionary = CategoricalDictionary.intern(stateNames);
+        this.dictionaryEncoded = dictionaryEncoded;
     }
 
     @Override
@@ -49,18 +68,47 @@ public class CategoricalMetaData implements ColumnMetaData {
 
     @Override
     public boolean isValid(Writable writable) {
-        return stateNamesSet.contains(writable.toString());
+        return getStateIndex(writable) >= 0;
     }
 
     @Override
     public CategoricalMetaData clone() {
-        return new CategoricalMetaData(stateNames);
+        return new CategoricalMetaData(stateNames, dictionaryEncoded);
     }
 
     public List<String> getStateNames() {
         return stateNames;
     }
 
+    /**
+     * @return The dictionary for this column's states: state names in the same order as {@link #getStateNames()}
+     */
+    public CategoricalDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return Whether values in this column are dictionary encoded (as CategoricalWritable values)
+     */
+    public boolean isDictionaryEncoded() {
+        return dictionaryEncoded;
+    }
+
+    /**
+     * Get the index of the specified value in the list of state names. No String lookup is done for values that are
+     * already encoded with this column's dictionary.
+     *
+     * @return The state index, or -1 if the value is not one of the states for this column
+     */
+    public int getStateIndex(Writable writable) {
+        return dictionary.indexOf(writable);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (dictionary == null) dictionary = CategoricalDictionary.intern(stateNames);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -71,7 +119,9 @@ public class CategoricalMetaData implements ColumnMetaData {
             sb.append("\"").append(s).append("\"");
             first = false;
         }
-        sb.append("])");
+        sb.append("]");
+        if (dictionaryEncoded) sb.append(",dictionaryEncoded=true");
+        sb.append(")");
         return sb.toString();
     }
 }
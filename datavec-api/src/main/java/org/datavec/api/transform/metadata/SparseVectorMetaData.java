@@ -0,0 +1,58 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.metadata;
+
+import lombok.Data;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.SparseVectorWritable;
+import org.datavec.api.writable.Writable;
+
+/**
+ * Metadata for a sparse vector column: values are {@link SparseVectorWritable} instances of a fixed length
+ */
+@Data
+public class SparseVectorMetaData implements ColumnMetaData {
+
+    private final int length;
+
+    /**
+     * @param length Length of the vectors in this column
+     */
+    public SparseVectorMetaData(int length) {
+        this.length = length;
+    }
+
+    @Override
+    public ColumnType getColumnType() {
+        return ColumnType.SparseVector;
+    }
+
+    @Override
+    public boolean isValid(Writable writable) {
+        return writable instanceof SparseVectorWritable && ((SparseVectorWritable) writable).length() == length;
+    }
+
+    @Override
+    public SparseVectorMetaData clone() {
+        return new SparseVectorMetaData(length);
+    }
+
+    @Override
+    public String toString() {
+        return "SparseVectorMetaData(length=" + length + ")";
+    }
+}
@@ -16,7 +16,9 @@
 
 package org.datavec.api.transform.rank;
 
+import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.metadata.DoubleMetaData;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.metadata.LongMetaData;
 import lombok.Data;
@@ -35,6 +37,11 @@ import java.util.List;
  * The rank of each example (after sorting) will be added in a new Long column. Indexing is done from 0; examples will have
  * values 0 to dataSetSize-1.<br>
  *
+ * Alternatively, an approximate percentile rank may be calculated for numerical columns (see
+ * {@link #approximatePercentile(String, String, boolean)}): this is added as a Double column, with values between 0 and 1
+ * equal to the (estimated) fraction of examples that come before each example in the sort order. Approximate
+ * percentile ranks do not require the data set to be sorted.<br>
+ *
  * Currently, CalculateSortedRank can only be applied on standard (i.e., non-sequence) data.
  * Furthermore, the current implementation can only sort on one column
  *
@@ -47,6 +54,7 @@ public class CalculateSortedRank implements Serializable {
     private final String sortOnColumn;
     private final Comparator<Writable> comparator;
     private final boolean ascending;
+    private final boolean approximate;
     private Schema inputSchema;
 
     /**
@@ -67,10 +75,29 @@ public class CalculateSortedRank implements Serializable {
      * @param ascending        Whether examples should be ascending or descending, using the comparator
      */
     public CalculateSortedRank(String newColumnName, String sortOnColumn, Comparator<Writable> comparator, boolean ascending) {
+        this(newColumnName, sortOnColumn, comparator, ascending, false);
+    }
+
+    private CalculateSortedRank(String newColumnName, String sortOnColumn, Comparator<Writable> comparator, boolean ascending,
+                                boolean approximate) {
         this.newColumnName = newColumnName;
         this.sortOnColumn = sortOnColumn;
         this.comparator = comparator;
         this.ascending = ascending;
+        this.approximate = approximate;
+    }
+
+    /**
+     * Calculate an approximate percentile rank for a numerical column, using a quantile sketch instead of sorting the
+     * data. The new Double column contains the estimated fraction of examples (between 0 and 1) that come before each
+     * example, when sorted by the specified column.
+     *
+     * @param newColumnName    Name of the new column (will contain the percentile rank for each example)
+     * @param sortOnColumn     Name of the numerical column to rank on
+     * @param ascending        Whether examples should be ranked in ascending or descending order of the column values
+     */
+    public static CalculateSortedRank approximatePercentile(String newColumnName, String sortOnColumn, boolean ascending) {
+        return new CalculateSortedRank(newColumnName, sortOnColumn, null, ascending, true);
     }
 
     public Schema transform(Schema inputSchema){
@@ -83,7 +110,22 @@ public class CalculateSortedRank implements Serializable {
         List<ColumnMetaData> newMeta = new ArrayList<>(origMeta);
 
         newNames.add(newColumnName);
-        newMeta.add(new LongMetaData(0L,null));
+        if(approximate){
+            ColumnType type = inputSchema.getMetaData(sortOnColumn).getColumnType();
+            switch (type){
+                case Integer:
+                case Long:
+                case Double:
+                case Time:
+                    break;
+                default:
+                    throw new IllegalStateException("Cannot calculate approximate percentile rank on column \"" + sortOnColumn
+                            + "\": column type " + type + " is not numerical");
+            }
+            newMeta.add(new DoubleMetaData(0.0,1.0));
+        } else {
+            newMeta.add(new LongMetaData(0L,null));
+        }
 
         return inputSchema.newSchema(newNames, newMeta);
     }
@@ -98,6 +140,10 @@ public class CalculateSortedRank implements Serializable {
 
     @Override
     public String toString(){
+        if(approximate){
+            return "CalculateSortedRank(newColumnName=\"" + newColumnName + "\", sortOnColumn=\"" + sortOnColumn
+                    + "\", ascending=" + ascending + ", approximate=true)";
+        }
         return "CalculateSortedRank(newColumnName=\"" + newColumnName + "\", comparator=" + comparator + ")";
     }
 }
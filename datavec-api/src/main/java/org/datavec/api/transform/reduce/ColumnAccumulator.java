@@ -0,0 +1,50 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.reduce;
+
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+
+/**
+ * A mergeable accumulator for the reduction of a single column.<br>
+ * Values can be added to an accumulator one at a time, and partial results (for example, from different partitions
+ * of a data set) can be combined by merging accumulators. This allows reductions to be performed incrementally,
+ * without the full set of values for a column being held in memory.
+ *
+ * @see ColumnAccumulators
+ */
+public interface ColumnAccumulator extends Serializable {
+
+    /**
+     * Add a single value to this accumulator
+     */
+    void add(Writable value);
+
+    /**
+     * Merge the values from another accumulator (of the same type) into this one. Values in this accumulator are
+     * considered to precede those in the other accumulator, for order-dependent reductions (TakeFirst, TakeLast, etc)
+     */
+    void merge(ColumnAccumulator other);
+
+    /**
+     * @return The result of the reduction, given the values added so far
+     */
+    Writable get();
+
+}
@@ -0,0 +1,801 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.reduce;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.analysis.sketch.HyperLogLog;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.writable.*;
+
+import java.util.*;
+
+/**
+ * {@link ColumnAccumulator} implementations for the built-in {@link ReduceOp}s, and for custom
+ * {@link ColumnReduction}s.<br>
+ * Sum, Mean, Min, Max, Range and Count are accumulated in constant space. Stdev uses a numerically stable
+ * one-pass (Welford) update, merged using the parallel formula of Chan et al. CountUnique keeps the set of distinct
+ * values (CountUniqueApprox bounds this with a {@link HyperLogLog} sketch), and custom reductions keep all values,
+ * as these cannot be computed from a fixed size summary.<br>
+ * {@link SlidingColumnAccumulator}s (for reductions over sliding windows) are also provided for all built-in ops
+ * except CountUniqueApprox. Min, Max and Range use monotonic deques; sums of doubles use compensated summation,
+ * to avoid accumulating rounding error as values are added and removed.
+ */
+public class ColumnAccumulators {
+
+    private ColumnAccumulators() {
+    }
+
+    /**
+     * Create an accumulator for a built-in reduction op
+     *
+     * @param op            Reduction to perform
+     * @param type          Type of the column
+     * @param ignoreInvalid If true: values that are not valid according to the column metadata are ignored
+     * @param metaData      Metadata for the column
+     */
+    public static ColumnAccumulator create(ReduceOp op, ColumnType type, boolean ignoreInvalid, ColumnMetaData metaData) {
+        ColumnMetaData validation = (ignoreInvalid ? metaData : null);
+        switch (type) {
+            case Integer:
+            case Long:
+                switch (op) {
+                    case Min:
+                    case Max:
+                    case Range:
+                        return new LongMinMax(op, validation);
+                    case Sum:
+                    case Mean:
+                        return new LongSum(op == ReduceOp.Mean, false, validation);
+                    case Stdev:
+                        return new Stdev(true, validation);
+                    case Count:
+                        return new Count(validation);
+                    case CountUnique:
+                        return new CountUnique(CountUnique.LONG, validation);
+                    case CountUniqueApprox:
+                        return new CountUniqueApprox(CountUnique.LONG, validation);
+                    case TakeFirst:
+                    case TakeLast:
+                        return new Take(op == ReduceOp.TakeFirst, new LongWritable(0));
+                    default:
+                        throw new UnsupportedOperationException("Unknown or not implement op: " + op);
+                }
+            case Double:
+                switch (op) {
+                    case Min:
+                    case Max:
+                    case Range:
+                        return new DoubleMinMax(op, validation);
+                    case Sum:
+                    case Mean:
+                        return new DoubleSum(op == ReduceOp.Mean, validation);
+                    case Stdev:
+                        return new Stdev(false, validation);
+                    case Count:
+                        return new Count(validation);
+                    case CountUnique:
+                        return new CountUnique(CountUnique.DOUBLE, validation);
+                    case CountUniqueApprox:
+                        return new CountUniqueApprox(CountUnique.DOUBLE, validation);
+                    case TakeFirst:
+                    case TakeLast:
+                        return new Take(op == ReduceOp.TakeFirst, new DoubleWritable(0.0));
+                    default:
+                        throw new UnsupportedOperationException("Unknown or not implement op: " + op);
+                }
+            case String:
+            case Categorical:
+                switch (op) {
+                    case Count:
+                        return new Count(validation);
+                    case CountUnique:
+                        return new CountUnique(CountUnique.STRING, validation);
+                    case CountUniqueApprox:
+                        return new CountUniqueApprox(CountUnique.STRING, validation);
+                    case TakeFirst:
+                    case TakeLast:
+                        return new Take(op == ReduceOp.TakeFirst, new Text(""));
+                    default:
+                        throw new UnsupportedOperationException("Cannot execute op \"" + op + "\" on String/Categorical column "
+                                + "(can only perform Count, CountUnique, TakeFirst and TakeLast ops on categorical columns)");
+                }
+            case Time:
+                switch (op) {
+                    case Min:
+                    case Max:
+                        return new LongMinMax(op, validation);
+                    case Mean:
+                        return new LongSum(true, true, validation);
+                    case Count:
+                        return new Count(validation);
+                    case CountUnique:
+                        return new CountUnique(CountUnique.LONG, validation);
+                    case CountUniqueApprox:
+                        return new CountUniqueApprox(CountUnique.LONG, validation);
+                    case TakeFirst:
+                    case TakeLast:
+                        return new Take(op == ReduceOp.TakeFirst, new LongWritable(0));
+                    case Range:
+                    case Sum:
+                    case Stdev:
+                        throw new UnsupportedOperationException("Reduction op \"" + op + "\" not supported on time columns");
+                    default:
+                        throw new UnsupportedOperationException("Reduce ops for time columns: not yet implemented");
+                }
+            case Bytes:
+                if (op == ReduceOp.TakeFirst || op == ReduceOp.TakeLast) return new Take(op == ReduceOp.TakeFirst, null);
+                throw new UnsupportedOperationException("Cannot execute op \"" + op + "\" on Bytes column "
+                        + "(can only perform TakeFirst or TakeLast ops on Bytes columns)");
+            default:
+                throw new UnsupportedOperationException("Unknown or not implemented column type: " + type);
+        }
+    }
+
+    /**
+     * Create a sliding window accumulator for a built-in reduction op: values may be removed (in first in, first
+     * out order) as well as added. The result is the same as for {@link #create(ReduceOp, ColumnType, boolean, ColumnMetaData)}
+     * with only the values currently in the window.
+     *
+     * @param op            Reduction to perform
+     * @param type          Type of the column
+     * @param ignoreInvalid If true: values that are not valid according to the column metadata are ignored
+     * @param metaData      Metadata for the column
+     * @return The accumulator, or null if the op cannot be performed on a sliding window (CountUniqueApprox)
+     */
+    public static SlidingColumnAccumulator createSliding(ReduceOp op, ColumnType type, boolean ignoreInvalid,
+                                                         ColumnMetaData metaData) {
+        //Also validates the op for the column type
+        ColumnAccumulator acc = create(op, type, ignoreInvalid, metaData);
+        ColumnMetaData validation = (ignoreInvalid ? metaData : null);
+        switch (op) {
+            case Min:
+            case Max:
+            case Range:
+                return new SlidingMinMax(op, acc instanceof LongMinMax, validation);
+            case Sum:
+            case Mean:
+                if (acc instanceof DoubleSum) return new SlidingDoubleSum(op == ReduceOp.Mean, validation);
+                return (LongSum) acc;
+            case CountUnique:
+                return new SlidingCountUnique(((CountUnique) acc).valueType, validation);
+            case TakeFirst:
+            case TakeLast:
+                return new SlidingTake(op == ReduceOp.TakeFirst, ((Take) acc).defaultValue);
+            case CountUniqueApprox:
+                return null;
+            default:
+                //Stdev, Count
+                return (SlidingColumnAccumulator) acc;
+        }
+    }
+
+    /**
+     * Create an accumulator for a custom column reduction. As custom reductions operate on the full list of values,
+     * all values are retained until {@link ColumnAccumulator#get()} is called
+     */
+    public static ColumnAccumulator create(ColumnReduction reduction) {
+        return new Custom(reduction);
+    }
+
+    private static boolean skip(ColumnMetaData validation, Writable w) {
+        return validation != null && !validation.isValid(w);
+    }
+
+    private static class LongMinMax implements ColumnAccumulator {
+        private final ReduceOp op;
+        private final ColumnMetaData validation;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        private LongMinMax(ReduceOp op, ColumnMetaData validation) {
+            this.op = op;
+            this.validation = validation;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            long l = value.toLong();
+            if (l < min) min = l;
+            if (l > max) max = l;
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            LongMinMax o = (LongMinMax) other;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+        }
+
+        @Override
+        public Writable get() {
+            switch (op) {
+                case Min:
+                    return new LongWritable(min);
+                case Max:
+                    return new LongWritable(max);
+                default:
+                    return new LongWritable(max - min);
+            }
+        }
+    }
+
+    private static class DoubleMinMax implements ColumnAccumulator {
+        private final ReduceOp op;
+        private final ColumnMetaData validation;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+
+        private DoubleMinMax(ReduceOp op, ColumnMetaData validation) {
+            this.op = op;
+            this.validation = validation;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            double d = value.toDouble();
+            min = Math.min(min, d);
+            max = Math.max(max, d);
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            DoubleMinMax o = (DoubleMinMax) other;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+        }
+
+        @Override
+        public Writable get() {
+            switch (op) {
+                case Min:
+                    return new DoubleWritable(min);
+                case Max:
+                    return new DoubleWritable(max);
+                default:
+                    return new DoubleWritable(max - min);
+            }
+        }
+    }
+
+    private static class LongSum implements SlidingColumnAccumulator {
+        private final boolean mean;
+        private final boolean time;
+        private final ColumnMetaData validation;
+        private long sum;
+        private long count;
+
+        private LongSum(boolean mean, boolean time, ColumnMetaData validation) {
+            this.mean = mean;
+            this.time = time;
+            this.validation = validation;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            sum += value.toLong();
+            count++;
+        }
+
+        @Override
+        public void remove(Writable value) {
+            if (skip(validation, value)) return;
+            sum -= value.toLong();
+            count--;
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            LongSum o = (LongSum) other;
+            sum += o.sum;
+            count += o.count;
+        }
+
+        @Override
+        public Writable get() {
+            if (!mean) return new LongWritable(sum);
+            if (time) return new LongWritable(count > 0 ? sum / count : 0);
+            return new DoubleWritable(count > 0 ? ((double) sum) / count : 0.0);
+        }
+    }
+
+    private static class DoubleSum implements ColumnAccumulator {
+        private final boolean mean;
+        private final ColumnMetaData validation;
+        private double sum;
+        private long count;
+
+        private DoubleSum(boolean mean, ColumnMetaData validation) {
+            this.mean = mean;
+            this.validation = validation;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            sum += value.toDouble();
+            count++;
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            DoubleSum o = (DoubleSum) other;
+            sum += o.sum;
+            count += o.count;
+        }
+
+        @Override
+        public Writable get() {
+            if (!mean) return new DoubleWritable(sum);
+            return new DoubleWritable(count > 0 ? sum / count : 0.0);
+        }
+    }
+
+    /**
+     * Sample standard deviation (i.e., with bias correction), as per commons-math StandardDeviation
+     */
+    private static class Stdev implements SlidingColumnAccumulator {
+        private final boolean longValues;
+        private final ColumnMetaData validation;
+        private long count;
+        private double mean;
+        private double m2;
+
+        private Stdev(boolean longValues, ColumnMetaData validation) {
+            this.longValues = longValues;
+            this.validation = validation;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            double x = (longValues ? value.toLong() : value.toDouble());
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+
+        @Override
+        public void remove(Writable value) {
+            if (skip(validation, value)) return;
+            double x = (longValues ? value.toLong() : value.toDouble());
+            count--;
+            if (count == 0) {
+                mean = 0.0;
+                m2 = 0.0;
+                return;
+            }
+            double delta = x - mean;
+            mean -= delta / count;
+            m2 = Math.max(0.0, m2 - delta * (x - mean));
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            Stdev o = (Stdev) other;
+            if (o.count == 0) return;
+            if (count == 0) {
+                count = o.count;
+                mean = o.mean;
+                m2 = o.m2;
+                return;
+            }
+            long n = count + o.count;
+            double delta = o.mean - mean;
+            mean += delta * o.count / n;
+            m2 += o.m2 + delta * delta * ((double) count * o.count) / n;
+            count = n;
+        }
+
+        @Override
+        public Writable get() {
+            if (count == 0) return new DoubleWritable(Double.NaN);
+            if (count == 1) return new DoubleWritable(0.0);
+            return new DoubleWritable(Math.sqrt(m2 / (count - 1)));
+        }
+    }
+
+    private static class Count implements SlidingColumnAccumulator {
+        private final ColumnMetaData validation;
+        private int count;
+
+        private Count(ColumnMetaData validation) {
+            this.validation = validation;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            count++;
+        }
+
+        @Override
+        public void remove(Writable value) {
+            if (skip(validation, value)) return;
+            count--;
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            count += ((Count) other).count;
+        }
+
+        @Override
+        public Writable get() {
+            return new IntWritable(count);
+        }
+    }
+
+    private static class CountUnique implements ColumnAccumulator {
+        private static final int LONG = 0;
+        private static final int DOUBLE = 1;
+        private static final int STRING = 2;
+
+        private final int valueType;
+        private final ColumnMetaData validation;
+        private final Set<Object> values = new HashSet<>();
+
+        private CountUnique(int valueType, ColumnMetaData validation) {
+            this.valueType = valueType;
+            this.validation = validation;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            switch (valueType) {
+                case LONG:
+                    values.add(value.toLong());
+                    break;
+                case DOUBLE:
+                    values.add(value.toDouble());
+                    break;
+                default:
+                    values.add(value.toString());
+            }
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            values.addAll(((CountUnique) other).values);
+        }
+
+        @Override
+        public Writable get() {
+            return new IntWritable(values.size());
+        }
+    }
+
+    private static class CountUniqueApprox implements ColumnAccumulator {
+        private final int valueType;
+        private final ColumnMetaData validation;
+        private final HyperLogLog hll = new HyperLogLog();
+
+        private CountUniqueApprox(int valueType, ColumnMetaData validation) {
+            this.valueType = valueType;
+            this.validation = validation;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            switch (valueType) {
+                case CountUnique.LONG:
+                    hll.add(value.toLong());
+                    break;
+                case CountUnique.DOUBLE:
+                    hll.add(value.toDouble());
+                    break;
+                default:
+                    hll.add(value.toString());
+            }
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            hll.merge(((CountUniqueApprox) other).hll);
+        }
+
+        @Override
+        public Writable get() {
+            return new LongWritable(hll.cardinality());
+        }
+    }
+
+    /**
+     * TakeFirst and TakeLast. Note that (as per the non-accumulator implementation) invalid values are not skipped
+     */
+    private static class Take implements ColumnAccumulator {
+        private final boolean first;
+        private final Writable defaultValue;
+        private Writable value;
+
+        private Take(boolean first, Writable defaultValue) {
+            this.first = first;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (!first || this.value == null) this.value = value;
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            Writable o = ((Take) other).value;
+            if (o != null && (!first || value == null)) value = o;
+        }
+
+        @Override
+        public Writable get() {
+            if (value != null) return value;
+            if (defaultValue == null) throw new IllegalStateException("Cannot take first/last value: no values");
+            return defaultValue;
+        }
+    }
+
+    private static class Custom implements ColumnAccumulator {
+        private final ColumnReduction reduction;
+        private final List<Writable> values = new ArrayList<>();
+
+        private Custom(ColumnReduction reduction) {
+            this.reduction = reduction;
+        }
+
+        @Override
+        public void add(Writable value) {
+            values.add(value);
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            values.addAll(((Custom) other).values);
+        }
+
+        @Override
+        public Writable get() {
+            return reduction.reduceColumn(values);
+        }
+    }
+
+    /**
+     * Sliding window min, max and range. Each deque holds the values that may yet become the min (or max) of the
+     * window, in the order they were added: i.e., values that are not preceded by a smaller (larger) value
+     */
+    private static class SlidingMinMax implements SlidingColumnAccumulator {
+        private final ReduceOp op;
+        private final boolean longValues;
+        private final ColumnMetaData validation;
+        private final ArrayDeque<Number> minDeque = new ArrayDeque<>();
+        private final ArrayDeque<Number> maxDeque = new ArrayDeque<>();
+
+        private SlidingMinMax(ReduceOp op, boolean longValues, ColumnMetaData validation) {
+            this.op = op;
+            this.longValues = longValues;
+            this.validation = validation;
+        }
+
+        private int compare(Number a, Number b) {
+            if (longValues) return Long.compare(a.longValue(), b.longValue());
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+
+        private Number value(Writable w) {
+            if (longValues) return w.toLong();
+            return w.toDouble();
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            Number n = value(value);
+            if (op != ReduceOp.Max) {
+                while (!minDeque.isEmpty() && compare(minDeque.peekLast(), n) > 0) minDeque.pollLast();
+                minDeque.addLast(n);
+            }
+            if (op != ReduceOp.Min) {
+                while (!maxDeque.isEmpty() && compare(maxDeque.peekLast(), n) < 0) maxDeque.pollLast();
+                maxDeque.addLast(n);
+            }
+        }
+
+        @Override
+        public void remove(Writable value) {
+            if (skip(validation, value)) return;
+            Number n = value(value);
+            if (!minDeque.isEmpty() && compare(minDeque.peekFirst(), n) == 0) minDeque.pollFirst();
+            if (!maxDeque.isEmpty() && compare(maxDeque.peekFirst(), n) == 0) maxDeque.pollFirst();
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            throw new UnsupportedOperationException("Sliding window accumulators cannot be merged");
+        }
+
+        @Override
+        public Writable get() {
+            //Same values as LongMinMax and DoubleMinMax, if no values have been added
+            if (longValues) {
+                long min = (minDeque.isEmpty() ? Long.MAX_VALUE : minDeque.peekFirst().longValue());
+                long max = (maxDeque.isEmpty() ? Long.MIN_VALUE : maxDeque.peekFirst().longValue());
+                switch (op) {
+                    case Min:
+                        return new LongWritable(min);
+                    case Max:
+                        return new LongWritable(max);
+                    default:
+                        return new LongWritable(max - min);
+                }
+            }
+            double min = (minDeque.isEmpty() ? Double.MAX_VALUE : minDeque.peekFirst().doubleValue());
+            double max = (maxDeque.isEmpty() ? -Double.MAX_VALUE : maxDeque.peekFirst().doubleValue());
+            switch (op) {
+                case Min:
+                    return new DoubleWritable(min);
+                case Max:
+                    return new DoubleWritable(max);
+                default:
+                    return new DoubleWritable(max - min);
+            }
+        }
+    }
+
+    /**
+     * Sliding window sum and mean of double values, using Kahan-Babuska (Neumaier) compensated summation
+     */
+    private static class SlidingDoubleSum implements SlidingColumnAccumulator {
+        private final boolean mean;
+        private final ColumnMetaData validation;
+        private double sum;
+        private double compensation;
+        private long count;
+
+        private SlidingDoubleSum(boolean mean, ColumnMetaData validation) {
+            this.mean = mean;
+            this.validation = validation;
+        }
+
+        private void accumulate(double x) {
+            double t = sum + x;
+            if (Math.abs(sum) >= Math.abs(x)) compensation += (sum - t) + x;
+            else compensation += (x - t) + sum;
+            sum = t;
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            accumulate(value.toDouble());
+            count++;
+        }
+
+        @Override
+        public void remove(Writable value) {
+            if (skip(validation, value)) return;
+            count--;
+            if (count == 0) {
+                sum = 0.0;
+                compensation = 0.0;
+                return;
+            }
+            accumulate(-value.toDouble());
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            throw new UnsupportedOperationException("Sliding window accumulators cannot be merged");
+        }
+
+        @Override
+        public Writable get() {
+            double s = sum + compensation;
+            if (!mean) return new DoubleWritable(s);
+            return new DoubleWritable(count > 0 ? s / count : 0.0);
+        }
+    }
+
+    private static class SlidingCountUnique implements SlidingColumnAccumulator {
+        private final int valueType;
+        private final ColumnMetaData validation;
+        private final Map<Object, Integer> counts = new HashMap<>();
+
+        private SlidingCountUnique(int valueType, ColumnMetaData validation) {
+            this.valueType = valueType;
+            this.validation = validation;
+        }
+
+        private Object key(Writable value) {
+            switch (valueType) {
+                case CountUnique.LONG:
+                    return value.toLong();
+                case CountUnique.DOUBLE:
+                    return value.toDouble();
+                default:
+                    return value.toString();
+            }
+        }
+
+        @Override
+        public void add(Writable value) {
+            if (skip(validation, value)) return;
+            Object key = key(value);
+            Integer c = counts.get(key);
+            counts.put(key, c == null ? 1 : c + 1);
+        }
+
+        @Override
+        public void remove(Writable value) {
+            if (skip(validation, value)) return;
+            Object key = key(value);
+            Integer c = counts.get(key);
+            if (c == null) return;
+            if (c == 1) counts.remove(key);
+            else counts.put(key, c - 1);
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            throw new UnsupportedOperationException("Sliding window accumulators cannot be merged");
+        }
+
+        @Override
+        public Writable get() {
+            return new IntWritable(counts.size());
+        }
+    }
+
+    /**
+     * Sliding window TakeFirst and TakeLast: holds the values currently in the window
+     */
+    private static class SlidingTake implements SlidingColumnAccumulator {
+        private final boolean first;
+        private final Writable defaultValue;
+        private final ArrayDeque<Writable> values = new ArrayDeque<>();
+
+        private SlidingTake(boolean first, Writable defaultValue) {
+            this.first = first;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public void add(Writable value) {
+            values.addLast(value);
+        }
+
+        @Override
+        public void remove(Writable value) {
+            values.pollFirst();
+        }
+
+        @Override
+        public void merge(ColumnAccumulator other) {
+            throw new UnsupportedOperationException("Sliding window accumulators cannot be merged");
+        }
+
+        @Override
+        public Writable get() {
+            if (!values.isEmpty()) return (first ? values.peekFirst() : values.peekLast());
+            if (defaultValue == null) throw new IllegalStateException("Cannot take first/last value: no values");
+            return defaultValue;
+        }
+    }
+}
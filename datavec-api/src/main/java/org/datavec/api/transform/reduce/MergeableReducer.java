@@ -0,0 +1,31 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.reduce;
+
+/**
+ * A reducer whose reduction can be performed incrementally, and in parallel, via mergeable accumulators.
+ * This allows (for example) reductions by key to be partially performed before data is shuffled between machines.
+ */
+public interface MergeableReducer extends IReducer {
+
+    /**
+     * Create a new (empty) accumulator for this reducer. The input schema must be set first
+     */
+    ReducerAccumulator newAccumulator();
+
+}
@@ -16,9 +16,6 @@
 
 package org.datavec.api.transform.reduce;
 
-import org.datavec.api.writable.DoubleWritable;
-import org.datavec.api.writable.LongWritable;
-import org.datavec.api.writable.Text;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.ReduceOp;
 import org.datavec.api.transform.condition.Condition;
@@ -29,9 +26,7 @@ import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.metadata.LongMetaData;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.apache.commons.math3.stat.descriptive.moment.StandardDeviation;
 import org.datavec.api.berkeley.Pair;
-import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.Writable;
 
 import java.io.Serializable;
@@ -50,7 +45,7 @@ import java.util.*;
  * @author Alex Black
  */
 @Data
-public class Reducer implements IReducer {
+public class Reducer implements MergeableReducer {
 
     private Schema schema;
     private final List<String> keyColumnsList;
@@ -188,6 +183,8 @@ public class Reducer implements IReducer {
             case CountUnique:
                 //Always integer
                 return new Pair<String,ColumnMetaData>("countUnique(" + name + ")",new IntegerMetaData(0, null));
+            case CountUniqueApprox:
+                return new Pair<String,ColumnMetaData>("countUniqueApprox(" + name + ")",new LongMetaData(0L, null));
             default:
                 throw new UnsupportedOperationException("Unknown or not implemented op: " + op);
         }
@@ -196,344 +193,129 @@ public class Reducer implements IReducer {
     @Override
     public List<Writable> reduce(List<List<Writable>> examplesList) {
         //Go through each writable, and reduce according to whatever strategy is specified
+        ReducerAccumulator accumulator = newAccumulator();
+        for (List<Writable> example : examplesList) {
+            accumulator.add(example);
+        }
+        return accumulator.get();
+    }
 
+    /**
+     * Create a new accumulator for this reducer. Examples can be added to the accumulator one at a time, and
+     * accumulators (for example, for different partitions of the data) can be merged, giving the same result as
+     * {@link #reduce(List)} on all of the examples
+     */
+    @Override
+    public ReducerAccumulator newAccumulator() {
         if (schema == null) throw new IllegalStateException("Error: Schema has not been set");
 
         int nCols = schema.numColumns();
         List<String> colNames = schema.getColumnNames();
-
-        List<Writable> out = new ArrayList<>(nCols);
-        List<Writable> tempColumnValues = new ArrayList<>(examplesList.size());
+        boolean[] isKey = new boolean[nCols];
+        ColumnAccumulator[] accumulators = new ColumnAccumulator[nCols];
+        Condition[] conditions = new Condition[nCols];
         for (int i = 0; i < nCols; i++) {
             String colName = colNames.get(i);
             if (keyColumns.contains(colName)) {
-                //This is a key column -> all values should be identical
-                //Therefore just take the first one
-                out.add(examplesList.get(0).get(i));
+                isKey[i] = true;
                 continue;
             }
 
-            //First: Extract out the Writables for the column we are considering here...
-            for (List<Writable> list : examplesList) {
-                tempColumnValues.add(list.get(i));
-            }
-
-            //Second: is this a *custom* reduction column?
-            if(customReductions.containsKey(colName)){
-                ColumnReduction reduction = customReductions.get(colName);
-                Writable reducedColumn = reduction.reduceColumn(tempColumnValues);
-                out.add(reducedColumn);
+            //Custom reduction column?
+            if (customReductions.containsKey(colName)) {
+                accumulators[i] = ColumnAccumulators.create(customReductions.get(colName));
                 continue;
             }
 
-            //Third: is this a *conditional* reduction column?
-            //Only practical difference with conditional reductions is we filter the input based on a condition first
-            boolean conditionalOp = false;
-            if(conditionalReductions.containsKey(colName)){
+            //Conditional reduction column? Only practical difference with conditional reductions is we filter the
+            //input based on a condition first
+            ReduceOp op;
+            if (conditionalReductions.containsKey(colName)) {
                 ConditionalReduction reduction = conditionalReductions.get(colName);
-                Condition c = reduction.getCondition();
-                List<Writable> filteredColumnValues = new ArrayList<>();
-
-                int j=0;
-                for(List<Writable> example : examplesList){
-                    if(c.condition(example)){
-                        filteredColumnValues.add(tempColumnValues.get(j));
-                    }
-                    j++;
-                }
-
-                tempColumnValues = filteredColumnValues;
-                conditionalOp = true;
+                conditions[i] = reduction.getCondition();
+                op = reduction.getReduction();
+            } else {
+                op = opMap.get(colName);
+                if (op == null) op = defaultOp;
             }
 
-            //What type of column is this?
-            ColumnType type = schema.getType(i);
-
-            //What op are we performing on this column?
-            ReduceOp op = (conditionalOp ? conditionalReductions.get(colName).getReduction() : opMap.get(colName));
-            if (op == null) op = defaultOp;
-
-            //Execute the reduction, store the result
-            out.add(reduceColumn(op, type, tempColumnValues, ignoreInvalidInColumns.contains(colName), schema.getMetaData(i)));
-
-            tempColumnValues.clear();
+            accumulators[i] = ColumnAccumulators.create(op, schema.getType(i), ignoreInvalidInColumns.contains(colName),
+                    schema.getMetaData(i));
         }
-
-        return out;
+        return new ReducerAccumulator(isKey, accumulators, conditions);
     }
 
-    private Writable reduceColumn(ReduceOp op, ColumnType type, List<Writable> values, boolean ignoreInvalid, ColumnMetaData metaData) {
-        switch (type) {
-            case Integer:
-            case Long:
-                return reduceLongColumn(op, values, ignoreInvalid, metaData);
-            case Double:
-                return reduceDoubleColumn(op, values, ignoreInvalid, metaData);
-            case String:
-            case Categorical:
-                return reduceStringOrCategoricalColumn(op, values, ignoreInvalid, metaData);
-            case Time:
-                return reduceTimeColumn(op, values, ignoreInvalid, metaData);
-            case Bytes:
-                return reduceBytesColumn(op, values);
-            default:
-                throw new UnsupportedOperationException("Unknown or not implemented column type: " + type);
-        }
-    }
-
-    private Writable reduceLongColumn(ReduceOp op, List<Writable> values, boolean ignoreInvalid, ColumnMetaData metaData) {
-        switch (op) {
-            case Min:
-                long min = Long.MAX_VALUE;
-                for (Writable w : values) {
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    min = Math.min(min, w.toLong());
-                }
-                return new LongWritable(min);
-            case Max:
-                long max = Long.MIN_VALUE;
-                for (Writable w : values) {
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    max = Math.max(max, w.toLong());
-                }
-                return new LongWritable(max);
-            case Range:
-                long min2 = Long.MAX_VALUE;
-                long max2 = Long.MIN_VALUE;
-                for (Writable w : values) {
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    long l = w.toLong();
-                    min2 = Math.min(min2, l);
-                    max2 = Math.max(max2, l);
-                }
-                return new LongWritable(max2 - min2);
-            case Sum:
-            case Mean:
-                long sum = 0;
-                int count = 0;
-                for (Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    sum += w.toLong();
-                    count++;
-                }
-                if(op == ReduceOp.Sum) return new LongWritable(sum);
-                else if(count > 0) return new DoubleWritable(((double)sum) / count);
-                else return new DoubleWritable(0.0);
-            case Stdev:
-                double[] arr = new double[values.size()];
-                int i = 0;
-                int countValid = 0;
-                for (Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    arr[i++] = w.toLong();
-                    countValid++;
-                }
-                if(ignoreInvalid && countValid < arr.length){
-                    arr = Arrays.copyOfRange(arr,0,countValid);
-                }
-                return new DoubleWritable(new StandardDeviation().evaluate(arr));
-            case Count:
-                if(ignoreInvalid){
-                    int countValid2 = 0;
-                    for(Writable w : values){
-                        if(!metaData.isValid(w)) continue;
-                        countValid2++;
-                    }
-                    return new IntWritable(countValid2);
-                }
-                return new IntWritable(values.size());
-            case CountUnique:
-                Set<Long> set = new HashSet<>();
-                for (Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    set.add(w.toLong());
-                }
-                return new IntWritable(set.size());
-            case TakeFirst:
-                if(values.size() > 0) return values.get(0);
-                return new LongWritable(0);
-            case TakeLast:
-                if(values.size() > 0) return values.get(values.size() - 1);
-                return new LongWritable(0);
-            default:
-                throw new UnsupportedOperationException("Unknown or not implement op: " + op);
-        }
-    }
-
-    private Writable reduceDoubleColumn(ReduceOp op, List<Writable> values, boolean ignoreInvalid, ColumnMetaData metaData) {
-        switch (op) {
-            case Min:
-                double min = Double.MAX_VALUE;
-                for (Writable w : values) {
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    min = Math.min(min, w.toDouble());
-                }
-                return new DoubleWritable(min);
-            case Max:
-                double max = -Double.MAX_VALUE;
-                for (Writable w : values) {
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    max = Math.max(max, w.toDouble());
-                }
-                return new DoubleWritable(max);
-            case Range:
-                double min2 = Double.MAX_VALUE;
-                double max2 = -Double.MAX_VALUE;
-                for (Writable w : values) {
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    double d = w.toDouble();
-                    min2 = Math.min(min2, d);
-                    max2 = Math.max(max2, d);
-                }
-                return new DoubleWritable(max2 - min2);
-            case Sum:
-            case Mean:
-                double sum = 0;
-                int count = 0;
-                for (Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    sum += w.toDouble();
-                    count++;
-                }
-                if(op == ReduceOp.Sum) return new DoubleWritable(sum);
-                else if(count > 0) return new DoubleWritable(sum / count);
-                else return new DoubleWritable(0.0);
-            case Stdev:
-                double[] arr = new double[values.size()];
-                int i = 0;
-                int countValid = 0;
-                for (Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    arr[i++] = w.toDouble();
-                    countValid++;
-                }
-                if(ignoreInvalid && countValid < arr.length){
-                    arr = Arrays.copyOfRange(arr,0,countValid);
-                }
-                return new DoubleWritable(new StandardDeviation().evaluate(arr));
-            case Count:
-                if(ignoreInvalid){
-                    int countValid2 = 0;
-                    for(Writable w : values){
-                        if(!metaData.isValid(w)) continue;
-                        countValid2++;
-                    }
-                    return new IntWritable(countValid2);
-                }
-                return new IntWritable(values.size());
-            case CountUnique:
-                Set<Double> set = new HashSet<>();
-                for (Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    set.add(w.toDouble());
-                }
-                return new IntWritable(set.size());
-            case TakeFirst:
-                if(values.size() > 0) return values.get(0);
-                return new DoubleWritable(0.0);
-            case TakeLast:
-                if(values.size() > 0) return values.get(values.size() - 1);
-                return new DoubleWritable(0.0);
-            default:
-                throw new UnsupportedOperationException("Unknown or not implement op: " + op);
-        }
-    }
+    /**
+     * Create a new sliding window accumulator for this reducer: examples can be both added to and removed from the
+     * accumulator, so that overlapping windows of a sequence can be reduced incrementally. The input schema must be
+     * set first.<br>
+     * The input schema may contain additional "window" columns after the example columns (for example, window start
+     * and end times, as added by a window function): these have the same value for all examples in a window, and are
+     * provided separately for each window; see {@link SlidingReducerAccumulator#get(List)}.
+     *
+     * @param numExampleColumns Number of columns in the examples that will be added to the accumulator. Any remaining
+     *                          columns of the input schema are window columns
+     * @return The accumulator, or null if this reducer cannot be performed incrementally on a sliding window. This is
+     * the case for custom reductions and CountUniqueApprox; and, if there are any window columns, for conditional
+     * reductions and Sum reductions on window columns
+     */
+    public SlidingReducerAccumulator newSlidingAccumulator(int numExampleColumns) {
+        if (schema == null) throw new IllegalStateException("Error: Schema has not been set");
 
-    private Writable reduceStringOrCategoricalColumn(ReduceOp op, List<Writable> values, boolean ignoreInvalid, ColumnMetaData metaData) {
-        switch (op) {
-            case Count:
-                if(ignoreInvalid){
-                    int countValid = 0;
-                    for(Writable w : values){
-                        if(!metaData.isValid(w)) continue;
-                        countValid++;
-                    }
-                    return new IntWritable(countValid);
-                }
-                return new IntWritable(values.size());
-            case CountUnique:
-                Set<String> set = new HashSet<>();
-                for (Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    set.add(w.toString());
-                }
-                return new IntWritable(set.size());
-            case TakeFirst:
-                if(values.size() > 0) return values.get(0);
-                return new Text("");
-            case TakeLast:
-                if(values.size() > 0) return values.get(values.size() - 1);
-                return new Text("");
-            default:
-                throw new UnsupportedOperationException("Cannot execute op \"" + op + "\" on String/Categorical column "
-                        + "(can only perform Count, CountUnique, TakeFirst and TakeLast ops on categorical columns)");
+        int nCols = schema.numColumns();
+        if (numExampleColumns > nCols) {
+            throw new IllegalArgumentException("Invalid number of example columns: " + numExampleColumns
+                    + " (schema has " + nCols + " columns)");
         }
-    }
+        int nWindowCols = nCols - numExampleColumns;
+        List<String> colNames = schema.getColumnNames();
+        boolean[] isKey = new boolean[numExampleColumns];
+        SlidingColumnAccumulator[] accumulators = new SlidingColumnAccumulator[numExampleColumns];
+        Condition[] conditions = new Condition[numExampleColumns];
+        ReduceOp[] windowOps = new ReduceOp[nWindowCols];
+        ColumnMetaData[] windowMeta = new ColumnMetaData[nWindowCols];
+        boolean[] windowIgnoreInvalid = new boolean[nWindowCols];
+        for (int i = 0; i < nCols; i++) {
+            String colName = colNames.get(i);
+            if (customReductions.containsKey(colName)) return null;
+            if (conditionalReductions.containsKey(colName) && nWindowCols > 0) {
+                //Conditions may depend on the window columns, which differ from window to window
+                return null;
+            }
+            boolean ignoreInvalid = ignoreInvalidInColumns.contains(colName);
+
+            if (i >= numExampleColumns) {
+                int j = i - numExampleColumns;
+                windowMeta[j] = schema.getMetaData(i);
+                windowIgnoreInvalid[j] = ignoreInvalid;
+                if (keyColumns.contains(colName)) continue;
+                ReduceOp op = opMap.get(colName);
+                if (op == null) op = defaultOp;
+                if (op == ReduceOp.Sum) return null;
+                ColumnAccumulators.create(op, schema.getType(i), ignoreInvalid, windowMeta[j]);  //Validate op
+                windowOps[j] = op;
+                continue;
+            }
 
-    private Writable reduceTimeColumn(ReduceOp op, List<Writable> values, boolean ignoreInvalid, ColumnMetaData metaData) {
+            ReduceOp op;
+            if (keyColumns.contains(colName)) {
+                //Key columns: value from the first example in the window
+                isKey[i] = true;
+                accumulators[i] = ColumnAccumulators.createSliding(ReduceOp.TakeFirst, ColumnType.Bytes, false, null);
+                continue;
+            } else if (conditionalReductions.containsKey(colName)) {
+                ConditionalReduction reduction = conditionalReductions.get(colName);
+                conditions[i] = reduction.getCondition();
+                op = reduction.getReduction();
+            } else {
+                op = opMap.get(colName);
+                if (op == null) op = defaultOp;
+            }
 
-        switch(op) {
-            case Min:
-                long min = Long.MAX_VALUE;
-                for(Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    min = Math.min(min,w.toLong());
-                }
-                return new LongWritable(min);
-            case Max:
-                long max = Long.MIN_VALUE;
-                for(Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    max = Math.max(max,w.toLong());
-                }
-                return new LongWritable(max);
-            case Mean:
-                long sum = 0L;
-                int count = 0;
-                for(Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    sum += w.toLong();
-                    count++;
-                }
-                return (count > 0 ? new LongWritable(sum/count) : new LongWritable(0));
-            case Count:
-                if(ignoreInvalid){
-                    int countValid = 0;
-                    for(Writable w : values){
-                        if(!metaData.isValid(w)) continue;
-                        countValid++;
-                    }
-                    return new IntWritable(countValid);
-                }
-                return new IntWritable(values.size());
-            case CountUnique:
-                Set<Long> set = new HashSet<>();
-                for(Writable w : values){
-                    if(ignoreInvalid && !metaData.isValid(w)) continue;
-                    set.add(w.toLong());
-                }
-                return new IntWritable(set.size());
-            case TakeFirst:
-                if(values.size() > 0) return values.get(0);
-                return new LongWritable(0);
-            case TakeLast:
-                if(values.size() > 0) return values.get(values.size()-1);
-                return new LongWritable(0);
-            case Range:
-            case Sum:
-            case Stdev:
-                throw new UnsupportedOperationException("Reduction op \"" + op + "\" not supported on time columns");
+            accumulators[i] = ColumnAccumulators.createSliding(op, schema.getType(i), ignoreInvalid, schema.getMetaData(i));
+            if (accumulators[i] == null) return null;
         }
-
-
-        throw new UnsupportedOperationException("Reduce ops for time columns: not yet implemented");
-    }
-
-    private Writable reduceBytesColumn(ReduceOp op, List<Writable> list) {
-        if (op == ReduceOp.TakeFirst) return list.get(0);
-        else if(op == ReduceOp.TakeLast) return list.get(list.size()-1);
-        throw new UnsupportedOperationException("Cannot execute op \"" + op + "\" on Bytes column "
-                + "(can only perform TakeFirst or TakeLast ops on Bytes columns)");
+        return new SlidingReducerAccumulator(isKey, accumulators, conditions, windowOps, windowMeta, windowIgnoreInvalid);
     }
 
 
@@ -634,6 +416,14 @@ public class Reducer implements IReducer {
             return add(ReduceOp.CountUnique, columns);
         }
 
+        /**
+         * Reduce the specified columns by estimating the number of unique values, using a HyperLogLog sketch.
+         * Unlike {@link #countUniqueColumns(String...)}, memory use is bounded for high cardinality columns
+         */
+        public Builder countUniqueApproxColumns(String... columns) {
+            return add(ReduceOp.CountUniqueApprox, columns);
+        }
+
         /**
          * Reduce the specified columns by taking the first value
          */
@@ -0,0 +1,103 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.reduce;
+
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mergeable accumulator for the reduction of a set of examples (rows), as defined by a {@link MergeableReducer}.
+ * Holds one {@link ColumnAccumulator} per non-key column.<br>
+ * Examples can only be added to an accumulator before it is serialized (the conditions for conditional
+ * reductions are not serialized with the accumulator); after deserialization, accumulators can only be merged.
+ */
+public class ReducerAccumulator implements Serializable {
+
+    private final Writable[] keyValues;
+    private final ColumnAccumulator[] accumulators;
+    private final transient Condition[] conditions;
+    private final transient boolean initialized;
+
+    /**
+     * @param isKey        For each column: whether it is a key column
+     * @param accumulators For each column: the accumulator (null for key columns)
+     * @param conditions   For each column: the condition for a conditional reduction (null if none)
+     */
+    public ReducerAccumulator(boolean[] isKey, ColumnAccumulator[] accumulators, Condition[] conditions) {
+        this.keyValues = new Writable[isKey.length];
+        this.accumulators = accumulators;
+        this.conditions = conditions;
+        this.initialized = true;
+        for (int i = 0; i < isKey.length; i++) {
+            if (!isKey[i] && accumulators[i] == null) {
+                throw new IllegalArgumentException("No accumulator provided for non-key column " + i);
+            }
+        }
+    }
+
+    /**
+     * Add a single example to this accumulator
+     */
+    public void add(List<Writable> example) {
+        if (!initialized) {
+            throw new IllegalStateException("Cannot add examples to a deserialized ReducerAccumulator: merge accumulators instead");
+        }
+        if (example.size() != accumulators.length) {
+            throw new IllegalStateException("Cannot reduce example: number of values (" + example.size()
+                    + ") does not match number of columns (" + accumulators.length + ")");
+        }
+        for (int i = 0; i < accumulators.length; i++) {
+            if (accumulators[i] == null) {
+                //Key column: all values should be identical, so just keep the first one
+                if (keyValues[i] == null) keyValues[i] = example.get(i);
+                continue;
+            }
+            if (conditions[i] != null && !conditions[i].condition(example)) continue;
+            accumulators[i].add(example.get(i));
+        }
+    }
+
+    /**
+     * Merge another accumulator (created by the same reducer) into this one. Examples added to this accumulator are
+     * considered to precede those in the other accumulator
+     */
+    public void merge(ReducerAccumulator other) {
+        for (int i = 0; i < accumulators.length; i++) {
+            if (accumulators[i] == null) {
+                if (keyValues[i] == null) keyValues[i] = other.keyValues[i];
+            } else {
+                accumulators[i].merge(other.accumulators[i]);
+            }
+        }
+    }
+
+    /**
+     * @return The reduced example
+     */
+    public List<Writable> get() {
+        List<Writable> out = new ArrayList<>(accumulators.length);
+        for (int i = 0; i < accumulators.length; i++) {
+            out.add(accumulators[i] == null ? keyValues[i] : accumulators[i].get());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.reduce;
+
+import org.datavec.api.writable.Writable;
+
+/**
+ * A {@link ColumnAccumulator} from which values can also be removed, for reductions over sliding windows.<br>
+ * Values must be removed in the same order that they were added (i.e., first in, first out): this allows
+ * reductions such as min and max to be maintained in amortized constant time per value.
+ *
+ * @see ColumnAccumulators#createSliding(org.datavec.api.transform.ReduceOp, org.datavec.api.transform.ColumnType, boolean, org.datavec.api.transform.metadata.ColumnMetaData)
+ */
+public interface SlidingColumnAccumulator extends ColumnAccumulator {
+
+    /**
+     * Remove the oldest value remaining in this accumulator
+     *
+     * @param value The value to remove: must be the oldest value added that has not yet been removed
+     */
+    void remove(Writable value);
+
+}
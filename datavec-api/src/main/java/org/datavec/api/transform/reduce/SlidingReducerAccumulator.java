@@ -0,0 +1,133 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.reduce;
+
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An accumulator for the reduction of a sliding window of examples, as defined by a {@link Reducer}: see
+ * {@link Reducer#newSlidingAccumulator(int)}. Examples are added as they enter the window, and removed (in the same
+ * order) as they leave it, so that each window is reduced without re-reducing the examples it shares with the
+ * previous window.<br>
+ * In addition to the columns of the examples, the reduced output may contain "window" columns: columns (such as the
+ * window start/end times) that have the same value for every example in a given window. These are not added to the
+ * accumulator, but provided when the result for a window is calculated: see {@link #get(List)}.
+ */
+public class SlidingReducerAccumulator {
+
+    private final SlidingColumnAccumulator[] accumulators;
+    private final boolean[] isKey;
+    private final Condition[] conditions;
+    private final ReduceOp[] windowColumnOps;
+    private final ColumnMetaData[] windowColumnMeta;
+    private final boolean[] windowColumnIgnoreInvalid;
+    private int count;
+
+    /**
+     * @param isKey                     For each example column: whether it is a key column
+     * @param accumulators              For each example column: the accumulator (key columns: a TakeFirst accumulator)
+     * @param conditions                For each example column: the condition for a conditional reduction (null if none)
+     * @param windowColumnOps           For each window column: the reduction op (null for key columns)
+     * @param windowColumnMeta          For each window column: the column metadata
+     * @param windowColumnIgnoreInvalid For each window column: whether invalid values should be ignored
+     */
+    public SlidingReducerAccumulator(boolean[] isKey, SlidingColumnAccumulator[] accumulators, Condition[] conditions,
+                                     ReduceOp[] windowColumnOps, ColumnMetaData[] windowColumnMeta,
+                                     boolean[] windowColumnIgnoreInvalid) {
+        this.isKey = isKey;
+        this.accumulators = accumulators;
+        this.conditions = conditions;
+        this.windowColumnOps = windowColumnOps;
+        this.windowColumnMeta = windowColumnMeta;
+        this.windowColumnIgnoreInvalid = windowColumnIgnoreInvalid;
+    }
+
+    /**
+     * Add an example, as it enters the window
+     */
+    public void add(List<Writable> example) {
+        if (example.size() != accumulators.length) {
+            throw new IllegalStateException("Cannot reduce example: number of values (" + example.size()
+                    + ") does not match number of columns (" + accumulators.length + ")");
+        }
+        for (int i = 0; i < accumulators.length; i++) {
+            if (conditions[i] != null && !conditions[i].condition(example)) continue;
+            accumulators[i].add(example.get(i));
+        }
+        count++;
+    }
+
+    /**
+     * Remove an example, as it leaves the window. Examples must be removed in the order they were added
+     */
+    public void remove(List<Writable> example) {
+        if (count == 0) throw new IllegalStateException("Cannot remove example: no examples in the window");
+        for (int i = 0; i < accumulators.length; i++) {
+            if (conditions[i] != null && !conditions[i].condition(example)) continue;
+            accumulators[i].remove(example.get(i));
+        }
+        count--;
+    }
+
+    /**
+     * @return Number of examples currently in the window
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Get the reduced example for the current window
+     *
+     * @param windowColumnValues Values for the window columns (if any), in order
+     */
+    public List<Writable> get(List<Writable> windowColumnValues) {
+        if (windowColumnValues.size() != windowColumnOps.length) {
+            throw new IllegalArgumentException("Expected " + windowColumnOps.length + " window column values, got "
+                    + windowColumnValues.size());
+        }
+        List<Writable> out = new ArrayList<>(accumulators.length + windowColumnOps.length);
+        for (int i = 0; i < accumulators.length; i++) {
+            //As per ReducerAccumulator: key value is that of the first example (or null, if no examples)
+            out.add(isKey[i] && count == 0 ? null : accumulators[i].get());
+        }
+        for (int i = 0; i < windowColumnOps.length; i++) {
+            Writable value = windowColumnValues.get(i);
+            if (windowColumnOps[i] == null) {
+                out.add(count == 0 ? null : value);
+            } else if (windowColumnOps[i] == ReduceOp.Count) {
+                //Same value for every example in the window
+                out.add(new IntWritable(windowColumnMeta[i].isValid(value) || !windowColumnIgnoreInvalid[i] ? count : 0));
+            } else {
+                //Other ops (except Sum, which is not supported for window columns) give the same result for one or
+                // many copies of the same value
+                ColumnAccumulator acc = ColumnAccumulators.create(windowColumnOps[i], windowColumnMeta[i].getColumnType(),
+                        windowColumnIgnoreInvalid[i], windowColumnMeta[i]);
+                if (count > 0) acc.add(value);
+                out.add(acc.get());
+            }
+        }
+        return out;
+    }
+}
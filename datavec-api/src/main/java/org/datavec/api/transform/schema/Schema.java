@@ -268,6 +268,16 @@ public class Schema implements Serializable {
             return this;
         }
 
+        /**
+         * Add a sparse vector column (values: {@link org.datavec.api.writable.SparseVectorWritable})
+         *
+         * @param name   Name of the column
+         * @param length Length of the vectors in the column
+         */
+        public Builder addColumnSparseVector(String name, int length) {
+            return addColumn(name, new SparseVectorMetaData(length));
+        }
+
         /**
          * Add a column
          *
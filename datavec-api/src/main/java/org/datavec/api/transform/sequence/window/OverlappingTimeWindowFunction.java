@@ -210,9 +210,38 @@ public class OverlappingTimeWindowFunction implements WindowFunction {
     @Override
     public List<List<List<Writable>>> applyToSequence(List<List<Writable>> sequence) {
 
+        List<WindowRange> ranges = getWindowRanges(sequence);
+        List<List<List<Writable>>> out = new ArrayList<>(ranges.size());
+        for (WindowRange range : ranges) {
+            List<List<Writable>> currentWindow = new ArrayList<>(range.size());
+            for (int i = range.getStartIdx(); i < range.getEndIdx(); i++) {
+                List<Writable> timeStep = sequence.get(i);
+                if (addWindowStartTimeColumn || addWindowEndTimeColumn) {
+                    List<Writable> timeStep2 = new ArrayList<>(timeStep);
+                    timeStep2.addAll(getWindowColumnValues(range));
+                    currentWindow.add(timeStep2);
+                } else {
+                    currentWindow.add(timeStep);
+                }
+            }
+            out.add(currentWindow);
+        }
+
+        return out;
+    }
+
+    /**
+     * Get the windows for the given sequence as ranges of time step indices, without copying the time steps into
+     * each window. Windows are returned in order; both the start and end indices of consecutive windows are
+     * non-decreasing. The windows are the same as those returned by {@link #applyToSequence(List)}.
+     *
+     * @param sequence Sequence to get the windows for. Must be ordered by time
+     */
+    public List<WindowRange> getWindowRanges(List<List<Writable>> sequence) {
+
         int timeColumnIdx = inputSchema.getIndexOfColumn(this.timeColumn);
 
-        List<List<List<Writable>>> out = new ArrayList<>();
+        List<WindowRange> out = new ArrayList<>();
 
         //We are assuming here that the sequence is already ordered (as is usually the case)
 
@@ -233,16 +262,17 @@ public class OverlappingTimeWindowFunction implements WindowFunction {
         long currentWindowStartTime = windowBorder + windowSeparationMilliseconds - windowSizeMilliseconds;
         long nextWindowStartTime = currentWindowStartTime + windowSeparationMilliseconds;
         long currentWindowEndTime = currentWindowStartTime + windowSizeMilliseconds;
-        List<List<Writable>> currentWindow = new ArrayList<>();
 
         int currentWindowStartIdx = 0;
         int sequenceLength = sequence.size();
         boolean foundIndexForNextWindowStart = false;
         while (currentWindowStartTime <= lastWindowStartTime) {
 
+            //Time steps in the current window: currentWindowStartIdx (inclusive) to currentWindowEndIdx (exclusive)
+            int windowStartIdx = currentWindowStartIdx;
+            int currentWindowEndIdx = currentWindowStartIdx;
             for (int i = currentWindowStartIdx; i < sequenceLength; i++) {
-                List<Writable> timeStep = sequence.get(i);
-                long currentTime = timeStep.get(timeColumnIdx).toLong();
+                long currentTime = sequence.get(i).get(timeColumnIdx).toLong();
 
                 //As we go through: let's keep track of the index of the first element in the next window
                 if (!foundIndexForNextWindowStart && currentTime >= nextWindowStartTime) {
@@ -252,14 +282,7 @@ public class OverlappingTimeWindowFunction implements WindowFunction {
                 boolean nextWindow = false;
                 if (currentTime < currentWindowEndTime) {
                     //This time step is included in the current window
-                    if(addWindowStartTimeColumn || addWindowEndTimeColumn){
-                        List<Writable> timeStep2 = new ArrayList<>(timeStep);
-                        if(addWindowStartTimeColumn) timeStep2.add(new LongWritable(currentWindowStartTime));
-                        if(addWindowEndTimeColumn) timeStep2.add(new LongWritable(currentWindowStartTime + windowSizeMilliseconds));
-                        currentWindow.add(timeStep2);
-                    } else {
-                        currentWindow.add(timeStep);
-                    }
+                    currentWindowEndIdx = i + 1;
                 } else {
                     //This time step is NOT included in the current window -> done with the current window -> start the next window
                     nextWindow = true;
@@ -270,8 +293,9 @@ public class OverlappingTimeWindowFunction implements WindowFunction {
                 if (i == sequenceLength - 1) nextWindow = true;
 
                 if (nextWindow) {
-                    if (!(excludeEmptyWindows && currentWindow.size() == 0)) out.add(currentWindow);
-                    currentWindow = new ArrayList<>();
+                    if (!(excludeEmptyWindows && currentWindowEndIdx == windowStartIdx)) {
+                        out.add(new WindowRange(windowStartIdx, currentWindowEndIdx, currentWindowStartTime, currentWindowEndTime));
+                    }
                     currentWindowStartTime = currentWindowStartTime + windowSeparationMilliseconds;
                     currentWindowEndTime = currentWindowStartTime + windowSizeMilliseconds;
                     foundIndexForNextWindowStart = false;
@@ -284,6 +308,17 @@ public class OverlappingTimeWindowFunction implements WindowFunction {
         return out;
     }
 
+    /**
+     * Get the values of the columns added by this window function (window start and/or end time, if any) for the
+     * given window
+     */
+    public List<Writable> getWindowColumnValues(WindowRange range) {
+        List<Writable> out = new ArrayList<>(2);
+        if (addWindowStartTimeColumn) out.add(new LongWritable(range.getWindowStartTime()));
+        if (addWindowEndTimeColumn) out.add(new LongWritable(range.getWindowEndTime()));
+        return out;
+    }
+
     public static class Builder {
         private String timeColumn;
         private long windowSize = -1;
@@ -21,6 +21,8 @@ import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.Transform;
 import org.datavec.api.transform.reduce.IReducer;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.reduce.SlidingReducerAccumulator;
 import org.datavec.api.transform.schema.SequenceSchema;
 
 import java.util.ArrayList;
@@ -29,7 +31,11 @@ import java.util.List;
 /**
  * Idea: do two things.
  * First, apply a window function to the sequence data.
- * Second: Reduce that window of data into a single value by using a Reduce function
+ * Second: Reduce that window of data into a single value by using a Reduce function<br>
+ * For an {@link OverlappingTimeWindowFunction} and a {@link Reducer}, the windows are not materialized: instead, each
+ * time step is added to (and later removed from) a sliding accumulator once, as the window moves over the sequence.
+ * Reductions that cannot be done this way (custom reductions, CountUniqueApprox, etc) fall back to reducing each window
+ * separately.
  *
  * @author Alex Black
  */
@@ -82,6 +88,12 @@ public class ReduceSequenceByWindowTransform implements Transform {
     @Override
     public List<List<Writable>> mapSequence(List<List<Writable>> sequence) {
 
+        if (windowFunction instanceof OverlappingTimeWindowFunction && reducer instanceof Reducer) {
+            List<List<Writable>> out = mapSequenceSliding((OverlappingTimeWindowFunction) windowFunction,
+                    (Reducer) reducer, sequence);
+            if (out != null) return out;
+        }
+
         //List of windows, which are all small sequences...
         List<List<List<Writable>>> sequenceAsWindows = windowFunction.applyToSequence(sequence);
 
@@ -94,4 +106,56 @@ public class ReduceSequenceByWindowTransform implements Transform {
 
         return out;
     }
+
+    /**
+     * Reduce each window incrementally, by adding/removing time steps to/from a sliding accumulator as the window
+     * moves over the sequence. Returns null if this is not possible for the given reducer or windows.
+     */
+    private List<List<Writable>> mapSequenceSliding(OverlappingTimeWindowFunction windowFunction, Reducer reducer,
+                                                    List<List<Writable>> sequence) {
+        if (inputSchema == null) return null;
+        int numColumns = inputSchema.numColumns();
+        SlidingReducerAccumulator accumulator = reducer.newSlidingAccumulator(numColumns);
+        if (accumulator == null) return null;
+
+        List<WindowRange> ranges = windowFunction.getWindowRanges(sequence);
+        //Time steps can only be removed in the order they were added: window start and end indices must not decrease
+        int lastStart = 0;
+        int lastEnd = 0;
+        for (WindowRange range : ranges) {
+            if (range.size() == 0) continue;
+            if (range.getStartIdx() < lastStart || range.getEndIdx() < lastEnd) return null;
+            lastStart = range.getStartIdx();
+            lastEnd = range.getEndIdx();
+        }
+
+        List<List<Writable>> out = new ArrayList<>(ranges.size());
+        SlidingReducerAccumulator emptyAccumulator = null;
+
+        //Accumulator contains time steps removedTo (inclusive) to addedTo (exclusive)
+        int addedTo = 0;
+        int removedTo = 0;
+        for (WindowRange range : ranges) {
+            List<Writable> windowColumnValues = windowFunction.getWindowColumnValues(range);
+            if (range.size() == 0) {
+                if (emptyAccumulator == null) emptyAccumulator = reducer.newSlidingAccumulator(numColumns);
+                out.add(emptyAccumulator.get(windowColumnValues));
+                continue;
+            }
+
+            while (removedTo < range.getStartIdx() && removedTo < addedTo) {
+                accumulator.remove(sequence.get(removedTo++));
+            }
+            if (addedTo < range.getStartIdx()) {
+                addedTo = range.getStartIdx();
+                removedTo = addedTo;
+            }
+            while (addedTo < range.getEndIdx()) {
+                accumulator.add(sequence.get(addedTo++));
+            }
+            out.add(accumulator.get(windowColumnValues));
+        }
+
+        return out;
+    }
 }
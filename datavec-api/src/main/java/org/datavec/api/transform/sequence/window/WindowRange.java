@@ -0,0 +1,45 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.sequence.window;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * A window of a sequence, defined by a range of time step indices (rather than a copy of the time steps themselves),
+ * along with the start and end time of the window
+ */
+@Data
+@AllArgsConstructor
+public class WindowRange implements Serializable {
+
+    /** Index of the first time step in the window (inclusive) */
+    private final int startIdx;
+    /** Index after the last time step in the window (exclusive). Equal to startIdx for empty windows */
+    private final int endIdx;
+    private final long windowStartTime;
+    private final long windowEndTime;
+
+    /**
+     * @return Number of time steps in the window
+     */
+    public int size() {
+        return endIdx - startIdx;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.transform.categorical;
+
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.writable.CategoricalWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+/**
+ * Convert a dictionary encoded categorical column (see {@link CategoricalEncodeTransform}) back to Text values.
+ * Values that are not encoded are left unchanged.
+ */
+public class CategoricalDecodeTransform extends BaseColumnTransform implements BatchTransform {
+
+    /**
+     * @param columnName Name of the categorical column to decode
+     */
+    public CategoricalDecodeTransform(String columnName) {
+        super(columnName);
+    }
+
+    @Override
+    public void setInputSchema(Schema inputSchema) {
+        super.setInputSchema(inputSchema);
+        ColumnMetaData meta = inputSchema.getMetaData(columnName);
+        if (!(meta instanceof CategoricalMetaData)) throw new IllegalStateException("Cannot decode column \"" +
+                columnName + "\": column is not categorical (is: " + meta.getColumnType() + ")");
+    }
+
+    @Override
+    public ColumnMetaData getNewColumnMetaData(ColumnMetaData oldColumnType) {
+        return new CategoricalMetaData(((CategoricalMetaData) oldColumnType).getStateNames(), false);
+    }
+
+    @Override
+    public Writable map(Writable columnWritable) {
+        if (columnWritable instanceof CategoricalWritable) return new Text(columnWritable.toString());
+        return columnWritable;
+    }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        batch.getCategoricalColumn(columnNumber);
+        return batch.withSchema(transform(inputSchema));
+    }
+
+    @Override
+    public String toString() {
+        return "CategoricalDecodeTransform(columnName=\"" + columnName + "\")";
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.transform.categorical;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.writable.CategoricalDictionary;
+import org.datavec.api.writable.Writable;
+
+/**
+ * Dictionary encode a categorical column: each value is replaced by a {@link org.datavec.api.writable.CategoricalWritable},
+ * i.e., the int index of the state in the column's state names.<br>
+ * Encoding is done once: subsequent categorical transforms, conditions and reductions on the column then operate on the
+ * int codes without any String lookups. With the datavec-spark Kryo serializers, only the code of each value is
+ * written in Spark shuffles (plus the dictionary fingerprint once per example or sequence).
+ * Use {@link CategoricalDecodeTransform} to convert the column back to Text values (for example, prior to export).
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class CategoricalEncodeTransform extends BaseColumnTransform implements BatchTransform {
+
+    private CategoricalDictionary dictionary;
+
+    /**
+     * @param columnName Name of the categorical column to encode
+     */
+    public CategoricalEncodeTransform(String columnName) {
+        super(columnName);
+    }
+
+    @Override
+    public void setInputSchema(Schema inputSchema) {
+        super.setInputSchema(inputSchema);
+        ColumnMetaData meta = inputSchema.getMetaData(columnName);
+        if (!(meta instanceof CategoricalMetaData)) throw new IllegalStateException("Cannot encode column \"" +
+                columnName + "\": column is not categorical (is: " + meta.getColumnType() + ")");
+        this.dictionary = ((CategoricalMetaData) meta).getDictionary();
+    }
+
+    @Override
+    public ColumnMetaData getNewColumnMetaData(ColumnMetaData oldColumnType) {
+        return new CategoricalMetaData(((CategoricalMetaData) oldColumnType).getStateNames(), true);
+    }
+
+    @Override
+    public Writable map(Writable columnWritable) {
+        return dictionary.encode(columnWritable);
+    }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        //Categorical columns are stored as state indexes in a batch: the new schema determines how they are materialized
+        batch.getCategoricalColumn(columnNumber);
+        return batch.withSchema(transform(inputSchema));
+    }
+
+    @Override
+    public String toString() {
+        return "CategoricalEncodeTransform(columnName=\"" + columnName + "\")";
+    }
+}
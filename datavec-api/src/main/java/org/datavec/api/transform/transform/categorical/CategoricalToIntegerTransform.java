@@ -16,12 +16,15 @@
 
 package org.datavec.api.transform.transform.categorical;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.datavec.api.transform.metadata.CategoricalMetaData;
 import org.datavec.api.transform.metadata.IntegerMetaData;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.BaseTransform;
+import org.datavec.api.writable.CategoricalDictionary;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -33,12 +36,12 @@ import java.util.*;
  */
 @EqualsAndHashCode(callSuper = true)
 @Data
-public class CategoricalToIntegerTransform extends BaseTransform {
+public class CategoricalToIntegerTransform extends BaseTransform implements BatchTransform {
 
     private String columnName;
     private int columnIdx = -1;
     private List<String> stateNames;
-    private Map<String,Integer> statesMap;
+    private CategoricalDictionary dictionary;
 
     public CategoricalToIntegerTransform(String columnName) {
         this.columnName = columnName;
@@ -53,11 +56,7 @@ public class CategoricalToIntegerTransform extends BaseTransform {
         if(!(meta instanceof CategoricalMetaData)) throw new IllegalStateException("Cannot convert column \"" +
                 columnName + "\" from categorical to one-hot: column is not categorical (is: " + meta.getColumnType() + ")");
         this.stateNames = ((CategoricalMetaData)meta).getStateNames();
-
-        this.statesMap = new HashMap<>(stateNames.size());
-        for( int i=0; i<stateNames.size(); i++ ){
-            this.statesMap.put(stateNames.get(i), i);
-        }
+        this.dictionary = ((CategoricalMetaData)meta).getDictionary();
     }
 
     @Override
@@ -106,9 +105,9 @@ public class CategoricalToIntegerTransform extends BaseTransform {
 
             if(i++ == idx){
                 //Do conversion
-                String str = w.toString();
-                Integer classIdx = statesMap.get(str);
-                if(classIdx == null) throw new RuntimeException("Unknown state (index not found): " + str);
+                //No String lookup required if the value is already dictionary encoded
+                int classIdx = dictionary.indexOf(w);
+                if(classIdx < 0) throw new RuntimeException("Unknown state (index not found): " + w);
                 out.add(new IntWritable(classIdx));
             } else {
                 //No change to this column
@@ -117,4 +116,11 @@ public class CategoricalToIntegerTransform extends BaseTransform {
         }
         return out;
     }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        //Encoding the column gives the state indexes: these are the values of the new integer column
+        batch.getCategoricalColumn(columnIdx);
+        return batch.withSchema(transform(inputSchema));
+    }
 }
@@ -18,7 +18,10 @@ package org.datavec.api.transform.transform.categorical;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.transform.metadata.SparseVectorMetaData;
+import org.datavec.api.writable.CategoricalDictionary;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.transform.metadata.CategoricalMetaData;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.IntegerMetaData;
@@ -29,6 +32,11 @@ import org.datavec.api.writable.Writable;
 import java.util.*;
 
 /**
+ * Convert a categorical column to a one-hot representation.<br>
+ * By default, the column is replaced by one integer column (value 0 or 1) per category state. Alternatively, in sparse
+ * mode, the column is replaced by a single column of {@link SparseVectorWritable} values, with one entry per row:
+ * this avoids creating one Writable per category state for every row.
+ *
  * Created by Alex on 4/03/2016.
  */
 @EqualsAndHashCode(callSuper = true)
@@ -38,10 +46,20 @@ public class CategoricalToOneHotTransform extends BaseTransform {
     private String columnName;
     private int columnIdx = -1;
     private List<String> stateNames;
-    private Map<String,Integer> statesMap;
+    private CategoricalDictionary dictionary;
+    private boolean sparse;
 
     public CategoricalToOneHotTransform(String columnName) {
+        this(columnName, false);
+    }
+
+    /**
+     * @param columnName Name of the categorical column to convert
+     * @param sparse     If true: output a single sparse vector column. If false: output one integer column per state
+     */
+    public CategoricalToOneHotTransform(String columnName, boolean sparse) {
         this.columnName = columnName;
+        this.sparse = sparse;
     }
 
     @Override
@@ -53,11 +71,7 @@ public class CategoricalToOneHotTransform extends BaseTransform {
         if(!(meta instanceof CategoricalMetaData)) throw new IllegalStateException("Cannot convert column \"" +
                 columnName + "\" from categorical to one-hot: column is not categorical (is: " + meta.getColumnType() + ")");
         this.stateNames = ((CategoricalMetaData)meta).getStateNames();
-
-        this.statesMap = new HashMap<>(stateNames.size());
-        for( int i=0; i<stateNames.size(); i++ ){
-            this.statesMap.put(stateNames.get(i), i);
-        }
+        this.dictionary = ((CategoricalMetaData)meta).getDictionary();
     }
 
     @Override
@@ -78,6 +92,12 @@ public class CategoricalToOneHotTransform extends BaseTransform {
             ColumnMetaData t = typesIter.next();
 
             if(i++ == columnIdx){
+                if(sparse){
+                    //Single sparse vector column, with the same name
+                    outNames.add(s);
+                    newMeta.add(new SparseVectorMetaData(stateNames.size()));
+                    continue;
+                }
                 //Convert this to one-hot:
                 for (String stateName : stateNames) {
                     String newName = s + "[" + stateName + "]";
@@ -110,9 +130,13 @@ public class CategoricalToOneHotTransform extends BaseTransform {
 
             if(i++ == idx){
                 //Do conversion
-                String str = w.toString();
-                Integer classIdx = statesMap.get(str);
-                if(classIdx == null) throw new RuntimeException("Unknown state (index not found): " + str);
+                //No String lookup required if the value is already dictionary encoded
+                int classIdx = dictionary.indexOf(w);
+                if(classIdx < 0) throw new RuntimeException("Unknown state (index not found): " + w);
+                if(sparse){
+                    out.add(SparseVectorWritable.oneHot(n, classIdx));
+                    continue;
+                }
                 for( int j=0; j<n; j++ ){
                     if(j == classIdx ) out.add(new IntWritable(1));
                     else out.add(new IntWritable(0));
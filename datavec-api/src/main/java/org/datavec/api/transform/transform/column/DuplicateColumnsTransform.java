@@ -16,6 +16,8 @@
 
 package org.datavec.api.transform.transform.column;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.transform.Transform;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.writable.Writable;
@@ -32,7 +34,7 @@ import java.util.Set;
  *
  * @author Alex Black
  */
-public class DuplicateColumnsTransform implements Transform {
+public class DuplicateColumnsTransform implements ProjectionTransform, BatchTransform {
 
     private final List<String> columnsToDuplicate;
     private final List<String> newColumnNames;
@@ -130,4 +132,21 @@ public class DuplicateColumnsTransform implements Transform {
     public String toString(){
         return "DuplicateColumnsTransform(toDuplicate=" + columnsToDuplicate + ",newNames=" + newColumnNames + ")";
     }
+
+    @Override
+    public int[] getSourceColumns() {
+        int nIn = inputSchema.numColumns();
+        int[] sourceColumns = new int[nIn + columnsToDuplicate.size()];
+        int j = 0;
+        for (int i = 0; i < nIn; i++) {
+            sourceColumns[j++] = i;
+            if (columnIndexesToDuplicateSet.contains(i)) sourceColumns[j++] = i;
+        }
+        return sourceColumns;
+    }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        return batch.selectColumns(transform(inputSchema), getSourceColumns());
+    }
 }
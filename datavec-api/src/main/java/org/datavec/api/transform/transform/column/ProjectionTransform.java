@@ -0,0 +1,34 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.transform.column;
+
+import org.datavec.api.transform.Transform;
+
+/**
+ * A ProjectionTransform is a transform that only selects, reorders, duplicates or renames columns: the values themselves
+ * are not modified. Consequently, it can be executed without creating or copying any writables
+ * (see {@link org.datavec.api.transform.fused.FusedRowOperator})
+ */
+public interface ProjectionTransform extends Transform {
+
+    /**
+     * Get the source of each output column: output column i is input column getSourceColumns()[i].
+     * Can only be called after the input schema has been set.
+     */
+    int[] getSourceColumns();
+
+}
@@ -16,6 +16,8 @@
 
 package org.datavec.api.transform.transform.column;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.BaseTransform;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -27,7 +29,7 @@ import java.util.*;
 
 @EqualsAndHashCode(callSuper = true)
 @Data
-public class RemoveColumnsTransform extends BaseTransform {
+public class RemoveColumnsTransform extends BaseTransform implements ProjectionTransform, BatchTransform {
 
     private int[] columnsToRemoveIdx;
     private String[] columnsToRemove;
@@ -106,4 +108,19 @@ public class RemoveColumnsTransform extends BaseTransform {
     public String toString(){
         return "RemoveColumnsTransform(" + Arrays.toString(columnsToRemove) + ")";
     }
+
+    @Override
+    public int[] getSourceColumns() {
+        int[] keep = new int[inputSchema.numColumns() - indicesToRemove.size()];
+        int j = 0;
+        for (int i = 0; i < inputSchema.numColumns(); i++) {
+            if (!indicesToRemove.contains(i)) keep[j++] = i;
+        }
+        return keep;
+    }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        return batch.selectColumns(transform(inputSchema), getSourceColumns());
+    }
 }
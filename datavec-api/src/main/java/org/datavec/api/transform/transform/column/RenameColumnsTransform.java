@@ -16,8 +16,9 @@
 
 package org.datavec.api.transform.transform.column;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.transform.schema.Schema;
-import org.datavec.api.transform.Transform;
 import org.datavec.api.writable.Writable;
 
 import java.util.ArrayList;
@@ -29,7 +30,7 @@ import java.util.List;
  *
  * @author Alex Black
  */
-public class RenameColumnsTransform implements Transform {
+public class RenameColumnsTransform implements ProjectionTransform, BatchTransform {
 
     private final List<String> oldNames;
     private final List<String> newNames;
@@ -89,4 +90,17 @@ public class RenameColumnsTransform implements Transform {
     public String toString(){
         return "RenameColumnsTransform(oldNames=" + oldNames + ",newNames=" + newNames + ")";
     }
+
+    @Override
+    public int[] getSourceColumns() {
+        //Names only are changed
+        int[] out = new int[inputSchema.numColumns()];
+        for (int i = 0; i < out.length; i++) out[i] = i;
+        return out;
+    }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        return batch.selectColumns(transform(inputSchema), getSourceColumns());
+    }
 }
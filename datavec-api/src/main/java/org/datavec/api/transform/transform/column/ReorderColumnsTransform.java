@@ -16,9 +16,10 @@
 
 package org.datavec.api.transform.transform.column;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
-import org.datavec.api.transform.Transform;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 
 import java.util.ArrayList;
@@ -32,7 +33,7 @@ import java.util.List;
  *
  * @author Alex Black
  */
-public class ReorderColumnsTransform implements Transform {
+public class ReorderColumnsTransform implements ProjectionTransform, BatchTransform {
 
     private final List<String> newOrder;
     private Schema inputSchema;
@@ -112,6 +113,7 @@ public class ReorderColumnsTransform implements Transform {
             if(taken[i]) continue;
             outputOrder[j++] = i;
         }
+        this.inputSchema = inputSchema;
     }
 
     @Override
@@ -136,4 +138,14 @@ public class ReorderColumnsTransform implements Transform {
         }
         return out;
     }
+
+    @Override
+    public int[] getSourceColumns() {
+        return outputOrder.clone();
+    }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        return batch.selectColumns(transform(inputSchema), getSourceColumns());
+    }
 }
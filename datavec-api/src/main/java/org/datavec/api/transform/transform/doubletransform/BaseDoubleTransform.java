@@ -16,6 +16,10 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.DoubleWritable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -28,7 +32,7 @@ import org.datavec.api.transform.transform.BaseColumnTransform;
  */
 @EqualsAndHashCode(callSuper = true)
 @Data
-public abstract class BaseDoubleTransform extends BaseColumnTransform {
+public abstract class BaseDoubleTransform extends BaseColumnTransform implements BatchTransform {
 
     public BaseDoubleTransform(String column){
         super(column);
@@ -36,9 +40,34 @@ public abstract class BaseDoubleTransform extends BaseColumnTransform {
 
     public abstract Writable map(Writable writable);
 
+    /**
+     * Transform a single double value. Used in batch mode; subclasses should override this to avoid creating
+     * a Writable for each value
+     */
+    public double map(double value) {
+        return map(new DoubleWritable(value)).toDouble();
+    }
+
     @Override
     public ColumnMetaData getNewColumnMetaData(ColumnMetaData oldColumnMeta){
         if(oldColumnMeta instanceof DoubleMetaData) return oldColumnMeta;
         else return new DoubleMetaData();
     }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        double[] values;
+        if (inputSchema.getType(columnNumber) == ColumnType.Double) {
+            values = batch.getDoubleColumn(columnNumber);
+        } else {
+            values = batch.getColumnAsDouble(columnNumber);
+        }
+        int n = batch.numRows();
+        for (int i = 0; i < n; i++) {
+            values[i] = map(values[i]);
+        }
+        ColumnarBatch out = batch.withSchema(transform(inputSchema));
+        out.setColumn(columnNumber, values);
+        return out;
+    }
 }
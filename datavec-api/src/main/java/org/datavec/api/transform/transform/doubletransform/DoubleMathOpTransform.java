@@ -16,6 +16,8 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.DoubleMetaData;
@@ -30,7 +32,7 @@ import org.datavec.api.transform.transform.BaseColumnTransform;
  * @author Alex Black
  * @see DoubleColumnsMathOpTransform to do a mathematical operation involving multiple columns (instead of a scalar)
  */
-public class DoubleMathOpTransform extends BaseColumnTransform {
+public class DoubleMathOpTransform extends BaseColumnTransform implements BatchTransform {
 
     private final MathOp mathOp;
     private final double scalar;
@@ -95,4 +97,14 @@ public class DoubleMathOpTransform extends BaseColumnTransform {
     public String toString() {
         return "DoubleMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
     }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        double[] values = batch.getDoubleColumn(columnNumber);
+        int n = batch.numRows();
+        for (int i = 0; i < n; i++) {
+            values[i] = doOp(values[i]);
+        }
+        return batch.withSchema(transform(inputSchema));
+    }
 }
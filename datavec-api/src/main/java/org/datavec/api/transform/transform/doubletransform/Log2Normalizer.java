@@ -45,9 +45,13 @@ public class Log2Normalizer extends BaseDoubleTransform {
     }
 
     public Writable map(Writable writable) {
-        double val = writable.toDouble();
-        if (Double.isNaN(val)) return new DoubleWritable(0);
-        return new DoubleWritable(normMean(val));
+        return new DoubleWritable(map(writable.toDouble()));
+    }
+
+    @Override
+    public double map(double value) {
+        if (Double.isNaN(value)) return 0;
+        return normMean(value);
     }
 
     private double log2(double x) {
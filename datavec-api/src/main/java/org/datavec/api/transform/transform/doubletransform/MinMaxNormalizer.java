@@ -51,9 +51,13 @@ public class MinMaxNormalizer extends BaseDoubleTransform {
 
     @Override
     public Writable map(Writable writable) {
-        double val = writable.toDouble();
-        if (Double.isNaN(val)) return new DoubleWritable(0);
-        return new DoubleWritable(ratio * (val - min) + newMin);
+        return new DoubleWritable(map(writable.toDouble()));
+    }
+
+    @Override
+    public double map(double value) {
+        if (Double.isNaN(value)) return 0;
+        return ratio * (value - min) + newMin;
     }
 
     @Override
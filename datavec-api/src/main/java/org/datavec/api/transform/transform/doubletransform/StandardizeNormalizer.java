@@ -39,8 +39,12 @@ public class StandardizeNormalizer extends BaseDoubleTransform {
 
     @Override
     public Writable map(Writable writable) {
-        double val = writable.toDouble();
-        return new DoubleWritable((val - mean) / sigma);
+        return new DoubleWritable(map(writable.toDouble()));
+    }
+
+    @Override
+    public double map(double value) {
+        return (value - mean) / sigma;
     }
 
     @Override
@@ -33,7 +33,12 @@ public class SubtractMeanNormalizer extends BaseDoubleTransform {
 
     @Override
     public Writable map(Writable writable) {
-        return new DoubleWritable(writable.toDouble()-mean);
+        return new DoubleWritable(map(writable.toDouble()));
+    }
+
+    @Override
+    public double map(double value) {
+        return value - mean;
     }
 
     @Override
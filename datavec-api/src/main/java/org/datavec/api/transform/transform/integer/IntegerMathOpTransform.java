@@ -16,6 +16,8 @@
 
 package org.datavec.api.transform.transform.integer;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.IntegerMetaData;
@@ -30,7 +32,7 @@ import org.datavec.api.writable.Writable;
  * @author Alex Black
  * @see IntegerColumnsMathOpTransform to do a mathematical operation involving multiple columns (instead of a scalar)
  */
-public class IntegerMathOpTransform extends BaseColumnTransform {
+public class IntegerMathOpTransform extends BaseColumnTransform implements BatchTransform {
 
     private final MathOp mathOp;
     private final int scalar;
@@ -95,4 +97,14 @@ public class IntegerMathOpTransform extends BaseColumnTransform {
     public String toString() {
         return "IntegerMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
     }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int[] values = batch.getIntColumn(columnNumber);
+        int n = batch.numRows();
+        for (int i = 0; i < n; i++) {
+            values[i] = doOp(values[i]);
+        }
+        return batch.withSchema(transform(inputSchema));
+    }
 }
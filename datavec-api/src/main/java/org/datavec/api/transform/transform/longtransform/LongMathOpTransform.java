@@ -16,6 +16,8 @@
 
 package org.datavec.api.transform.transform.longtransform;
 
+import org.datavec.api.transform.batch.BatchTransform;
+import org.datavec.api.transform.batch.ColumnarBatch;
 import org.datavec.api.writable.LongWritable;
 import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -30,7 +32,7 @@ import org.datavec.api.writable.Writable;
  * @author Alex Black
  * @see LongColumnsMathOpTransform to do a mathematical operation involving multiple long columns (instead of a scalar)
  */
-public class LongMathOpTransform extends BaseColumnTransform {
+public class LongMathOpTransform extends BaseColumnTransform implements BatchTransform {
 
     private final MathOp mathOp;
     private final long scalar;
@@ -95,4 +97,14 @@ public class LongMathOpTransform extends BaseColumnTransform {
     public String toString() {
         return "LongMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
     }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        long[] values = batch.getLongColumn(columnNumber);
+        int n = batch.numRows();
+        for (int i = 0; i < n; i++) {
+            values[i] = doOp(values[i]);
+        }
+        return batch.withSchema(transform(inputSchema));
+    }
 }
@@ -25,6 +25,7 @@ package org.datavec.api.transform.transform.normalize;
  * <b>SubtractMean</b>: Normalize by only subtracting the mean value<br>
  * <b>Log2Mean</b>: Normalization of the form log2((x-min)/(mean-min) + 1)<br>
  * <b>Log2MeanExcludingMin</b>: As per Log2Mean, but the 'mean' is calculated excluding the minimum value.<br>
+ * <b>Robust</b>: (x-median)/IQR, where IQR is the interquartile range. Requires quantiles in the analysis<br>
  *
  *
  * @author Alex Black
@@ -36,6 +37,7 @@ public enum Normalize {
     Standardize,
     SubtractMean,
     Log2Mean,
-    Log2MeanExcludingMin
+    Log2MeanExcludingMin,
+    Robust
 
 }
@@ -18,8 +18,10 @@ package org.datavec.api.transform.transform.string;
 
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.metadata.SparseVectorMetaData;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.BaseTransform;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -29,7 +31,9 @@ import java.util.*;
 /**
  * Convert a delimited String to a list of binary categorical columns.
  * Suppose the possible String values were {"a","b","c","d"} and the String column value to be converted contained
- * the String "a,c", then the 4 output columns would have values ["true","false","true","false"]
+ * the String "a,c", then the 4 output columns would have values ["true","false","true","false"]<br>
+ * Alternatively, in sparse mode, the String column is replaced by a single multi-hot column of
+ * {@link SparseVectorWritable} values: for the example above, a vector of length 4 with value 1.0 at indices 0 and 2
  *
  * @author Alex Black
  */
@@ -39,6 +43,7 @@ public class StringListToCategoricalSetTransform extends BaseTransform {
     private final List<String> newColumnNames;
     private final List<String> categoryTokens;
     private final String delim;
+    private final boolean sparse;
 
     private final Map<String,Integer> map;
 
@@ -54,11 +59,30 @@ public class StringListToCategoricalSetTransform extends BaseTransform {
      */
     public StringListToCategoricalSetTransform(String columnName, List<String> newColumnNames, List<String> categoryTokens,
                                                String delim) {
+        this(columnName, newColumnNames, categoryTokens, delim, false);
+    }
+
+    /**
+     *
+     * @param columnName The name of the column to convert
+     * @param categoryTokens The possible tokens that may be present
+     * @param delim The delimiter for the Strings to convert
+     * @param sparse If true: replace the column with a single sparse (multi-hot) vector column of the same name. If
+     *               false: replace the column with one categorical column per token, named "columnName[token]"
+     */
+    public StringListToCategoricalSetTransform(String columnName, List<String> categoryTokens, String delim,
+                                               boolean sparse) {
+        this(columnName, defaultColumnNames(columnName, categoryTokens), categoryTokens, delim, sparse);
+    }
+
+    private StringListToCategoricalSetTransform(String columnName, List<String> newColumnNames, List<String> categoryTokens,
+                                                String delim, boolean sparse) {
         if(newColumnNames.size() !=  categoryTokens.size()) throw new IllegalArgumentException("Names/tokens sizes cannot differ");
         this.columnName = columnName;
         this.newColumnNames = newColumnNames;
         this.categoryTokens = categoryTokens;
         this.delim = delim;
+        this.sparse = sparse;
 
         map = new HashMap<>();
         for( int i=0; i<categoryTokens.size(); i++ ){
@@ -66,6 +90,14 @@ public class StringListToCategoricalSetTransform extends BaseTransform {
         }
     }
 
+    private static List<String> defaultColumnNames(String columnName, List<String> categoryTokens) {
+        List<String> names = new ArrayList<>(categoryTokens.size());
+        for (String s : categoryTokens) {
+            names.add(columnName + "[" + s + "]");
+        }
+        return names;
+    }
+
     @Override
     public Schema transform(Schema inputSchema) {
 
@@ -86,6 +118,11 @@ public class StringListToCategoricalSetTransform extends BaseTransform {
             if(i++ == colIdx){
                 //Replace String column with a set of binary/categorical columns
                 if(t.getColumnType() != ColumnType.String) throw new IllegalStateException("Cannot convert non-string type");
+                if(sparse){
+                    newMeta.add(new SparseVectorMetaData(categoryTokens.size()));
+                    newNames.add(name);
+                    continue;
+                }
 
                 for( int j=0; j<newColumnNames.size(); j++ ){
                     ColumnMetaData meta = new CategoricalMetaData("true","false");
@@ -111,7 +148,7 @@ public class StringListToCategoricalSetTransform extends BaseTransform {
     @Override
     public String toString() {
         return "StringListToCategoricalSetTransform(columnName=" + columnName + ",newColumnNames=" + newColumnNames + ",categoryTokens="
-                + categoryTokens + ",delim=\"" + delim + "\")";
+                + categoryTokens + ",delim=\"" + delim + "\",sparse=" + sparse + ")";
     }
 
     @Override
@@ -126,6 +163,10 @@ public class StringListToCategoricalSetTransform extends BaseTransform {
         int i=0;
         for(Writable w : writables){
             if(i++ == columIdx){
+                if(sparse){
+                    out.add(toSparseVector(w.toString()));
+                    continue;
+                }
                 String str = w.toString();
                 boolean[] present = new boolean[categoryTokens.size()];
                 if(str != null && !str.isEmpty()){
@@ -147,4 +188,25 @@ public class StringListToCategoricalSetTransform extends BaseTransform {
 
         return out;
     }
+
+    private SparseVectorWritable toSparseVector(String str) {
+        if(str == null || str.isEmpty()) return new SparseVectorWritable(categoryTokens.size(), new int[0], new double[0]);
+        String[] split = str.split(delim);
+        int[] indices = new int[split.length];
+        for( int j=0; j<split.length; j++ ){
+            Integer idx = map.get(split[j]);
+            if(idx == null) throw new IllegalStateException("Encountered unknown String: \"" + split[j] + "\"");
+            indices[j] = idx;
+        }
+        //Sort and remove any duplicate tokens
+        Arrays.sort(indices);
+        int n = 0;
+        for( int j=0; j<indices.length; j++ ){
+            if(n == 0 || indices[j] != indices[n-1]) indices[n++] = indices[j];
+        }
+        if(n < indices.length) indices = Arrays.copyOf(indices, n);
+        double[] values = new double[n];
+        Arrays.fill(values, 1.0);
+        return new SparseVectorWritable(categoryTokens.size(), indices, values);
+    }
 }
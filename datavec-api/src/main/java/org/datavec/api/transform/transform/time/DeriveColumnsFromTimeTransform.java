@@ -41,7 +41,9 @@ import java.util.List;
 
 /**
  * Create a number of new columns by deriving their values from a Time column.
- * Can be used for example to create new columns with the year, month, day, hour, minute, second etc.
+ * Can be used for example to create new columns with the year, month, day, hour, minute, second etc.<br>
+ * Integer fields such as the hour of day or day of week are calculated arithmetically from the epoch milliseconds
+ * (see {@link TimeArithmetic}), rather than by creating a JodaTime DateTime for each value.
  *
  * @author Alex Black
  */
@@ -54,6 +56,7 @@ public class DeriveColumnsFromTimeTransform implements Transform {
     private DateTimeZone inputTimeZone;
     private int insertAfterIdx = -1;
     private int deriveFromIdx = -1;
+    private transient TimeArithmetic.ZoneOffsets zoneOffsets;
 
 
     private DeriveColumnsFromTimeTransform(Builder builder) {
@@ -115,6 +118,7 @@ public class DeriveColumnsFromTimeTransform implements Transform {
                     columnName + "\" is not a time column. Is: " + inputSchema.getMetaData(columnName));
         TimeMetaData meta = (TimeMetaData) inputSchema.getMetaData(columnName);
         inputTimeZone = meta.getTimeZone();
+        zoneOffsets = null;
     }
 
     @Override
@@ -129,8 +133,17 @@ public class DeriveColumnsFromTimeTransform implements Transform {
                     "match expected number of elements (schema: " + inputSchema.numColumns() + "). Transform = " + toString());
         }
 
+        TimeArithmetic.ZoneOffsets offsets = zoneOffsets;
+        if (offsets == null) {
+            offsets = new TimeArithmetic.ZoneOffsets(inputTimeZone != null ? inputTimeZone : DateTimeZone.getDefault());
+            zoneOffsets = offsets;
+        }
+
         int i = 0;
         Writable source = writables.get(deriveFromIdx);
+        long time = source.toLong();
+        long localTime = offsets.toLocal(time);
+        DateTime dt = null;
         List<Writable> list = new ArrayList<>(writables.size() + derivedColumns.size());
         for (Writable w : writables) {
             list.add(w);
@@ -138,11 +151,15 @@ public class DeriveColumnsFromTimeTransform implements Transform {
                 for (DerivedColumn d : derivedColumns) {
                     switch (d.columnType) {
                         case String:
-                            list.add(new Text(d.dateTimeFormatter.print(source.toLong())));
+                            list.add(new Text(d.dateTimeFormatter.print(time)));
                             break;
                         case Integer:
-                            DateTime dt = new DateTime(source.toLong(), inputTimeZone);
-                            list.add(new IntWritable(dt.get(d.fieldType)));
+                            if (TimeArithmetic.isSupported(d.fieldType)) {
+                                list.add(new IntWritable(TimeArithmetic.get(d.fieldType, localTime)));
+                            } else {
+                                if (dt == null) dt = new DateTime(time, inputTimeZone);
+                                list.add(new IntWritable(dt.get(d.fieldType)));
+                            }
                             break;
                         default:
                             throw new IllegalStateException("Unexpected column type: " + d.columnType);
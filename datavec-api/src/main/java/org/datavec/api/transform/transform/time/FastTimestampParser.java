@@ -0,0 +1,268 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.transform.time;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses date/time Strings to epoch milliseconds, with the same results as JodaTime's
+ * {@link DateTimeFormatter#parseMillis(String)} for the given pattern and time zone.<br>
+ * Fixed width patterns made up of the fields yyyy, MM, dd, HH, mm, ss and SSS, separated by literals (for example,
+ * "yyyy-MM-dd HH:mm:ss", or ISO-8601 style "yyyy-MM-dd'T'HH:mm:ss.SSS") are parsed directly: digits are parsed by hand,
+ * and the time zone offset for each (local) day is cached, separately for each thread. Any other patterns, any Strings
+ * that don't exactly match the pattern, invalid field values and days close to a time zone offset transition are
+ * parsed using JodaTime.<br>
+ * Instances are thread safe.
+ */
+public class FastTimestampParser {
+
+    private static final int LITERAL = 0;
+    private static final int YEAR = 1;
+    private static final int MONTH = 2;
+    private static final int DAY = 3;
+    private static final int HOUR = 4;
+    private static final int MINUTE = 5;
+    private static final int SECOND = 6;
+    private static final int MILLIS = 7;
+
+    private final String pattern;
+    private final DateTimeFormatter formatter;
+    private final TimeArithmetic.ZoneOffsets zoneOffsets;
+    private final ThreadLocal<DayCache> dayCache = new ThreadLocal<>();
+
+    //Compiled pattern (null if the pattern cannot be parsed directly): one entry per character of the input String
+    private final int[] kinds;
+    private final char[] literals;
+
+    /**
+     * @param pattern  Time format, as per JodaTime's {@link DateTimeFormat}
+     * @param timeZone Time zone for parsing
+     */
+    public FastTimestampParser(String pattern, DateTimeZone timeZone) {
+        this.pattern = pattern;
+        this.formatter = DateTimeFormat.forPattern(pattern).withZone(timeZone);
+        this.zoneOffsets = new TimeArithmetic.ZoneOffsets(timeZone);
+
+        List<Integer> kindList = compile(pattern);
+        if (kindList == null) {
+            kinds = null;
+            literals = null;
+        } else {
+            kinds = new int[kindList.size()];
+            literals = new char[kindList.size()];
+            for (int i = 0; i < kinds.length; i++) {
+                int k = kindList.get(i);
+                kinds[i] = (k < 0 ? LITERAL : k);
+                literals[i] = (k < 0 ? (char) (-k - 1) : 0);
+            }
+        }
+    }
+
+    /**
+     * @return True if the pattern is parsed directly, rather than (always) by JodaTime
+     */
+    public boolean isFastPathSupported() {
+        return kinds != null;
+    }
+
+    /**
+     * @return The time format pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Parse the date/time String to epoch milliseconds, as per {@link DateTimeFormatter#parseMillis(String)}
+     *
+     * @throws IllegalArgumentException If the String cannot be parsed
+     */
+    public long parseMillis(String str) {
+        if (kinds == null || str.length() != kinds.length) return formatter.parseMillis(str);
+
+        int year = 1970;
+        int month = 1;
+        int day = 1;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millis = 0;
+        int i = 0;
+        int n = kinds.length;
+        while (i < n) {
+            int kind = kinds[i];
+            if (kind == LITERAL) {
+                if (str.charAt(i) != literals[i]) return formatter.parseMillis(str);
+                i++;
+                continue;
+            }
+            int value = 0;
+            while (i < n && kinds[i] == kind) {
+                int digit = str.charAt(i++) - '0';
+                if (digit < 0 || digit > 9) return formatter.parseMillis(str);
+                value = 10 * value + digit;
+            }
+            switch (kind) {
+                case YEAR:
+                    year = value;
+                    break;
+                case MONTH:
+                    month = value;
+                    break;
+                case DAY:
+                    day = value;
+                    break;
+                case HOUR:
+                    hour = value;
+                    break;
+                case MINUTE:
+                    minute = value;
+                    break;
+                case SECOND:
+                    second = value;
+                    break;
+                default:
+                    millis = value;
+            }
+        }
+
+        //Invalid values: JodaTime throws the appropriate exception
+        if (month < 1 || month > 12 || day < 1 || day > TimeArithmetic.daysInMonth(year, month) || hour > 23
+                || minute > 59 || second > 59) {
+            return formatter.parseMillis(str);
+        }
+
+        long days = TimeArithmetic.daysFromCivil(year, month, day);
+        Integer offset = getOffsetForLocalDay(days);
+        if (offset == null) return formatter.parseMillis(str);
+        return days * TimeArithmetic.MILLIS_PER_DAY + hour * TimeArithmetic.MILLIS_PER_HOUR
+                + minute * TimeArithmetic.MILLIS_PER_MINUTE + second * TimeArithmetic.MILLIS_PER_SECOND + millis - offset;
+    }
+
+    private Integer getOffsetForLocalDay(long days) {
+        DayCache c = dayCache.get();
+        if (c == null) {
+            c = new DayCache();
+            dayCache.set(c);
+        }
+        if (c.day != days) {
+            c.day = days;
+            c.offset = zoneOffsets.getOffsetForLocalDay(days);
+        }
+        return c.offset;
+    }
+
+    /**
+     * Compile the pattern to one entry per input character: a field kind, or -(c+1) for literal character c.
+     * Returns null if the pattern is not supported
+     */
+    private static List<Integer> compile(String pattern) {
+        List<Integer> out = new ArrayList<>();
+        int seenKinds = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                //Quoted literal text; '' is a single quote
+                int end = i + 1;
+                if (end < pattern.length() && pattern.charAt(end) == '\'') {
+                    out.add(-('\'' + 1));
+                    i += 2;
+                    continue;
+                }
+                StringBuilder sb = new StringBuilder();
+                while (true) {
+                    if (end >= pattern.length()) return null;
+                    char ch = pattern.charAt(end);
+                    if (ch == '\'') {
+                        if (end + 1 < pattern.length() && pattern.charAt(end + 1) == '\'') {
+                            sb.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    sb.append(ch);
+                    end++;
+                }
+                //Letters: JodaTime matches literals case insensitively, so these are left to JodaTime if they differ
+                for (int j = 0; j < sb.length(); j++) {
+                    out.add(-(sb.charAt(j) + 1));
+                }
+                i = end + 1;
+                continue;
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                int count = 1;
+                while (i + count < pattern.length() && pattern.charAt(i + count) == c) count++;
+                int kind;
+                int width;
+                switch (c) {
+                    case 'y':
+                        kind = YEAR;
+                        width = 4;
+                        break;
+                    case 'M':
+                        kind = MONTH;
+                        width = 2;
+                        break;
+                    case 'd':
+                        kind = DAY;
+                        width = 2;
+                        break;
+                    case 'H':
+                        kind = HOUR;
+                        width = 2;
+                        break;
+                    case 'm':
+                        kind = MINUTE;
+                        width = 2;
+                        break;
+                    case 's':
+                        kind = SECOND;
+                        width = 2;
+                        break;
+                    case 'S':
+                        kind = MILLIS;
+                        width = 3;
+                        break;
+                    default:
+                        return null;
+                }
+                //Each field must occur (at most) once, with exactly the expected width
+                if (count != width || (seenKinds & (1 << kind)) != 0) return null;
+                seenKinds |= (1 << kind);
+                for (int j = 0; j < count; j++) out.add(kind);
+                i += count;
+                continue;
+            }
+            out.add(-(c + 1));
+            i++;
+        }
+        return out;
+    }
+
+    private static class DayCache {
+        private long day = Long.MIN_VALUE;
+        private Integer offset;
+    }
+}
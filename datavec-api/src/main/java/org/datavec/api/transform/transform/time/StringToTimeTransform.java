@@ -22,8 +22,6 @@ import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
 import org.joda.time.DateTimeZone;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -33,7 +31,8 @@ import java.util.TimeZone;
 /**
  * Convert a String column to a time column by parsing the date/time String, using a JodaTime.
  *
- * Time format is specified as per http://www.joda.org/joda-time/apidocs/org/joda/time/format/DateTimeFormat.html
+ * Time format is specified as per http://www.joda.org/joda-time/apidocs/org/joda/time/format/DateTimeFormat.html<br>
+ * Common fixed width formats (such as "yyyy-MM-dd HH:mm:ss") are parsed without JodaTime: see {@link FastTimestampParser}
  *
  * @author Alex Black
  */
@@ -44,7 +43,7 @@ public class StringToTimeTransform extends BaseColumnTransform {
     private final Long minValidTime;
     private final Long maxValidTime;
 
-    private transient DateTimeFormatter formatter;
+    private transient FastTimestampParser parser;
 
     /**
      * @param columnName Name of the String column
@@ -89,7 +88,7 @@ public class StringToTimeTransform extends BaseColumnTransform {
         this.minValidTime = minValidTime;
         this.maxValidTime = maxValidTime;
 
-        this.formatter = DateTimeFormat.forPattern(timeFormat).withZone(timeZone);
+        this.parser = new FastTimestampParser(timeFormat, timeZone);
     }
 
 
@@ -101,7 +100,7 @@ public class StringToTimeTransform extends BaseColumnTransform {
     @Override
     public Writable map(Writable columnWritable) {
         String str = columnWritable.toString();
-        long time = formatter.parseMillis(str);
+        long time = parser.parseMillis(str);
         return new LongWritable(time);
     }
 
@@ -119,12 +118,13 @@ public class StringToTimeTransform extends BaseColumnTransform {
     }
 
     //Custom serialization methods, because Joda Time doesn't allow DateTimeFormatter objects to be serialized :(
+    //(the parser is also not serializable, as it holds per-thread caches)
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.defaultWriteObject();
     }
 
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
-        formatter = DateTimeFormat.forPattern(timeFormat).withZone(timeZone);
+        parser = new FastTimestampParser(timeFormat, timeZone);
     }
 }
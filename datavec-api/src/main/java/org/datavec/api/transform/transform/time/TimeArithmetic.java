@@ -0,0 +1,221 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.transform.time;
+
+import org.joda.time.DateTimeFieldType;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Arithmetic (allocation free) conversions between epoch milliseconds and calendar fields, in the ISO (proleptic
+ * Gregorian) calendar, as used by JodaTime's default ISOChronology.<br>
+ * "Local" milliseconds are milliseconds since 1970-01-01T00:00 in local time: i.e., UTC epoch milliseconds plus the
+ * time zone offset. See {@link ZoneOffsets} for converting between UTC and local milliseconds.
+ */
+public class TimeArithmetic {
+
+    public static final long MILLIS_PER_SECOND = 1000L;
+    public static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    public static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    public static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+
+    private TimeArithmetic() {
+    }
+
+    /**
+     * Number of days from 1970-01-01 to the given date (negative for dates before 1970)
+     *
+     * @param year  Year
+     * @param month Month of year, 1 to 12
+     * @param day   Day of month, 1 to 31
+     */
+    public static long daysFromCivil(int year, int month, int day) {
+        //Days from civil algorithm (H. Hinnant): years start in March, so that the leap day is the last day of the year
+        long y = (month <= 2 ? year - 1 : year);
+        long era = floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @return True if the given year is a leap year
+     */
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * @return The number of days in the given month (1 to 12) of the given year
+     */
+    public static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return True if {@link #get(DateTimeFieldType, long)} supports the given field type
+     */
+    public static boolean isSupported(DateTimeFieldType fieldType) {
+        return fieldType == DateTimeFieldType.year()
+                || fieldType == DateTimeFieldType.monthOfYear()
+                || fieldType == DateTimeFieldType.dayOfMonth()
+                || fieldType == DateTimeFieldType.dayOfWeek()
+                || fieldType == DateTimeFieldType.dayOfYear()
+                || fieldType == DateTimeFieldType.hourOfDay()
+                || fieldType == DateTimeFieldType.minuteOfHour()
+                || fieldType == DateTimeFieldType.minuteOfDay()
+                || fieldType == DateTimeFieldType.secondOfMinute()
+                || fieldType == DateTimeFieldType.secondOfDay()
+                || fieldType == DateTimeFieldType.millisOfSecond()
+                || fieldType == DateTimeFieldType.millisOfDay();
+    }
+
+    /**
+     * Get the value of a field (as per {@link org.joda.time.DateTime#get(DateTimeFieldType)}) for the given local time
+     *
+     * @param fieldType   Field type. Must be supported: see {@link #isSupported(DateTimeFieldType)}
+     * @param localMillis Local time, in milliseconds
+     */
+    public static int get(DateTimeFieldType fieldType, long localMillis) {
+        long days = floorDiv(localMillis, MILLIS_PER_DAY);
+        int millisOfDay = (int) (localMillis - days * MILLIS_PER_DAY);
+
+        if (fieldType == DateTimeFieldType.hourOfDay()) return (int) (millisOfDay / MILLIS_PER_HOUR);
+        if (fieldType == DateTimeFieldType.minuteOfHour()) return (int) ((millisOfDay / MILLIS_PER_MINUTE) % 60);
+        if (fieldType == DateTimeFieldType.minuteOfDay()) return (int) (millisOfDay / MILLIS_PER_MINUTE);
+        if (fieldType == DateTimeFieldType.secondOfMinute()) return (int) ((millisOfDay / MILLIS_PER_SECOND) % 60);
+        if (fieldType == DateTimeFieldType.secondOfDay()) return (int) (millisOfDay / MILLIS_PER_SECOND);
+        if (fieldType == DateTimeFieldType.millisOfSecond()) return (int) (millisOfDay % MILLIS_PER_SECOND);
+        if (fieldType == DateTimeFieldType.millisOfDay()) return millisOfDay;
+        //1970-01-01 was a Thursday (ISO day of week 4; Monday = 1)
+        if (fieldType == DateTimeFieldType.dayOfWeek()) return (int) (days + 3 - 7 * floorDiv(days + 3, 7)) + 1;
+
+        //Civil from days algorithm (H. Hinnant)
+        long z = days + 719468;
+        long era = floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYearMar = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYearMar + 2) / 153;
+        int day = (int) (dayOfYearMar - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        if (fieldType == DateTimeFieldType.year()) return year;
+        if (fieldType == DateTimeFieldType.monthOfYear()) return month;
+        if (fieldType == DateTimeFieldType.dayOfMonth()) return day;
+        if (fieldType == DateTimeFieldType.dayOfYear()) {
+            return DAYS_BEFORE_MONTH[month - 1] + (month > 2 && isLeapYear(year) ? 1 : 0) + day;
+        }
+        throw new UnsupportedOperationException("Field type not supported: " + fieldType);
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) q--;
+        return q;
+    }
+
+    /**
+     * Converts between UTC and local milliseconds for a time zone, caching the offset for the most recently used period
+     * without offset transitions (such as daylight savings changes), separately for each thread. Fixed offset time zones
+     * (such as UTC) require no lookups at all.
+     */
+    public static class ZoneOffsets {
+
+        private final DateTimeZone zone;
+        private final boolean fixed;
+        private final int fixedOffset;
+        private final ThreadLocal<OffsetRange> cache = new ThreadLocal<>();
+
+        public ZoneOffsets(DateTimeZone zone) {
+            this.zone = zone;
+            this.fixed = zone.isFixed();
+            this.fixedOffset = (fixed ? zone.getOffset(0L) : 0);
+        }
+
+        /**
+         * @return The time zone
+         */
+        public DateTimeZone getZone() {
+            return zone;
+        }
+
+        /**
+         * Get the offset (local minus UTC) at the given UTC instant, as per {@link DateTimeZone#getOffset(long)}
+         */
+        public int getOffset(long utcMillis) {
+            if (fixed) return fixedOffset;
+            OffsetRange r = cache.get();
+            if (r == null) {
+                r = new OffsetRange();
+                cache.set(r);
+            }
+            if (utcMillis < r.start || utcMillis >= r.end) {
+                r.offset = zone.getOffset(utcMillis);
+                //Offset is constant from just after the previous transition, up to (but excluding) the next transition
+                long prev = zone.previousTransition(utcMillis);
+                long next = zone.nextTransition(utcMillis);
+                r.start = (prev < utcMillis ? prev + 1 : utcMillis);
+                r.end = (next > utcMillis ? next : Long.MAX_VALUE);
+            }
+            return r.offset;
+        }
+
+        /**
+         * @return Local milliseconds for the given UTC instant
+         */
+        public long toLocal(long utcMillis) {
+            return utcMillis + getOffset(utcMillis);
+        }
+
+        /**
+         * Get the offset for all local times on the given local day, if it is unambiguous: i.e., if there are no offset
+         * transitions (or other complications, such as daylight savings gaps and overlaps) on or near that day.
+         *
+         * @param localDay Day, as the number of days since 1970-01-01 (local time)
+         * @return Offset for local times on that day, or null if the offset is not constant for that day
+         */
+        public Integer getOffsetForLocalDay(long localDay) {
+            if (fixed) return fixedOffset;
+            long localMidnight = localDay * MILLIS_PER_DAY;
+            //No transitions within 2 days either side: (local - offset) is the only UTC instant for each local time
+            long from = localMidnight - 2 * MILLIS_PER_DAY;
+            long next = zone.nextTransition(from);
+            if (next != from && next < localMidnight + 3 * MILLIS_PER_DAY) return null;
+            return zone.getOffset(localMidnight);
+        }
+
+        private static class OffsetRange {
+            private long start = 1;
+            private long end = 0;
+            private int offset;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.writable;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The (ordered) list of states for a categorical column, used to dictionary encode categorical values as int codes:
+ * see {@link CategoricalWritable}.<br>
+ * Dictionaries are interned: there is a single instance per distinct list of states in each JVM, identified by a
+ * 64-bit fingerprint of the states. This allows code-based comparisons between values using the same dictionary, and
+ * allows deserialized values to be reattached to their dictionary via the fingerprint.<br>
+ * A dictionary is registered when it is first created (for example, when a categorical column is added to a schema),
+ * and when it is deserialized (for example, as part of a schema or TransformProcess). The registry only holds weak
+ * references: a dictionary is unregistered once it is no longer referenced (for example, by a schema or a value).
+ */
+public final class CategoricalDictionary implements Serializable {
+
+    //Weak values: dictionaries are removed from the registry once no schema (or value) references them
+    private static final ConcurrentMap<Long, DictionaryReference> REGISTRY = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<CategoricalDictionary> CLEARED = new ReferenceQueue<>();
+
+    private final List<String> states;
+    private final long fingerprint;
+    private transient Map<String, Integer> index;
+
+    private CategoricalDictionary(List<String> states, long fingerprint) {
+        this.states = Collections.unmodifiableList(new ArrayList<>(states));
+        this.fingerprint = fingerprint;
+        this.index = buildIndex(this.states);
+    }
+
+    /**
+     * Get the (unique) dictionary instance for the specified list of states, creating and registering it if necessary
+     *
+     * @param states States, in order of their int codes
+     */
+    public static CategoricalDictionary intern(List<String> states) {
+        expungeCleared();
+        long fp = fingerprint(states);
+        while (true) {
+            DictionaryReference ref = REGISTRY.get(fp);
+            CategoricalDictionary d = (ref == null ? null : ref.get());
+            if (d != null) {
+                if (!d.states.equals(states)) {
+                    throw new IllegalStateException("Categorical dictionary fingerprint collision: states " + states
+                            + " and " + d.states + " have the same fingerprint (" + fp + ")");
+                }
+                return d;
+            }
+            CategoricalDictionary newDict = new CategoricalDictionary(states, fp);
+            DictionaryReference newRef = new DictionaryReference(newDict);
+            boolean registered = (ref == null ? REGISTRY.putIfAbsent(fp, newRef) == null : REGISTRY.replace(fp, ref, newRef));
+            if (registered) return newDict;
+            //Otherwise: registered concurrently by another thread; retry
+        }
+    }
+
+    /**
+     * Get the registered dictionary with the specified fingerprint
+     *
+     * @return The dictionary, or null if no dictionary with this fingerprint has been registered in this JVM
+     */
+    public static CategoricalDictionary forFingerprint(long fingerprint) {
+        DictionaryReference ref = REGISTRY.get(fingerprint);
+        return (ref == null ? null : ref.get());
+    }
+
+    private static void expungeCleared() {
+        Reference<? extends CategoricalDictionary> ref;
+        while ((ref = CLEARED.poll()) != null) {
+            REGISTRY.remove(((DictionaryReference) ref).fingerprint, ref);
+        }
+    }
+
+    /**
+     * @return States, in order of their int codes (unmodifiable)
+     */
+    public List<String> getStates() {
+        return states;
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return The state with the specified code
+     */
+    public String getState(int code) {
+        return states.get(code);
+    }
+
+    /**
+     * @return The code for the specified state, or -1 if it is not one of the states of this dictionary
+     */
+    public int indexOf(String state) {
+        Integer idx = index.get(state);
+        return (idx == null ? -1 : idx);
+    }
+
+    /**
+     * Encode the specified value. No lookup is done if the value is already encoded with this dictionary.
+     *
+     * @return The code for the value, or -1 if it is not one of the states of this dictionary
+     */
+    public int indexOf(Writable value) {
+        if (value instanceof CategoricalWritable && ((CategoricalWritable) value).getDictionary() == this) {
+            return ((CategoricalWritable) value).getIndex();
+        }
+        return indexOf(value.toString());
+    }
+
+    /**
+     * Encode the specified value as a {@link CategoricalWritable}
+     *
+     * @throws IllegalStateException If the value is not one of the states of this dictionary
+     */
+    public CategoricalWritable encode(Writable value) {
+        if (value instanceof CategoricalWritable && ((CategoricalWritable) value).getDictionary() == this) {
+            return (CategoricalWritable) value;
+        }
+        int idx = indexOf(value.toString());
+        if (idx < 0) throw new IllegalStateException("Unknown state (index not found): " + value);
+        return new CategoricalWritable(this, idx);
+    }
+
+    private static Map<String, Integer> buildIndex(List<String> states) {
+        Map<String, Integer> index = new HashMap<>(Math.max(16, 2 * states.size()));
+        for (int i = 0; i < states.size(); i++) {
+            index.put(states.get(i), i);
+        }
+        return index;
+    }
+
+    static long fingerprint(List<String> states) {
+        //64-bit FNV-1a over the number of states, and the length and characters of each state
+        long h = 0xcbf29ce484222325L;
+        h = fnv(h, states.size());
+        for (String s : states) {
+            h = fnv(h, s.length());
+            for (int i = 0; i < s.length(); i++) {
+                h = fnv(h, s.charAt(i));
+            }
+        }
+        return h;
+    }
+
+    private static long fnv(long h, int value) {
+        for (int i = 0; i < 4; i++) {
+            h ^= (value >>> (8 * i)) & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        //Register (or reuse) the dictionary, so that there is a single instance per JVM
+        return intern(states);
+    }
+
+    private static class DictionaryReference extends WeakReference<CategoricalDictionary> {
+        private final long fingerprint;
+
+        private DictionaryReference(CategoricalDictionary dictionary) {
+            super(dictionary, CLEARED);
+            this.fingerprint = dictionary.fingerprint;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CategoricalDictionary && fingerprint == ((CategoricalDictionary) o).fingerprint
+                && states.equals(((CategoricalDictionary) o).states);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "CategoricalDictionary(fingerprint=" + fingerprint + ",states=" + states + ")";
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.writable;
+
+import org.datavec.api.io.WritableComparable;
+import org.datavec.api.io.WritableUtils;
+
+import java.io.*;
+
+/**
+ * A dictionary encoded categorical value: an int code, plus the {@link CategoricalDictionary} that maps the code to
+ * the state.<br>
+ * Values are converted to a String (via {@link #toString()}) without any allocation or lookup, and values using the
+ * same dictionary are compared using their codes only. {@link #toInt()}, {@link #toLong()} etc. return the code.<br>
+ * Values serialized via {@link #write(DataOutput)} (and Java serialization) are self-describing: the dictionary
+ * fingerprint, the code and the state are written, so that they can be read anywhere (for example, from Hadoop
+ * sequence files or Spark object files). When a value is read in a JVM where the dictionary is registered (i.e., where
+ * the schema defining the column has been created or deserialized), it is reattached to the dictionary. Otherwise, it is
+ * "detached": it has no dictionary ({@link #getDictionary()} returns null until the dictionary is registered), and
+ * behaves like its state String for comparisons and lookups.<br>
+ * The Kryo serializers in datavec-spark (used for Spark shuffles) are compact instead: only the code is written for
+ * each value, and the dictionary fingerprint once per example or sequence.<br>
+ * Note that a CategoricalWritable is never equal to a {@link Text} value, even if the state is the same.
+ */
+public class CategoricalWritable implements WritableComparable {
+
+    private transient CategoricalDictionary dictionary;
+    private transient long fingerprint;
+    private transient int index;
+    //Only set for detached values (dictionary not registered when the value was read)
+    private transient String state;
+
+    public CategoricalWritable() {
+        //No-arg constructor for use with readFields
+    }
+
+    /**
+     * @param dictionary Dictionary for the value
+     * @param index      Code (index) of the state in the dictionary
+     */
+    public CategoricalWritable(CategoricalDictionary dictionary, int index) {
+        set(dictionary, index);
+    }
+
+    public void set(CategoricalDictionary dictionary, int index) {
+        if (index < 0 || index >= dictionary.size()) {
+            throw new IllegalArgumentException("Invalid index " + index + " for dictionary with "
+                    + dictionary.size() + " states");
+        }
+        this.dictionary = dictionary;
+        this.fingerprint = dictionary.getFingerprint();
+        this.index = index;
+        this.state = null;
+    }
+
+    /**
+     * Create a value from its serialized form: attached to the registered dictionary with the specified fingerprint
+     * if there is one (and it is consistent with the state), or detached otherwise
+     *
+     * @param fingerprint Fingerprint of the value's dictionary
+     * @param index       Code (index) of the state in the dictionary
+     * @param state       The state
+     */
+    public static CategoricalWritable create(long fingerprint, int index, String state) {
+        CategoricalWritable w = new CategoricalWritable();
+        w.setSerialized(fingerprint, index, state);
+        return w;
+    }
+
+    private void setSerialized(long fingerprint, int index, String state) {
+        this.fingerprint = fingerprint;
+        this.index = index;
+        this.state = state;
+        this.dictionary = null;
+        attach();
+    }
+
+    /**
+     * Attach a detached value to its dictionary, if it is registered
+     */
+    private void attach() {
+        CategoricalDictionary d = CategoricalDictionary.forFingerprint(fingerprint);
+        if (d != null && index >= 0 && index < d.size() && d.getState(index).equals(state)) {
+            dictionary = d;
+            state = null;
+        }
+    }
+
+    /**
+     * @return The dictionary for this value, or null if the value is detached and its dictionary is not registered
+     */
+    public CategoricalDictionary getDictionary() {
+        if (dictionary == null) attach();
+        return dictionary;
+    }
+
+    /**
+     * @return Fingerprint of the value's dictionary
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return Code (index) of the state in the dictionary
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(fingerprint);
+        WritableUtils.writeVInt(out, index);
+        Text.writeString(out, toString());
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        long fp = in.readLong();
+        int idx = WritableUtils.readVInt(in);
+        setSerialized(fp, idx, Text.readString(in));
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        write(out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException {
+        readFields(in);
+    }
+
+    @Override
+    public double toDouble() {
+        return index;
+    }
+
+    @Override
+    public float toFloat() {
+        return index;
+    }
+
+    @Override
+    public int toInt() {
+        return index;
+    }
+
+    @Override
+    public long toLong() {
+        return index;
+    }
+
+    @Override
+    public int compareTo(Object o) {
+        CategoricalWritable other = (CategoricalWritable) o;
+        if (dictionary != null && dictionary == other.dictionary && index == other.index) return 0;
+        return toString().compareTo(other.toString());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CategoricalWritable)) return false;
+        CategoricalWritable other = (CategoricalWritable) o;
+        if (dictionary != null && dictionary == other.dictionary) return index == other.index;
+        return toString().equals(other.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    /**
+     * @return The state for this value
+     */
+    @Override
+    public String toString() {
+        return (dictionary != null ? dictionary.getState(index) : state);
+    }
+}
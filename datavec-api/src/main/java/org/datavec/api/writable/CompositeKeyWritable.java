@@ -0,0 +1,311 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.writable;
+
+import org.datavec.api.io.WritableComparable;
+import org.datavec.api.io.WritableComparator;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.comparator.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A compact, typed key made up of the values of one or more columns, for use as a shuffle key when grouping,
+ * joining or sorting.<br>
+ * Values are stored in a single byte array, using an order-preserving binary encoding for each value: integer types as
+ * (sign-flipped) big-endian longs, floating point types as transformed IEEE 754 bits, and all other values as
+ * terminated UTF-8 strings. Each value is preceded by a type tag. Consequently:<br>
+ * - Two keys are equal if and only if all of their values are equal: unlike keys built by concatenating strings,
+ * different combinations of values can never collide<br>
+ * - Keys can be compared (in the natural order of their values, first to last) directly on the raw bytes, via
+ * {@link KeyComparator}, without deserializing them<br>
+ * The hash code is computed once, when the key is created.
+ */
+public class CompositeKeyWritable implements WritableComparable<CompositeKeyWritable> {
+
+    /**
+     * How a value is converted for inclusion in a key
+     */
+    public enum Encoding {
+        /** {@link Writable#toLong()}, ordered numerically */
+        LONG,
+        /** {@link Writable#toInt()}, ordered numerically */
+        INT,
+        /** {@link Writable#toDouble()}, ordered numerically */
+        DOUBLE,
+        /** {@link Writable#toFloat()}, ordered numerically */
+        FLOAT,
+        /** {@link Writable#toString()}, ordered by code point */
+        STRING
+    }
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_INTEGER = 1;
+    private static final byte TAG_FLOATING = 2;
+    private static final byte TAG_STRING = 3;
+
+    private byte[] bytes;
+    private int hash;
+
+    public CompositeKeyWritable() {
+        this(new byte[0]);
+    }
+
+    private CompositeKeyWritable(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = WritableComparator.hashBytes(bytes, bytes.length);
+    }
+
+    /**
+     * Create a key from the specified values of an example
+     *
+     * @param values    Values (for example, a single example)
+     * @param columns   Indexes of the values to include in the key, in order
+     * @param encodings How to encode each value
+     */
+    public static CompositeKeyWritable create(List<Writable> values, int[] columns, Encoding[] encodings) {
+        if (columns.length != encodings.length) {
+            throw new IllegalArgumentException("Number of columns (" + columns.length + ") and encodings ("
+                    + encodings.length + ") differ");
+        }
+        Encoder e = new Encoder();
+        for (int i = 0; i < columns.length; i++) {
+            e.add(values.get(columns[i]), encodings[i]);
+        }
+        return new CompositeKeyWritable(e.toByteArray());
+    }
+
+    /**
+     * Create a key from a single value
+     */
+    public static CompositeKeyWritable create(Writable value, Encoding encoding) {
+        Encoder e = new Encoder();
+        e.add(value, encoding);
+        return new CompositeKeyWritable(e.toByteArray());
+    }
+
+    /**
+     * The natural encoding for a column type: integer types as LONG, Double as DOUBLE, and everything else as STRING
+     */
+    public static Encoding encodingFor(ColumnType columnType) {
+        switch (columnType) {
+            case Integer:
+            case Long:
+            case Time:
+                return Encoding.LONG;
+            case Double:
+                return Encoding.DOUBLE;
+            default:
+                return Encoding.STRING;
+        }
+    }
+
+    /**
+     * The encoding for which the natural ordering of keys matches the given (built-in) comparator, or null if
+     * the comparator is not one of the comparators in {@link org.datavec.api.writable.comparator}
+     */
+    public static Encoding encodingFor(Comparator<Writable> comparator) {
+        if (comparator == null) return null;
+        Class<?> c = comparator.getClass();
+        if (c == LongWritableComparator.class) return Encoding.LONG;
+        if (c == IntWritableComparator.class) return Encoding.INT;
+        if (c == DoubleWritableComparator.class) return Encoding.DOUBLE;
+        if (c == FloatWritableComparator.class) return Encoding.FLOAT;
+        if (c == TextWritableComparator.class) return Encoding.STRING;
+        return null;
+    }
+
+    /**
+     * @return The number of bytes in the encoded key
+     */
+    public int getLength() {
+        return bytes.length;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        hash = WritableComparator.hashBytes(bytes, bytes.length);
+    }
+
+    @Override
+    public int compareTo(CompositeKeyWritable o) {
+        byte[] other = o.bytes;
+        return WritableComparator.compareBytes(bytes, 0, bytes.length, other, 0, other.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompositeKeyWritable)) return false;
+        CompositeKeyWritable other = (CompositeKeyWritable) o;
+        return hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("(");
+        int i = 0;
+        boolean first = true;
+        while (i < bytes.length) {
+            if (!first) sb.append(",");
+            first = false;
+            byte tag = bytes[i++];
+            switch (tag) {
+                case TAG_NULL:
+                    sb.append("null");
+                    break;
+                case TAG_INTEGER:
+                    sb.append(WritableComparator.readLong(bytes, i) ^ Long.MIN_VALUE);
+                    i += 8;
+                    break;
+                case TAG_FLOATING:
+                    long bits = WritableComparator.readLong(bytes, i);
+                    bits = (bits < 0 ? bits ^ Long.MIN_VALUE : ~bits);
+                    sb.append(Double.longBitsToDouble(bits));
+                    i += 8;
+                    break;
+                default:
+                    Encoder decoded = new Encoder();
+                    while (!(bytes[i] == 0 && bytes[i + 1] == 0)) {
+                        if (bytes[i] == 0) {
+                            decoded.put((byte) 0);
+                            i += 2;
+                        } else {
+                            decoded.put(bytes[i++]);
+                        }
+                    }
+                    i += 2;
+                    sb.append(new String(decoded.buf, 0, decoded.length, UTF8));
+            }
+        }
+        return sb.append(")").toString();
+    }
+
+    @Override
+    public double toDouble() {
+        throw new UnsupportedOperationException("Cannot convert CompositeKeyWritable to double");
+    }
+
+    @Override
+    public float toFloat() {
+        throw new UnsupportedOperationException("Cannot convert CompositeKeyWritable to float");
+    }
+
+    @Override
+    public int toInt() {
+        throw new UnsupportedOperationException("Cannot convert CompositeKeyWritable to int");
+    }
+
+    @Override
+    public long toLong() {
+        throw new UnsupportedOperationException("Cannot convert CompositeKeyWritable to long");
+    }
+
+    /**
+     * Encodes values into a growable byte array
+     */
+    private static class Encoder {
+        private byte[] buf = new byte[32];
+        private int length;
+
+        private void put(byte b) {
+            if (length == buf.length) buf = Arrays.copyOf(buf, 2 * buf.length);
+            buf[length++] = b;
+        }
+
+        private void putLong(long l) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                put((byte) (l >>> shift));
+            }
+        }
+
+        private void add(Writable w, Encoding encoding) {
+            if (w == null || w instanceof NullWritable) {
+                put(TAG_NULL);
+                return;
+            }
+            switch (encoding) {
+                case LONG:
+                case INT:
+                    put(TAG_INTEGER);
+                    //Flip the sign bit, so that the unsigned (byte-wise) order matches the signed order
+                    putLong((encoding == Encoding.LONG ? w.toLong() : w.toInt()) ^ Long.MIN_VALUE);
+                    break;
+                case DOUBLE:
+                case FLOAT:
+                    put(TAG_FLOATING);
+                    long bits = Double.doubleToLongBits(encoding == Encoding.DOUBLE ? w.toDouble() : w.toFloat());
+                    //Positive values: flip the sign bit. Negative values: flip all bits (reverses their order)
+                    putLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+                    break;
+                default:
+                    put(TAG_STRING);
+                    //UTF-8 bytes, terminated by (0,0). Zero bytes (U+0000) are escaped as (0,0xFF)
+                    for (byte b : w.toString().getBytes(UTF8)) {
+                        put(b);
+                        if (b == 0) put((byte) 0xFF);
+                    }
+                    put((byte) 0);
+                    put((byte) 0);
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buf, length);
+        }
+    }
+
+    /**
+     * A raw comparator for CompositeKeyWritable, that compares the serialized keys directly
+     */
+    public static class KeyComparator extends WritableComparator {
+        public KeyComparator() {
+            super(CompositeKeyWritable.class);
+        }
+
+        @Override
+        public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+            //Skip the 4 byte length prefix
+            return compareBytes(b1, s1 + 4, l1 - 4, b2, s2 + 4, l2 - 4);
+        }
+    }
+
+    static {
+        WritableComparator.define(CompositeKeyWritable.class, new KeyComparator());
+    }
+}
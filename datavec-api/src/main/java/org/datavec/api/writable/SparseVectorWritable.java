@@ -0,0 +1,188 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.writable;
+
+import org.datavec.api.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A Writable for a sparse vector of double values: only the indices and values of the non-zero entries are stored.<br>
+ * Used for high-dimensional columns such as one-hot, multi-hot and TF-IDF representations, where storing one
+ * Writable per vector element (or a dense array) would be prohibitively expensive.<br>
+ * Indices must be strictly increasing, in the range 0 to length-1 inclusive.
+ */
+public class SparseVectorWritable extends ArrayWritable {
+
+    private static final int[] EMPTY_INDICES = new int[0];
+    private static final double[] EMPTY_VALUES = new double[0];
+
+    private int length;
+    private int[] indices = EMPTY_INDICES;
+    private double[] values = EMPTY_VALUES;
+
+    public SparseVectorWritable() {
+        //No-arg constructor for use with readFields
+    }
+
+    /**
+     * @param length  Length of the vector
+     * @param indices Indices of the non-zero entries, strictly increasing
+     * @param values  Values of the non-zero entries: must have the same length as the indices array
+     */
+    public SparseVectorWritable(int length, int[] indices, double[] values) {
+        set(length, indices, values);
+    }
+
+    /**
+     * Create a one-hot vector: a single entry with value 1.0 at the specified index
+     *
+     * @param length Length of the vector
+     * @param index  Index of the non-zero entry
+     */
+    public static SparseVectorWritable oneHot(int length, int index) {
+        return new SparseVectorWritable(length, new int[]{index}, new double[]{1.0});
+    }
+
+    public void set(int length, int[] indices, double[] values) {
+        if (indices.length != values.length) {
+            throw new IllegalArgumentException("Indices and values arrays must have the same length: got "
+                    + indices.length + " and " + values.length);
+        }
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] < 0 || indices[i] >= length || (i > 0 && indices[i] <= indices[i - 1])) {
+                throw new IllegalArgumentException("Invalid indices for vector of length " + length
+                        + ": indices must be strictly increasing and in range 0 to length-1 (got "
+                        + Arrays.toString(indices) + ")");
+            }
+        }
+        this.length = length;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * @return Indices of the non-zero entries (not a copy)
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * @return Values of the non-zero entries (not a copy)
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return Number of (non-zero) entries stored in the vector
+     */
+    public int numEntries() {
+        return indices.length;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public double getDouble(long i) {
+        if (i < 0 || i >= length) throw new IndexOutOfBoundsException("Index " + i + " for vector of length " + length);
+        int pos = Arrays.binarySearch(indices, (int) i);
+        return (pos >= 0 ? values[pos] : 0.0);
+    }
+
+    @Override
+    public float getFloat(long i) {
+        return (float) getDouble(i);
+    }
+
+    @Override
+    public int getInt(long i) {
+        return (int) getDouble(i);
+    }
+
+    @Override
+    public long getLong(long i) {
+        return (long) getDouble(i);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeVInt(out, length);
+        WritableUtils.writeVInt(out, indices.length);
+        //Indices are strictly increasing: write the (small, positive) differences
+        int last = -1;
+        for (int i = 0; i < indices.length; i++) {
+            WritableUtils.writeVInt(out, indices[i] - last);
+            last = indices[i];
+            out.writeDouble(values[i]);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        length = WritableUtils.readVInt(in);
+        int n = WritableUtils.readVInt(in);
+        indices = new int[n];
+        values = new double[n];
+        int last = -1;
+        for (int i = 0; i < n; i++) {
+            last += WritableUtils.readVInt(in);
+            indices[i] = last;
+            values[i] = in.readDouble();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SparseVectorWritable)) {
+            return false;
+        }
+        SparseVectorWritable other = (SparseVectorWritable) o;
+        return length == other.length && Arrays.equals(indices, other.indices) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = length;
+        result = 31 * result + Arrays.hashCode(indices);
+        result = 31 * result + Arrays.hashCode(values);
+        return result;
+    }
+
+    /**
+     * String representation: the vector length, followed by the non-zero entries in index:value format.
+     * For example, "5{1:1.0 3:0.5}" for a vector of length 5 with non-zero entries at indices 1 and 3
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(length).append("{");
+        for (int i = 0; i < indices.length; i++) {
+            if (i > 0) sb.append(" ");
+            sb.append(indices[i]).append(":").append(values[i]);
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records;
+
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestRecord {
+
+    @Test
+    public void testSetGet() {
+        Schema schema = new Schema.Builder()
+                .addColumnDouble("d")
+                .addColumnInteger("i")
+                .addColumnLong("l")
+                .addColumnCategorical("c", "a", "b", "c")
+                .addColumnString("s")
+                .build();
+
+        Record r = new Record(schema);
+        r.setDouble(0, 1.5);
+        r.setInt(1, 3);
+        r.setLong(2, 10000000000L);
+        r.setCategorical(3, "c");
+        r.setWritable(4, new Text("str"));
+
+        assertEquals(5, r.numColumns());
+        assertEquals(1.5, r.getDouble(0), 0.0);
+        assertEquals(3, r.getInt(1));
+        assertEquals(10000000000L, r.getLong(2));
+        assertEquals(2, r.getCategoricalIndex(3));
+
+        List<Writable> expected = Arrays.<Writable>asList(new DoubleWritable(1.5), new IntWritable(3),
+                new LongWritable(10000000000L), new Text("c"), new Text("str"));
+        assertEquals(expected, r.toList());
+
+        Record fromList = Record.fromWritables(schema, expected);
+        assertEquals(r, fromList);
+        assertEquals(r, r.copy());
+
+        try {
+            r.setCategorical(3, "d");
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //OK
+        }
+    }
+
+    @Test
+    public void testToDoubleArray() {
+        Schema allDouble = new Schema.Builder().addColumnsDouble("a", "b", "c").build();
+        Record r = new Record(allDouble);
+        r.setDouble(0, 1.0);
+        r.setDouble(1, 2.0);
+        r.setDouble(2, 3.0);
+        assertArrayEquals(new double[]{1.0, 2.0, 3.0}, r.toDoubleArray(), 0.0);
+
+        double[] out = new double[5];
+        r.toDoubleArray(out, 2);
+        assertArrayEquals(new double[]{0.0, 0.0, 1.0, 2.0, 3.0}, out, 0.0);
+
+        Schema mixed = new Schema.Builder().addColumnDouble("a").addColumnCategorical("c", "x", "y").build();
+        Record r2 = new Record(mixed);
+        r2.setDouble(0, 0.5);
+        r2.setCategorical(1, "y");
+        assertArrayEquals(new double[]{0.5, 1.0}, r2.toDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void testInterleavedColumnTypes() {
+        //Columns of each storage type are packed into their own array: values must not overlap
+        Schema schema = new Schema.Builder()
+                .addColumnLong("l")
+                .addColumnDouble("d0")
+                .addColumnString("s")
+                .addColumnDouble("d1")
+                .addColumnCategorical("c", "x", "y")
+                .addColumnInteger("i")
+                .build();
+
+        List<Writable> values = Arrays.<Writable>asList(new LongWritable(7), new DoubleWritable(0.5), new Text("str"),
+                new DoubleWritable(-2.5), new Text("y"), new IntWritable(3));
+        Record r = Record.fromWritables(schema, values);
+        assertEquals(values, r.toList());
+        assertEquals(7, r.getLong(0));
+        assertEquals(0.5, r.getDouble(1), 0.0);
+        assertEquals(-2.5, r.getDouble(3), 0.0);
+        assertEquals(1, r.getCategoricalIndex(4));
+        assertEquals(3, r.getInt(5));
+
+        r.setDouble(3, 4.0);
+        r.setInt(5, -1);
+        assertEquals(0.5, r.getDouble(1), 0.0);
+        assertEquals(7, r.getLong(0));
+        assertArrayEquals(new double[]{7.0, 0.5, 4.0, 1.0, -1.0}, new double[]{r.getDouble(0), r.getDouble(1),
+                r.getDouble(3), r.getCategoricalIndex(4), r.getDouble(5)}, 0.0);
+        assertEquals(r, r.copy());
+        assertNotEquals(r, Record.fromWritables(schema, values));
+    }
+
+    @Test
+    public void testCSVRecordReader() throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnsDouble("sepalLength", "sepalWidth", "petalLength", "petalWidth")
+                .addColumnInteger("label")
+                .build();
+
+        CSVRecordReader expReader = new CSVRecordReader();
+        expReader.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        CSVRecordReader rr = new CSVRecordReader();
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+        Record record = new Record(schema);
+        int count = 0;
+        while (rr.hasNext()) {
+            assertTrue(rr.next(record));
+            List<Writable> expected = new ArrayList<>(expReader.next());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(expected.get(i).toDouble(), record.getDouble(i), 1e-10);
+            }
+            assertEquals(expected.get(4).toInt(), record.getInt(4));
+            count++;
+        }
+        assertEquals(150, count);
+        assertFalse(expReader.hasNext());
+    }
+
+    @Test
+    public void testTransformProcess() {
+        Schema schema = new Schema.Builder().addColumnsDouble("a", "b").addColumnInteger("c").build();
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .removeColumns("b")
+                .build();
+
+        Record in = new Record(schema);
+        in.setDouble(0, 1.0);
+        in.setDouble(1, 2.0);
+        in.setInt(2, 3);
+
+        Record out = new Record(tp.getFinalSchema());
+        assertTrue(tp.execute(in, out));
+        assertEquals(Arrays.<Writable>asList(new DoubleWritable(1.0), new IntWritable(3)), out.toList());
+    }
+}
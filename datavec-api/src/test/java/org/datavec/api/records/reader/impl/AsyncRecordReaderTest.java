@@ -0,0 +1,195 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVSequenceRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.split.NumberedFileInputSplit;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncRecordReaderTest {
+
+    private static List<List<Writable>> readAll(RecordReader rr) {
+        List<List<Writable>> out = new ArrayList<>();
+        while (rr.hasNext()) {
+            out.add(new ArrayList<>(rr.next()));
+        }
+        return out;
+    }
+
+    @Test
+    public void testOrderedAndUnordered() throws Exception {
+        RecordReader sync = new CSVRecordReader();
+        sync.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        List<List<Writable>> expected = readAll(sync);
+        assertEquals(150, expected.size());
+
+        for (boolean ordered : new boolean[]{true, false}) {
+            RecordReader underlying = new CSVRecordReader();
+            underlying.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+            AsyncRecordReader rr = new AsyncRecordReader.Builder(underlying)
+                    .numWorkers(4)
+                    .bufferSize(8)
+                    .ordered(ordered)
+                    .build();
+
+            for (int epoch = 0; epoch < 3; epoch++) {
+                List<List<Writable>> actual = readAll(rr);
+                if (ordered) {
+                    assertEquals(expected, actual);
+                } else {
+                    assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+                    assertEquals(expected.size(), actual.size());
+                }
+                rr.reset();
+            }
+
+            //Reset part way through an epoch
+            for (int i = 0; i < 10; i++) rr.next();
+            rr.reset();
+            assertEquals(150, readAll(rr).size());
+            rr.close();
+        }
+    }
+
+    @Test
+    public void testTransformProcess() throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnsDouble("sepalLength", "sepalWidth", "petalLength", "petalWidth")
+                .addColumnInteger("label")
+                .build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .removeColumns("sepalWidth", "petalWidth")
+                .filter(new ConditionFilter(new DoubleColumnCondition("petalLength", ConditionOp.LessThan, 2.0)))
+                .build();
+
+        RecordReader sync = new CSVRecordReader();
+        sync.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        List<List<Writable>> expected = new ArrayList<>();
+        for (List<Writable> l : readAll(sync)) {
+            List<Writable> out = tp.execute(l);
+            if (out != null) expected.add(out);
+        }
+        assertTrue(expected.size() > 0 && expected.size() < 150);
+
+        RecordReader underlying = new CSVRecordReader();
+        underlying.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        AsyncRecordReader rr = new AsyncRecordReader.Builder(underlying)
+                .transformProcess(tp)
+                .numWorkers(3)
+                .build();
+
+        List<List<Writable>> actual = readAll(rr);
+        assertEquals(expected, actual);
+        for (List<Writable> l : actual) {
+            assertEquals(3, l.size());
+        }
+        rr.close();
+    }
+
+    @Test
+    public void testSequenceReader() throws Exception {
+        String path = new ClassPathResource("csvsequence_0.txt").getFile().getAbsolutePath().replace("csvsequence_0", "csvsequence_%d");
+
+        CSVSequenceRecordReader sync = new CSVSequenceRecordReader(0, ",");
+        sync.initialize(new NumberedFileInputSplit(path, 0, 2));
+        List<Collection<Collection<Writable>>> expected = new ArrayList<>();
+        while (sync.hasNext()) {
+            expected.add(sync.sequenceRecord());
+        }
+
+        CSVSequenceRecordReader underlying = new CSVSequenceRecordReader(0, ",");
+        underlying.initialize(new NumberedFileInputSplit(path, 0, 2));
+        AsyncRecordReader rr = new AsyncRecordReader.Builder(underlying).numWorkers(2).build();
+        for (int epoch = 0; epoch < 2; epoch++) {
+            List<Collection<Collection<Writable>>> actual = new ArrayList<>();
+            while (rr.hasNext()) {
+                actual.add(rr.sequenceRecord());
+            }
+            assertEquals(expected, actual);
+            rr.reset();
+        }
+        rr.close();
+    }
+
+    @Test
+    public void testUnderlyingFailureWithFullQueue() throws Exception {
+        for (boolean ordered : new boolean[]{true, false}) {
+            List<List<Writable>> data = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                data.add(Collections.<Writable>singletonList(new IntWritable(i)));
+            }
+            //Ordered: the queue (size 2) holds records 1 and 2 when the underlying reader fails, so the failure
+            //blocks until the queue has space. Unordered: all permits are held by records 1 and 2 when it fails
+            final int failAt = (ordered ? 3 : 2);
+            final AtomicInteger count = new AtomicInteger();
+            final CountDownLatch failed = new CountDownLatch(1);
+            RecordReader underlying = new CollectionRecordReader(data) {
+                @Override
+                public Collection<Writable> next() {
+                    if (count.getAndIncrement() == failAt) {
+                        failed.countDown();
+                        throw new IllegalStateException("Test failure");
+                    }
+                    return super.next();
+                }
+            };
+            AsyncRecordReader rr = new AsyncRecordReader.Builder(underlying).bufferSize(2).ordered(ordered).build();
+
+            assertTrue(rr.hasNext());
+            //Background thread can only reach the failing record once the queue/permits are full
+            assertTrue(failed.await(30, TimeUnit.SECONDS));
+            int numRead = 0;
+            try {
+                while (rr.hasNext()) {
+                    rr.next();
+                    numRead++;
+                }
+                fail("Expected exception");
+            } catch (RuntimeException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertEquals("Test failure", e.getCause().getMessage());
+            }
+            if (ordered) {
+                assertEquals(failAt, numRead);
+            } else {
+                //In unordered mode, the failure may be returned before records that are still being processed
+                assertTrue(numRead >= 1 && numRead <= failAt + 1);
+            }
+            rr.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.binary.BinaryRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.writer.impl.binary.BinaryRecordWriter;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BinaryRecordReaderTest {
+
+    @Test
+    public void testIris() throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnsDouble("sepalLength", "sepalWidth", "petalLength", "petalWidth")
+                .addColumnInteger("label")
+                .build();
+
+        RecordReader csv = new CSVRecordReader();
+        csv.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        List<List<Writable>> expected = new ArrayList<>();
+        while (csv.hasNext()) {
+            List<Writable> l = new ArrayList<>(csv.next());
+            List<Writable> typed = new ArrayList<>();
+            for (int i = 0; i < 4; i++) typed.add(new DoubleWritable(l.get(i).toDouble()));
+            typed.add(new IntWritable(l.get(4).toInt()));
+            expected.add(typed);
+        }
+
+        File f = Files.createTempFile("binaryrecord", ".bin").toFile();
+        f.deleteOnExit();
+        BinaryRecordWriter writer = new BinaryRecordWriter(f, schema);
+        for (List<Writable> l : expected) writer.write(l);
+        writer.close();
+
+        BinaryRecordReader rr = new BinaryRecordReader();
+        rr.initialize(new FileSplit(f));
+        assertEquals(150, rr.numRecords());
+        assertEquals(schema.getColumnNames(), rr.getSchema().getColumnNames());
+
+        for (int epoch = 0; epoch < 2; epoch++) {
+            List<List<Writable>> actual = new ArrayList<>();
+            while (rr.hasNext()) actual.add(new ArrayList<>(rr.next()));
+            assertEquals(expected, actual);
+            rr.reset();
+        }
+
+        //Random access
+        assertEquals(expected.get(123), rr.getRecord(123));
+        rr.seek(140);
+        int count = 0;
+        while (rr.hasNext()) {
+            assertEquals(expected.get(140 + count), rr.next());
+            count++;
+        }
+        assertEquals(10, count);
+
+        //Reuse: list, and Record
+        rr.reset();
+        List<Writable> reuse = new ArrayList<>();
+        Record record = new Record(schema);
+        for (int i = 0; i < 150; i++) {
+            if (i % 2 == 0) {
+                assertTrue(rr.next(reuse));
+                assertEquals(expected.get(i), reuse);
+            } else {
+                assertTrue(rr.next(record));
+                assertEquals(expected.get(i), record.toList());
+            }
+        }
+        assertFalse(rr.next(reuse));
+        rr.close();
+    }
+
+    @Test
+    public void testStringsAndCategorical() throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnString("str")
+                .addColumnCategorical("cat", "a", "b", "c")
+                .addColumnLong("long")
+                .addColumnTime("time", org.joda.time.DateTimeZone.UTC)
+                .build();
+
+        List<List<Writable>> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(Arrays.<Writable>asList(new Text("value_" + (i % 7)), new Text(i % 2 == 0 ? "a" : "c"),
+                    new LongWritable(Long.MAX_VALUE - i), new LongWritable(1000L * i)));
+        }
+
+        File f = Files.createTempFile("binaryrecord", ".bin").toFile();
+        f.deleteOnExit();
+        BinaryRecordWriter writer = new BinaryRecordWriter(f, schema);
+        for (List<Writable> l : expected) writer.write(l);
+        writer.close();
+
+        BinaryRecordReader rr = new BinaryRecordReader();
+        rr.initialize(new FileSplit(f));
+        List<List<Writable>> actual = new ArrayList<>();
+        while (rr.hasNext()) actual.add(new ArrayList<>(rr.next()));
+        assertEquals(expected, actual);
+
+        try (BinaryRecordWriter w = new BinaryRecordWriter(f, schema)) {
+            w.write(Arrays.<Writable>asList(new Text("x"), new Text("d"), new LongWritable(0), new LongWritable(0)));
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //OK - unknown categorical state
+        }
+    }
+
+    @Test
+    public void testUnsupportedSchemaRejectedBeforeOpening() throws Exception {
+        Schema schema = new Schema.Builder().addColumnDouble("d").addColumnSparseVector("sv", 10).build();
+
+        File dir = Files.createTempDirectory("binaryrecord").toFile();
+        dir.deleteOnExit();
+        File f = new File(dir, "unsupported.bin");
+        try {
+            new BinaryRecordWriter(f, schema);
+            fail("Expected exception");
+        } catch (UnsupportedOperationException e) {
+            //OK - sparse vector columns are not supported
+        }
+        assertFalse(f.exists());
+    }
+}
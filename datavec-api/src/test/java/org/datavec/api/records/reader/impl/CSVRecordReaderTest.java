@@ -17,8 +17,11 @@
 package org.datavec.api.records.reader.impl;
 
 import org.apache.commons.io.FileUtils;
+import org.datavec.api.records.reader.impl.csv.CSVByteTokenizer;
 import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.LongWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.records.writer.impl.csv.CSVRecordWriter;
 import org.datavec.api.records.writer.impl.FileRecordWriter;
@@ -28,6 +31,11 @@ import org.datavec.api.util.ClassPathResource;
 import org.datavec.api.writable.Writable;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -149,4 +157,145 @@ public class CSVRecordReaderTest {
             assertEquals(2, list.size());
         }
     }
+
+    @Test
+    public void testQuotedFields() throws Exception {
+        CSVRecordReader reader = new CSVRecordReader();
+        reader.initialize(new StringSplit("1,\"a,b\",\"say \"\"hi\"\"\",,\"\""));
+        assertTrue(reader.hasNext());
+        List<Writable> list = new ArrayList<>(reader.next());
+        assertEquals(5, list.size());
+        assertEquals("1", list.get(0).toString());
+        assertEquals("a,b", list.get(1).toString());
+        assertEquals("say \"hi\"", list.get(2).toString());
+        assertEquals("", list.get(3).toString());
+        assertEquals("", list.get(4).toString());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testQuotedLineBreaksAndSkipLines() throws Exception {
+        Path p = Files.createTempFile("csvquotetest", "csv");
+        p.toFile().deleteOnExit();
+        FileUtils.writeStringToFile(p.toFile(), "h1,h2\r\n\"multi\nline\",1\r\nplain,2\nlast,3", "UTF-8");
+
+        CSVRecordReader reader = new CSVRecordReader(1, ",");
+        reader.initialize(new FileSplit(p.toFile()));
+        for (int epoch = 0; epoch < 2; epoch++) {
+            List<List<Writable>> out = new ArrayList<>();
+            while (reader.hasNext()) {
+                out.add(new ArrayList<>(reader.next()));
+            }
+            assertEquals(3, out.size());
+            assertEquals("multi\nline", out.get(0).get(0).toString());
+            assertEquals("1", out.get(0).get(1).toString());
+            assertEquals("plain", out.get(1).get(0).toString());
+            assertEquals("3", out.get(2).get(1).toString());
+            reader.reset();
+        }
+    }
+
+    @Test
+    public void testRecordFromStream() throws Exception {
+        byte[] bytes = "h1,h2\r\n\"multi\nline\",1\r\nplain,2\n".getBytes("UTF-8");
+        for (String delimiter : new String[]{",", "\\,"}) {
+            CSVRecordReader reader = new CSVRecordReader(1, delimiter);
+            List<Writable> record = new ArrayList<>(reader.record(URI.create("file:///test.csv"),
+                    new DataInputStream(new ByteArrayInputStream(bytes))));
+            if (delimiter.length() == 1) {
+                assertEquals(2, record.size());
+                assertEquals("multi\nline", record.get(0).toString());
+                assertEquals("1", record.get(1).toString());
+            } else {
+                //Regex delimiters: no quote handling
+                assertEquals(1, record.size());
+                assertEquals("\"multi", record.get(0).toString());
+            }
+        }
+
+        CSVRecordReader reader = new CSVRecordReader(5, ",");
+        assertEquals(0, reader.record(URI.create("file:///test.csv"), new DataInputStream(new ByteArrayInputStream(bytes))).size());
+    }
+
+    @Test
+    public void testSmallBufferTokenizer() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(i).append(",\"q\"\"").append(i).append("\",").append("abcdefghij").append("\n");
+        }
+        byte[] bytes = sb.toString().getBytes("UTF-8");
+        CSVByteTokenizer tokenizer = new CSVByteTokenizer(Channels.newChannel(new ByteArrayInputStream(bytes)), ',', '"', 4);
+        int count = 0;
+        while (tokenizer.nextRecord()) {
+            assertEquals(3, tokenizer.numFields());
+            assertEquals(String.valueOf(count), tokenizer.getString(0));
+            assertEquals("q\"" + count, tokenizer.getString(1));
+            assertEquals("abcdefghij", tokenizer.getString(2));
+            count++;
+        }
+        assertEquals(100, count);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonBlockingChannelRejected() throws Exception {
+        Pipe pipe = Pipe.open();
+        try {
+            pipe.source().configureBlocking(false);
+            new CSVByteTokenizer(pipe.source(), ',', '"', 16);
+        } finally {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+
+    @Test
+    public void testNextReuse() throws Exception {
+        CSVRecordReader expectedReader = new CSVRecordReader();
+        expectedReader.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+        for (String delimiter : new String[]{",", "\\,"}) {
+            CSVRecordReader rr = new CSVRecordReader(0, delimiter);
+            rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+            List<Writable> reuse = new ArrayList<>();
+            reuse.add(new DoubleWritable());
+            reuse.add(new Text());
+            int count = 0;
+            while (rr.next(reuse)) {
+                List<Writable> expected = new ArrayList<>(expectedReader.next());
+                assertEquals(expected.size(), reuse.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).toDouble(), reuse.get(i).toDouble(), 0.0);
+                }
+                count++;
+            }
+            assertEquals(150, count);
+            assertFalse(rr.next(reuse));
+            expectedReader.reset();
+        }
+
+        //Typed values are parsed directly:
+        CSVRecordReader rr = new CSVRecordReader();
+        rr.initialize(new StringSplit("-12,3.25,1234567890123,-0.001,1e3,+7"));
+        List<Writable> reuse = new ArrayList<>();
+        DoubleWritable d0 = new DoubleWritable();
+        IntWritable i0 = new IntWritable();
+        reuse.add(i0);
+        reuse.add(d0);
+        reuse.add(new LongWritable());
+        reuse.add(new DoubleWritable());
+        reuse.add(new DoubleWritable());
+        reuse.add(new IntWritable());
+        reuse.add(new Text("removed"));
+        assertTrue(rr.next(reuse));
+        assertEquals(6, reuse.size());
+        assertSame(i0, reuse.get(0));
+        assertSame(d0, reuse.get(1));
+        assertEquals(-12, i0.get());
+        assertEquals(3.25, d0.get(), 0.0);
+        assertEquals(1234567890123L, ((LongWritable) reuse.get(2)).get());
+        assertEquals(-0.001, ((DoubleWritable) reuse.get(3)).get(), 0.0);
+        assertEquals(1000.0, ((DoubleWritable) reuse.get(4)).get(), 0.0);
+        assertEquals(7, ((IntWritable) reuse.get(5)).get());
+    }
 }
@@ -24,6 +24,7 @@ import org.datavec.api.records.writer.impl.FileRecordWriter;
 import org.datavec.api.records.writer.impl.misc.LibSvmRecordWriter;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Writable;
 import org.junit.Test;
 
@@ -70,6 +71,51 @@ public class LibSvmTest {
 
     }
 
+    @Test
+    public void testSparseReadWrite() throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(FileRecordReader.APPEND_LABEL, "true");
+        conf.set(LibSvmRecordReader.NUM_FEATURES, "4");
+        conf.set(LibSvmRecordReader.SPARSE, "true");
+        File out = new File("iris.libsvm.sparse.out");
+        if(out.exists()) out.delete();
+        out.deleteOnExit();
+        conf.set(FileRecordWriter.PATH, out.getAbsolutePath());
+
+        RecordReader dense = new LibSvmRecordReader();
+        Configuration denseConf = new Configuration();
+        denseConf.set(FileRecordReader.APPEND_LABEL, "true");
+        denseConf.set(LibSvmRecordReader.NUM_FEATURES, "4");
+        dense.initialize(denseConf, new FileSplit(new ClassPathResource("iris.libsvm").getFile()));
+
+        RecordReader sparse = new LibSvmRecordReader();
+        sparse.initialize(conf, new FileSplit(new ClassPathResource("iris.libsvm").getFile()));
+        RecordWriter writer = new LibSvmRecordWriter();
+        writer.setConf(conf);
+        List<Collection<Writable>> data = new ArrayList<>();
+        while (sparse.hasNext()) {
+            List<Writable> record = new ArrayList<>(sparse.next());
+            List<Writable> denseRecord = new ArrayList<>(dense.next());
+            assertEquals(2, record.size());
+            SparseVectorWritable v = (SparseVectorWritable) record.get(0);
+            assertEquals(4, v.length());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(denseRecord.get(i).toDouble(), v.getDouble(i), 0.0);
+            }
+            assertEquals(denseRecord.get(4), record.get(1));
+            writer.write(record);
+            data.add(record);
+        }
+        writer.close();
+
+        List<Collection<Writable>> test = new ArrayList<>();
+        RecordReader rr = new LibSvmRecordReader();
+        rr.initialize(conf, new FileSplit(out));
+        while (rr.hasNext())
+            test.add(rr.next());
+        assertEquals(data, test);
+    }
+
     @Test
     public void testReadMissing() throws Exception {
         RecordReader rr = new LibSvmRecordReader();
@@ -0,0 +1,134 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records.reader.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVSequenceRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.split.NumberedFileInputSplit;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LineOffsetIndexTest {
+
+    private static File createFile(String content) throws Exception {
+        File f = Files.createTempFile("lineoffsetindex", ".csv").toFile();
+        f.deleteOnExit();
+        new File(f.getPath() + LineOffsetIndex.INDEX_FILE_EXTENSION).deleteOnExit();
+        FileUtils.writeStringToFile(f, content, "UTF-8");
+        return f;
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+        File f = createFile("a\nbb\r\n\ncc\rdd");
+        long[] offsets = LineOffsetIndex.build(f, LineOffsetIndex.NO_QUOTE, LineOffsetIndex.NO_QUOTE);
+        assertArrayEquals(new long[]{0, 2, 6, 7, 10}, offsets);
+
+        File f2 = createFile("a,\"b\nc\"\nd,\"\"\"\n\"\n");
+        assertArrayEquals(new long[]{0, 8}, LineOffsetIndex.build(f2, ',', '"'));
+        assertArrayEquals(new long[]{0, 5, 8, 14}, LineOffsetIndex.build(f2, LineOffsetIndex.NO_QUOTE, LineOffsetIndex.NO_QUOTE));
+    }
+
+    @Test
+    public void testLineRecordReader() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) sb.append("line ").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+        File f = createFile(sb.toString());
+
+        LineRecordReader rr = new LineRecordReader();
+        rr.initialize(new FileSplit(f));
+        assertEquals(100, rr.numRecords());
+        assertTrue(new File(f.getPath() + LineOffsetIndex.INDEX_FILE_EXTENSION).exists());
+
+        List<Collection<Writable>> expected = new ArrayList<>();
+        while (rr.hasNext()) expected.add(rr.next());
+
+        //Second reader: index is loaded from the sidecar file
+        LineRecordReader rr2 = new LineRecordReader();
+        rr2.initialize(new FileSplit(f));
+        Random r = new Random(12345);
+        for (int i = 0; i < 200; i++) {
+            int idx = r.nextInt(100);
+            assertEquals(expected.get(idx), rr2.next(idx));
+        }
+        rr.close();
+        rr2.close();
+
+        //Modified file: sidecar is out of date, and must be rebuilt
+        FileUtils.writeStringToFile(f, "x\ny\nz", "UTF-8");
+        LineRecordReader rr3 = new LineRecordReader();
+        rr3.initialize(new FileSplit(f));
+        assertEquals(3, rr3.numRecords());
+        assertEquals("z", rr3.next(2).iterator().next().toString());
+        rr3.close();
+    }
+
+    @Test
+    public void testCSVRecordReader() throws Exception {
+        CSVRecordReader stream = new CSVRecordReader(1, ",");
+        stream.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        //Read everything except the (skipped) first line
+        List<Collection<Writable>> expected = new ArrayList<>();
+        while (stream.hasNext()) expected.add(stream.next());
+        assertEquals(149, expected.size());
+
+        for (String delimiter : new String[]{",", "\\,"}) {
+            CSVRecordReader rr = new CSVRecordReader(1, delimiter);
+            rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+            assertEquals(149, rr.numRecords());
+            int[] indices = new int[149];
+            for (int i = 0; i < indices.length; i++) indices[i] = 148 - i;
+            List<Collection<Writable>> actual = rr.loadFromIndex(indices);
+            for (int i = 0; i < indices.length; i++) {
+                assertEquals(expected.get(148 - i), actual.get(i));
+            }
+            rr.close();
+        }
+
+        File f = createFile("1,\"multi\nline\"\n2,\"x\"\"y\"\n3,z");
+        CSVRecordReader rr = new CSVRecordReader();
+        rr.initialize(new FileSplit(f));
+        assertEquals(3, rr.numRecords());
+        assertEquals("multi\nline", new ArrayList<>(rr.next(0)).get(1).toString());
+        assertEquals("x\"y", new ArrayList<>(rr.next(1)).get(1).toString());
+        assertEquals("z", new ArrayList<>(rr.next(2)).get(1).toString());
+        rr.close();
+    }
+
+    @Test
+    public void testCSVSequenceRecordReader() throws Exception {
+        String path = new ClassPathResource("csvsequence_0.txt").getFile().getAbsolutePath().replace("csvsequence_0", "csvsequence_%d");
+        CSVSequenceRecordReader rr = new CSVSequenceRecordReader(0, ",");
+        rr.initialize(new NumberedFileInputSplit(path, 0, 2));
+        List<Collection<Collection<Writable>>> expected = new ArrayList<>();
+        while (rr.hasNext()) expected.add(rr.sequenceRecord());
+
+        assertEquals(3, rr.numSequences());
+        assertEquals(Arrays.asList(expected.get(2), expected.get(0), expected.get(1)),
+                rr.loadSequencesFromIndex(new int[]{2, 0, 1}));
+    }
+}
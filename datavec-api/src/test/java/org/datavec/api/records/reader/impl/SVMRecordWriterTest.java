@@ -29,6 +29,8 @@ import org.datavec.api.records.writer.impl.misc.SVMLightRecordWriter;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.conf.Configuration;
 import org.junit.Test;
@@ -38,6 +40,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -104,5 +107,41 @@ public class SVMRecordWriterTest {
         assertEquals(785,record.size());
     }
 
+    @Test
+    public void testNegativeValues() throws Exception {
+        File out = File.createTempFile("svmlight_negative", ".txt");
+        out.deleteOnExit();
+        RecordWriter writer = new SVMLightRecordWriter(out, false);
+        SparseVectorWritable v = new SparseVectorWritable(4, new int[]{0, 2}, new double[]{-1.5, 2.0});
+        writer.write(Arrays.<Writable>asList(v, new DoubleWritable(-3.0), new DoubleWritable(0.0), new DoubleWritable(1.0)));
+        writer.close();
+
+        //Dense: the sparse vector expands to 4 features, followed by the two scalar features and the label
+        Configuration conf = new Configuration();
+        conf.set(SVMLightRecordReader.NUM_ATTRIBUTES, "6");
+        RecordReader reader = new SVMLightRecordReader();
+        reader.initialize(conf, new FileSplit(out));
+        assertTrue(reader.hasNext());
+        List<Writable> record = new ArrayList<>(reader.next());
+        double[] expected = {-1.5, 0.0, 2.0, 0.0, -3.0, 0.0, 1.0};
+        assertEquals(expected.length, record.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], record.get(i).toDouble(), 0.0);
+        }
 
+        //Sparse: only the non-zero entries are stored, including the negative ones
+        Configuration sparseConf = new Configuration();
+        sparseConf.set(SVMLightRecordReader.NUM_ATTRIBUTES, "6");
+        sparseConf.set(SVMLightRecordReader.SPARSE, "true");
+        RecordReader sparseReader = new SVMLightRecordReader();
+        sparseReader.initialize(sparseConf, new FileSplit(out));
+        List<Writable> sparseRecord = new ArrayList<>(sparseReader.next());
+        assertEquals(2, sparseRecord.size());
+        SparseVectorWritable features = (SparseVectorWritable) sparseRecord.get(0);
+        assertArrayEquals(new int[]{0, 2, 4}, features.getIndices());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(expected[i], features.getDouble(i), 0.0);
+        }
+        assertEquals(1.0, sparseRecord.get(1).toDouble(), 0.0);
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.split;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.LineRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ByteRangeSplitTest {
+
+    private static File createFile(int numLines, String newLine) throws IOException {
+        File f = Files.createTempFile("byterangesplit", ".csv").toFile();
+        f.deleteOnExit();
+        StringBuilder sb = new StringBuilder();
+        sb.append("header0,header1").append(newLine);
+        for (int i = 0; i < numLines; i++) {
+            sb.append(i).append(",");
+            for (int j = 0; j < i % 7; j++) sb.append("x");
+            sb.append(newLine);
+        }
+        FileUtils.writeStringToFile(f, sb.toString(), "UTF-8");
+        return f;
+    }
+
+    @Test
+    public void testLineRecordReaderRanges() throws Exception {
+        for (String newLine : new String[]{"\n", "\r\n"}) {
+            File f = createFile(100, newLine);
+            for (int numSplits : new int[]{1, 2, 3, 7, 50, 500}) {
+                List<String> lines = new ArrayList<>();
+                for (ByteRangeSplit split : ByteRangeSplit.createSplits(f, numSplits)) {
+                    RecordReader rr = new LineRecordReader();
+                    rr.initialize(split);
+                    while (rr.hasNext()) {
+                        lines.add(rr.next().iterator().next().toString());
+                    }
+                }
+                assertEquals(101, lines.size());
+                assertEquals("header0,header1", lines.get(0));
+                for (int i = 0; i < 100; i++) {
+                    assertEquals(String.valueOf(i), lines.get(i + 1).split(",")[0]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCSVRecordReaderRanges() throws Exception {
+        File f = createFile(1000, "\n");
+        ByteRangeSplit[] splits = ByteRangeSplit.createSplits(f, 8);
+        assertEquals(8, splits.length);
+        assertEquals(f.length(), splits[7].getEnd());
+
+        for (String delimiter : new String[]{",", "\\,"}) {
+            List<Integer> values = new ArrayList<>();
+            for (ByteRangeSplit split : splits) {
+                CSVRecordReader rr = new CSVRecordReader(1, delimiter);
+                rr.initialize(split);
+                for (int epoch = 0; epoch < 2; epoch++) {
+                    List<Integer> epochValues = new ArrayList<>();
+                    while (rr.hasNext()) {
+                        List<Writable> record = new ArrayList<>(rr.next());
+                        assertEquals(2, record.size());
+                        epochValues.add(record.get(0).toInt());
+                    }
+                    if (epoch == 0) values.addAll(epochValues);
+                    rr.reset();
+                }
+            }
+            assertEquals(1000, values.size());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, (int) values.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testWriteReadFields() throws Exception {
+        ByteRangeSplit split = new ByteRangeSplit(new File("/tmp/file.csv"), 123, 456);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        split.write(new DataOutputStream(baos));
+
+        ByteRangeSplit read = new ByteRangeSplit();
+        read.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(split.getUri(), read.getUri());
+        assertEquals(123, read.getStart());
+        assertEquals(456, read.length());
+        assertEquals(579, read.getEnd());
+    }
+}
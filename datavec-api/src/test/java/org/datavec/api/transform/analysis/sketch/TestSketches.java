@@ -0,0 +1,133 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestSketches {
+
+    @Test
+    public void testHyperLogLog() throws Exception {
+        //Small cardinalities are exact
+        HyperLogLog small = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) small.add(i % 100);
+        assertEquals(100, small.cardinality());
+
+        for (int n : new int[]{10000, 100000, 1000000}) {
+            HyperLogLog[] parts = new HyperLogLog[4];
+            for (int p = 0; p < parts.length; p++) parts[p] = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                //Each value added twice, to different parts
+                parts[i % 4].add("value" + i);
+                parts[(i + 1) % 4].add("value" + i);
+            }
+            HyperLogLog merged = parts[0];
+            for (int p = 1; p < parts.length; p++) merged.merge(parts[p]);
+            assertEquals(n, merged.cardinality(), n * 0.03);
+        }
+
+        HyperLogLog longs = new HyperLogLog();
+        for (long i = 0; i < 200000; i++) longs.add(i * 7919L);
+        assertEquals(200000, longs.cardinality(), 200000 * 0.03);
+
+        HyperLogLog copy = serializeDeserialize(longs);
+        assertEquals(longs.cardinality(), copy.cardinality());
+    }
+
+    @Test
+    public void testQuantileSketch() throws Exception {
+        Random r = new Random(12345);
+        int n = 200000;
+        double[] values = new double[n];
+        QuantileSketch[] parts = new QuantileSketch[5];
+        for (int p = 0; p < parts.length; p++) parts[p] = new QuantileSketch(QuantileSketch.DEFAULT_K, p);
+        for (int i = 0; i < n; i++) {
+            values[i] = r.nextGaussian() * 10 + 3;
+            parts[i % parts.length].add(values[i]);
+        }
+        QuantileSketch sketch = parts[0];
+        for (int p = 1; p < parts.length; p++) sketch.merge(parts[p]);
+        sketch = serializeDeserialize(sketch);
+        Arrays.sort(values);
+
+        assertEquals(n, sketch.getCount());
+        assertEquals(values[0], sketch.getMin(), 0.0);
+        assertEquals(values[n - 1], sketch.getMax(), 0.0);
+        for (double q : new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            double estimate = sketch.getQuantile(q);
+            //Rank error of the estimate
+            int rank = Arrays.binarySearch(values, estimate);
+            assertEquals("Quantile " + q, q, (double) rank / n, 0.02);
+            assertEquals(q, sketch.getRank(values[(int) (q * n)]), 0.02);
+        }
+        assertEquals(0.0, sketch.getRank(values[0] - 1), 0.0);
+        assertEquals(1.0, sketch.getRank(values[n - 1]), 0.0);
+
+        //Small inputs: exact
+        QuantileSketch small = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) small.add(i);
+        small.add(Double.NaN);
+        assertEquals(100, small.getCount());
+        assertEquals(50.0, small.getQuantile(0.5), 0.0);
+        assertEquals(0.25, small.getRank(25), 0.0);
+        assertEquals(0.24, small.getRank(25, false), 0.0);
+        assertEquals(0.0, small.getRank(1, false), 0.0);
+    }
+
+    @Test
+    public void testQuantileSketchBoundedMemory() throws Exception {
+        int k = 200;
+        QuantileSketch sketch = new QuantileSketch(k, 12345);
+        QuantileSketch merged = new QuantileSketch(k, 123);
+        int n = 5000000;
+        for (int i = 0; i < n; i++) {
+            sketch.add(i);
+            if (i % 1000 == 999) {
+                //Merge many small sketches, as when combining per-partition sketches
+                QuantileSketch part = new QuantileSketch(k, i);
+                for (int j = i - 999; j <= i; j++) part.add(j);
+                merged.merge(part);
+            }
+        }
+
+        //Retained values: O(k log(n/k)), i.e., at most k per level
+        int maxRetained = k * (int) Math.ceil(Math.log((double) n / k) / Math.log(2) + 1);
+        for (QuantileSketch s : new QuantileSketch[]{sketch, merged}) {
+            assertEquals(n, s.getCount());
+            assertTrue(String.valueOf(s.getNumRetained()), s.getNumRetained() <= maxRetained);
+            assertEquals(0.5, s.getRank(n / 2), 0.02);
+            assertEquals(0.9 * n, s.getQuantile(0.9), 0.02 * n);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializeDeserialize(T object) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(object);
+        oos.close();
+        return (T) new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+    }
+}
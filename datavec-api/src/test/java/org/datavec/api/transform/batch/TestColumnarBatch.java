@@ -0,0 +1,144 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.CategoricalColumnCondition;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.doubletransform.MinMaxNormalizer;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestColumnarBatch {
+
+    private static List<List<Writable>> loadIris() throws Exception {
+        RecordReader rr = new CSVRecordReader();
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        List<List<Writable>> out = new ArrayList<>();
+        while (rr.hasNext()) {
+            List<Writable> l = new ArrayList<>(rr.next());
+            //Label column as a categorical
+            l.set(4, new Text("class" + l.get(4).toString()));
+            out.add(l);
+        }
+        return out;
+    }
+
+    private static void assertSameValues(List<List<Writable>> expected, List<List<Writable>> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            List<Writable> e = expected.get(i);
+            List<Writable> a = actual.get(i);
+            assertEquals(e.size(), a.size());
+            for (int j = 0; j < e.size(); j++) {
+                assertEquals("Row " + i + ", column " + j, e.get(j).toString(), a.get(j).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchMatchesRowWise() throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnsDouble("sepalLength", "sepalWidth", "petalLength", "petalWidth")
+                .addColumnCategorical("label", "class0", "class1", "class2")
+                .build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .removeColumns("sepalWidth")
+                .duplicateColumn("petalLength", "petalLength2")
+                .doubleMathOp("petalLength2", MathOp.Multiply, 10.0)
+                .transform(new MinMaxNormalizer("sepalLength", 4.0, 8.0))
+                .filter(new ConditionFilter(BooleanCondition.AND(
+                        new DoubleColumnCondition("petalWidth", ConditionOp.GreaterThan, 2.0),
+                        new CategoricalColumnCondition("label", ConditionOp.Equal, "class2"))))
+                .filter(new ConditionFilter(new CategoricalColumnCondition("label", ConditionOp.Equal, "class0")))
+                .conditionalReplaceValueTransform("petalLength", new DoubleWritable(0.0),      //No batch kernel: row-wise fallback
+                        new DoubleColumnCondition("petalLength", ConditionOp.LessThan, 5.0))
+                .categoricalToInteger("label")
+                .integerMathOp("label", MathOp.Add, 1)
+                .filter(new ConditionFilter(new IntegerColumnCondition("label", ConditionOp.Equal, 3)))
+                .renameColumn("petalWidth", "pw")
+                .reorderColumns("label", "pw")
+                .build();
+
+        List<List<Writable>> data = loadIris();
+        List<List<Writable>> expected = new ArrayList<>();
+        for (List<Writable> l : data) {
+            List<Writable> out = tp.execute(l);
+            if (out != null) expected.add(out);
+        }
+        assertTrue(expected.size() > 0 && expected.size() < data.size());
+
+        List<List<Writable>> actual = tp.executeBatch(data);
+        assertSameValues(expected, actual);
+        assertEquals(tp.getFinalSchema().numColumns(), actual.get(0).size());
+        assertTrue(actual.get(0).get(0) instanceof IntWritable);
+        assertTrue(actual.get(0).get(2) instanceof DoubleWritable);
+    }
+
+    @Test
+    public void testColumnConversions() {
+        Schema schema = new Schema.Builder()
+                .addColumnInteger("int")
+                .addColumnLong("long")
+                .addColumnDouble("double")
+                .addColumnCategorical("cat", "a", "b")
+                .build();
+
+        List<List<Writable>> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(Arrays.<Writable>asList(new Text(String.valueOf(i)), new LongWritable(10 * i),
+                    new DoubleWritable(0.5 * i), new Text(i % 2 == 0 ? "a" : "b")));
+        }
+
+        ColumnarBatch batch = ColumnarBatch.fromRows(schema, rows);
+        assertFalse(batch.isPrimitive(0));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, batch.getIntColumn(0));
+        assertArrayEquals(new long[]{0, 10, 20, 30, 40}, batch.getLongColumn(1));
+        assertArrayEquals(new double[]{0, 0.5, 1.0, 1.5, 2.0}, batch.getDoubleColumn(2), 0.0);
+        assertArrayEquals(new int[]{0, 1, 0, 1, 0}, batch.getCategoricalColumn(3));
+        assertTrue(batch.isPrimitive(0));
+        assertEquals(new Text("b"), batch.getWritable(3, 1));
+
+        batch.removeRows(new boolean[]{true, false, true, false, false});
+        assertEquals(3, batch.numRows());
+        List<List<Writable>> out = batch.toRows();
+        assertEquals(Arrays.<Writable>asList(new IntWritable(1), new LongWritable(10), new DoubleWritable(0.5), new Text("b")), out.get(0));
+        assertEquals(Arrays.<Writable>asList(new IntWritable(4), new LongWritable(40), new DoubleWritable(2.0), new Text("a")), out.get(2));
+
+        try {
+            batch.getDoubleColumn(0);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //OK
+        }
+    }
+}
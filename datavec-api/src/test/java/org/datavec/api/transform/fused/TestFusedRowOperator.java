@@ -0,0 +1,182 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.fused;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.RowView;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestFusedRowOperator {
+
+    //Execute each action separately, as per the non-fused implementation
+    private static List<Writable> executeSeparately(TransformProcess tp, List<Writable> in) {
+        List<Writable> curr = in;
+        for (DataAction d : tp.getActionList()) {
+            if (d.getTransform() != null) {
+                curr = d.getTransform().map(curr);
+            } else if (d.getFilter().removeExample(curr)) {
+                return null;
+            }
+        }
+        return curr;
+    }
+
+    @Test
+    public void testFusedMatchesSeparate() {
+        Schema schema = new Schema.Builder()
+                .addColumnsDouble("d0", "d1", "d2")
+                .addColumnInteger("i0")
+                .addColumnString("s0")
+                .build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .doubleMathOp("d0", MathOp.Multiply, 2.0)
+                .reorderColumns("i0", "s0")
+                .integerMathOp("i0", MathOp.Add, 10)
+                .duplicateColumn("d1", "d1Copy")
+                .filter(new ConditionFilter(new DoubleColumnCondition("d1Copy", ConditionOp.GreaterThan, 5.0)))
+                .removeColumns("d2")
+                .renameColumn("d0", "d0Renamed")
+                .categoricalToOneHot()      //No-op: not a projection or column transform
+                .doubleMathOp("d1", MathOp.Subtract, 1.0)
+                .removeColumns("d1Copy")
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            List<Writable> in = Arrays.<Writable>asList(new DoubleWritable(i), new DoubleWritable(i + 0.5),
+                    new DoubleWritable(-i), new IntWritable(i), new Text("str" + i));
+            List<Writable> expected = executeSeparately(tp, in);
+            List<Writable> actual = tp.execute(in);
+            assertEquals(expected, actual);
+            if (i >= 5) {
+                //Removed by filter: d1Copy > 5.0
+                assertNull(actual);
+            } else {
+                assertEquals(tp.getFinalSchema().numColumns(), actual.size());
+            }
+        }
+    }
+
+    @Test
+    public void testRemovedColumnsNotProcessed() {
+        Schema schema = new Schema.Builder()
+                .addColumnDouble("d0")
+                .addColumnDouble("invalid")
+                .addColumnDouble("d1")
+                .build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .doubleMathOp("invalid", MathOp.Add, 1.0)
+                .doubleMathOp("d0", MathOp.Add, 1.0)
+                .removeColumns("invalid")
+                .build();
+
+        FusedRowOperator op = FusedRowOperator.compile(schema, tp.getActionList());
+        FusedRowOperator.RowBuffer buffer = op.newRowBuffer();
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            //Parsing the "invalid" column would throw an exception: it should never be transformed
+            List<Writable> in = Arrays.<Writable>asList(new DoubleWritable(i), new Text("not a number"), new DoubleWritable(10 * i));
+            out.add(op.execute(in, buffer));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Arrays.<Writable>asList(new DoubleWritable(i + 1.0), new DoubleWritable(10 * i)), out.get(i));
+        }
+        assertEquals(tp.getFinalSchema().getColumnNames(), op.getOutputSchema().getColumnNames());
+    }
+
+    @Test
+    public void testRowViewMatchesList() {
+        Schema schema = new Schema.Builder()
+                .addColumnsDouble("d0", "d1", "d2")
+                .addColumnInteger("i0")
+                .addColumnString("s0")
+                .build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .doubleMathOp("d0", MathOp.Multiply, 2.0)
+                .integerMathOp("i0", MathOp.Add, 10)
+                .filter(new ConditionFilter(new DoubleColumnCondition("d1", ConditionOp.GreaterThan, 5.0)))
+                .removeColumns("d2")
+                .build();
+
+        Record out = new Record(tp.getFinalSchema());
+        for (int i = 0; i < 10; i++) {
+            List<Writable> in = Arrays.<Writable>asList(new DoubleWritable(i), new DoubleWritable(i + 0.5),
+                    new DoubleWritable(-i), new IntWritable(i), new Text("str" + i));
+            List<Writable> expected = tp.execute(in);
+            boolean kept = tp.execute(Record.fromWritables(schema, in), out);
+            assertEquals(expected != null, kept);
+            if (kept) {
+                assertEquals(expected, out.toList());
+            }
+        }
+    }
+
+    @Test
+    public void testRowViewRemovedColumnsNotRead() {
+        Schema schema = new Schema.Builder()
+                .addColumnsDouble("d0", "unused", "d1")
+                .build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .doubleMathOp("d0", MathOp.Add, 1.0)
+                .removeColumns("unused")
+                .build();
+
+        FusedRowOperator op = FusedRowOperator.compile(schema, tp.getActionList());
+        FusedRowOperator.RowBuffer buffer = op.newRowBuffer();
+        Record out = new Record(op.getOutputSchema());
+        for (int i = 0; i < 3; i++) {
+            final Record in = Record.fromWritables(schema,
+                    Arrays.<Writable>asList(new DoubleWritable(i), new DoubleWritable(-1), new DoubleWritable(10 * i)));
+            RowView view = new RowView() {
+                public Schema getSchema() { return in.getSchema(); }
+                public int numColumns() { return in.numColumns(); }
+                public double getDouble(int column) { return in.getDouble(column); }
+                public long getLong(int column) { return in.getLong(column); }
+                public int getInt(int column) { return in.getInt(column); }
+                public int getCategoricalIndex(int column) { return in.getCategoricalIndex(column); }
+                public Writable getWritable(int column) {
+                    if (column == 1) throw new IllegalStateException("Removed column should not be read");
+                    return in.getWritable(column);
+                }
+            };
+            assertTrue(op.execute(view, out, buffer));
+            assertEquals(i + 1.0, out.getDouble(0), 0.0);
+            assertEquals(10.0 * i, out.getDouble(1), 0.0);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.local;
+
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.sequence.SplitMaxLengthSequence;
+import org.datavec.api.transform.sequence.comparator.NumericalColumnComparator;
+import org.datavec.api.writable.*;
+import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestLocalTransformExecutor {
+
+    private static final Schema SCHEMA = new Schema.Builder()
+            .addColumnString("key")
+            .addColumnLong("time")
+            .addColumnDouble("value")
+            .addColumnInteger("count")
+            .build();
+
+    private static List<List<Writable>> createData(int n, int numKeys) {
+        Random r = new Random(12345);
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(Arrays.<Writable>asList(new Text("key" + r.nextInt(numKeys)), new LongWritable(r.nextInt(100000)),
+                    new DoubleWritable(r.nextGaussian()), new IntWritable(r.nextInt(10))));
+        }
+        return out;
+    }
+
+    private static List<LocalTransformExecutor> executors() {
+        //Default (in memory), and a tiny memory budget so that all grouping operations spill to disk
+        return Arrays.asList(new LocalTransformExecutor(),
+                new LocalTransformExecutor.Builder().numThreads(3).numPartitions(5).memoryBudgetBytes(2000).batchSize(17).build());
+    }
+
+    private static List<String> sorted(List<List<Writable>> data) {
+        List<String> out = new ArrayList<>();
+        for (List<Writable> l : data) out.add(l.toString());
+        Collections.sort(out);
+        return out;
+    }
+
+    @Test
+    public void testTransformsAndFilters() {
+        List<List<Writable>> data = createData(1000, 10);
+        TransformProcess tp = new TransformProcess.Builder(SCHEMA)
+                .removeColumns("time")
+                .filter(new ConditionFilter(new DoubleColumnCondition("value", ConditionOp.LessThan, 0.0)))
+                .build();
+
+        List<List<Writable>> expected = new ArrayList<>();
+        for (List<Writable> l : data) {
+            List<Writable> out = tp.execute(l);
+            if (out != null) expected.add(out);
+        }
+        assertTrue(expected.size() > 0 && expected.size() < data.size());
+
+        for (LocalTransformExecutor exec : executors()) {
+            assertEquals(expected, exec.execute(data, tp));
+            assertEquals(expected, exec.execute(new CollectionRecordReader(data), tp));
+        }
+    }
+
+    @Test
+    public void testReduce() {
+        List<List<Writable>> data = createData(2000, 37);
+        TransformProcess tp = new TransformProcess.Builder(SCHEMA)
+                .removeColumns("time")
+                .reduce(new Reducer.Builder(ReduceOp.Sum)
+                        .keyColumns("key")
+                        .countColumns("value")
+                        .build())
+                .build();
+
+        Map<String, long[]> expectedMap = new TreeMap<>();
+        for (List<Writable> l : data) {
+            long[] countSum = expectedMap.get(l.get(0).toString());
+            if (countSum == null) {
+                countSum = new long[2];
+                expectedMap.put(l.get(0).toString(), countSum);
+            }
+            countSum[0]++;
+            countSum[1] += l.get(3).toInt();
+        }
+        List<List<Writable>> expected = new ArrayList<>();
+        for (Map.Entry<String, long[]> e : expectedMap.entrySet()) {
+            expected.add(Arrays.<Writable>asList(new Text(e.getKey()), new IntWritable((int) e.getValue()[0]),
+                    new LongWritable(e.getValue()[1])));
+        }
+
+        for (LocalTransformExecutor exec : executors()) {
+            List<List<Writable>> out = exec.execute(data, tp);
+            assertEquals(37, out.size());
+            assertEquals(sorted(expected), sorted(out));
+        }
+    }
+
+    @Test
+    public void testConvertToSequence() {
+        List<List<Writable>> data = createData(2000, 23);
+        TransformProcess tp = new TransformProcess.Builder(SCHEMA)
+                .convertToSequence("key", new NumericalColumnComparator("time"))
+                .splitSequence(new SplitMaxLengthSequence(10, false))
+                .build();
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (List<Writable> l : data) {
+            Integer c = counts.get(l.get(0).toString());
+            counts.put(l.get(0).toString(), c == null ? 1 : c + 1);
+        }
+        int expectedNumSequences = 0;
+        for (int c : counts.values()) expectedNumSequences += (c + 9) / 10;
+
+        for (LocalTransformExecutor exec : executors()) {
+            List<List<List<Writable>>> out = exec.executeToSequence(data, tp);
+            assertEquals(expectedNumSequences, out.size());
+            List<List<Writable>> all = new ArrayList<>();
+            for (List<List<Writable>> sequence : out) {
+                assertTrue(sequence.size() > 0 && sequence.size() <= 10);
+                for (int i = 0; i < sequence.size(); i++) {
+                    assertEquals(sequence.get(0).get(0), sequence.get(i).get(0));
+                    if (i > 0) assertTrue(sequence.get(i - 1).get(1).toLong() <= sequence.get(i).get(1).toLong());
+                }
+                all.addAll(sequence);
+            }
+            assertEquals(sorted(data), sorted(all));
+
+            //And back again, via the sequence to non-sequence methods
+            TransformProcess fromSequence = new TransformProcess.Builder(tp.getFinalSchema())
+                    .convertFromSequence()
+                    .build();
+            assertEquals(sorted(data), sorted(exec.executeSequenceToSeparate(out, fromSequence)));
+        }
+    }
+
+    @Test
+    public void testJoin() {
+        Schema leftSchema = new Schema.Builder()
+                .addColumnInteger("key")
+                .addColumnString("left")
+                .build();
+        Schema rightSchema = new Schema.Builder()
+                .addColumnInteger("key")
+                .addColumnString("right")
+                .build();
+
+        //Keys 0 to 29 on the left, 20 to 49 on the right; some keys occur multiple times on each side
+        Random r = new Random(12345);
+        List<List<Writable>> left = new ArrayList<>();
+        List<List<Writable>> right = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            left.add(Arrays.<Writable>asList(new IntWritable(r.nextInt(30)), new Text("l" + i)));
+            right.add(Arrays.<Writable>asList(new IntWritable(20 + r.nextInt(30)), new Text("r" + i)));
+        }
+
+        for (Join.JoinType joinType : Join.JoinType.values()) {
+            Join join = new Join.Builder(joinType)
+                    .setKeyColumns("key")
+                    .setSchemas(leftSchema, rightSchema)
+                    .build();
+
+            List<List<Writable>> expected = new ArrayList<>();
+            Set<List<Writable>> matchedRight = new HashSet<>();
+            for (List<Writable> l : left) {
+                boolean matched = false;
+                for (List<Writable> rr : right) {
+                    if (l.get(0).equals(rr.get(0))) {
+                        expected.add(join.joinExamples(l, rr));
+                        matchedRight.add(rr);
+                        matched = true;
+                    }
+                }
+                if (!matched && (joinType == Join.JoinType.LeftOuter || joinType == Join.JoinType.FullOuter)) {
+                    expected.add(join.joinExamples(l, null));
+                }
+            }
+            if (joinType == Join.JoinType.RightOuter || joinType == Join.JoinType.FullOuter) {
+                for (List<Writable> rr : right) {
+                    if (!matchedRight.contains(rr)) expected.add(join.joinExamples(null, rr));
+                }
+            }
+
+            for (LocalTransformExecutor exec : executors()) {
+                assertEquals(joinType.toString(), sorted(expected), sorted(exec.executeJoin(join, left, right)));
+            }
+        }
+    }
+
+    @Test
+    public void testCalculateSortedRank() {
+        //Large enough for the sort to be split over multiple tasks
+        List<List<Writable>> data = createData(20000, 5);
+
+        for (boolean ascending : new boolean[]{true, false}) {
+            TransformProcess tp = new TransformProcess.Builder(SCHEMA)
+                    .calculateSortedRank("rank", "value", new DoubleWritableComparator(), ascending)
+                    .build();
+
+            for (LocalTransformExecutor exec : executors()) {
+                List<List<Writable>> out = exec.execute(data, tp);
+                assertEquals(data.size(), out.size());
+                for (int i = 0; i < out.size(); i++) {
+                    assertEquals(5, out.get(i).size());
+                    assertEquals(i, out.get(i).get(4).toLong());
+                    if (i > 0) {
+                        double prev = out.get(i - 1).get(2).toDouble();
+                        double curr = out.get(i).get(2).toDouble();
+                        assertTrue(ascending ? prev <= curr : prev >= curr);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCalculateApproximatePercentileRank() {
+        //Large enough for the sketch to compact values, and for the ranks to be calculated by multiple tasks
+        List<List<Writable>> data = createData(50000, 5);
+        double[] values = new double[data.size()];
+        for (int i = 0; i < values.length; i++) values[i] = data.get(i).get(2).toDouble();
+        Arrays.sort(values);
+
+        for (boolean ascending : new boolean[]{true, false}) {
+            TransformProcess tp = new TransformProcess.Builder(SCHEMA)
+                    .calculateApproximatePercentileRank("rank", "value", ascending)
+                    .build();
+
+            for (LocalTransformExecutor exec : executors()) {
+                List<List<Writable>> out = exec.execute(data, tp);
+                assertEquals(data.size(), out.size());
+                for (List<Writable> l : out) {
+                    assertEquals(5, l.size());
+                    double value = l.get(2).toDouble();
+                    //Exact fraction of values before this one in the sort order
+                    int pos = Arrays.binarySearch(values, value);
+                    double exact = (ascending ? pos : values.length - 1 - pos) / (double) values.length;
+                    assertEquals(exact, l.get(4).toDouble(), 0.02);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSpillBuffer() {
+        List<List<Writable>> examples = new ArrayList<>();
+        examples.add(Arrays.<Writable>asList(new Text("a"), new IntWritable(1), NullWritable.INSTANCE, null));
+        examples.add(Arrays.<Writable>asList(new DoubleWritable(0.5), new LongWritable(-3), new BooleanWritable(true)));
+        examples.add(Arrays.<Writable>asList(new SparseVectorWritable(100, new int[]{2, 50}, new double[]{1.0, -2.0}),
+                new Text("b")));
+        examples.add(new ArrayList<Writable>());
+
+        PartitionedSpillBuffer buffer = new PartitionedSpillBuffer(2, 0, null);
+        for (List<Writable> l : examples) buffer.add(0, l);
+        buffer.add(1, examples.get(0));
+        assertEquals(5, buffer.getNumSpills());
+        assertEquals(examples, buffer.takePartition(0));
+        assertEquals(Collections.singletonList(examples.get(0)), buffer.takePartition(1));
+        buffer.close();
+
+        //Mix of spilled and in-memory examples
+        buffer = new PartitionedSpillBuffer(1, Long.MAX_VALUE, null);
+        buffer.add(0, examples.get(0));
+        buffer.spill();
+        buffer.add(0, examples.get(1));
+        assertEquals(Arrays.asList(examples.get(0), examples.get(1)), buffer.takePartition(0));
+        buffer.close();
+    }
+}
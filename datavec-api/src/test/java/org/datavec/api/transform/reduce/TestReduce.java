@@ -299,4 +299,85 @@ public class TestReduce {
         assertEquals(Arrays.asList("key","sumOfAs","countUnique(filterCol)", "countUnique(textCol)"), outSchema.getColumnNames());
         assertEquals(Arrays.asList(ColumnType.String, ColumnType.Long, ColumnType.Integer, ColumnType.Integer), outSchema.getColumnTypes());
     }
+
+    @Test
+    public void testMergedAccumulators(){
+        Schema schema = new Schema.Builder()
+                .addColumnString("key")
+                .addColumnsDouble("d0","d1","d2","d3","d4","d5")
+                .addColumnsInteger("i0","i1","i2")
+                .addColumnString("filterCol")
+                .addColumnString("s0")
+                .build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> inputs = new ArrayList<>();
+        for( int i=0; i<100; i++ ){
+            List<Writable> l = new ArrayList<>();
+            l.add(new Text("someKey"));
+            for( int j=0; j<6; j++ ) l.add(new DoubleWritable(r.nextDouble()));
+            for( int j=0; j<3; j++ ) l.add(new IntWritable(r.nextInt(20)));
+            l.add(new Text(i % 3 == 0 ? "a" : "b"));
+            l.add(new Text(String.valueOf(r.nextInt(10))));
+            inputs.add(l);
+        }
+
+        Reducer reducer = new Reducer.Builder(ReduceOp.Mean)
+                .keyColumns("key")
+                .minColumns("d0").maxColumn("d1").sumColumns("d2").stdevColumns("d3").takeFirstColumns("d4").takeLastColumns("d5")
+                .countUniqueColumns("i0","s0").rangeColumns("i1")
+                .conditionalReduction("i2","sumOfAs",ReduceOp.Sum, new StringColumnCondition("filterCol", ConditionOp.Equal, "a"))
+                .countColumns("filterCol")
+                .build();
+        reducer.setInputSchema(schema);
+
+        List<Writable> expected = reducer.reduce(inputs);
+
+        //Split the inputs into contiguous "partitions", accumulate each separately, then merge
+        for(int numSplits : new int[]{2, 7, 100}){
+            List<ReducerAccumulator> partial = new ArrayList<>();
+            for( int s=0; s<numSplits; s++ ){
+                ReducerAccumulator acc = reducer.newAccumulator();
+                for( int i = s*100/numSplits; i < (s+1)*100/numSplits; i++ ) acc.add(inputs.get(i));
+                partial.add(acc);
+            }
+            ReducerAccumulator merged = partial.get(0);
+            for( int s=1; s<numSplits; s++ ) merged.merge(partial.get(s));
+
+            List<Writable> out = merged.get();
+            assertEquals(expected.size(), out.size());
+            for( int i=0; i<out.size(); i++ ){
+                if(out.get(i) instanceof DoubleWritable){
+                    assertEquals(expected.get(i).toDouble(), out.get(i).toDouble(), 1e-10);
+                } else {
+                    assertEquals(expected.get(i), out.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCountUniqueApprox(){
+        Schema schema = new Schema.Builder()
+                .addColumnString("key")
+                .addColumnInteger("i0")
+                .addColumnString("s0")
+                .build();
+
+        Reducer reducer = new Reducer.Builder(ReduceOp.CountUniqueApprox)
+                .keyColumns("key")
+                .countUniqueColumns("i0")
+                .build();
+        reducer.setInputSchema(schema);
+        assertEquals(Arrays.asList("key","countUnique(i0)","countUniqueApprox(s0)"), reducer.transform(schema).getColumnNames());
+
+        List<List<Writable>> inputs = new ArrayList<>();
+        for( int i=0; i<100000; i++ ){
+            inputs.add(Arrays.<Writable>asList(new Text("someKey"), new IntWritable(i % 1000), new Text("value" + (i % 50000))));
+        }
+
+        List<Writable> out = reducer.reduce(inputs);
+        assertEquals(1000, out.get(1).toInt());
+        assertEquals(50000, out.get(2).toLong(), 50000 * 0.03);
+    }
 }
@@ -16,16 +16,21 @@
 
 package org.datavec.api.transform.sequence;
 
+import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.LongWritable;
 import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
 import org.datavec.api.transform.Transform;
 import org.datavec.api.transform.reduce.Reducer;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.transform.sequence.window.OverlappingTimeWindowFunction;
 import org.datavec.api.transform.sequence.window.ReduceSequenceByWindowTransform;
 import org.datavec.api.transform.sequence.window.TimeWindowFunction;
 import org.datavec.api.transform.sequence.window.WindowFunction;
+import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.joda.time.DateTimeZone;
 import org.junit.Test;
@@ -33,9 +38,10 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * Created by Alex on 16/04/2016.
@@ -93,4 +99,113 @@ public class TestReduceSequenceByWindowFunction {
         assertEquals(exp3, postApply.get(3));
     }
 
+    @Test
+    public void testOverlappingWindowsSlidingReduction(){
+        //Reductions on overlapping windows are done incrementally: should give the same result as reducing each window
+        Schema schema = new SequenceSchema.Builder()
+                .addColumnTime("timecolumn", DateTimeZone.UTC)
+                .addColumnDouble("doublecolumn")
+                .addColumnInteger("intcolumn")
+                .addColumnLong("longcolumn")
+                .addColumnString("stringcolumn")
+                .build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> sequence = new ArrayList<>();
+        long time = 1451606400000L;
+        for (int i = 0; i < 200; i++) {
+            //Mostly short gaps, with occasional duplicate times and long gaps (-> empty windows)
+            int gap = r.nextInt(10);
+            time += (gap == 0 ? 0 : (gap == 9 ? 5000 + r.nextInt(5000) : r.nextInt(500)));
+            sequence.add(Arrays.asList((Writable) new LongWritable(time), new DoubleWritable(1e6 * r.nextGaussian()),
+                    new IntWritable(r.nextInt(20) - 10), new LongWritable(r.nextInt(1000)), new Text("s" + r.nextInt(5))));
+        }
+
+        ReduceOp[] ops = {ReduceOp.Min, ReduceOp.Max, ReduceOp.Range, ReduceOp.Sum, ReduceOp.Mean, ReduceOp.Stdev,
+                ReduceOp.Count, ReduceOp.CountUnique, ReduceOp.TakeFirst, ReduceOp.TakeLast};
+
+        for (boolean addStart : new boolean[]{false, true}) {
+            for (boolean addEnd : new boolean[]{false, true}) {
+                for (boolean excludeEmpty : new boolean[]{false, true}) {
+                    for (long[] sizeSep : new long[][]{{1000, 1000}, {5000, 1000}, {3000, 250}}) {
+                        for (ReduceOp op : ops) {
+                            //Window start/end time columns: same value for every example in a window
+                            Reducer.Builder b0 = new Reducer.Builder(op)
+                                    .takeFirstColumns("timecolumn")
+                                    .countUniqueColumns("stringcolumn");
+                            Reducer.Builder b1 = new Reducer.Builder(op)
+                                    .keyColumns("stringcolumn")
+                                    .takeLastColumns("timecolumn");
+                            if (addStart) {
+                                b0.countColumns("windowStartTime");
+                                b1.meanColumns("windowStartTime");
+                            }
+                            if (addEnd) {
+                                b0.maxColumn("windowEndTime");
+                                b1.keyColumns("stringcolumn", "windowEndTime");
+                            }
+                            List<Reducer> reducers = new ArrayList<>();
+                            reducers.add(b0.build());
+                            reducers.add(b1.build());
+                            if (!addStart && !addEnd) {
+                                reducers.add(new Reducer.Builder(op)
+                                        .takeFirstColumns("timecolumn")
+                                        .takeLastColumns("stringcolumn")
+                                        .conditionalReduction("intcolumn", "intcolumn_cond", ReduceOp.Sum,
+                                                new IntegerColumnCondition("intcolumn", ConditionOp.GreaterThan, 0))
+                                        .build());
+                            }
+
+                            for (Reducer reducer : reducers) {
+                                OverlappingTimeWindowFunction wf = new OverlappingTimeWindowFunction.Builder()
+                                        .timeColumn("timecolumn")
+                                        .windowSize(sizeSep[0], TimeUnit.MILLISECONDS)
+                                        .windowSeparation(sizeSep[1], TimeUnit.MILLISECONDS)
+                                        .addWindowStartTimeColumn(addStart)
+                                        .addWindowEndTimeColumn(addEnd)
+                                        .excludeEmptyWindows(excludeEmpty)
+                                        .build();
+
+                                Transform transform = new ReduceSequenceByWindowTransform(reducer, wf);
+                                transform.setInputSchema(schema);
+                                assertNotNull(reducer.newSlidingAccumulator(schema.numColumns()));
+
+                                List<List<Writable>> expected = new ArrayList<>();
+                                for (List<List<Writable>> window : wf.applyToSequence(sequence)) {
+                                    expected.add(reducer.reduce(window));
+                                }
+
+                                List<List<Writable>> actual = transform.mapSequence(sequence);
+                                String msg = op + ", " + addStart + ", " + addEnd + ", " + excludeEmpty + ", "
+                                        + Arrays.toString(sizeSep);
+                                assertEquals(msg, expected.size(), actual.size());
+                                for (int i = 0; i < expected.size(); i++) {
+                                    assertStepEquals(msg, expected.get(i), actual.get(i));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertStepEquals(String msg, List<Writable> expected, List<Writable> actual) {
+        assertEquals(msg, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Writable e = expected.get(i);
+            Writable a = actual.get(i);
+            if (e instanceof DoubleWritable && a instanceof DoubleWritable) {
+                double ed = e.toDouble();
+                double ad = a.toDouble();
+                if (Double.isNaN(ed)) {
+                    assertTrue(msg, Double.isNaN(ad));
+                } else {
+                    assertEquals(msg, ed, ad, 1e-6 * Math.max(1.0, Math.abs(ed)));
+                }
+            } else {
+                assertEquals(msg + " - " + expected + " vs. " + actual, e, a);
+            }
+        }
+    }
 }
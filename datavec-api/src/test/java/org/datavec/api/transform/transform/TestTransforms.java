@@ -46,13 +46,20 @@ import org.datavec.api.transform.condition.Condition;
 import org.datavec.api.transform.condition.ConditionOp;
 import org.datavec.api.transform.condition.column.StringColumnCondition;
 import org.datavec.api.transform.metadata.LongMetaData;
+import org.datavec.api.transform.metadata.SparseVectorMetaData;
 import org.datavec.api.transform.transform.categorical.CategoricalToOneHotTransform;
 import org.datavec.api.transform.transform.categorical.StringToCategoricalTransform;
 import org.datavec.api.transform.transform.condition.ConditionalCopyValueTransform;
 import org.datavec.api.transform.transform.integer.IntegerColumnsMathOpTransform;
 import org.datavec.api.transform.transform.integer.IntegerMathOpTransform;
 import junit.framework.TestCase;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.column.CategoricalColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.writable.CategoricalDictionary;
+import org.datavec.api.writable.CategoricalWritable;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.joda.time.DateTimeFieldType;
@@ -67,8 +74,10 @@ import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 21/03/2016.
@@ -153,6 +162,89 @@ public class TestTransforms {
                 transform.map(Collections.singletonList((Writable) new Text("two"))));
     }
 
+    @Test
+    public void testCategoricalToSparseOneHotTransform() {
+        Schema schema = getSchema(ColumnType.Categorical, "zero", "one", "two");
+
+        Transform transform = new CategoricalToOneHotTransform("column", true);
+        transform.setInputSchema(schema);
+        Schema out = transform.transform(schema);
+
+        assertEquals(1, out.getColumnMetaData().size());
+        assertEquals("column", out.getName(0));
+        assertEquals(ColumnType.SparseVector, out.getType(0));
+        assertEquals(3, ((SparseVectorMetaData) out.getMetaData(0)).getLength());
+
+        List<Writable> mapped = transform.map(Collections.singletonList((Writable) new Text("one")));
+        assertEquals(Collections.singletonList((Writable) SparseVectorWritable.oneHot(3, 1)), mapped);
+        assertTrue(out.getMetaData(0).isValid(mapped.get(0)));
+        SparseVectorWritable v = (SparseVectorWritable) mapped.get(0);
+        assertEquals(0.0, v.getDouble(0), 0.0);
+        assertEquals(1.0, v.getDouble(1), 0.0);
+        assertEquals(0.0, v.getDouble(2), 0.0);
+    }
+
+    @Test
+    public void testCategoricalEncodeDecodeTransform() {
+        Schema schema = new Schema.Builder()
+                .addColumnCategorical("cat", "zero", "one", "two")
+                .addColumnInteger("int")
+                .build();
+
+        TransformProcess encode = new TransformProcess.Builder(schema).encodeCategorical("cat").build();
+        CategoricalMetaData encodedMeta = (CategoricalMetaData) encode.getFinalSchema().getMetaData(0);
+        assertTrue(encodedMeta.isDictionaryEncoded());
+        assertFalse(((CategoricalMetaData) schema.getMetaData(0)).isDictionaryEncoded());
+        CategoricalDictionary dictionary = encodedMeta.getDictionary();
+
+        List<Writable> encoded = encode.execute(Arrays.<Writable>asList(new Text("two"), new IntWritable(5)));
+        assertEquals(new CategoricalWritable(dictionary, 2), encoded.get(0));
+        assertTrue(encodedMeta.isValid(encoded.get(0)));
+
+        List<List<Writable>> rows = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            rows.add(Arrays.<Writable>asList(new Text(dictionary.getState(i % 3)), new IntWritable(i)));
+        }
+        //Batch execution: materialized as encoded values
+        List<List<Writable>> encodedRows = encode.executeBatch(rows);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(encodedRows.get(i).get(0) instanceof CategoricalWritable);
+            assertEquals(i % 3, encodedRows.get(i).get(0).toInt());
+        }
+
+        //Downstream transforms and conditions operate on the encoded values; decoding gives the original values
+        TransformProcess tp = new TransformProcess.Builder(encode.getFinalSchema())
+                .filter(new ConditionFilter(new CategoricalColumnCondition("cat", ConditionOp.Equal, "one")))
+                .duplicateColumns(Collections.singletonList("cat"), Collections.singletonList("catInt"))
+                .categoricalToInteger("catInt")
+                .decodeCategorical("cat")
+                .build();
+        assertFalse(((CategoricalMetaData) tp.getFinalSchema().getMetaData(0)).isDictionaryEncoded());
+        int catIntIdx = tp.getFinalSchema().getIndexOfColumn("catInt");
+        for (List<List<Writable>> out : Arrays.asList(tp.executeBatch(encodedRows), executeAll(tp, encodedRows))) {
+            assertEquals(4, out.size());
+            for (List<Writable> l : out) {
+                assertTrue(l.get(0) instanceof Text);
+                assertTrue(l.get(catIntIdx) instanceof IntWritable);
+                assertEquals(dictionary.indexOf(l.get(0).toString()), l.get(catIntIdx).toInt());
+                assertTrue(l.get(catIntIdx).toInt() != 1);
+            }
+        }
+
+        Transform oneHot = new CategoricalToOneHotTransform("cat", true);
+        oneHot.setInputSchema(encode.getFinalSchema());
+        assertEquals(SparseVectorWritable.oneHot(3, 2), oneHot.map(encoded).get(0));
+    }
+
+    private static List<List<Writable>> executeAll(TransformProcess tp, List<List<Writable>> rows) {
+        List<List<Writable>> out = new ArrayList<>();
+        for (List<Writable> l : rows) {
+            List<Writable> result = tp.execute(l);
+            if (result != null) out.add(result);
+        }
+        return out;
+    }
+
     @Test
     public void testIntegerToCategoricalTransform() {
         Schema schema = getSchema(ColumnType.Integer);
@@ -446,6 +538,31 @@ public class TestTransforms {
         assertEquals(Arrays.asList(new Text("true"), new Text("true"), new Text("true")), transform.map(Collections.singletonList((Writable) new Text("a,b,c"))));
     }
 
+    @Test
+    public void testStringListToCategoricalSetTransformSparse() {
+        Schema schema = getSchema(ColumnType.String);
+
+        Transform transform = new StringListToCategoricalSetTransform("column", Arrays.asList("a", "b", "c"), ",", true);
+        transform.setInputSchema(schema);
+
+        Schema out = transform.transform(schema);
+        assertEquals(1, out.getColumnMetaData().size());
+        assertEquals(ColumnType.SparseVector, out.getType(0));
+        assertEquals(3, ((SparseVectorMetaData) out.getMetaData(0)).getLength());
+
+        assertEquals(Collections.singletonList((Writable) new SparseVectorWritable(3, new int[0], new double[0])),
+                transform.map(Collections.singletonList((Writable) new Text(""))));
+        assertEquals(Collections.singletonList((Writable) new SparseVectorWritable(3, new int[]{0, 2}, new double[]{1.0, 1.0})),
+                transform.map(Collections.singletonList((Writable) new Text("c,a"))));
+        assertEquals(Collections.singletonList((Writable) new SparseVectorWritable(3, new int[]{1}, new double[]{1.0})),
+                transform.map(Collections.singletonList((Writable) new Text("b,b"))));
+
+        //Non-sparse, with default column names
+        transform = new StringListToCategoricalSetTransform("column", Arrays.asList("a", "b", "c"), ",", false);
+        transform.setInputSchema(schema);
+        assertEquals(Arrays.asList("column[a]", "column[b]", "column[c]"), transform.transform(schema).getColumnNames());
+    }
+
     @Test
     public void testStringMapTransform() {
         Schema schema = getSchema(ColumnType.String);
@@ -0,0 +1,143 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.transform.time;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeFieldType;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestFastTimestampParser {
+
+    private static final DateTimeZone[] ZONES = {DateTimeZone.UTC, DateTimeZone.forID("America/New_York"),
+            DateTimeZone.forID("Europe/London"), DateTimeZone.forID("Australia/Lord_Howe"),
+            DateTimeZone.forID("Asia/Kolkata"), DateTimeZone.forOffsetHours(-5)};
+
+    //1900-01-01 to 2100-01-01
+    private static final long MIN_TIME = -2208988800000L;
+    private static final long MAX_TIME = 4102444800000L;
+
+    private static long randomTime(Random r) {
+        return MIN_TIME + (long) (r.nextDouble() * (MAX_TIME - MIN_TIME));
+    }
+
+    @Test
+    public void testParseMatchesJoda() {
+        String[] patterns = {"yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", "yyyyMMdd", "dd/MM/yyyy HH:mm",
+                "yyyy-MM-dd'T'HH:mm:ss", "HH:mm:ss"};
+        Random r = new Random(12345);
+        for (DateTimeZone zone : ZONES) {
+            for (String pattern : patterns) {
+                FastTimestampParser parser = new FastTimestampParser(pattern, zone);
+                assertTrue(pattern, parser.isFastPathSupported());
+                DateTimeFormatter joda = DateTimeFormat.forPattern(pattern).withZone(zone);
+
+                for (int i = 0; i < 5000; i++) {
+                    long time = randomTime(r);
+                    if (i % 10 == 0) {
+                        //Times close to a time zone transition
+                        time = zone.nextTransition(time) + (r.nextInt(4 * 3600) - 2 * 3600) * 1000L;
+                    }
+                    String str = joda.print(time);
+                    long expected;
+                    try {
+                        expected = joda.parseMillis(str);
+                    } catch (IllegalArgumentException e) {
+                        //For example, local times that don't exist due to daylight savings, for some patterns
+                        try {
+                            parser.parseMillis(str);
+                            fail("Expected exception: " + str);
+                        } catch (IllegalArgumentException e2) {
+                            //OK
+                        }
+                        continue;
+                    }
+                    assertEquals(pattern + ", " + zone + ", " + str, expected, parser.parseMillis(str));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFallbackToJoda() {
+        DateTimeZone zone = DateTimeZone.forID("America/New_York");
+
+        //Not supported patterns: JodaTime is used for all values
+        for (String pattern : new String[]{"MMM dd yyyy", "yy-M-d", "yyyy-MM-dd HH:mm:ss Z", "yyyy-MM-dd'T"}) {
+            FastTimestampParser parser = new FastTimestampParser(pattern, zone);
+            assertFalse(pattern, parser.isFastPathSupported());
+        }
+        FastTimestampParser p = new FastTimestampParser("MMM dd yyyy", zone);
+        assertEquals(DateTimeFormat.forPattern("MMM dd yyyy").withZone(zone).parseMillis("Jan 05 2016"), p.parseMillis("Jan 05 2016"));
+
+        //Values that don't exactly match a supported pattern
+        String pattern = "yyyy-MM-dd'T'HH:mm:ss";
+        FastTimestampParser parser = new FastTimestampParser(pattern, zone);
+        DateTimeFormatter joda = DateTimeFormat.forPattern(pattern).withZone(zone);
+        for (String s : new String[]{"2016-1-5T10:00:00", "2016-01-05t10:00:00", "2016-01-05T10:00:00"}) {
+            assertEquals(s, joda.parseMillis(s), parser.parseMillis(s));
+        }
+
+        //Invalid values, and a local time in the daylight savings gap
+        for (String s : new String[]{"2016-13-01T00:00:00", "2015-02-29T00:00:00", "2016-01-01T24:00:00",
+                "2016-01-01X00:00:00", "2016-01-01T00:00:0a", "2016-03-13T02:30:00", ""}) {
+            try {
+                parser.parseMillis(s);
+                fail("Expected exception: " + s);
+            } catch (IllegalArgumentException e) {
+                //Expected
+            }
+        }
+    }
+
+    @Test
+    public void testTimeArithmeticMatchesJoda() {
+        DateTimeFieldType[] fields = {DateTimeFieldType.year(), DateTimeFieldType.monthOfYear(),
+                DateTimeFieldType.dayOfMonth(), DateTimeFieldType.dayOfWeek(), DateTimeFieldType.dayOfYear(),
+                DateTimeFieldType.hourOfDay(), DateTimeFieldType.minuteOfHour(), DateTimeFieldType.minuteOfDay(),
+                DateTimeFieldType.secondOfMinute(), DateTimeFieldType.secondOfDay(), DateTimeFieldType.millisOfSecond(),
+                DateTimeFieldType.millisOfDay()};
+        assertFalse(TimeArithmetic.isSupported(DateTimeFieldType.weekOfWeekyear()));
+
+        Random r = new Random(12345);
+        for (DateTimeZone zone : ZONES) {
+            TimeArithmetic.ZoneOffsets offsets = new TimeArithmetic.ZoneOffsets(zone);
+            long time = randomTime(r);
+            for (int i = 0; i < 20000; i++) {
+                //Mostly small steps (including backwards), to exercise the offset cache
+                time = (i % 100 == 0 ? randomTime(r) : time + (r.nextInt(48) - 12) * 3600 * 1000L + r.nextInt(1000));
+                DateTime dt = new DateTime(time, zone);
+                long local = offsets.toLocal(time);
+                assertEquals(zone.getOffset(time), local - time);
+                for (DateTimeFieldType field : fields) {
+                    assertTrue(TimeArithmetic.isSupported(field));
+                    assertEquals(field + ", " + dt, dt.get(field), TimeArithmetic.get(field, local));
+                }
+            }
+        }
+
+        assertEquals(0, TimeArithmetic.daysFromCivil(1970, 1, 1));
+        assertEquals(-1, TimeArithmetic.daysFromCivil(1969, 12, 31));
+        assertEquals(11016, TimeArithmetic.daysFromCivil(2000, 2, 29));
+    }
+}
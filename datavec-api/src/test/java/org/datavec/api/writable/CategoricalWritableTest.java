@@ -0,0 +1,146 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.writable;
+
+import org.datavec.api.io.WritableUtils;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class CategoricalWritableTest {
+
+    @Test
+    public void testInternAndEncode() {
+        CategoricalDictionary d = CategoricalDictionary.intern(Arrays.asList("a", "b", "c"));
+        assertSame(d, CategoricalDictionary.intern(Arrays.asList("a", "b", "c")));
+        assertSame(d, CategoricalDictionary.forFingerprint(d.getFingerprint()));
+        assertNotSame(d, CategoricalDictionary.intern(Arrays.asList("a", "c", "b")));
+        assertNotEquals(d.getFingerprint(), CategoricalDictionary.intern(Arrays.asList("ab", "c")).getFingerprint());
+
+        CategoricalWritable b = d.encode(new Text("b"));
+        assertEquals(1, b.getIndex());
+        assertEquals(1, b.toInt());
+        assertEquals("b", b.toString());
+        assertSame(b, d.encode(b));
+        assertEquals(1, d.indexOf(b));
+        assertEquals(-1, d.indexOf(new Text("d")));
+
+        assertEquals(b, new CategoricalWritable(d, 1));
+        assertNotEquals(b, new CategoricalWritable(d, 2));
+        assertNotEquals(b, new Text("b"));
+        assertTrue(b.compareTo(new CategoricalWritable(d, 2)) < 0);
+
+        //Same state, different dictionary: equal by state name
+        CategoricalWritable other = CategoricalDictionary.intern(Arrays.asList("b", "x")).encode(new Text("b"));
+        assertEquals(b, other);
+        assertEquals(b.hashCode(), other.hashCode());
+
+        try {
+            d.encode(new Text("d"));
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //Expected
+        }
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        CategoricalDictionary d = CategoricalDictionary.intern(Arrays.asList("zero", "one", "two"));
+        CategoricalWritable w = new CategoricalWritable(d, 2);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        w.write(new DataOutputStream(baos));
+        //Fingerprint + VInt code + state
+        assertEquals(8 + 1 + 1 + 3, baos.size());
+        CategoricalWritable read = new CategoricalWritable();
+        read.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(w, read);
+        assertSame(d, read.getDictionary());
+
+        //Java serialization: deserialized dictionaries are interned
+        List<Object> objects = Arrays.<Object>asList(w, d);
+        baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(objects);
+        oos.close();
+        List<?> readObjects = (List<?>) new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+        assertEquals(w, readObjects.get(0));
+        assertSame(d, ((CategoricalWritable) readObjects.get(0)).getDictionary());
+        assertSame(d, readObjects.get(1));
+
+        assertEquals(w, serializeDeserialize(w));
+    }
+
+    @Test
+    public void testUnregisteredDictionary() throws Exception {
+        //Value written in a JVM with a dictionary that has never been registered in this JVM (i.e., no schema loaded)
+        List<String> states = Arrays.asList("a-" + UUID.randomUUID(), "b-" + UUID.randomUUID());
+        long fingerprint = CategoricalDictionary.fingerprint(states);
+        assertNull(CategoricalDictionary.forFingerprint(fingerprint));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeLong(fingerprint);
+        WritableUtils.writeVInt(dos, 1);
+        Text.writeString(dos, states.get(1));
+        dos.close();
+
+        CategoricalWritable read = new CategoricalWritable();
+        read.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertNull(read.getDictionary());
+        assertEquals(states.get(1), read.toString());
+        assertEquals(1, read.toInt());
+        assertEquals(fingerprint, read.getFingerprint());
+
+        //Detached values can be re-serialized, and compare by state
+        assertEquals(read, serializeDeserialize(read));
+        CategoricalWritable fromJava = serializeDeserialize(CategoricalWritable.create(fingerprint, 1, states.get(1)));
+        assertNull(fromJava.getDictionary());
+        assertEquals(read, fromJava);
+
+        //Once the dictionary is registered (for example, by loading the schema), values are attached to it
+        CategoricalDictionary d = CategoricalDictionary.intern(states);
+        assertEquals(fingerprint, d.getFingerprint());
+        assertEquals(1, d.indexOf(read));
+        assertSame(d, read.getDictionary());
+        assertEquals(new CategoricalWritable(d, 1), read);
+
+        //A value whose state doesn't match the registered dictionary stays detached
+        CategoricalWritable mismatched = CategoricalWritable.create(fingerprint, 0, "other");
+        assertNull(mismatched.getDictionary());
+        assertEquals("other", mismatched.toString());
+    }
+
+    private static byte[] javaSerialize(Object o) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(o);
+        oos.close();
+        return baos.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializeDeserialize(T object) throws Exception {
+        return (T) new ObjectInputStream(new ByteArrayInputStream(javaSerialize(object))).readObject();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.writable;
+
+import org.datavec.api.io.WritableComparator;
+import org.datavec.api.writable.CompositeKeyWritable.Encoding;
+import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.datavec.api.writable.comparator.LongWritableComparator;
+import org.datavec.api.writable.comparator.TextWritableComparator;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CompositeKeyWritableTest {
+
+    private static CompositeKeyWritable key(Encoding[] encodings, Writable... values) {
+        int[] cols = new int[values.length];
+        for (int i = 0; i < cols.length; i++) cols[i] = i;
+        return CompositeKeyWritable.create(Arrays.asList(values), cols, encodings);
+    }
+
+    private static byte[] serialize(Writable w) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        w.write(new DataOutputStream(baos));
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testNoCollisions() {
+        Encoding[] enc = {Encoding.STRING, Encoding.STRING};
+        CompositeKeyWritable k1 = key(enc, new Text("a_b"), new Text("c"));
+        CompositeKeyWritable k2 = key(enc, new Text("a"), new Text("b_c"));
+        CompositeKeyWritable k3 = key(enc, new Text("a"), new Text("b_c"));
+        assertNotEquals(k1, k2);
+        assertEquals(k2, k3);
+        assertEquals(k2.hashCode(), k3.hashCode());
+
+        //Zero bytes within a value must not act as a terminator
+        assertNotEquals(key(enc, new Text("a\u0000"), new Text("b")), key(enc, new Text("a"), new Text("\u0000b")));
+
+        //Integer and long values with the same value give the same key
+        Encoding[] longEnc = {Encoding.LONG};
+        assertEquals(key(longEnc, new IntWritable(5)), key(longEnc, new LongWritable(5)));
+        assertEquals("(a_b,c)", k1.toString());
+        assertEquals("(5)", key(longEnc, new IntWritable(5)).toString());
+    }
+
+    @Test
+    public void testOrdering() throws Exception {
+        List<Writable> doubles = new ArrayList<>();
+        for (double d : new double[]{0.0, -0.0, 1.5, -1.5, 1e300, -1e300, Double.MAX_VALUE, -Double.MIN_VALUE,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NaN, 3.0}) {
+            doubles.add(new DoubleWritable(d));
+        }
+        checkOrder(doubles, new DoubleWritableComparator(), Encoding.DOUBLE);
+
+        List<Writable> longs = new ArrayList<>();
+        for (long l : new long[]{0, -1, 1, Long.MIN_VALUE, Long.MAX_VALUE, 255, 256, -256}) {
+            longs.add(new LongWritable(l));
+        }
+        checkOrder(longs, new LongWritableComparator(), Encoding.LONG);
+
+        List<Writable> text = new ArrayList<>();
+        for (String s : new String[]{"", "a", "ab", "b", "a\u0000", "B", "\u00e9", "zz"}) {
+            text.add(new Text(s));
+        }
+        checkOrder(text, new TextWritableComparator(), Encoding.STRING);
+    }
+
+    private static void checkOrder(List<Writable> values, Comparator<Writable> comparator, Encoding encoding)
+            throws IOException {
+        assertEquals(encoding, CompositeKeyWritable.encodingFor(comparator));
+        WritableComparator raw = WritableComparator.get(CompositeKeyWritable.class);
+        for (Writable a : values) {
+            for (Writable b : values) {
+                int expected = Integer.signum(comparator.compare(a, b));
+                CompositeKeyWritable ka = CompositeKeyWritable.create(a, encoding);
+                CompositeKeyWritable kb = CompositeKeyWritable.create(b, encoding);
+                assertEquals(a + " vs " + b, expected, Integer.signum(ka.compareTo(kb)));
+
+                byte[] ba = serialize(ka);
+                byte[] bb = serialize(kb);
+                assertEquals(expected, Integer.signum(raw.compare(ba, 0, ba.length, bb, 0, bb.length)));
+            }
+        }
+    }
+
+    @Test
+    public void testWriteReadFields() throws Exception {
+        CompositeKeyWritable k = key(new Encoding[]{Encoding.LONG, Encoding.DOUBLE, Encoding.STRING},
+                new IntWritable(-3), new DoubleWritable(2.5), new Text("text"));
+        CompositeKeyWritable read = new CompositeKeyWritable();
+        read.readFields(new DataInputStream(new ByteArrayInputStream(serialize(k))));
+        assertEquals(k, read);
+        assertEquals(k.hashCode(), read.hashCode());
+        assertEquals("(-3,2.5,text)", read.toString());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.writable;
+
+import org.junit.Test;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+public class SparseVectorWritableTest {
+
+    @Test
+    public void testGetAndSerialize() throws Exception {
+        SparseVectorWritable v = new SparseVectorWritable(100000, new int[]{0, 5, 70000, 99999},
+                new double[]{1.0, -2.5, 3.0, 0.125});
+        assertEquals(100000, v.length());
+        assertEquals(4, v.numEntries());
+        assertEquals(1.0, v.getDouble(0), 0.0);
+        assertEquals(0.0, v.getDouble(1), 0.0);
+        assertEquals(-2.5, v.getDouble(5), 0.0);
+        assertEquals(3, v.getInt(70000));
+        assertEquals(0.125f, v.getFloat(99999), 0.0f);
+        assertEquals("100000{0:1.0 5:-2.5 70000:3.0 99999:0.125}", v.toString());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        v.write(new DataOutputStream(baos));
+        //Delta encoded indices: much smaller than a dense representation
+        assertTrue(baos.size() < 64);
+
+        SparseVectorWritable read = new SparseVectorWritable();
+        read.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(v, read);
+        assertEquals(v.hashCode(), read.hashCode());
+
+        SparseVectorWritable empty = new SparseVectorWritable(10, new int[0], new double[0]);
+        baos = new ByteArrayOutputStream();
+        empty.write(new DataOutputStream(baos));
+        read.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(empty, read);
+        assertEquals("10{}", read.toString());
+    }
+
+    @Test
+    public void testInvalidIndices() {
+        int[][] invalid = {{3, 3}, {5, 2}, {-1}, {10}};
+        for (int[] indices : invalid) {
+            try {
+                new SparseVectorWritable(10, indices, new double[indices.length]);
+                fail("Expected exception");
+            } catch (IllegalArgumentException e) {
+                //OK
+            }
+        }
+    }
+}
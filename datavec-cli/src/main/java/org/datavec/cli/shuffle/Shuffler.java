@@ -14,12 +14,25 @@
  *  *    limitations under the License.
  */
 
+
 package org.datavec.cli.shuffle;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 import org.datavec.api.writable.Writable;
@@ -27,79 +40,234 @@ import org.datavec.api.writable.Writable;
 /**
  * Record Ordering Shuffler
  * 
- * Just a good old fashioned way to shuffle the output of the records
- * 
- * Yes, it is memory based (and bound) for now. (We know. We Know.)
+ * Shuffles records using a bounded amount of memory. Records are buffered in memory until
+ * maxRecordsInMemory records have been added; if that happens, the buffered records are each
+ * written to one of numSpills temporary spill files, chosen at random. Once all records have been
+ * added, each spill file is read back, shuffled in memory (Fisher-Yates), and returned in turn.
+ * A spill that is still larger than the memory budget is shuffled recursively in the same way.
  * 
+ * Assigning each record to a random spill and then shuffling each spill uniformly gives a uniform
+ * random permutation overall. The output order is deterministic for a given seed and input order.
  * 
+ * Temporary files are deleted once all records have been returned, or when {@link #close()} is called.
  * 
  * @author Josh Patterson
  *
  */
-public class Shuffler {
+public class Shuffler implements Iterator<Collection<Writable>>, Closeable {
+
+	public static final int DEFAULT_MAX_RECORDS_IN_MEMORY = 1000000;
+	public static final int DEFAULT_NUM_SPILLS = 64;
+
+	// reset the object stream periodically, so it doesn't hold references to every record written
+	private static final int OBJECT_STREAM_RESET_FREQUENCY = 1000;
 
-	public List< Collection<Writable> > records;// =new List<String>();
-	//public int numRecords = -1;
-	private Random rand = new Random();
+	// records buffered in memory (before any spilling, or the current spill once reading)
+	public List< Collection<Writable> > records;
+
+	private final int maxRecordsInMemory;
+	private final int numSpills;
+	private final File tempDir;
+	private final Random rand;
+
+	private File[] spillFiles = null;
+	private ObjectOutputStream[] spillStreams = null;
+	private long[] spillCounts = null;
+
+	private boolean reading = false;
+	private int currentSpill = -1;
+	private Iterator< Collection<Writable> > iterator = null;
+	private Shuffler child = null;
+
+	public Shuffler() {
+		this(DEFAULT_MAX_RECORDS_IN_MEMORY, DEFAULT_NUM_SPILLS, new Random().nextLong(), null);
+	}
+
+	public Shuffler(long seed) {
+		this(DEFAULT_MAX_RECORDS_IN_MEMORY, DEFAULT_NUM_SPILLS, seed, null);
+	}
 
-	private ListIterator< Collection<Writable> > iterator = null;
-	
 	/**
-	 * We could probably infer this, but I'm lazy
-	 * 
+	 * @param maxRecordsInMemory maximum number of records to hold in memory at once
+	 * @param numSpills number of temporary files to spill to, if the records don't fit in memory
+	 * @param seed random seed
+	 * @param tempDir directory for the spill files; null to use the default temporary directory
 	 */
-	public Shuffler() {
-		
-		//this.numRecords = numberRecords;
+	public Shuffler(int maxRecordsInMemory, int numSpills, long seed, File tempDir) {
+		if (maxRecordsInMemory <= 0) throw new IllegalArgumentException("maxRecordsInMemory must be positive: got " + maxRecordsInMemory);
+		if (numSpills < 2) throw new IllegalArgumentException("numSpills must be at least 2: got " + numSpills);
+		this.maxRecordsInMemory = maxRecordsInMemory;
+		this.numSpills = numSpills;
+		this.tempDir = tempDir;
+		this.rand = new Random(seed);
 		this.records = new ArrayList<>();
-		
 	}
-	
+
 	public void addRecord( Collection<Writable> record ) {
-		
-		int slot = this.getRandomSlot();
-		
-		// handles moving other items around on collisions
-		this.records.add( slot, record );
-		
+
+		if (reading) throw new IllegalStateException("Cannot add records after reading has started");
+
+		this.records.add( record );
+		if (this.records.size() >= this.maxRecordsInMemory) {
+			spillRecords();
+		}
+
+	}
+
+	private void spillRecords() {
+
+		try {
+			if (null == this.spillFiles) {
+				this.spillFiles = new File[this.numSpills];
+				this.spillStreams = new ObjectOutputStream[this.numSpills];
+				this.spillCounts = new long[this.numSpills];
+				for (int i = 0; i < this.numSpills; i++) {
+					this.spillFiles[i] = File.createTempFile("datavec_shuffle_", ".spill", this.tempDir);
+					this.spillFiles[i].deleteOnExit();
+					this.spillStreams[i] = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(this.spillFiles[i]), 1 << 16));
+				}
+			}
+
+			for (Collection<Writable> record : this.records) {
+				int spill = this.rand.nextInt(this.numSpills);
+				this.spillStreams[spill].writeObject(record);
+				if (++this.spillCounts[spill] % OBJECT_STREAM_RESET_FREQUENCY == 0) {
+					this.spillStreams[spill].reset();
+				}
+			}
+			this.records.clear();
+		} catch (IOException e) {
+			close();
+			throw new RuntimeException("Error writing shuffle spill file", e);
+		}
+
+	}
+
+	/**
+	 * Called on the first call to hasNext() or next(): no records can be added after this
+	 */
+	private void startReading() {
+
+		this.reading = true;
+		if (null == this.spillFiles) {
+			// everything fit in memory
+			Collections.shuffle(this.records, this.rand);
+			this.iterator = this.records.iterator();
+			return;
+		}
+
+		spillRecords();
+		try {
+			for (ObjectOutputStream oos : this.spillStreams) {
+				oos.close();
+			}
+		} catch (IOException e) {
+			close();
+			throw new RuntimeException("Error writing shuffle spill file", e);
+		}
+		this.spillStreams = null;
+		this.iterator = Collections.<Collection<Writable>>emptyList().iterator();
+
 	}
-	
-	private int getRandomSlot() {
 
-		int min = 0;
-		
+	/**
+	 * Load (and shuffle) the next spill file
+	 */
+	@SuppressWarnings("unchecked")
+	private void nextSpill() {
 
-	    // nextInt is normally exclusive of the top value,
-	    // so add 1 to make it inclusive
+		if (null != this.child) {
+			this.child.close();
+			this.child = null;
+		}
+		if (this.currentSpill >= 0) {
+			this.spillFiles[this.currentSpill].delete();
+		}
+		this.currentSpill++;
+		this.records = new ArrayList<>();
+
+		long count = this.spillCounts[this.currentSpill];
+		Shuffler sub = (count > this.maxRecordsInMemory
+				? new Shuffler(this.maxRecordsInMemory, this.numSpills, this.rand.nextLong(), this.tempDir) : null);
+
+		try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(this.spillFiles[this.currentSpill]), 1 << 16))) {
+			for (long i = 0; i < count; i++) {
+				Collection<Writable> record = (Collection<Writable>) ois.readObject();
+				if (null != sub) sub.addRecord(record);
+				else this.records.add(record);
+			}
+		} catch (EOFException e) {
+			close();
+			throw new RuntimeException("Shuffle spill file is truncated: " + this.spillFiles[this.currentSpill], e);
+		} catch (IOException | ClassNotFoundException e) {
+			close();
+			throw new RuntimeException("Error reading shuffle spill file", e);
+		}
+
+		if (null != sub) {
+			// still too large for memory: shuffle this spill recursively
+			this.child = sub;
+			this.iterator = sub;
+		} else {
+			Collections.shuffle(this.records, this.rand);
+			this.iterator = this.records.iterator();
+		}
 
-		return rand.nextInt(((this.records.size()) - min) + 1) + min;
-		
 	}
-	
-	
+
+	@Override
 	public boolean hasNext() {
 
-		// cant touch it til we read, or ConcurrentModificatoinException
-		if ( null == this.iterator ) {
-			this.iterator = this.records.listIterator();
+		if (!this.reading) {
+			startReading();
 		}
-		
-		return this.iterator.hasNext();
+
+		while (!this.iterator.hasNext()) {
+			if (null == this.spillFiles || this.currentSpill >= this.numSpills - 1) {
+				close();
+				return false;
+			}
+			nextSpill();
+		}
+		return true;
 	}
-	
+
+	@Override
 	public Collection<Writable> next() {
-		
-		// cant touch it til we read, or ConcurrentModificationException
-		if ( null == this.iterator ) {
-			this.iterator = this.records.listIterator();
-		}
-				
+
+		if (!hasNext()) throw new NoSuchElementException();
 		return this.iterator.next();
 	}
-	
-	/*
-	for(ar=0;ar<q.size();ar++){
 
-	int ran= random(1,q.size());
-	*/
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Delete any remaining temporary files
+	 */
+	@Override
+	public void close() {
+
+		if (null != this.child) {
+			this.child.close();
+			this.child = null;
+		}
+		if (null != this.spillStreams) {
+			for (ObjectOutputStream oos : this.spillStreams) {
+				try {
+					if (null != oos) oos.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+			this.spillStreams = null;
+		}
+		if (null != this.spillFiles) {
+			for (File f : this.spillFiles) {
+				if (null != f) f.delete();
+			}
+		}
+	}
 }
@@ -87,6 +87,9 @@ public class Vectorize implements SubCommand {
 
     public static final String NORMALIZE_DATA_FLAG = "datavec.input.vectorization.normalize";
     public static final String SHUFFLE_DATA_FLAG = "datavec.output.shuffle";
+    public static final String SHUFFLE_SEED = "datavec.output.shuffle.seed";
+    public static final String SHUFFLE_MAX_RECORDS_IN_MEMORY = "datavec.output.shuffle.maxrecordsinmemory";
+    public static final String SHUFFLE_NUM_SPILLS = "datavec.output.shuffle.numspills";
     public static final String PRINT_STATS_FLAG = "datavec.input.statistics.debug.print";
     
     protected String[] args;
@@ -20,7 +20,6 @@ import org.datavec.api.conf.Configuration;
 import org.datavec.api.exceptions.DataVecException;
 import org.datavec.api.formats.output.OutputFormat;
 import org.datavec.api.writable.DoubleWritable;
-import org.datavec.api.writable.Text;
 import org.datavec.api.records.writer.RecordWriter;
 import org.datavec.api.writable.Writable;
 import org.datavec.cli.csv.schema.CSVInputSchema;
@@ -34,6 +33,7 @@ import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -159,29 +159,25 @@ public class CSVVectorizationEngine extends VectorizationEngine {
 
       if (shuffleOn) {
     	  
-    	  Shuffler shuffle = new Shuffler();
+    	  Shuffler shuffle = this.createShuffler();
     	  
 	      RecordWriter writer = outputFormat.createWriter(conf); //new SVMLightRecordWriter(tmpOutSVMLightFile,true);
 
 	      
 	      
-	      while (reader.hasNext()) {
+	      List<Writable> w = new ArrayList<>(1);
+	      while (reader.next(w)) {
 	    	  
 	          if (this.skipHeader && !skippedHeaderYet) {
 	        	  
 	        	  skippedHeaderYet = true;
-		          Collection<Writable> w = reader.next();
 
 	        	  
 	          } else {
 
-		    	  
-		    	  
-		          Collection<Writable> w = reader.next();
-		
-		          String line = w.toArray()[0].toString();
+		          String line = w.get(0).toString();
 	
-		          // TODO: we need to be re-using objects here for heap churn purposes
+		          // the shuffler holds on to each record, so these can't be re-used
 		          
 		          if (!Strings.isNullOrEmpty(line)) {
 		          //    writer.write(this.vectorizeToWritable("", line, this.inputSchema));
@@ -210,28 +206,26 @@ public class CSVVectorizationEngine extends VectorizationEngine {
       
 	      RecordWriter writer = outputFormat.createWriter(conf); //new SVMLightRecordWriter(tmpOutSVMLightFile,true);
 	
-	      while (reader.hasNext()) {
+	      // the input and output records are re-used for every line, to avoid heap churn
+	      List<Writable> w = new ArrayList<>(1);
+	      List<Writable> outputRecord = new ArrayList<>();
+	      while (reader.next(w)) {
 	    	  
 	          if (this.skipHeader && !skippedHeaderYet) {
 	        	  
 	        	  skippedHeaderYet = true;
-	        	  Collection<Writable> w = reader.next();
 	        	  
 	          } else {
 	
-		    	  
-		          Collection<Writable> w = reader.next();
-		
-		          String line = w.toArray()[0].toString();
+		          String line = w.get(0).toString();
 		          // TODO: this will end up processing key-value pairs
 		
 		          // TODO: this is where the transform system would live (example: execute the filter transforms, etc, here)
 		          
 		          // this outputVector needs to be ND4J
-		          // TODO: we need to be re-using objects here for heap churn purposes
 		          //INDArray outputVector = this.vectorizer.vectorize( "", line, this.inputSchema );
-		          if (!Strings.isNullOrEmpty(line)) {
-		              writer.write(this.vectorizeToWritable("", line, this.inputSchema));
+		          if (!Strings.isNullOrEmpty(line) && this.vectorizeToWritable("", line, this.inputSchema, outputRecord)) {
+		              writer.write(outputRecord);
 		          }
 		          
 		          recordsWritten++;
@@ -318,43 +312,43 @@ public class CSVVectorizationEngine extends VectorizationEngine {
    * @return
    */
   public Collection<Writable> vectorizeToWritable(String key, String value, CSVInputSchema schema) {
+    List<Writable> ret = new ArrayList<>();
+    return (vectorizeToWritable(key, value, schema, ret) ? ret : null);
+  }
 
-    //INDArray
-    //INDArray ret = this.createArray( schema.getTransformedVectorSize() );
-    Collection<Writable> ret = new ArrayList<>();
+  /**
+   * As per {@link #vectorizeToWritable(String, String, CSVInputSchema)}, but the output is written to the provided
+   * list, re-using the DoubleWritable objects already in it (the values are written as text by the output format)
+   *
+   * @return false if the line was blank (and nothing was written)
+   */
+  public boolean vectorizeToWritable(String key, String value, CSVInputSchema schema, List<Writable> out) {
 
-    // TODO: this needs to be different (needs to be real vector representation
-    //String outputVector = "";
     String[] columns = value.split(schema.delimiter);
 
     if (columns[0].trim().equals("")) {
-      //	log.info("Skipping blank line");
-      return null;
+      return false;
     }
 
     int srcColIndex = 0;
     int dstColIndex = 0;
 
-    //log.info( "> Engine.vectorize() ----- ");
-
-    // scan through the columns in the schema / input csv data
     for (Map.Entry<String, CSVSchemaColumn> entry : schema.getColumnSchemas().entrySet()) {
 
-      String colKey = entry.getKey();
       CSVSchemaColumn colSchemaEntry = entry.getValue();
 
-      // produce the per column transform based on stats
-
       switch (colSchemaEntry.transform) {
         case SKIP:
-          // dont append this to the output vector, skipping
           break;
         default:
-          //	log.info( " column value: " + columns[ srcColIndex ] );
           double convertedColumn = colSchemaEntry.transformColumnValue(columns[srcColIndex].trim());
-          // add this value to the output vector
-          //ret.putScalar(dstColIndex, convertedColumn);
-          ret.add(new Text(convertedColumn + ""));
+          if (dstColIndex < out.size() && out.get(dstColIndex) instanceof DoubleWritable) {
+            ((DoubleWritable) out.get(dstColIndex)).set(convertedColumn);
+          } else if (dstColIndex < out.size()) {
+            out.set(dstColIndex, new DoubleWritable(convertedColumn));
+          } else {
+            out.add(new DoubleWritable(convertedColumn));
+          }
           dstColIndex++;
           break;
       }
@@ -362,7 +356,11 @@ public class CSVVectorizationEngine extends VectorizationEngine {
       srcColIndex++;
     }
 
-    return ret;
+    while (out.size() > dstColIndex) {
+      out.remove(out.size() - 1);
+    }
+
+    return true;
   }
 
 }
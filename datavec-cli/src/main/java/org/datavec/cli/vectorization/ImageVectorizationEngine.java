@@ -73,7 +73,7 @@ public class ImageVectorizationEngine extends VectorizationEngine {
 		
 	      if (shuffleOn) {
 	    	  
-	    	  Shuffler shuffle = new Shuffler();
+	    	  Shuffler shuffle = this.createShuffler();
 			
 			
 			//int x = 0;
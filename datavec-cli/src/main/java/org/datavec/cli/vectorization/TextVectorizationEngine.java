@@ -89,7 +89,7 @@ public class TextVectorizationEngine extends VectorizationEngine {
 
     if (shuffleOn) {
 
-      Shuffler shuffle = new Shuffler();
+      Shuffler shuffle = this.createShuffler();
 
 
       // collect the writables into the shuffler
@@ -18,6 +18,7 @@ package org.datavec.cli.vectorization;
 
 import java.io.IOException;
 import java.util.Properties;
+import java.util.Random;
 
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.exceptions.DataVecException;
@@ -26,6 +27,7 @@ import org.datavec.api.formats.output.OutputFormat;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.records.writer.RecordWriter;
 import org.datavec.api.split.InputSplit;
+import org.datavec.cli.shuffle.Shuffler;
 import org.datavec.cli.subcommands.Vectorize;
 
 public abstract class VectorizationEngine {
@@ -86,6 +88,29 @@ public abstract class VectorizationEngine {
 
   }
 
+  /**
+   * Create a shuffler for the output records, configured via the SHUFFLE_SEED, SHUFFLE_MAX_RECORDS_IN_MEMORY
+   * and SHUFFLE_NUM_SPILLS properties. Without a seed, the shuffle order differs between runs.
+   */
+  protected Shuffler createShuffler() {
+
+    long seed = new Random().nextLong();
+    int maxRecordsInMemory = Shuffler.DEFAULT_MAX_RECORDS_IN_MEMORY;
+    int numSpills = Shuffler.DEFAULT_NUM_SPILLS;
+
+    if (null != this.configProps.get(Vectorize.SHUFFLE_SEED)) {
+      seed = Long.parseLong(((String) this.configProps.get(Vectorize.SHUFFLE_SEED)).trim());
+    }
+    if (null != this.configProps.get(Vectorize.SHUFFLE_MAX_RECORDS_IN_MEMORY)) {
+      maxRecordsInMemory = Integer.parseInt(((String) this.configProps.get(Vectorize.SHUFFLE_MAX_RECORDS_IN_MEMORY)).trim());
+    }
+    if (null != this.configProps.get(Vectorize.SHUFFLE_NUM_SPILLS)) {
+      numSpills = Integer.parseInt(((String) this.configProps.get(Vectorize.SHUFFLE_NUM_SPILLS)).trim());
+    }
+
+    return new Shuffler(maxRecordsInMemory, numSpills, seed, null);
+  }
+
   public abstract void execute() throws DataVecException, IOException, InterruptedException;
 
   /**
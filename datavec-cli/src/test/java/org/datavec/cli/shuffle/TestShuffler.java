@@ -20,7 +20,12 @@ import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.junit.Test;
@@ -60,4 +65,53 @@ public class TestShuffler {
 		
 	}
 
+	@Test
+	public void testSpillToDisk() {
+
+		int numRecords = 10000;
+		List<List<Integer>> orders = new ArrayList<>();
+		for (int run = 0; run < 3; run++) {
+
+			// run 2 uses a different seed; run 1 spills recursively (spills larger than the memory budget)
+			Shuffler shuffle = new Shuffler(run == 1 ? 100 : 1000, 4, run == 2 ? 67890 : 12345, null);
+			for (int i = 0; i < numRecords; i++) {
+				Collection<Writable> record = new ArrayList<>();
+				record.add(new IntWritable(i));
+				record.add(new Text("record_" + i));
+				shuffle.addRecord(record);
+			}
+
+			List<Integer> order = new ArrayList<>();
+			Set<Integer> seen = new HashSet<>();
+			while (shuffle.hasNext()) {
+				List<Writable> record = new ArrayList<>(shuffle.next());
+				int value = record.get(0).toInt();
+				assertEquals("record_" + value, record.get(1).toString());
+				assertTrue(seen.add(value));
+				order.add(value);
+			}
+			assertEquals(numRecords, order.size());
+			orders.add(order);
+		}
+
+		// deterministic for a given seed and memory budget, and actually shuffled
+		Shuffler shuffle = new Shuffler(1000, 4, 12345, null);
+		for (int i = 0; i < numRecords; i++) {
+			Collection<Writable> record = new ArrayList<>();
+			record.add(new IntWritable(i));
+			record.add(new Text("record_" + i));
+			shuffle.addRecord(record);
+		}
+		List<Integer> repeat = new ArrayList<>();
+		while (shuffle.hasNext()) {
+			repeat.add(shuffle.next().iterator().next().toInt());
+		}
+		assertEquals(orders.get(0), repeat);
+		assertNotEquals(orders.get(0), orders.get(2));
+
+		List<Integer> sorted = new ArrayList<>(orders.get(0));
+		Collections.sort(sorted);
+		assertNotEquals(sorted, orders.get(0));
+	}
+
 }
@@ -18,6 +18,7 @@ package org.datavec.nlp.reader;
 
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.records.reader.impl.FileRecordReader;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.vector.Vectorizer;
@@ -31,11 +32,15 @@ import java.util.*;
 
 /**
  * TFIDF record reader (wraps a tfidf vectorizer
- * for delivering labels and conforming to the record reader interface)
+ * for delivering labels and conforming to the record reader interface)<br>
+ * If {@link #SPARSE} is set to true in the configuration, each record contains a single
+ * {@link SparseVectorWritable} (with entries only for the words present in the document) instead of a dense array
  *
  * @author Adam Gibson
  */
 public class TfidfRecordReader extends FileRecordReader  {
+    public final static String SPARSE = NAME_SPACE + ".tfidf.sparse";
+
     private TfidfVectorizer tfidfVectorizer;
     private Collection<Collection<Writable>> records = new ArrayList<>();
     private List<Integer> recordLabels = new ArrayList<>();
@@ -52,8 +57,30 @@ public class TfidfRecordReader extends FileRecordReader  {
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
         super.initialize(conf,split);
+        boolean sparse = conf.getBoolean(SPARSE, false);
         //train  a new one since it hasn't been specified
-        if(tfidfVectorizer == null) {
+        if(tfidfVectorizer == null && sparse) {
+            tfidfVectorizer = new TfidfVectorizer();
+            tfidfVectorizer.initialize(conf);
+            final List<Collection<Writable>> documents = new ArrayList<>();
+            tfidfVectorizer.fit(this, new Vectorizer.RecordCallBack() {
+                @Override
+                public void onRecord(Collection<Writable> record) {
+                    documents.add(record);
+                    if(appendLabel)
+                        recordLabels.add(getCurrentLabel());
+                }
+            });
+
+            records.clear();
+            for(Collection<Writable> document : documents) {
+                records.add(sparseRecord(document));
+            }
+            numFeatures = tfidfVectorizer.getCache().vocabWords().size();
+            labelIter = recordLabels.iterator();
+            recordIter = records.iterator();
+        }
+        else if(tfidfVectorizer == null) {
             tfidfVectorizer = new TfidfVectorizer();
             tfidfVectorizer.initialize(conf);
             INDArray ret = tfidfVectorizer.fitTransform(this, new Vectorizer.RecordCallBack() {
@@ -87,7 +114,7 @@ public class TfidfRecordReader extends FileRecordReader  {
                 Collection<Writable> fileContents = next();
                 if(appendLabel)
                     recordLabels.add(new IntWritable(getCurrentLabel()).toInt());
-                records.add(RecordConverter.toRecord(tfidfVectorizer.transform(fileContents)));
+                records.add(sparse ? sparseRecord(fileContents) : RecordConverter.toRecord(tfidfVectorizer.transform(fileContents)));
             }
             
             labelIter = recordLabels.iterator();
@@ -97,6 +124,12 @@ public class TfidfRecordReader extends FileRecordReader  {
 
     }
 
+    private Collection<Writable> sparseRecord(Collection<Writable> document) {
+        Collection<Writable> record = new ArrayList<>();
+        record.add(tfidfVectorizer.transformSparse(document));
+        return record;
+    }
+
     @Override
     public Collection<Writable> next() {
         if(recordIter == null)
@@ -118,4 +118,11 @@ public abstract class TextVectorizer<VECTOR_TYPE> implements Vectorizer<VECTOR_T
      */
     public abstract TokenizerFactory createTokenizerFactory(Configuration conf);
 
+    /**
+     * @return the vocabulary cache (available after fitting)
+     */
+    public VocabCache getCache() {
+        return cache;
+    }
+
 }
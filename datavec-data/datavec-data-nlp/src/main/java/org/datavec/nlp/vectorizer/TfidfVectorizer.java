@@ -19,6 +19,7 @@ package org.datavec.nlp.vectorizer;
 
 import org.datavec.api.berkeley.Counter;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.writable.Writable;
 import org.datavec.nlp.reader.TfidfRecordReader;
@@ -27,6 +28,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -88,4 +90,28 @@ public class TfidfVectorizer extends AbstractTfidfVectorizer<INDArray> {
         return createVector(new Object[]{wordFrequencies});
 
     }
+
+    /**
+     * Transform the record to a sparse TF-IDF vector. Only the words present in the record are looked up, rather
+     * than every word in the vocabulary
+     */
+    public SparseVectorWritable transformSparse(Collection<Writable> record) {
+        Counter<String> wordFrequencies = wordFrequenciesForRecord(record);
+        int[] indices = new int[wordFrequencies.size()];
+        int n = 0;
+        for(String word : wordFrequencies.keySet()) {
+            int idx = cache.vocabWords().indexOf(word);
+            if(idx >= 0)
+                indices[n++] = idx;
+        }
+        indices = Arrays.copyOf(indices, n);
+        Arrays.sort(indices);
+
+        double[] values = new double[n];
+        for(int i = 0; i < n; i++) {
+            String word = cache.wordAt(indices[i]);
+            values[i] = cache.tfidf(word, wordFrequencies.getCount(word));
+        }
+        return new SparseVectorWritable(cache.vocabWords().size(), indices, values);
+    }
 }
@@ -16,6 +16,10 @@
 
 package org.datavec.common;
 
+import org.datavec.api.records.Record;
+import org.datavec.api.records.RowView;
+import org.datavec.api.writable.ArrayWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.common.data.NDArrayWritable;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -24,6 +28,7 @@ import org.nd4j.linalg.factory.Nd4j;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * @author Adam Gibson
@@ -31,8 +36,10 @@ import java.util.Iterator;
 public class RecordConverter {
     private RecordConverter() {}
     /**
-     * Convert a record to an ndarray
+     * Convert a record to an ndarray. Array columns (such as {@link SparseVectorWritable}) are expanded in place:
+     * for sparse vectors, only the non-zero entries are copied
      * @param record the record to convert
+     * @param size the length of the array: the number of columns, plus the lengths of any array columns minus one
      *
      * @return the array
      */
@@ -44,15 +51,14 @@ public class RecordConverter {
             return ret.get();
         }
         else {
-            INDArray vector = Nd4j.create(size);
-            vector.putScalar(0,firstWritable.toDouble());
-            int count = 1;
+            //Collect the values first, then create the array with a single bulk copy
+            double[] values = new double[size];
+            int count = putValues(firstWritable, values, 0);
             while(writables.hasNext()) {
-                Writable w = writables.next();
-                vector.putScalar(count++,w.toDouble());
+                count = putValues(writables.next(), values, count);
             }
 
-            return vector;
+            return Nd4j.create(values);
         }
 
 
@@ -64,10 +70,78 @@ public class RecordConverter {
      * @return the array
      */
     public static INDArray toArray(Collection<Writable> record) {
-       return toArray(record,record.size());
+       return toArray(record,length(record));
+    }
+
+    /**
+     * Get the length of the array for the given record: the number of columns, with array columns expanded
+     */
+    public static int length(Collection<Writable> record) {
+        long length = 0;
+        for(Writable w : record) {
+            length += (w instanceof ArrayWritable ? ((ArrayWritable) w).length() : 1);
+        }
+        if(length > Integer.MAX_VALUE) throw new IllegalArgumentException("Record length is too large: " + length);
+        return (int) length;
     }
 
+    private static int putValues(Writable w, double[] values, int offset) {
+        if(w instanceof SparseVectorWritable) {
+            SparseVectorWritable v = (SparseVectorWritable) w;
+            int[] indices = v.getIndices();
+            double[] vectorValues = v.getValues();
+            for( int i=0; i<indices.length; i++ ) {
+                values[offset + indices[i]] = vectorValues[i];
+            }
+            return offset + (int) v.length();
+        } else if(w instanceof ArrayWritable) {
+            ArrayWritable a = (ArrayWritable) w;
+            for( int i=0; i<a.length(); i++ ) {
+                values[offset + i] = a.getDouble(i);
+            }
+            return offset + (int) a.length();
+        }
+        values[offset] = w.toDouble();
+        return offset + 1;
+    }
+
+
 
+    /**
+     * Convert a typed record to an ndarray. For a {@link Record}, the primitive values are copied directly
+     * (a single bulk copy, if all columns are Double columns)
+     * @param record the record to convert
+     * @return the array
+     */
+    public static INDArray toArray(RowView record) {
+        if(record instanceof Record) {
+            return Nd4j.create(((Record) record).toDoubleArray());
+        }
+        double[] values = new double[record.numColumns()];
+        for( int i=0; i<values.length; i++ ) {
+            values[i] = record.getDouble(i);
+        }
+        return Nd4j.create(values);
+    }
+
+    /**
+     * Convert a list of typed records to a matrix, with one row per record
+     * @param records the records to convert. Must not be empty; all records must have the same number of columns
+     * @return the matrix
+     */
+    public static INDArray toMatrix(List<Record> records) {
+        if(records.isEmpty()) throw new IllegalArgumentException("Cannot convert records to a matrix: no records (list is empty)");
+        int rows = records.size();
+        int cols = records.get(0).numColumns();
+        double[] values = new double[rows * cols];
+        int offset = 0;
+        for(Record r : records) {
+            if(r.numColumns() != cols) throw new IllegalArgumentException("Records have different numbers of columns: " + cols + " vs. " + r.numColumns());
+            r.toDoubleArray(values,offset);
+            offset += cols;
+        }
+        return Nd4j.create(values,new int[]{rows,cols});
+    }
 
     /**
      * Convert an ndarray to a record
@@ -0,0 +1,79 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.functions;
+
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.input.PortableDataStream;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.io.DataInputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * RecordReaderPartitionFunction: the mapPartitions equivalent of {@link RecordReaderFunction}. Given a RecordReader
+ * and files (via Spark PortableDataStream, for example from {@code sc.binaryFiles(path)}), load and parse the data
+ * into a {@code List<Writable>} per record.<br>
+ * The record reader (and any resources it holds, such as native image loaders) is set up once per partition rather
+ * than once per file; records are read lazily, streaming from one file at a time, without copying the file contents
+ * into memory.<br>
+ * By default, all records are read from each file (as is appropriate for CSVRecordReader, LineRecordReader, etc):
+ * this requires that the record reader supports initialization with an InputStreamInputSplit. For record readers that
+ * produce one record per file (ImageRecordReader, etc), set oneRecordPerFile to true.
+ * Usage: {@code sc.binaryFiles(path).mapPartitions(new RecordReaderPartitionFunction(recordReader))}
+ */
+public class RecordReaderPartitionFunction implements FlatMapFunction<Iterator<Tuple2<String, PortableDataStream>>, List<Writable>> {
+    protected final RecordReader recordReader;
+    protected final boolean oneRecordPerFile;
+
+    public RecordReaderPartitionFunction(RecordReader recordReader) {
+        this(recordReader, false);
+    }
+
+    /**
+     * @param recordReader     Record reader to use
+     * @param oneRecordPerFile If true: read one record per file (via RecordReader.record(URI, DataInputStream)).
+     *                         If false: read all records in each file
+     */
+    public RecordReaderPartitionFunction(RecordReader recordReader, boolean oneRecordPerFile) {
+        this.recordReader = recordReader;
+        this.oneRecordPerFile = oneRecordPerFile;
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(final Iterator<Tuple2<String, PortableDataStream>> iter) throws Exception {
+        return new Iterable<List<Writable>>() {
+            @Override
+            public Iterator<List<Writable>> iterator() {
+                return new RecordReaderPartitionIterator<Tuple2<String, PortableDataStream>>(recordReader, oneRecordPerFile, iter) {
+                    @Override
+                    protected URI getUri(Tuple2<String, PortableDataStream> input) throws Exception {
+                        return new URI(input._1());
+                    }
+
+                    @Override
+                    protected DataInputStream open(Tuple2<String, PortableDataStream> input) throws Exception {
+                        return input._2().open();
+                    }
+                };
+            }
+        };
+    }
+}
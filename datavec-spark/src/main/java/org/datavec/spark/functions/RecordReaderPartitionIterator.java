@@ -0,0 +1,112 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.functions;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.split.InputStreamInputSplit;
+import org.datavec.api.writable.Writable;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Iterator that lazily reads the records from a sequence of input files (or other binary objects) using a single
+ * RecordReader, for use in mapPartitions-style functions.<br>
+ * Files are opened one at a time, and each file's stream is closed as soon as its records have been read.
+ * Two modes are supported:<br>
+ * - One record per file (for example, images): each file is read using {@link RecordReader#record(URI, DataInputStream)}<br>
+ * - Multiple records per file (for example, CSV): the record reader is initialized with an {@link InputStreamInputSplit}
+ * for each file, and all of the records in the file are returned.
+ *
+ * @param <T> Type of the input elements
+ */
+public abstract class RecordReaderPartitionIterator<T> implements Iterator<List<Writable>> {
+
+    private final RecordReader recordReader;
+    private final boolean oneRecordPerFile;
+    private final Iterator<T> inputs;
+    private DataInputStream current;
+    private List<Writable> nextRecord;
+
+    public RecordReaderPartitionIterator(RecordReader recordReader, boolean oneRecordPerFile, Iterator<T> inputs) {
+        this.recordReader = recordReader;
+        this.oneRecordPerFile = oneRecordPerFile;
+        this.inputs = inputs;
+    }
+
+    /**
+     * Get the URI of the specified input
+     */
+    protected abstract URI getUri(T input) throws Exception;
+
+    /**
+     * Open a stream over the content of the specified input
+     */
+    protected abstract DataInputStream open(T input) throws Exception;
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (true) {
+                if (nextRecord != null) return true;
+                if (current != null) {
+                    if (recordReader.hasNext()) return true;
+                    current.close();
+                    current = null;
+                }
+                if (!inputs.hasNext()) return false;
+
+                T input = inputs.next();
+                URI uri = getUri(input);
+                if (oneRecordPerFile) {
+                    try (DataInputStream dis = open(input)) {
+                        nextRecord = toList(recordReader.record(uri, dis));
+                    }
+                } else {
+                    current = open(input);
+                    recordReader.initialize(new InputStreamInputSplit(current, uri));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading records", e);
+        }
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        if (nextRecord != null) {
+            List<Writable> ret = nextRecord;
+            nextRecord = null;
+            return ret;
+        }
+        return toList(recordReader.next());
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static List<Writable> toList(Collection<Writable> record) {
+        return (record instanceof List ? (List<Writable>) record : new ArrayList<>(record));
+    }
+}
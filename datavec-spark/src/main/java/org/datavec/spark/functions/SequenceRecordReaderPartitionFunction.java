@@ -0,0 +1,76 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.functions;
+
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.input.PortableDataStream;
+import org.datavec.api.records.reader.SequenceRecordReader;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.io.DataInputStream;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * SequenceRecordReaderPartitionFunction: the mapPartitions equivalent of {@link SequenceRecordReaderFunction}.
+ * Given a SequenceRecordReader and files (via Spark PortableDataStream), load and parse one sequence per file.<br>
+ * The sequence record reader is set up once per partition, and sequences are read lazily, one file at a time.
+ */
+public class SequenceRecordReaderPartitionFunction implements
+        FlatMapFunction<Iterator<Tuple2<String, PortableDataStream>>, List<List<Writable>>> {
+    protected final SequenceRecordReader sequenceRecordReader;
+
+    public SequenceRecordReaderPartitionFunction(SequenceRecordReader sequenceRecordReader) {
+        this.sequenceRecordReader = sequenceRecordReader;
+    }
+
+    @Override
+    public Iterable<List<List<Writable>>> call(final Iterator<Tuple2<String, PortableDataStream>> iter) throws Exception {
+        return new Iterable<List<List<Writable>>>() {
+            @Override
+            public Iterator<List<List<Writable>>> iterator() {
+                return new Iterator<List<List<Writable>>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iter.hasNext();
+                    }
+
+                    @Override
+                    public List<List<Writable>> next() {
+                        Tuple2<String, PortableDataStream> value = iter.next();
+                        try (DataInputStream dis = value._2().open()) {
+                            Collection<Collection<Writable>> sequence = sequenceRecordReader.sequenceRecord(new URI(value._1()), dis);
+                            List<List<Writable>> out = new ArrayList<>(sequence.size());
+                            for (Collection<Writable> step : sequence) {
+                                out.add(step instanceof List ? (List<Writable>) step : new ArrayList<>(step));
+                            }
+                            return out;
+                        } catch (Exception e) {
+                            throw new RuntimeException("Error reading sequence from " + value._1(), e);
+                        }
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.functions.data;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.RecordReaderPartitionIterator;
+import scala.Tuple2;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * RecordReaderBytesPartitionFunction: the mapPartitions equivalent of {@link RecordReaderBytesFunction}. Converts
+ * binary data (in the form of a BytesWritable) to DataVec format data ({@code List<Writable>}) using a RecordReader
+ * that is set up once per partition.<br>
+ * As per {@link org.datavec.spark.functions.RecordReaderPartitionFunction}, either all records (default) or one record
+ * is read from each binary object.
+ */
+public class RecordReaderBytesPartitionFunction implements FlatMapFunction<Iterator<Tuple2<Text, BytesWritable>>, List<Writable>> {
+    private final RecordReader recordReader;
+    private final boolean oneRecordPerFile;
+
+    public RecordReaderBytesPartitionFunction(RecordReader recordReader) {
+        this(recordReader, false);
+    }
+
+    /**
+     * @param recordReader     Record reader to use
+     * @param oneRecordPerFile If true: read one record per binary object (via RecordReader.record(URI, DataInputStream)).
+     *                         If false: read all records in each binary object
+     */
+    public RecordReaderBytesPartitionFunction(RecordReader recordReader, boolean oneRecordPerFile) {
+        this.recordReader = recordReader;
+        this.oneRecordPerFile = oneRecordPerFile;
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(final Iterator<Tuple2<Text, BytesWritable>> iter) throws Exception {
+        return new Iterable<List<Writable>>() {
+            @Override
+            public Iterator<List<Writable>> iterator() {
+                return new RecordReaderPartitionIterator<Tuple2<Text, BytesWritable>>(recordReader, oneRecordPerFile, iter) {
+                    @Override
+                    protected URI getUri(Tuple2<Text, BytesWritable> input) throws Exception {
+                        return new URI(input._1().toString());
+                    }
+
+                    @Override
+                    protected DataInputStream open(Tuple2<Text, BytesWritable> input) throws Exception {
+                        BytesWritable bw = input._2();
+                        return new DataInputStream(new ByteArrayInputStream(bw.getBytes(), 0, bw.getLength()));
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import org.apache.spark.serializer.KryoRegistrator;
+import org.datavec.api.writable.*;
+import org.datavec.spark.functions.pairdata.BytesPairWritable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Kryo registrator for DataVec: registers all of the {@link Writable} types with compact serializers
+ * (see {@link WritableSerializers}), and lists with {@link WritableListSerializer}, so that RDDs of examples
+ * (List&lt;Writable&gt;) and sequences (List&lt;List&lt;Writable&gt;&gt;) are serialized without per-value
+ * class information.<br>
+ * To use, set spark.serializer to org.apache.spark.serializer.KryoSerializer and spark.kryo.registrator to
+ * org.datavec.spark.kryo.DataVecKryoRegistrator - or use {@link org.datavec.spark.transform.utils.SparkUtils#registerKryoClasses(org.apache.spark.SparkConf)}
+ */
+public class DataVecKryoRegistrator implements KryoRegistrator {
+
+    private static final Logger log = LoggerFactory.getLogger(DataVecKryoRegistrator.class);
+
+    /** Writable classes in other (optional) modules: registered only if available on the classpath */
+    private static final String[] OPTIONAL_WRITABLE_CLASSES = {
+            "org.datavec.common.data.NDArrayWritable"
+    };
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void registerClasses(Kryo kryo) {
+        kryo.register(BooleanWritable.class, new WritableSerializers.BooleanWritableSerializer());
+        kryo.register(ByteWritable.class, new WritableSerializers.ByteWritableSerializer());
+        kryo.register(IntWritable.class, new WritableSerializers.IntWritableSerializer());
+        kryo.register(LongWritable.class, new WritableSerializers.LongWritableSerializer());
+        kryo.register(FloatWritable.class, new WritableSerializers.FloatWritableSerializer());
+        kryo.register(DoubleWritable.class, new WritableSerializers.DoubleWritableSerializer());
+        kryo.register(Text.class, new WritableSerializers.TextSerializer());
+        kryo.register(NullWritable.class, new WritableSerializers.NullWritableSerializer());
+        kryo.register(CategoricalWritable.class, new WritableSerializers.CategoricalWritableSerializer());
+        kryo.register(CategoricalDictionary.class, new WritableSerializers.CategoricalDictionarySerializer());
+        kryo.register(CompositeKeyWritable.class, new WritableSerializers.WritableSerializer<CompositeKeyWritable>());
+        kryo.register(SparseVectorWritable.class, new WritableSerializers.WritableSerializer<SparseVectorWritable>());
+        kryo.register(BytesPairWritable.class, new WritableSerializers.HadoopWritableSerializer<BytesPairWritable>());
+
+        for (String className : OPTIONAL_WRITABLE_CLASSES) {
+            Class<?> c;
+            try {
+                c = Class.forName(className);
+            } catch (ClassNotFoundException e) {
+                log.debug("Writable class {} not available: not registering with Kryo", className);
+                continue;
+            }
+            kryo.register(c, new WritableSerializers.WritableSerializer());
+        }
+
+        WritableListSerializer listSerializer = new WritableListSerializer();
+        kryo.register(ArrayList.class, listSerializer);
+        kryo.register(Arrays.asList().getClass(), listSerializer);
+    }
+}
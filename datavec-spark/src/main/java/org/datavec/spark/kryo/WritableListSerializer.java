@@ -0,0 +1,201 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.datavec.api.writable.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kryo serializer for lists, optimized for rows of {@link Writable} values (List&lt;Writable&gt;), as used in RDDs
+ * of examples and sequences.<br>
+ * Each row is written with a compact type header followed by the values: if all values in the row are of the same
+ * writable type (for example, all DoubleWritable) the header is a single byte, otherwise it is one byte per column.
+ * The values of the primitive writable types and Text are written without any class or reference information.
+ * Dictionary encoded categorical values are written as their int code only; the dictionary is written (see
+ * {@link WritableSerializers.CategoricalDictionarySerializer}) only when it differs from that of the previous
+ * categorical value in the row. With Kryo references enabled (the Spark default), each dictionary is written in full
+ * only once in each example or sequence.
+ * Any other elements (including nested lists, as in sequences) are written with their class, as usual.<br>
+ * Lists are always deserialized as ArrayLists.
+ */
+public class WritableListSerializer extends Serializer<List<?>> {
+
+    private static final byte OTHER = 0;
+    private static final byte NULL = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte BYTE = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte FLOAT = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte TEXT = 8;
+    private static final byte CATEGORICAL = 9;
+    /** Row header value indicating that the type of each column follows */
+    private static final byte MIXED = -1;
+
+    private static final Map<Class<?>, Byte> TYPES = new IdentityHashMap<>();
+
+    static {
+        TYPES.put(NullWritable.class, NULL);
+        TYPES.put(BooleanWritable.class, BOOLEAN);
+        TYPES.put(ByteWritable.class, BYTE);
+        TYPES.put(IntWritable.class, INT);
+        TYPES.put(LongWritable.class, LONG);
+        TYPES.put(FloatWritable.class, FLOAT);
+        TYPES.put(DoubleWritable.class, DOUBLE);
+        TYPES.put(Text.class, TEXT);
+    }
+
+    private static byte typeOf(Object o) {
+        if (o == null) return OTHER;
+        if (o instanceof CategoricalWritable) {
+            //Detached values (no registered dictionary) are written, with their state, by CategoricalWritableSerializer
+            return (((CategoricalWritable) o).getDictionary() != null ? CATEGORICAL : OTHER);
+        }
+        Byte type = TYPES.get(o.getClass());
+        return (type != null ? type : OTHER);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, List<?> object) {
+        int size = object.size();
+        output.writeInt(size, true);
+        if (size == 0) return;
+
+        byte[] types = new byte[size];
+        boolean uniform = true;
+        int i = 0;
+        for (Object o : object) {
+            types[i] = typeOf(o);
+            if (types[i] != types[0]) uniform = false;
+            i++;
+        }
+        if (uniform) {
+            output.writeByte(types[0]);
+        } else {
+            output.writeByte(MIXED);
+            output.writeBytes(types);
+        }
+
+        i = 0;
+        CategoricalDictionary dictionary = null;
+        for (Object o : object) {
+            switch (types[i++]) {
+                case NULL:
+                    break;
+                case BOOLEAN:
+                    output.writeBoolean(((BooleanWritable) o).get());
+                    break;
+                case BYTE:
+                    output.writeByte(((ByteWritable) o).get());
+                    break;
+                case INT:
+                    output.writeInt(((IntWritable) o).get(), false);
+                    break;
+                case LONG:
+                    output.writeLong(((LongWritable) o).get(), false);
+                    break;
+                case FLOAT:
+                    output.writeFloat(((FloatWritable) o).get());
+                    break;
+                case DOUBLE:
+                    output.writeDouble(((DoubleWritable) o).get());
+                    break;
+                case TEXT:
+                    Text t = (Text) o;
+                    output.writeInt(t.getLength(), true);
+                    output.writeBytes(t.getBytes(), 0, t.getLength());
+                    break;
+                case CATEGORICAL:
+                    //Lowest bit of the code: set if the dictionary follows
+                    CategoricalWritable c = (CategoricalWritable) o;
+                    boolean newDictionary = (c.getDictionary() != dictionary);
+                    output.writeInt(c.getIndex() << 1 | (newDictionary ? 1 : 0), true);
+                    if (newDictionary) {
+                        dictionary = c.getDictionary();
+                        kryo.writeObject(output, dictionary);
+                    }
+                    break;
+                default:
+                    kryo.writeClassAndObject(output, o);
+            }
+        }
+    }
+
+    @Override
+    public List<?> read(Kryo kryo, Input input, Class<List<?>> type) {
+        int size = input.readInt(true);
+        List<Object> list = new ArrayList<>(size);
+        kryo.reference(list);
+        if (size == 0) return list;
+
+        byte header = input.readByte();
+        byte[] types = null;
+        if (header == MIXED) {
+            types = input.readBytes(size);
+        }
+
+        CategoricalDictionary dictionary = null;
+        for (int i = 0; i < size; i++) {
+            switch (types != null ? types[i] : header) {
+                case NULL:
+                    list.add(NullWritable.INSTANCE);
+                    break;
+                case BOOLEAN:
+                    list.add(new BooleanWritable(input.readBoolean()));
+                    break;
+                case BYTE:
+                    list.add(new ByteWritable(input.readByte()));
+                    break;
+                case INT:
+                    list.add(new IntWritable(input.readInt(false)));
+                    break;
+                case LONG:
+                    list.add(new LongWritable(input.readLong(false)));
+                    break;
+                case FLOAT:
+                    list.add(new FloatWritable(input.readFloat()));
+                    break;
+                case DOUBLE:
+                    list.add(new DoubleWritable(input.readDouble()));
+                    break;
+                case TEXT:
+                    int length = input.readInt(true);
+                    list.add(new Text(input.readBytes(length)));
+                    break;
+                case CATEGORICAL:
+                    int code = input.readInt(true);
+                    if ((code & 1) != 0) {
+                        dictionary = kryo.readObject(input, CategoricalDictionary.class);
+                    }
+                    list.add(new CategoricalWritable(dictionary, code >>> 1));
+                    break;
+                default:
+                    list.add(kryo.readClassAndObject(input));
+            }
+        }
+        return list;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.datavec.api.writable.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Compact Kryo serializers for the DataVec {@link Writable} types.<br>
+ * The serializers for the primitive writables write only the value itself (using variable length encoding for
+ * integer types); other writables are serialized using their own write/readFields methods.
+ */
+public class WritableSerializers {
+
+    private WritableSerializers() {
+    }
+
+    public static class BooleanWritableSerializer extends Serializer<BooleanWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, BooleanWritable object) {
+            output.writeBoolean(object.get());
+        }
+
+        @Override
+        public BooleanWritable read(Kryo kryo, Input input, Class<BooleanWritable> type) {
+            return new BooleanWritable(input.readBoolean());
+        }
+    }
+
+    public static class ByteWritableSerializer extends Serializer<ByteWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, ByteWritable object) {
+            output.writeByte(object.get());
+        }
+
+        @Override
+        public ByteWritable read(Kryo kryo, Input input, Class<ByteWritable> type) {
+            return new ByteWritable(input.readByte());
+        }
+    }
+
+    public static class IntWritableSerializer extends Serializer<IntWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, IntWritable object) {
+            output.writeInt(object.get(), false);
+        }
+
+        @Override
+        public IntWritable read(Kryo kryo, Input input, Class<IntWritable> type) {
+            return new IntWritable(input.readInt(false));
+        }
+    }
+
+    public static class LongWritableSerializer extends Serializer<LongWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, LongWritable object) {
+            output.writeLong(object.get(), false);
+        }
+
+        @Override
+        public LongWritable read(Kryo kryo, Input input, Class<LongWritable> type) {
+            return new LongWritable(input.readLong(false));
+        }
+    }
+
+    public static class FloatWritableSerializer extends Serializer<FloatWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, FloatWritable object) {
+            output.writeFloat(object.get());
+        }
+
+        @Override
+        public FloatWritable read(Kryo kryo, Input input, Class<FloatWritable> type) {
+            return new FloatWritable(input.readFloat());
+        }
+    }
+
+    public static class DoubleWritableSerializer extends Serializer<DoubleWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, DoubleWritable object) {
+            output.writeDouble(object.get());
+        }
+
+        @Override
+        public DoubleWritable read(Kryo kryo, Input input, Class<DoubleWritable> type) {
+            return new DoubleWritable(input.readDouble());
+        }
+    }
+
+    /**
+     * Text is written as its UTF-8 bytes, prefixed by the number of bytes
+     */
+    public static class TextSerializer extends Serializer<Text> {
+        @Override
+        public void write(Kryo kryo, Output output, Text object) {
+            output.writeInt(object.getLength(), true);
+            output.writeBytes(object.getBytes(), 0, object.getLength());
+        }
+
+        @Override
+        public Text read(Kryo kryo, Input input, Class<Text> type) {
+            int length = input.readInt(true);
+            return new Text(input.readBytes(length));
+        }
+    }
+
+    /**
+     * A CategoricalWritable attached to its dictionary is written as the dictionary (see
+     * {@link CategoricalDictionarySerializer}) followed by the (variable length) state index. With Kryo references
+     * enabled (the Spark default), the dictionary is written only once in each serialized object: for example, once per
+     * example or sequence, regardless of the number of values.<br>
+     * Detached values (dictionary not registered: see {@link CategoricalWritable}) are written with their state.
+     */
+    public static class CategoricalWritableSerializer extends Serializer<CategoricalWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, CategoricalWritable object) {
+            CategoricalDictionary dictionary = object.getDictionary();
+            output.writeBoolean(dictionary != null);
+            if (dictionary != null) {
+                kryo.writeObject(output, dictionary);
+            } else {
+                output.writeLong(object.getFingerprint());
+                output.writeString(object.toString());
+            }
+            output.writeInt(object.getIndex(), true);
+        }
+
+        @Override
+        public CategoricalWritable read(Kryo kryo, Input input, Class<CategoricalWritable> type) {
+            if (input.readBoolean()) {
+                CategoricalDictionary dictionary = kryo.readObject(input, CategoricalDictionary.class);
+                return new CategoricalWritable(dictionary, input.readInt(true));
+            }
+            long fingerprint = input.readLong();
+            String state = input.readString();
+            return CategoricalWritable.create(fingerprint, input.readInt(true), state);
+        }
+    }
+
+    /**
+     * A CategoricalDictionary is written as its fingerprint only. The dictionary must be registered in the reading JVM:
+     * this is the case once the schema (or TransformProcess) defining the categorical column has been created or
+     * deserialized there - for example, as part of the Spark functions that executed the transform process
+     */
+    public static class CategoricalDictionarySerializer extends Serializer<CategoricalDictionary> {
+        @Override
+        public void write(Kryo kryo, Output output, CategoricalDictionary object) {
+            output.writeLong(object.getFingerprint());
+        }
+
+        @Override
+        public CategoricalDictionary read(Kryo kryo, Input input, Class<CategoricalDictionary> type) {
+            long fingerprint = input.readLong();
+            CategoricalDictionary dictionary = CategoricalDictionary.forFingerprint(fingerprint);
+            if (dictionary == null) {
+                throw new KryoException("Cannot deserialize categorical value: no dictionary with fingerprint "
+                        + fingerprint + " is registered. The schema (or TransformProcess) defining the categorical "
+                        + "column must be loaded before the values are deserialized");
+            }
+            return dictionary;
+        }
+    }
+
+    /**
+     * NullWritable has no content: deserialized as {@link NullWritable#INSTANCE}
+     */
+    public static class NullWritableSerializer extends Serializer<NullWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, NullWritable object) {
+            //No op
+        }
+
+        @Override
+        public NullWritable read(Kryo kryo, Input input, Class<NullWritable> type) {
+            return NullWritable.INSTANCE;
+        }
+    }
+
+    /**
+     * Serializer for any DataVec {@link Writable} with a no-arg constructor, using its write and readFields methods
+     */
+    public static class WritableSerializer<T extends Writable> extends Serializer<T> {
+        @Override
+        public void write(Kryo kryo, Output output, T object) {
+            try {
+                object.write(new DataOutputStream(output));
+            } catch (IOException e) {
+                throw new KryoException(e);
+            }
+        }
+
+        @Override
+        public T read(Kryo kryo, Input input, Class<T> type) {
+            T t = kryo.newInstance(type);
+            try {
+                t.readFields(new DataInputStream(input));
+            } catch (IOException e) {
+                throw new KryoException(e);
+            }
+            return t;
+        }
+    }
+
+    /**
+     * Serializer for any Hadoop {@link org.apache.hadoop.io.Writable} with a no-arg constructor, using its write and
+     * readFields methods
+     */
+    public static class HadoopWritableSerializer<T extends org.apache.hadoop.io.Writable> extends Serializer<T> {
+        @Override
+        public void write(Kryo kryo, Output output, T object) {
+            try {
+                object.write(new DataOutputStream(output));
+            } catch (IOException e) {
+                throw new KryoException(e);
+            }
+        }
+
+        @Override
+        public T read(Kryo kryo, Input input, Class<T> type) {
+            T t = kryo.newInstance(type);
+            try {
+                t.readFields(new DataInputStream(input));
+            } catch (IOException e) {
+                throw new KryoException(e);
+            }
+            return t;
+        }
+    }
+}
@@ -34,10 +34,9 @@ import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisAddF
 import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisMergeFunction;
 import org.datavec.spark.transform.analysis.string.StringAnalysisCounter;
 import org.datavec.spark.transform.filter.FilterWritablesBySchemaFunction;
-import org.datavec.spark.transform.quality.integer.IntegerQualityAddFunction;
-import org.datavec.spark.transform.quality.longq.LongQualityMergeFunction;
-import org.datavec.spark.transform.quality.string.StringQualityAddFunction;
-import org.datavec.spark.transform.quality.time.TimeQualityAddFunction;
+import org.datavec.spark.transform.quality.aggregate.QualityAnalysisAddFunction;
+import org.datavec.spark.transform.quality.aggregate.QualityAnalysisCombineFunction;
+import org.datavec.spark.transform.quality.aggregate.QualityAnalysisState;
 import org.datavec.spark.transform.analysis.AnalysisCounter;
 import org.datavec.spark.transform.analysis.SelectColumnFunction;
 import org.datavec.spark.transform.analysis.SequenceLengthFunction;
@@ -49,14 +48,6 @@ import org.datavec.spark.transform.analysis.columns.LongAnalysisCounter;
 import org.datavec.spark.transform.analysis.columns.DoubleAnalysisCounter;
 import org.datavec.spark.transform.analysis.histogram.HistogramCombineFunction;
 import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisCounter;
-import org.datavec.spark.transform.quality.categorical.CategoricalQualityAddFunction;
-import org.datavec.spark.transform.quality.categorical.CategoricalQualityMergeFunction;
-import org.datavec.spark.transform.quality.integer.IntegerQualityMergeFunction;
-import org.datavec.spark.transform.quality.longq.LongQualityAddFunction;
-import org.datavec.spark.transform.quality.real.RealQualityAddFunction;
-import org.datavec.spark.transform.quality.real.RealQualityMergeFunction;
-import org.datavec.spark.transform.quality.string.StringQualityMergeFunction;
-import org.datavec.spark.transform.quality.time.TimeQualityMergeFunction;
 import org.apache.spark.api.java.JavaDoubleRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.datavec.api.writable.Writable;
@@ -358,10 +349,16 @@ public class AnalyzeSpark {
         */
 
         List<ColumnType> columnTypes = schema.getColumnTypes();
-        List<AnalysisCounter> counters = data.aggregate(
+        //Single pass over the data for all per-column counters, then (at most) a second pass for the histograms
+        List<AnalysisCounter> counters = data.treeAggregate(
                 null,
                 new AnalysisAddFunction(schema),
                 new AnalysisCombineFunction());
+        boolean empty = (counters == null);
+        if(empty){
+            //No examples: treeAggregate returns the (null) zero value
+            counters = AnalysisAddFunction.createCounters(schema);
+        }
 
         double[][] minsMaxes = new double[counters.size()][2];
 
@@ -376,12 +373,12 @@ public class AnalyzeSpark {
                     StringAnalysisCounter sac = (StringAnalysisCounter)counters.get(i);
                     list.add(new StringAnalysis.Builder()
                             .countTotal(sac.getCountTotal())
-                            //.countUnique(countUnique)
+                            .countUnique(sac.getUniqueCounter().cardinality())
                             .minLength(sac.getMinLengthSeen())
                             .maxLength(sac.getMaxLengthSeen())
                             .meanLength(((double)sac.getSumLength()) / sac.getCountTotal())
-//                            .sampleStdevLength(stringLengthStats.sampleStdev())
-//                            .sampleVarianceLength(stringLengthStats.sampleVariance())
+                            .sampleStdevLength(sac.getLengthStats().sampleStdev())
+                            .sampleVarianceLength(sac.getLengthStats().sampleVariance())
                             .build());
                     minsMaxes[i][0] = sac.getMinLengthSeen();
                     minsMaxes[i][1] = sac.getMaxLengthSeen();
@@ -392,8 +389,10 @@ public class AnalyzeSpark {
                             .min(iac.getMinValueSeen())
                             .max(iac.getMaxValueSeen())
                             .mean(((double)iac.getSum()) / iac.getCountTotal())
-//                            .sampleStdev(stats1.sampleStdev())
-//                            .sampleVariance(stats1.sampleVariance())
+                            .sampleStdev(iac.getStats().sampleStdev())
+                            .sampleVariance(iac.getStats().sampleVariance())
+                            .countUnique(iac.getUniqueCounter().cardinality())
+                            .quantiles(iac.getQuantiles())
                             .countZero(iac.getCountZero())
                             .countNegative(iac.getCountNegative())
                             .countPositive(iac.getCountPositive())
@@ -414,8 +413,10 @@ public class AnalyzeSpark {
                             .min(lac.getMinValueSeen())
                             .max(lac.getMaxValueSeen())
                             .mean(lac.getSum().doubleValue() / lac.getCountTotal())
-//                            .sampleStdev(statsLong.sampleStdev())
-//                            .sampleVariance(statsLong.sampleVariance())
+                            .sampleStdev(lac.getStats().sampleStdev())
+                            .sampleVariance(lac.getStats().sampleVariance())
+                            .countUnique(lac.getUniqueCounter().cardinality())
+                            .quantiles(lac.getQuantiles())
                             .countZero(lac.getCountZero())
                             .countNegative(lac.getCountNegative())
                             .countPositive(lac.getCountPositive())
@@ -436,8 +437,10 @@ public class AnalyzeSpark {
                             .min(dac.getMinValueSeen())
                             .max(dac.getMaxValueSeen())
                             .mean(dac.getSum() / dac.getCountTotal())
-//                            .sampleStdev(stats.sampleStdev())
-//                            .sampleVariance(stats.sampleVariance())
+                            .sampleStdev(dac.getStats().sampleStdev())
+                            .sampleVariance(dac.getStats().sampleVariance())
+                            .countUnique(dac.getUniqueCounter().cardinality())
+                            .quantiles(dac.getQuantiles())
                             .countZero(dac.getCountZero())
                             .countNegative(dac.getCountNegative())
                             .countPositive(dac.getCountPositive())
@@ -465,8 +468,10 @@ public class AnalyzeSpark {
                             .min(lac2.getMinValueSeen())
                             .max(lac2.getMaxValueSeen())
                             .mean(lac2.getSum().doubleValue() / lac2.getCountTotal())
-//                            .sampleStdev(statsLong2.sampleStdev())
-//                            .sampleVariance(statsLong2.sampleVariance())
+                            .sampleStdev(lac2.getStats().sampleStdev())
+                            .sampleVariance(lac2.getStats().sampleVariance())
+                            .countUnique(lac2.getUniqueCounter().cardinality())
+                            .quantiles(lac2.getQuantiles())
                             .countZero(lac2.getCountZero())
                             .countNegative(lac2.getCountNegative())
                             .countPositive(lac2.getCountPositive())
@@ -492,7 +497,11 @@ public class AnalyzeSpark {
             }
         }
 
-        List<HistogramCounter> histogramCounters = data.aggregate(
+        if(empty){
+            return new DataAnalysis(schema,list);
+        }
+
+        List<HistogramCounter> histogramCounters = data.treeAggregate(
                 null,
                 new HistogramAddFunction(maxHistogramBuckets,schema,minsMaxes),
                 new HistogramCombineFunction());
@@ -609,38 +618,6 @@ public class AnalyzeSpark {
 
 
 
-    private static ColumnQuality analyze(ColumnMetaData meta, JavaRDD<Writable> ithColumn){
-
-        switch(meta.getColumnType()){
-            case String:
-                ithColumn.cache();
-                long countUnique = ithColumn.distinct().count();
-
-                StringQuality initialString = new StringQuality();
-                StringQuality stringQuality = ithColumn.aggregate(initialString,new StringQualityAddFunction((StringMetaData)meta),new StringQualityMergeFunction());
-                return stringQuality.add(new StringQuality(0,0,0,0,0,0,0,0,0,countUnique));
-            case Integer:
-                IntegerQuality initialInt = new IntegerQuality(0,0,0,0,0);
-                return ithColumn.aggregate(initialInt,new IntegerQualityAddFunction((IntegerMetaData)meta),new IntegerQualityMergeFunction());
-            case Long:
-                LongQuality initialLong = new LongQuality();
-                return ithColumn.aggregate(initialLong,new LongQualityAddFunction((LongMetaData)meta),new LongQualityMergeFunction());
-            case Double:
-                DoubleQuality initialReal = new DoubleQuality();
-                return ithColumn.aggregate(initialReal,new RealQualityAddFunction((DoubleMetaData)meta), new RealQualityMergeFunction());
-            case Categorical:
-                CategoricalQuality initialCat = new CategoricalQuality();
-                return ithColumn.aggregate(initialCat,new CategoricalQualityAddFunction((CategoricalMetaData)meta),new CategoricalQualityMergeFunction());
-            case Time:
-                TimeQuality initTimeQuality = new TimeQuality();
-                return ithColumn.aggregate(initTimeQuality, new TimeQualityAddFunction((TimeMetaData)meta), new TimeQualityMergeFunction());
-            case Bytes:
-                return new BytesQuality();    //TODO
-            default:
-                throw new RuntimeException("Unknown or not implemented column type: " + meta.getColumnType());
-        }
-    }
-
     public static DataQualityAnalysis analyzeQualitySequence(Schema schema, JavaRDD<List<List<Writable>>> data){
         JavaRDD<List<Writable>> fmSeq = data.flatMap(new SequenceFlatMapFunction());
         return analyzeQuality(schema, fmSeq);
@@ -651,13 +628,22 @@ public class AnalyzeSpark {
         data.cache();
         int nColumns = schema.numColumns();
 
-        //This is inefficient, but it's easy to implement. Good enough for now!
-        List<ColumnQuality> list = new ArrayList<>(nColumns);
+        //Analyze the quality of all columns (including approximate unique counts) in a single pass over the data
+        QualityAnalysisState state = data.treeAggregate(
+                null,
+                new QualityAnalysisAddFunction(schema),
+                new QualityAnalysisCombineFunction());
+        if(state == null){
+            //No examples: treeAggregate returns the (null) zero value
+            state = QualityAnalysisAddFunction.createInitialState(schema);
+        }
 
+        List<ColumnQuality> list = state.getColumnQualities();
         for( int i=0; i<nColumns; i++ ) {
-            ColumnMetaData meta = schema.getMetaData(i);
-            JavaRDD<Writable> ithColumn = data.map(new SelectColumnFunction(i));
-            list.add(analyze(meta, ithColumn));
+            if(schema.getType(i) == ColumnType.String){
+                long countUnique = state.getUniqueCounters()[i].cardinality();
+                list.set(i, ((StringQuality)list.get(i)).add(new StringQuality(0,0,0,0,0,0,0,0,0,countUnique)));
+            }
         }
 
         return new DataQualityAnalysis(schema,list);
@@ -16,46 +16,68 @@
 
 package org.datavec.spark.transform;
 
+import org.datavec.api.transform.fused.FusedRowOperator;
 import org.datavec.spark.transform.join.*;
 import org.datavec.spark.transform.misc.ColumnAsKeyPairFunction;
+import org.datavec.spark.transform.reduce.AddToReducerAccumulatorFunction;
+import org.datavec.spark.transform.reduce.CreateReducerAccumulatorFunction;
 import org.datavec.spark.transform.reduce.MapToPairForReducerFunction;
-import org.datavec.spark.transform.sequence.SparkMapToPairByColumnFunction;
+import org.datavec.spark.transform.reduce.MergeReducerAccumulatorsFunction;
+import org.datavec.spark.transform.reduce.ReducerAccumulatorResultFunction;
+import org.datavec.spark.transform.sequence.MapToSequenceSortKeyFunction;
+import org.datavec.spark.transform.sequence.SequenceKeyPartitioner;
+import org.datavec.spark.transform.sequence.SequenceSortKeyComparator;
+import org.datavec.spark.transform.sequence.SortedExamplesToSequenceFunction;
 import org.datavec.spark.transform.transform.SequenceSplitFunction;
-import org.datavec.spark.transform.sequence.SparkGroupToSequenceFunction;
 import org.datavec.spark.transform.sequence.SparkSequenceFilterFunction;
 import org.datavec.spark.transform.sequence.SparkSequenceTransformFunction;
 import org.apache.commons.math3.util.Pair;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.storage.StorageLevel;
+import org.datavec.api.writable.CompositeKeyWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.DataAction;
 import org.datavec.api.transform.Transform;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.api.transform.join.Join;
 import org.datavec.api.transform.rank.CalculateSortedRank;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
 import org.datavec.api.transform.sequence.ConvertToSequence;
 import org.datavec.api.transform.filter.Filter;
 import org.datavec.api.transform.reduce.IReducer;
+import org.datavec.api.transform.reduce.MergeableReducer;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
 import org.datavec.api.transform.sequence.SequenceSplit;
 import org.datavec.spark.transform.analysis.SequenceFlatMapFunction;
-import org.datavec.spark.transform.rank.UnzipForCalculateSortedRankFunction;
-import org.datavec.spark.transform.filter.SparkFilterFunction;
+import org.datavec.spark.transform.rank.*;
 import org.datavec.spark.transform.reduce.ReducerFunction;
-import org.datavec.spark.transform.transform.SparkTransformFunction;
+import org.datavec.spark.transform.transform.SparkFusedRowFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Tuple2;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 public class SparkTransformExecutor {
 
     private static final Logger log = LoggerFactory.getLogger(SparkTransformExecutor.class);
 
+    /** Default maximum estimated size of the right data set for broadcast hash joins: 32 MB */
+    public static final long DEFAULT_BROADCAST_JOIN_THRESHOLD = 32L * 1024 * 1024;
+    private static final int SIZE_ESTIMATE_SAMPLE_SIZE = 1000;
+    /** Number of keys to sample from each partition, to determine the range partitions for CalculateSortedRank */
+    private static final int RANK_SAMPLE_SIZE_PER_PARTITION = 60;
+
+    private long broadcastJoinThreshold = DEFAULT_BROADCAST_JOIN_THRESHOLD;
+    private int maxSequenceLength = 0;
+
 
     public JavaRDD<List<Writable>> execute(JavaRDD<List<Writable>> inputWritables, TransformProcess sequence ) {
         if(sequence.getFinalSchema() instanceof SequenceSchema){
@@ -100,40 +122,55 @@ public class SparkTransformExecutor {
         List<DataAction> list = sequence.getActionList();
 
         int count = 1;
-        for(DataAction d : list){
+        for(int i=0; i<list.size(); i++ ){
+            DataAction d = list.get(i);
+
+            if(currentWritables != null && FusedRowOperator.canFuse(d)){
+                //Execute all consecutive transforms and filters in a single pass over each partition
+                int end = i+1;
+                while(end < list.size() && FusedRowOperator.canFuse(list.get(end))) end++;
+                log.info("Starting execution of stages {} to {} of {} (fused)",count,count+end-i-1,list.size());
+
+                Schema inputSchema = (d.getTransform() != null ? d.getTransform().getInputSchema() : d.getFilter().getInputSchema());
+                FusedRowOperator op = FusedRowOperator.compile(inputSchema, list.subList(i,end));
+                currentWritables = currentWritables.mapPartitions(new SparkFusedRowFunction(op));
+
+                count += end-i;
+                i = end-1;
+                continue;
+            }
+
             log.info("Starting execution of stage {} of {}",count,list.size());
 
             if(d.getTransform() != null) {
                 Transform t = d.getTransform();
-                if(currentWritables != null){
-                    Function<List<Writable>, List<Writable>> function = new SparkTransformFunction(t);
-                    currentWritables = currentWritables.map(function);
-                } else {
-                    Function<List<List<Writable>>, List<List<Writable>>> function =
-                            new SparkSequenceTransformFunction(t);
-                    currentSequence = currentSequence.map(function);
-                }
+                Function<List<List<Writable>>, List<List<Writable>>> function =
+                        new SparkSequenceTransformFunction(t);
+                currentSequence = currentSequence.map(function);
             } else if(d.getFilter() != null ){
                 //Filter
                 Filter f = d.getFilter();
-                if(currentWritables != null){
-                    currentWritables = currentWritables.filter(new SparkFilterFunction(f));
-                } else {
-                    currentSequence = currentSequence.filter(new SparkSequenceFilterFunction(f));
-                }
+                currentSequence = currentSequence.filter(new SparkSequenceFilterFunction(f));
 
             } else if(d.getConvertToSequence() != null) {
                 //Convert to a sequence...
                 ConvertToSequence cts = d.getConvertToSequence();
 
-                //First: convert to PairRDD
+                //Key each example by (sequence key, example), then partition on the sequence key and sort by
+                //(sequence key, sequence comparator) during the shuffle. Consecutive examples in each sorted partition
+                //then form the (already ordered) sequences. Spark's external sorter spills to disk as required, so
+                //unlike groupByKey, the shuffle never buffers a whole group; each sequence is only built as it is emitted
+                //(in parts of at most maxSequenceLength examples, if set)
                 Schema schema = cts.getInputSchema();
                 int colIdx = schema.getIndexOfColumn(cts.getKeyColumn());
-                JavaPairRDD<Writable, List<Writable>> withKey = currentWritables.mapToPair(new SparkMapToPairByColumnFunction(colIdx));
-                JavaPairRDD<Writable, Iterable<List<Writable>>> grouped = withKey.groupByKey();
-
-                //Now: convert to a sequence...
-                currentSequence = grouped.map(new SparkGroupToSequenceFunction(cts.getComparator()));
+                CompositeKeyWritable.Encoding encoding = CompositeKeyWritable.encodingFor(schema.getType(colIdx));
+                JavaPairRDD<Tuple2<CompositeKeyWritable, List<Writable>>, Writable> withKey =
+                        currentWritables.mapToPair(new MapToSequenceSortKeyFunction(colIdx, encoding));
+                JavaPairRDD<Tuple2<CompositeKeyWritable, List<Writable>>, Writable> sorted = withKey.repartitionAndSortWithinPartitions(
+                        new SequenceKeyPartitioner(currentWritables.partitions().size()),
+                        new SequenceSortKeyComparator(cts.getComparator()));
+
+                currentSequence = sorted.mapPartitions(new SortedExamplesToSequenceFunction(maxSequenceLength));
                 currentWritables = null;
             } else if(d.getConvertFromSequence() != null ) {
                 //Convert from sequence...
@@ -154,9 +191,20 @@ public class SparkTransformExecutor {
                 if (currentWritables == null)
                     throw new IllegalStateException("Error during execution of reduction: current writables are null. "
                             + "Trying to execute a reduce operation on a sequence?");
-                JavaPairRDD<String, List<Writable>> pair = currentWritables.mapToPair(new MapToPairForReducerFunction(reducer));
-
-                currentWritables = pair.groupByKey().map(new ReducerFunction(reducer));
+                JavaPairRDD<CompositeKeyWritable, List<Writable>> pair = currentWritables.mapToPair(new MapToPairForReducerFunction(reducer));
+
+                if (reducer instanceof MergeableReducer) {
+                    //Partially reduce each key within each partition before the shuffle: only one accumulator per key
+                    //per partition is shuffled, and no key group needs to be held in memory all at once
+                    currentWritables = pair.combineByKey(
+                            new CreateReducerAccumulatorFunction((MergeableReducer) reducer),
+                            new AddToReducerAccumulatorFunction(),
+                            new MergeReducerAccumulatorsFunction())
+                            .values()
+                            .map(new ReducerAccumulatorResultFunction());
+                } else {
+                    currentWritables = pair.groupByKey().map(new ReducerFunction(reducer));
+                }
             } else if(d.getCalculateSortedRank() != null ){
                 CalculateSortedRank csr = d.getCalculateSortedRank();
 
@@ -165,16 +213,18 @@ public class SparkTransformExecutor {
                             + "Trying to execute a CalculateSortedRank operation on a sequenc? (not currently supported)");
                 }
 
-                Comparator<Writable> comparator = csr.getComparator();
                 String sortColumn = csr.getSortOnColumn();
                 int sortColumnIdx = csr.getInputSchema().getIndexOfColumn(sortColumn);
                 boolean ascending = csr.isAscending();
-                //NOTE: this likely isn't the most efficient implementation.
-                JavaPairRDD<Writable,List<Writable>> pairRDD = currentWritables.mapToPair(new ColumnAsKeyPairFunction(sortColumnIdx));
-                pairRDD = pairRDD.sortByKey(comparator,ascending);
 
-                JavaPairRDD<Tuple2<Writable,List<Writable>>,Long> zipped = pairRDD.zipWithIndex();
-                currentWritables = zipped.map(new UnzipForCalculateSortedRankFunction());
+                if (csr.isApproximate()) {
+                    //Estimate percentile ranks from a quantile sketch of the column: no sort required
+                    QuantileSketch sketch = currentWritables.treeAggregate(new QuantileSketch(),
+                            new QuantileSketchAddFunction(sortColumnIdx), new QuantileSketchCombineFunction());
+                    currentWritables = currentWritables.map(new AddApproximatePercentileFunction(sortColumnIdx, ascending, sketch));
+                } else {
+                    currentWritables = calculateSortedRank(currentWritables, sortColumnIdx, csr.getComparator(), ascending);
+                }
             } else {
                 throw new RuntimeException("Unknown/not implemented action: " + d);
             }
@@ -188,20 +238,126 @@ public class SparkTransformExecutor {
     }
 
 
+    /**
+     * Join two data sets.<br>
+     * For inner and left outer joins, if the right data set is estimated to fit in memory (see
+     * {@link #setBroadcastJoinThreshold(long)}), it is collected and broadcast as a hash table, and the left data set
+     * is joined without being shuffled. Otherwise (and for right and full outer joins), both data sets are partitioned
+     * by key and co-grouped. In both cases, keys may occur any number of times on each side (many-to-many joins).<br>
+     * Unless it is already persisted, the right data set is persisted while its size is estimated (and, for a broadcast
+     * join, while it is collected), so that it is only computed once for a broadcast join.
+     *
+     * @param join  Join to execute
+     * @param left  Left data set
+     * @param right Right data set
+     * @return Joined data
+     */
     public JavaRDD<List<Writable>> executeJoin(Join join, JavaRDD<List<Writable>> left, JavaRDD<List<Writable>> right){
 
-        //Extract out the keys, then join
-        //This gives us a JavaPairRDD<String,JoinValue>
-        JavaPairRDD<String,JoinValue> leftJV = left.mapToPair(new MapToJoinValuesFunction(true,join));
-        JavaPairRDD<String,JoinValue> rightJV = right.mapToPair(new MapToJoinValuesFunction(false,join));
+        Join.JoinType joinType = join.getJoinType();
+        if (broadcastJoinThreshold > 0 && (joinType == Join.JoinType.Inner || joinType == Join.JoinType.LeftOuter)) {
+            boolean persist = (right.getStorageLevel() == StorageLevel.NONE());
+            if (persist) right.persist(StorageLevel.MEMORY_AND_DISK_SER());
+            try {
+                long estimatedSize = estimateSizeBytes(right);
+                if (estimatedSize <= broadcastJoinThreshold) {
+                    log.info("Executing broadcast hash join: estimated size of right data = {} bytes", estimatedSize);
+                    Map<CompositeKeyWritable, List<List<Writable>>> map = BroadcastHashJoinFunction.buildHashTable(join, right.collect());
+                    JavaSparkContext sc = JavaSparkContext.fromSparkContext(right.context());
+                    Broadcast<Map<CompositeKeyWritable, List<List<Writable>>>> broadcast = sc.broadcast(map);
+                    return left.mapPartitions(new BroadcastHashJoinFunction(join, broadcast));
+                }
+            } finally {
+                if (persist) right.unpersist(false);
+            }
+        }
+
+        //Extract out the keys, then partition both sides by key and execute the join for each key
+        JavaPairRDD<CompositeKeyWritable,List<Writable>> leftKV = left.mapToPair(new ExtractJoinKeyFunction(true,join));
+        JavaPairRDD<CompositeKeyWritable,List<Writable>> rightKV = right.mapToPair(new ExtractJoinKeyFunction(false,join));
+
+        //Filtering of unmatched values (for inner, and left/right joins) is done by the join function
+        return leftKV.cogroup(rightKV).flatMap(new ExecuteCoGroupedJoinFunction(join));
+    }
+
+    /**
+     * Append the (exact) sorted rank of each example. Rather than a global sort followed by zipWithIndex, the keys are
+     * range partitioned using a sample of the keys, and ranks are assigned in a single pass over each sorted range
+     * partition, offset by the number of examples in the preceding range partitions.<br>
+     * The keyed input is persisted while the keys are sampled and the range partitions are shuffled, so the input is
+     * only computed once. The counts are taken from the shuffled partitions, which materializes the shuffle before the
+     * input is unpersisted; the returned RDD then reuses the shuffle output.
+     */
+    private JavaRDD<List<Writable>> calculateSortedRank(JavaRDD<List<Writable>> input, int sortColumnIdx,
+                                                        Comparator<Writable> comparator, boolean ascending) {
+        //For the built-in comparators, sort on binary keys in their natural order; otherwise use the comparator
+        CompositeKeyWritable.Encoding encoding = CompositeKeyWritable.encodingFor(comparator);
+        SortedRankKeyComparator keyComparator = new SortedRankKeyComparator(encoding != null ? null : comparator, ascending);
+        JavaPairRDD<Writable,List<Writable>> pairRDD = input.mapToPair(new ColumnAsKeyPairFunction(sortColumnIdx, encoding));
+        pairRDD.persist(StorageLevel.MEMORY_AND_DISK_SER());
+
+        int numPartitions = input.partitions().size();
+        List<Tuple2<Long,List<Writable>>> samples = pairRDD.mapPartitionsWithIndex(
+                new SampleSortKeysFunction(RANK_SAMPLE_SIZE_PER_PARTITION, System.nanoTime()), false).collect();
+        RangeRankPartitioner partitioner = RangeRankPartitioner.fromSamples(samples, numPartitions, keyComparator);
+
+        JavaPairRDD<Writable,List<Writable>> sorted = pairRDD.repartitionAndSortWithinPartitions(partitioner, keyComparator);
+        long[] counts = sorted.mapPartitions(new CountPerPartitionFunction(partitioner))
+                .fold(new long[partitioner.numPartitions()], new SumPartitionCountsFunction());
+        pairRDD.unpersist(false);
+
+        long[] offsets = new long[counts.length];
+        for (int i = 1; i < counts.length; i++) {
+            offsets[i] = offsets[i - 1] + counts[i - 1];
+        }
+
+        return sorted.mapPartitionsWithIndex(new AssignSortedRankFunction(offsets), false);
+    }
 
-        //Then merge, collect by key, execute the join. This is essentially an outer join
-        JavaPairRDD<String,JoinValue> both = leftJV.union(rightJV);
-        JavaPairRDD<String,Iterable<JoinValue>> grouped = both.groupByKey();
-        JavaRDD<JoinedValue> joined = grouped.map(new ExecuteJoinFunction(join));
+    /**
+     * Estimate the in-memory size of a data set in a single pass, by extrapolating from a sample of the first examples
+     * in each partition
+     */
+    private static long estimateSizeBytes(JavaRDD<List<Writable>> data) {
+        int numPartitions = Math.max(1, data.partitions().size());
+        int samplesPerPartition = Math.max(1, (SIZE_ESTIMATE_SAMPLE_SIZE + numPartitions - 1) / numPartitions);
+        long[] counts = data.mapPartitions(new EstimateSizeFunction(samplesPerPartition))
+                .fold(new long[3], new SumPartitionCountsFunction());
+        if (counts[0] == 0 || counts[1] == 0) return 0;
+        return (long) ((double) counts[2] / counts[1] * counts[0]);
+    }
+
+    /**
+     * Set the maximum estimated size of the right data set for which joins are executed as broadcast hash joins
+     * (see {@link #executeJoin(Join, JavaRDD, JavaRDD)}). Set to 0 to always use a partitioned join.
+     * Default: {@link #DEFAULT_BROADCAST_JOIN_THRESHOLD}
+     *
+     * @param broadcastJoinThreshold Threshold, in bytes
+     */
+    public void setBroadcastJoinThreshold(long broadcastJoinThreshold) {
+        this.broadcastJoinThreshold = broadcastJoinThreshold;
+    }
+
+    public long getBroadcastJoinThreshold() {
+        return broadcastJoinThreshold;
+    }
+
+    /**
+     * Set the maximum length of the sequences created by ConvertToSequence operations. The examples for each key are
+     * sorted during the shuffle (spilling to disk as required) and then streamed into sequences; a sequence (a List) is
+     * the only data held in memory. For keys with a very large number of examples, set a maximum length: such sequences
+     * are then emitted as consecutive sequences of at most this length, in order, so memory use is bounded.
+     * Note that subsequent sequence operations are then applied to each part separately.
+     * Default: 0 (no limit)
+     *
+     * @param maxSequenceLength Maximum sequence length, or 0 for no limit
+     */
+    public void setMaxSequenceLength(int maxSequenceLength) {
+        if (maxSequenceLength < 0) throw new IllegalArgumentException("Invalid maximum sequence length: " + maxSequenceLength);
+        this.maxSequenceLength = maxSequenceLength;
+    }
 
-        //Filter out values where we don't have one or the other (i.e., for inner, and left/right joins)
-        // and also flatten the JoinedValue -> List<Writable>.
-        return joined.flatMap(new FilterAndFlattenJoinedValues(join.getJoinType()));
+    public int getMaxSequenceLength() {
+        return maxSequenceLength;
     }
 }
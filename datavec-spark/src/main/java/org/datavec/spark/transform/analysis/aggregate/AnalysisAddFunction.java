@@ -45,35 +45,7 @@ public class AnalysisAddFunction implements Function2<List<AnalysisCounter>,List
     @Override
     public List<AnalysisCounter> call(List<AnalysisCounter> analysisCounters, List<Writable> writables) throws Exception {
         if(analysisCounters == null){
-            analysisCounters = new ArrayList<>();
-            List<ColumnType> columnTypes = schema.getColumnTypes();
-            for(ColumnType ct : columnTypes){
-                switch (ct){
-                    case String:
-                        analysisCounters.add(new StringAnalysisCounter());
-                        break;
-                    case Integer:
-                        analysisCounters.add(new IntegerAnalysisCounter());
-                        break;
-                    case Long:
-                        analysisCounters.add(new LongAnalysisCounter());
-                        break;
-                    case Double:
-                        analysisCounters.add(new DoubleAnalysisCounter());
-                        break;
-                    case Categorical:
-                        analysisCounters.add(new CategoricalAnalysisCounter());
-                        break;
-                    case Time:
-                        analysisCounters.add(new LongAnalysisCounter());
-                        break;
-                    case Bytes:
-                        analysisCounters.add(new BytesAnalysisCounter());
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown column type: " + ct);
-                }
-            }
+            analysisCounters = createCounters(schema);
         }
 
         int size = analysisCounters.size();
@@ -84,4 +56,43 @@ public class AnalysisAddFunction implements Function2<List<AnalysisCounter>,List
 
         return analysisCounters;
     }
+
+    /**
+     * Create the (empty) counters for each column in the schema
+     *
+     * @param schema Schema of the data
+     * @return One counter per column
+     */
+    public static List<AnalysisCounter> createCounters(Schema schema){
+        List<AnalysisCounter> analysisCounters = new ArrayList<>();
+        List<ColumnType> columnTypes = schema.getColumnTypes();
+        for(ColumnType ct : columnTypes){
+            switch (ct){
+                case String:
+                    analysisCounters.add(new StringAnalysisCounter());
+                    break;
+                case Integer:
+                    analysisCounters.add(new IntegerAnalysisCounter());
+                    break;
+                case Long:
+                    analysisCounters.add(new LongAnalysisCounter());
+                    break;
+                case Double:
+                    analysisCounters.add(new DoubleAnalysisCounter());
+                    break;
+                case Categorical:
+                    analysisCounters.add(new CategoricalAnalysisCounter());
+                    break;
+                case Time:
+                    analysisCounters.add(new LongAnalysisCounter());
+                    break;
+                case Bytes:
+                    analysisCounters.add(new BytesAnalysisCounter());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown column type: " + ct);
+            }
+        }
+        return analysisCounters;
+    }
 }
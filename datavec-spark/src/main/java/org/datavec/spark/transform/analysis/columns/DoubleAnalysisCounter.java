@@ -19,6 +19,9 @@ package org.datavec.spark.transform.analysis.columns;
 import org.datavec.spark.transform.analysis.AnalysisCounter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.apache.spark.util.StatCounter;
+import org.datavec.api.transform.analysis.sketch.HyperLogLog;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
 import org.datavec.api.writable.Writable;
 
 /**
@@ -35,10 +38,13 @@ public class DoubleAnalysisCounter implements AnalysisCounter<DoubleAnalysisCoun
     private long countMinValue;
     private double minValueSeen = Double.MAX_VALUE;
     private long countMaxValue;
-    private double maxValueSeen = -Double.MIN_VALUE;
+    private double maxValueSeen = -Double.MAX_VALUE;
     private long countNaN;
     private double sum;
     private long countTotal;
+    private StatCounter stats = new StatCounter();
+    private HyperLogLog uniqueCounter = new HyperLogLog();
+    private QuantileSketch quantiles = new QuantileSketch();
 
     public DoubleAnalysisCounter(){
 
@@ -71,6 +77,9 @@ public class DoubleAnalysisCounter implements AnalysisCounter<DoubleAnalysisCoun
 
         sum += value;
         countTotal++;
+        stats.merge(value);
+        uniqueCounter.add(value);
+        quantiles.add(value);
 
         return this;
     }
@@ -98,6 +107,9 @@ public class DoubleAnalysisCounter implements AnalysisCounter<DoubleAnalysisCoun
         sum += other.sum;
         countNaN += other.countNaN;
         countTotal += other.countTotal;
+        stats.merge(other.stats);
+        uniqueCounter.merge(other.uniqueCounter);
+        quantiles.merge(other.quantiles);
 
         return this;
     }
@@ -19,6 +19,9 @@ package org.datavec.spark.transform.analysis.columns;
 import org.datavec.spark.transform.analysis.AnalysisCounter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.apache.spark.util.StatCounter;
+import org.datavec.api.transform.analysis.sketch.HyperLogLog;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
 import org.datavec.api.writable.Writable;
 
 /**
@@ -38,6 +41,9 @@ public class IntegerAnalysisCounter implements AnalysisCounter<IntegerAnalysisCo
     private int maxValueSeen = Integer.MIN_VALUE;
     private long sum = 0;
     private long countTotal = 0;
+    private StatCounter stats = new StatCounter();
+    private HyperLogLog uniqueCounter = new HyperLogLog();
+    private QuantileSketch quantiles = new QuantileSketch();
 
 
 
@@ -72,6 +78,9 @@ public class IntegerAnalysisCounter implements AnalysisCounter<IntegerAnalysisCo
 
         sum += value;
         countTotal++;
+        stats.merge((double) value);
+        uniqueCounter.add(value);
+        quantiles.add(value);
 
         return this;
     }
@@ -98,6 +107,9 @@ public class IntegerAnalysisCounter implements AnalysisCounter<IntegerAnalysisCo
         countNegative += other.countNegative;
         sum += other.sum;
         countTotal += other.countTotal;
+        stats.merge(other.stats);
+        uniqueCounter.merge(other.uniqueCounter);
+        quantiles.merge(other.quantiles);
 
         return this;
     }
@@ -19,6 +19,9 @@ package org.datavec.spark.transform.analysis.columns;
 import org.datavec.spark.transform.analysis.AnalysisCounter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.apache.spark.util.StatCounter;
+import org.datavec.api.transform.analysis.sketch.HyperLogLog;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
 import org.datavec.api.writable.Writable;
 
 import java.math.BigInteger;
@@ -40,6 +43,9 @@ public class LongAnalysisCounter implements AnalysisCounter<LongAnalysisCounter>
     private long maxValueSeen = Long.MIN_VALUE;
     private BigInteger sum = BigInteger.ZERO;
     private long countTotal = 0;
+    private StatCounter stats = new StatCounter();
+    private HyperLogLog uniqueCounter = new HyperLogLog();
+    private QuantileSketch quantiles = new QuantileSketch();
 
     public LongAnalysisCounter(){
 
@@ -71,6 +77,9 @@ public class LongAnalysisCounter implements AnalysisCounter<LongAnalysisCounter>
 
         sum = sum.add(BigInteger.valueOf(value));
         countTotal++;
+        stats.merge((double) value);
+        uniqueCounter.add(value);
+        quantiles.add(value);
 
         return this;
     }
@@ -97,6 +106,9 @@ public class LongAnalysisCounter implements AnalysisCounter<LongAnalysisCounter>
         countNegative += other.countNegative;
         sum = sum.add(other.sum);
         countTotal += other.countTotal;
+        stats.merge(other.stats);
+        uniqueCounter.merge(other.uniqueCounter);
+        quantiles.merge(other.quantiles);
 
         return this;
     }
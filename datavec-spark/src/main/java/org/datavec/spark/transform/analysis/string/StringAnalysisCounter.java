@@ -19,6 +19,8 @@ package org.datavec.spark.transform.analysis.string;
 import org.datavec.spark.transform.analysis.AnalysisCounter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.apache.spark.util.StatCounter;
+import org.datavec.api.transform.analysis.sketch.HyperLogLog;
 import org.datavec.api.writable.Writable;
 
 /**
@@ -36,6 +38,8 @@ public class StringAnalysisCounter implements AnalysisCounter<StringAnalysisCoun
     private int maxLengthSeen = Integer.MIN_VALUE;
     private long sumLength = 0;
     private long countTotal = 0;
+    private StatCounter lengthStats = new StatCounter();
+    private HyperLogLog uniqueCounter = new HyperLogLog();
 
 
     public StringAnalysisCounter(){
@@ -45,7 +49,8 @@ public class StringAnalysisCounter implements AnalysisCounter<StringAnalysisCoun
 
     @Override
     public StringAnalysisCounter add(Writable writable) {
-        int length = writable.toString().length();
+        String str = writable.toString();
+        int length = str.length();
 
         if(length == 0) countZeroLength++;
 
@@ -63,6 +68,8 @@ public class StringAnalysisCounter implements AnalysisCounter<StringAnalysisCoun
 
         sumLength += length;
         countTotal++;
+        lengthStats.merge((double) length);
+        uniqueCounter.add(str);
 
         return this;
     }
@@ -107,7 +114,9 @@ public class StringAnalysisCounter implements AnalysisCounter<StringAnalysisCoun
                 newCountMaxLength,
                 newMaxLengthSeen,
                 sumLength + other.sumLength,
-                countTotal + other.countTotal);
+                countTotal + other.countTotal,
+                lengthStats.copy().merge(other.lengthStats),
+                uniqueCounter.merge(other.uniqueCounter));
     }
 
 }
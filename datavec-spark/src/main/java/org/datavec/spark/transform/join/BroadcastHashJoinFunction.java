@@ -0,0 +1,122 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.*;
+
+/**
+ * Execute an inner or left outer join on a partition of left examples, by looking up each example's key in a broadcast
+ * hash table of the right examples. Any number of right examples may match each key.<br>
+ * Use with mapPartitions; the left examples are not shuffled.
+ */
+public class BroadcastHashJoinFunction implements FlatMapFunction<Iterator<List<Writable>>,List<Writable>> {
+
+    private final Join join;
+    private final Broadcast<Map<CompositeKeyWritable,List<List<Writable>>>> rightByKey;
+    private final ExtractJoinKeyFunction leftKeyFunction;
+
+    public BroadcastHashJoinFunction(Join join, Broadcast<Map<CompositeKeyWritable,List<List<Writable>>>> rightByKey) {
+        if (join.getJoinType() != Join.JoinType.Inner && join.getJoinType() != Join.JoinType.LeftOuter) {
+            throw new IllegalArgumentException("Broadcast hash join only supports inner and left outer joins: got "
+                    + join.getJoinType());
+        }
+        this.join = join;
+        this.rightByKey = rightByKey;
+        this.leftKeyFunction = new ExtractJoinKeyFunction(true, join);
+    }
+
+    /**
+     * Build the hash table of right examples by join key, for broadcasting
+     */
+    public static Map<CompositeKeyWritable,List<List<Writable>>> buildHashTable(Join join, List<List<Writable>> rightExamples) {
+        ExtractJoinKeyFunction keyFunction = new ExtractJoinKeyFunction(false, join);
+        Map<CompositeKeyWritable,List<List<Writable>>> map = new HashMap<>();
+        for (List<Writable> example : rightExamples) {
+            CompositeKeyWritable key = keyFunction.getKey(example);
+            List<List<Writable>> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<>(1);
+                map.put(key, list);
+            }
+            list.add(example);
+        }
+        return map;
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(final Iterator<List<Writable>> iter) throws Exception {
+        //Lazy: joined examples are generated as they are consumed, rather than buffering the partition's output
+        return new Iterable<List<Writable>>() {
+            @Override
+            public Iterator<List<Writable>> iterator() {
+                return new JoinIterator(iter, rightByKey.value());
+            }
+        };
+    }
+
+    private class JoinIterator implements Iterator<List<Writable>> {
+        private final Iterator<List<Writable>> leftIter;
+        private final Map<CompositeKeyWritable,List<List<Writable>>> map;
+        private final boolean leftOuter = (join.getJoinType() == Join.JoinType.LeftOuter);
+        private List<Writable> left;
+        private List<List<Writable>> matches;
+        private int matchIdx;
+        private List<Writable> next;
+
+        private JoinIterator(Iterator<List<Writable>> leftIter, Map<CompositeKeyWritable,List<List<Writable>>> map) {
+            this.leftIter = leftIter;
+            this.map = map;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (matches != null && matchIdx < matches.size()) {
+                    next = join.joinExamples(left, matches.get(matchIdx++));
+                } else if (leftIter.hasNext()) {
+                    left = leftIter.next();
+                    matches = map.get(leftKeyFunction.getKey(left));
+                    matchIdx = 0;
+                    if (matches == null && leftOuter) next = join.joinExamples(left, null);
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public List<Writable> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            List<Writable> out = next;
+            next = null;
+            return out;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.join;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.util.SizeEstimator;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Count the examples in a partition, and estimate the in-memory size of (up to) the first samplesPerPartition of them,
+ * for estimating the size of a data set in a single pass.<br>
+ * Returns a single array per partition: {number of examples, number of sampled examples, estimated size of sampled
+ * examples in bytes}
+ */
+@AllArgsConstructor
+public class EstimateSizeFunction implements FlatMapFunction<Iterator<List<Writable>>, long[]> {
+
+    private final int samplesPerPartition;
+
+    @Override
+    public Iterable<long[]> call(Iterator<List<Writable>> iter) throws Exception {
+        List<List<Writable>> sample = new ArrayList<>();
+        long count = 0;
+        while (iter.hasNext()) {
+            List<Writable> example = iter.next();
+            if (sample.size() < samplesPerPartition) sample.add(example);
+            count++;
+        }
+        long sampleBytes = (sample.isEmpty() ? 0 : SizeEstimator.estimate(sample));
+        return Collections.singletonList(new long[]{count, sample.size(), sampleBytes});
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.join;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Execute a join on the co-grouped left and right examples for a single key.<br>
+ * Any number of examples may be present on either side: where both sides are present, all combinations of left and
+ * right examples are returned (i.e., many-to-many joins are supported). Where only one side is present, the example(s)
+ * are returned (joined with missing values) or dropped, according to the join type.
+ */
+@AllArgsConstructor
+public class ExecuteCoGroupedJoinFunction implements
+        FlatMapFunction<Tuple2<CompositeKeyWritable,Tuple2<Iterable<List<Writable>>,Iterable<List<Writable>>>>,List<Writable>> {
+
+    private final Join join;
+
+    @Override
+    public Iterable<List<Writable>> call(Tuple2<CompositeKeyWritable, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>> t2)
+            throws Exception {
+        final Iterable<List<Writable>> leftExamples = t2._2()._1();
+        final Iterable<List<Writable>> rightExamples = t2._2()._2();
+        boolean haveLeft = leftExamples.iterator().hasNext();
+        boolean haveRight = rightExamples.iterator().hasNext();
+        Join.JoinType joinType = join.getJoinType();
+
+        if (haveLeft && haveRight) {
+            //Lazy: the combinations of left and right examples are generated as they are consumed, so that a key with
+            //many matches on both sides is never materialized all at once
+            return new Iterable<List<Writable>>() {
+                @Override
+                public Iterator<List<Writable>> iterator() {
+                    return new CrossJoinIterator(leftExamples, rightExamples);
+                }
+            };
+        } else if (haveLeft && (joinType == Join.JoinType.LeftOuter || joinType == Join.JoinType.FullOuter)) {
+            List<List<Writable>> out = new ArrayList<>();
+            for (List<Writable> left : leftExamples) {
+                out.add(join.joinExamples(left, null));
+            }
+            return out;
+        } else if (haveRight && (joinType == Join.JoinType.RightOuter || joinType == Join.JoinType.FullOuter)) {
+            List<List<Writable>> out = new ArrayList<>();
+            for (List<Writable> right : rightExamples) {
+                out.add(join.joinExamples(null, right));
+            }
+            return out;
+        }
+        return Collections.emptyList();
+    }
+
+    private class CrossJoinIterator implements Iterator<List<Writable>> {
+        private final Iterator<List<Writable>> leftIter;
+        private final Iterable<List<Writable>> rightExamples;
+        private List<Writable> left;
+        private Iterator<List<Writable>> rightIter;
+
+        private CrossJoinIterator(Iterable<List<Writable>> leftExamples, Iterable<List<Writable>> rightExamples) {
+            this.leftIter = leftExamples.iterator();
+            this.rightExamples = rightExamples;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (rightIter == null || !rightIter.hasNext()) {
+                if (!leftIter.hasNext()) return false;
+                left = leftIter.next();
+                rightIter = rightExamples.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public List<Writable> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return join.joinExamples(left, rightIter.next());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
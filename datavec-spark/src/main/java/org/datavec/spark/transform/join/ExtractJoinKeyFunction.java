@@ -0,0 +1,83 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.api.java.function.PairFunction;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.List;
+
+/**
+ * Map an example to a Tuple2<CompositeKeyWritable,List<Writable>> (join key, example) for use in a {@link Join}.<br>
+ * Each key column is encoded according to its type. Where the types of a left and right key column would give
+ * different encodings (for example, integer vs. double), both are encoded as strings so that keys still match.
+ *
+ * @author Alex Black
+ */
+public class ExtractJoinKeyFunction implements PairFunction<List<Writable>,CompositeKeyWritable,List<Writable>> {
+
+    private boolean left;
+    private Join join;
+    private transient int[] keyColumnIdxs;
+    private transient CompositeKeyWritable.Encoding[] encodings;
+
+    public ExtractJoinKeyFunction(boolean left, Join join) {
+        this.left = left;
+        this.join = join;
+    }
+
+    @Override
+    public Tuple2<CompositeKeyWritable, List<Writable>> call(List<Writable> writables) throws Exception {
+        return new Tuple2<>(getKey(writables), writables);
+    }
+
+    /**
+     * Get the join key for an example from this side of the join
+     */
+    public CompositeKeyWritable getKey(List<Writable> writables) {
+        if (keyColumnIdxs == null) {
+            initialize();
+        }
+        return CompositeKeyWritable.create(writables, keyColumnIdxs, encodings);
+    }
+
+    private void initialize() {
+        Schema leftSchema = join.getLeftSchema();
+        Schema rightSchema = join.getRightSchema();
+        String[] keyColumnsLeft = join.getKeyColumnsLeft();
+        String[] keyColumnsRight = join.getKeyColumnsRight();
+
+        int[] idxs = new int[keyColumnsLeft.length];
+        encodings = new CompositeKeyWritable.Encoding[idxs.length];
+        for (int i = 0; i < idxs.length; i++) {
+            ColumnType leftType = leftSchema.getType(leftSchema.getIndexOfColumn(keyColumnsLeft[i]));
+            ColumnType rightType = rightSchema.getType(rightSchema.getIndexOfColumn(keyColumnsRight[i]));
+            CompositeKeyWritable.Encoding leftEnc = CompositeKeyWritable.encodingFor(leftType);
+            CompositeKeyWritable.Encoding rightEnc = CompositeKeyWritable.encodingFor(rightType);
+            encodings[i] = (leftEnc == rightEnc ? leftEnc : CompositeKeyWritable.Encoding.STRING);
+
+            if (left) idxs[i] = leftSchema.getIndexOfColumn(keyColumnsLeft[i]);
+            else idxs[i] = rightSchema.getIndexOfColumn(keyColumnsRight[i]);
+        }
+        keyColumnIdxs = idxs;
+    }
+}
@@ -16,8 +16,8 @@
 
 package org.datavec.spark.transform.misc;
 
-import lombok.AllArgsConstructor;
 import org.apache.spark.api.java.function.PairFunction;
+import org.datavec.api.writable.CompositeKeyWritable;
 import org.datavec.api.writable.Writable;
 import scala.Tuple2;
 
@@ -25,16 +25,29 @@ import java.util.List;
 
 /**
  * Very simple function to extract out one writable (by index) and use it as a key in the resulting PairRDD
- * For example, myWritable.mapToPair(new ColumnsAsKeyPairFunction(myKeyColumnIdx))
+ * For example, myWritable.mapToPair(new ColumnsAsKeyPairFunction(myKeyColumnIdx))<br>
+ * If an encoding is provided, the key is instead wrapped in a {@link CompositeKeyWritable}, which can be sorted in
+ * its natural order (and compared in serialized form) rather than via a comparator
  *
  * @author Alex Black
  */
-@AllArgsConstructor
 public class ColumnAsKeyPairFunction implements PairFunction<List<Writable>, Writable, List<Writable>> {
     private final int columnIdx;
+    private final CompositeKeyWritable.Encoding encoding;
+
+    public ColumnAsKeyPairFunction(int columnIdx) {
+        this(columnIdx, null);
+    }
+
+    public ColumnAsKeyPairFunction(int columnIdx, CompositeKeyWritable.Encoding encoding) {
+        this.columnIdx = columnIdx;
+        this.encoding = encoding;
+    }
 
     @Override
     public Tuple2<Writable, List<Writable>> call(List<Writable> writables) throws Exception {
-        return new Tuple2<>(writables.get(columnIdx), writables);
+        Writable key = writables.get(columnIdx);
+        if (encoding != null) key = CompositeKeyWritable.create(key, encoding);
+        return new Tuple2<>(key, writables);
     }
 }
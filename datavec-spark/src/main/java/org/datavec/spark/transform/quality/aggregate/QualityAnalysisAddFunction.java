@@ -0,0 +1,139 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.quality.aggregate;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.analysis.sketch.HyperLogLog;
+import org.datavec.api.transform.metadata.*;
+import org.datavec.api.transform.quality.columns.*;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.quality.categorical.CategoricalQualityAddFunction;
+import org.datavec.spark.transform.quality.integer.IntegerQualityAddFunction;
+import org.datavec.spark.transform.quality.longq.LongQualityAddFunction;
+import org.datavec.spark.transform.quality.real.RealQualityAddFunction;
+import org.datavec.spark.transform.quality.string.StringQualityAddFunction;
+import org.datavec.spark.transform.quality.time.TimeQualityAddFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Add function used for analyzing the quality of all columns of a data set (and counting the unique values in String
+ * columns) in a single pass via Spark
+ */
+public class QualityAnalysisAddFunction implements Function2<QualityAnalysisState,List<Writable>,QualityAnalysisState> {
+
+    private final Schema schema;
+    private transient List<Function2> addFunctions;
+
+    public QualityAnalysisAddFunction(Schema schema) {
+        this.schema = schema;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public QualityAnalysisState call(QualityAnalysisState state, List<Writable> writables) throws Exception {
+        int nColumns = schema.numColumns();
+        if (addFunctions == null) {
+            List<Function2> functions = new ArrayList<>(nColumns);
+            for (int i = 0; i < nColumns; i++) {
+                functions.add(getAddFunction(schema.getMetaData(i)));
+            }
+            addFunctions = functions;
+        }
+
+        if (state == null) {
+            state = createInitialState(schema);
+        }
+
+        List<ColumnQuality> qualities = state.getColumnQualities();
+        HyperLogLog[] uniqueCounters = state.getUniqueCounters();
+        if (nColumns != writables.size()) throw new IllegalStateException("Writables list and number of columns does not match (" + writables.size() + " vs " + nColumns + ")");
+        for (int i = 0; i < nColumns; i++) {
+            Function2 f = addFunctions.get(i);
+            if (f != null) {
+                qualities.set(i, (ColumnQuality) f.call(qualities.get(i), writables.get(i)));
+            }
+            if (uniqueCounters[i] != null) {
+                uniqueCounters[i].add(writables.get(i).toString());
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Create the state for a data set with no examples: zero counts for every column
+     *
+     * @param schema Schema of the data
+     * @return Initial (empty) quality analysis state
+     */
+    public static QualityAnalysisState createInitialState(Schema schema) {
+        int nColumns = schema.numColumns();
+        List<ColumnQuality> qualities = new ArrayList<>(nColumns);
+        HyperLogLog[] uniqueCounters = new HyperLogLog[nColumns];
+        for (int i = 0; i < nColumns; i++) {
+            qualities.add(getInitialQuality(schema.getMetaData(i)));
+            if (schema.getType(i) == ColumnType.String) uniqueCounters[i] = new HyperLogLog();
+        }
+        return new QualityAnalysisState(qualities, uniqueCounters);
+    }
+
+    private static ColumnQuality getInitialQuality(ColumnMetaData meta) {
+        switch (meta.getColumnType()) {
+            case String:
+                return new StringQuality();
+            case Integer:
+                return new IntegerQuality(0, 0, 0, 0, 0);
+            case Long:
+                return new LongQuality();
+            case Double:
+                return new DoubleQuality();
+            case Categorical:
+                return new CategoricalQuality();
+            case Time:
+                return new TimeQuality();
+            case Bytes:
+                return new BytesQuality();    //TODO
+            default:
+                throw new RuntimeException("Unknown or not implemented column type: " + meta.getColumnType());
+        }
+    }
+
+    private static Function2 getAddFunction(ColumnMetaData meta) {
+        switch (meta.getColumnType()) {
+            case String:
+                return new StringQualityAddFunction((StringMetaData) meta);
+            case Integer:
+                return new IntegerQualityAddFunction((IntegerMetaData) meta);
+            case Long:
+                return new LongQualityAddFunction((LongMetaData) meta);
+            case Double:
+                return new RealQualityAddFunction((DoubleMetaData) meta);
+            case Categorical:
+                return new CategoricalQualityAddFunction((CategoricalMetaData) meta);
+            case Time:
+                return new TimeQualityAddFunction((TimeMetaData) meta);
+            case Bytes:
+                return null;
+            default:
+                throw new RuntimeException("Unknown or not implemented column type: " + meta.getColumnType());
+        }
+    }
+}
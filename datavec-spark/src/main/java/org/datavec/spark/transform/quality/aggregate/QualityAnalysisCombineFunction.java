@@ -0,0 +1,59 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.quality.aggregate;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.analysis.sketch.HyperLogLog;
+import org.datavec.api.transform.quality.columns.*;
+
+import java.util.List;
+
+/**
+ * Combine function used for analyzing the quality of all columns of a data set in a single pass via Spark
+ */
+public class QualityAnalysisCombineFunction implements Function2<QualityAnalysisState,QualityAnalysisState,QualityAnalysisState> {
+    @Override
+    public QualityAnalysisState call(QualityAnalysisState s1, QualityAnalysisState s2) throws Exception {
+        if (s1 == null) return s2;
+        if (s2 == null) return s1;
+
+        List<ColumnQuality> l1 = s1.getColumnQualities();
+        List<ColumnQuality> l2 = s2.getColumnQualities();
+        HyperLogLog[] u1 = s1.getUniqueCounters();
+        HyperLogLog[] u2 = s2.getUniqueCounters();
+
+        int size = l1.size();
+        if (size != l2.size()) throw new IllegalStateException("List lengths differ");
+
+        for (int i = 0; i < size; i++) {
+            l1.set(i, merge(l1.get(i), l2.get(i)));
+            if (u1[i] != null) u1[i].merge(u2[i]);
+        }
+        return s1;
+    }
+
+    private static ColumnQuality merge(ColumnQuality q1, ColumnQuality q2) {
+        if (q1 instanceof StringQuality) return ((StringQuality) q1).add((StringQuality) q2);
+        if (q1 instanceof IntegerQuality) return ((IntegerQuality) q1).add((IntegerQuality) q2);
+        if (q1 instanceof LongQuality) return ((LongQuality) q1).add((LongQuality) q2);
+        if (q1 instanceof DoubleQuality) return ((DoubleQuality) q1).add((DoubleQuality) q2);
+        if (q1 instanceof CategoricalQuality) return ((CategoricalQuality) q1).add((CategoricalQuality) q2);
+        if (q1 instanceof TimeQuality) return ((TimeQuality) q1).add((TimeQuality) q2);
+        return q1;  //BytesQuality: not yet implemented
+    }
+}
@@ -14,23 +14,25 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.join;
+
+package org.datavec.spark.transform.quality.aggregate;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.datavec.api.writable.Writable;
+import org.datavec.api.transform.analysis.sketch.HyperLogLog;
+import org.datavec.api.transform.quality.columns.ColumnQuality;
 
 import java.io.Serializable;
 import java.util.List;
 
 /**
- * Simple helper class for executing joins
+ * Intermediate state when analyzing the quality of all columns in a single pass: the quality for each column, and
+ * (for String columns only, otherwise null) a sketch for counting the unique values
  */
 @AllArgsConstructor @Data
-public class JoinedValue implements Serializable {
+public class QualityAnalysisState implements Serializable {
 
-    private final boolean haveLeft;
-    private final boolean haveRight;
-    private final List<Writable> values;
+    private List<ColumnQuality> columnQualities;
+    private HyperLogLog[] uniqueCounters;
 
 }
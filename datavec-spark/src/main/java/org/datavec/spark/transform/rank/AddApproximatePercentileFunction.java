@@ -0,0 +1,52 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append the approximate percentile rank of each example to the example, as estimated from a {@link QuantileSketch}
+ * of the values of the rank column: that is, the (estimated) fraction of examples that come before the example when
+ * sorted by the column - either with smaller values (ascending) or larger values (descending)
+ */
+public class AddApproximatePercentileFunction implements Function<List<Writable>, List<Writable>> {
+
+    private final int columnIdx;
+    private final boolean ascending;
+    private final QuantileSketch sketch;
+
+    public AddApproximatePercentileFunction(int columnIdx, boolean ascending, QuantileSketch sketch) {
+        this.columnIdx = columnIdx;
+        this.ascending = ascending;
+        this.sketch = sketch;
+    }
+
+    @Override
+    public List<Writable> call(List<Writable> v1) throws Exception {
+        double value = v1.get(columnIdx).toDouble();
+        double percentile = (ascending ? sketch.getRank(value, false) : 1.0 - sketch.getRank(value, true));
+        List<Writable> out = new ArrayList<>(v1);
+        out.add(new DoubleWritable(percentile));
+        return out;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Spark function (for use with mapPartitionsWithIndex) that appends the global rank to each example of a
+ * range-partitioned, sorted RDD (see {@link RangeRankPartitioner}). The rank of an example is the rank offset of its
+ * partition (the total number of examples in all earlier partitions) plus its position within the partition.
+ */
+public class AssignSortedRankFunction implements
+        Function2<Integer, Iterator<Tuple2<Writable, List<Writable>>>, Iterator<List<Writable>>> {
+
+    private final long[] partitionOffsets;
+
+    /**
+     * @param partitionOffsets Rank of the first example in each partition
+     */
+    public AssignSortedRankFunction(long[] partitionOffsets) {
+        this.partitionOffsets = partitionOffsets;
+    }
+
+    @Override
+    public Iterator<List<Writable>> call(Integer partitionIdx, final Iterator<Tuple2<Writable, List<Writable>>> iter)
+            throws Exception {
+        final long offset = partitionOffsets[partitionIdx];
+        return new Iterator<List<Writable>>() {
+            private long rank = offset;
+
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public List<Writable> next() {
+                List<Writable> example = new ArrayList<>(iter.next()._2());
+                example.add(new LongWritable(rank++));
+                return example;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
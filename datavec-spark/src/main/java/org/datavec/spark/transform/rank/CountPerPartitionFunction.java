@@ -0,0 +1,49 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.Partitioner;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Spark function (for use with mapPartitions) that counts the number of examples in a partition that will be assigned
+ * to each partition of the specified partitioner. Returns a single array of counts per partition, to be summed
+ * with {@link SumPartitionCountsFunction}
+ */
+public class CountPerPartitionFunction implements FlatMapFunction<Iterator<Tuple2<Writable, List<Writable>>>, long[]> {
+
+    private final Partitioner partitioner;
+
+    public CountPerPartitionFunction(Partitioner partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    @Override
+    public Iterable<long[]> call(Iterator<Tuple2<Writable, List<Writable>>> iter) throws Exception {
+        long[] counts = new long[partitioner.numPartitions()];
+        while (iter.hasNext()) {
+            counts[partitioner.getPartition(iter.next()._1())]++;
+        }
+        return Collections.singletonList(counts);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+
+/**
+ * Add the value of one column of an example to a {@link QuantileSketch}; for use with aggregate/treeAggregate
+ * and {@link QuantileSketchCombineFunction}
+ */
+public class QuantileSketchAddFunction implements Function2<QuantileSketch, List<Writable>, QuantileSketch> {
+
+    private final int columnIdx;
+
+    public QuantileSketchAddFunction(int columnIdx) {
+        this.columnIdx = columnIdx;
+    }
+
+    @Override
+    public QuantileSketch call(QuantileSketch sketch, List<Writable> example) throws Exception {
+        sketch.add(example.get(columnIdx).toDouble());
+        return sketch;
+    }
+}
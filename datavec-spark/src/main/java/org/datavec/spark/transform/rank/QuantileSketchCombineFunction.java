@@ -0,0 +1,30 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.analysis.sketch.QuantileSketch;
+
+/**
+ * Merge two {@link QuantileSketch} instances; for use with aggregate/treeAggregate and {@link QuantileSketchAddFunction}
+ */
+public class QuantileSketchCombineFunction implements Function2<QuantileSketch, QuantileSketch, QuantileSketch> {
+    @Override
+    public QuantileSketch call(QuantileSketch v1, QuantileSketch v2) throws Exception {
+        return v1.merge(v2);
+    }
+}
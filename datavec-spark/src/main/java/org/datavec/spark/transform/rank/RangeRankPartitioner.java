@@ -0,0 +1,113 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.Partitioner;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Partitioner that assigns sort keys to contiguous, ordered ranges: all keys in partition i come before (according
+ * to the comparator) all keys in partition i+1, and equal keys are always assigned to the same partition.<br>
+ * Combined with sorting within each partition, this gives a total order over the data set, where the global position
+ * of each example is given by its position within the partition plus the number of examples in earlier partitions.
+ */
+public class RangeRankPartitioner extends Partitioner {
+
+    private final Writable[] bounds;
+    private final Comparator<Writable> comparator;
+
+    /**
+     * @param bounds     Upper bounds (inclusive) of the first bounds.length partitions, in sorted order
+     * @param comparator Comparator for the keys
+     */
+    public RangeRankPartitioner(Writable[] bounds, Comparator<Writable> comparator) {
+        this.bounds = bounds;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Determine (approximately) equal-sized key ranges from per-partition samples of the keys
+     *
+     * @param samples       Samples of the keys, one per partition, as returned by {@link SampleSortKeysFunction}
+     * @param numPartitions Maximum number of partitions
+     * @param comparator    Comparator for the keys
+     */
+    public static RangeRankPartitioner fromSamples(List<Tuple2<Long, List<Writable>>> samples, int numPartitions,
+                    final Comparator<Writable> comparator) {
+        //Each sampled key stands in for (partition size / sample size) keys in the full data set
+        List<Tuple2<Writable, Double>> weighted = new ArrayList<>();
+        double totalWeight = 0.0;
+        for (Tuple2<Long, List<Writable>> t : samples) {
+            List<Writable> keys = t._2();
+            if (keys.isEmpty()) continue;
+            double weight = t._1() / (double) keys.size();
+            for (Writable key : keys) {
+                weighted.add(new Tuple2<>(key, weight));
+            }
+            totalWeight += t._1();
+        }
+        Collections.sort(weighted, new Comparator<Tuple2<Writable, Double>>() {
+            @Override
+            public int compare(Tuple2<Writable, Double> o1, Tuple2<Writable, Double> o2) {
+                return comparator.compare(o1._1(), o2._1());
+            }
+        });
+
+        List<Writable> bounds = new ArrayList<>();
+        double step = totalWeight / numPartitions;
+        double target = step;
+        double cumulative = 0.0;
+        for (Tuple2<Writable, Double> t : weighted) {
+            if (bounds.size() >= numPartitions - 1) break;
+            cumulative += t._2();
+            if (cumulative >= target) {
+                //Skip duplicate bounds: equal keys must all be assigned to the same partition
+                if (bounds.isEmpty() || comparator.compare(t._1(), bounds.get(bounds.size() - 1)) > 0) {
+                    bounds.add(t._1());
+                    target += step;
+                }
+            }
+        }
+
+        return new RangeRankPartitioner(bounds.toArray(new Writable[bounds.size()]), comparator);
+    }
+
+    @Override
+    public int numPartitions() {
+        return bounds.length + 1;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+        //First partition whose upper bound is >= the key
+        Writable w = (Writable) key;
+        int lo = 0;
+        int hi = bounds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare(bounds[mid], w) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.*;
+
+/**
+ * Spark function (for use with mapPartitionsWithIndex) that draws a uniform (reservoir) sample of the sort keys in
+ * each partition. Returns a single (partition size, sampled keys) pair per partition; the partition size is used to
+ * weight the samples when determining the range bounds for {@link RangeRankPartitioner}
+ */
+public class SampleSortKeysFunction implements
+        Function2<Integer, Iterator<Tuple2<Writable, List<Writable>>>, Iterator<Tuple2<Long, List<Writable>>>> {
+
+    private final int sampleSize;
+    private final long seed;
+
+    public SampleSortKeysFunction(int sampleSize, long seed) {
+        this.sampleSize = sampleSize;
+        this.seed = seed;
+    }
+
+    @Override
+    public Iterator<Tuple2<Long, List<Writable>>> call(Integer partitionIdx, Iterator<Tuple2<Writable, List<Writable>>> iter)
+            throws Exception {
+        Random r = new Random(seed + partitionIdx);
+        List<Writable> sample = new ArrayList<>(sampleSize);
+        long count = 0;
+        while (iter.hasNext()) {
+            Writable key = iter.next()._1();
+            if (count < sampleSize) {
+                sample.add(key);
+            } else {
+                long idx = (long) (r.nextDouble() * (count + 1));
+                if (idx < sampleSize) sample.set((int) idx, key);
+            }
+            count++;
+        }
+        return Collections.singletonList(new Tuple2<>(count, sample)).iterator();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Comparator for the sort keys used in executing CalculateSortedRank.<br>
+ * If no comparator is provided, keys are compared in their natural order (as is the case for
+ * {@link org.datavec.api.writable.CompositeKeyWritable} keys); the order is reversed when sorting in descending order.
+ */
+public class SortedRankKeyComparator implements Comparator<Writable>, Serializable {
+
+    private final Comparator<Writable> comparator;
+    private final boolean ascending;
+
+    /**
+     * @param comparator Comparator for the keys, or null to compare keys in their natural order
+     * @param ascending  If true: ascending order. False: descending
+     */
+    public SortedRankKeyComparator(Comparator<Writable> comparator, boolean ascending) {
+        this.comparator = comparator;
+        this.ascending = ascending;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compare(Writable o1, Writable o2) {
+        int c = (comparator != null ? comparator.compare(o1, o2) : ((Comparable<Writable>) o1).compareTo(o2));
+        return (ascending ? c : -c);
+    }
+}
@@ -14,27 +14,23 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.sequence;
 
-import lombok.AllArgsConstructor;
-import org.apache.spark.api.java.function.PairFunction;
+package org.datavec.spark.transform.reduce;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.reduce.ReducerAccumulator;
 import org.datavec.api.writable.Writable;
-import scala.Tuple2;
 
 import java.util.List;
 
 /**
- * Spark function to map a n example to a pair, by using one of the columns as the key.
- *
- * @author Alex Black
+ * Add an example to a reducer accumulator (combineByKey "mergeValue")
  */
-@AllArgsConstructor
-public class SparkMapToPairByColumnFunction implements PairFunction<List<Writable>,Writable,List<Writable>> {
-
-    private final int keyColumnIdx;
+public class AddToReducerAccumulatorFunction implements Function2<ReducerAccumulator,List<Writable>,ReducerAccumulator> {
 
     @Override
-    public Tuple2<Writable, List<Writable>> call(List<Writable> writables) throws Exception {
-        return new Tuple2<>(writables.get(keyColumnIdx),writables);
+    public ReducerAccumulator call(ReducerAccumulator accumulator, List<Writable> writables) throws Exception {
+        accumulator.add(writables);
+        return accumulator;
     }
 }
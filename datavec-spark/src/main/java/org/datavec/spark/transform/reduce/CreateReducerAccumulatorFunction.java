@@ -14,26 +14,29 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.rank;
 
+package org.datavec.spark.transform.reduce;
+
+import lombok.AllArgsConstructor;
 import org.apache.spark.api.java.function.Function;
-import org.datavec.api.writable.LongWritable;
+import org.datavec.api.transform.reduce.MergeableReducer;
+import org.datavec.api.transform.reduce.ReducerAccumulator;
 import org.datavec.api.writable.Writable;
-import scala.Tuple2;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * A simple helper function for use in executing CalculateSortedRank
- *
- * @author Alex Black
+ * Create a reducer accumulator from the first example for a key (combineByKey "createCombiner")
  */
-public class UnzipForCalculateSortedRankFunction implements Function<Tuple2<Tuple2<Writable,List<Writable>>,Long>,List<Writable>> {
+@AllArgsConstructor
+public class CreateReducerAccumulatorFunction implements Function<List<Writable>,ReducerAccumulator> {
+
+    private final MergeableReducer reducer;
+
     @Override
-    public List<Writable> call(Tuple2<Tuple2<Writable, List<Writable>>, Long> v1) throws Exception {
-        List<Writable> inputWritables = new ArrayList<>(v1._1()._2());
-        inputWritables.add(new LongWritable(v1._2()));
-        return inputWritables;
+    public ReducerAccumulator call(List<Writable> writables) throws Exception {
+        ReducerAccumulator accumulator = reducer.newAccumulator();
+        accumulator.add(writables);
+        return accumulator;
     }
 }
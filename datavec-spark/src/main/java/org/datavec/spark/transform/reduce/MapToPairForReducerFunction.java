@@ -16,36 +16,43 @@
 
 package org.datavec.spark.transform.reduce;
 
-import lombok.AllArgsConstructor;
 import org.apache.spark.api.java.function.PairFunction;
-import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.reduce.IReducer;
 import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.Writable;
 import scala.Tuple2;
 
 import java.util.List;
 
-
-@AllArgsConstructor
-public class MapToPairForReducerFunction implements PairFunction<List<Writable>,String,List<Writable>> {
+/**
+ * Map an example to a (key, example) pair for reduction, where the key is a {@link CompositeKeyWritable} built from
+ * the reducer's key columns
+ */
+public class MapToPairForReducerFunction implements PairFunction<List<Writable>,CompositeKeyWritable,List<Writable>> {
 
     private final IReducer reducer;
+    private transient int[] keyColumnIdxs;
+    private transient CompositeKeyWritable.Encoding[] encodings;
+
+    public MapToPairForReducerFunction(IReducer reducer) {
+        this.reducer = reducer;
+    }
 
     @Override
-    public Tuple2<String, List<Writable>> call(List<Writable> writables) throws Exception {
-        List<String> keyColumns = reducer.getKeyColumns();
-        Schema schema = reducer.getInputSchema();
-        String key;
-        if(keyColumns.size() == 1) key = writables.get(schema.getIndexOfColumn(keyColumns.get(0))).toString();
-        else {
-            StringBuilder sb = new StringBuilder();
-            for( int i=0; i<keyColumns.size(); i++ ){
-                if(i > 0) sb.append("_");
-                sb.append(writables.get(schema.getIndexOfColumn(keyColumns.get(i))).toString());
+    public Tuple2<CompositeKeyWritable, List<Writable>> call(List<Writable> writables) throws Exception {
+        if (keyColumnIdxs == null) {
+            List<String> keyColumns = reducer.getKeyColumns();
+            Schema schema = reducer.getInputSchema();
+            int[] idxs = new int[keyColumns.size()];
+            encodings = new CompositeKeyWritable.Encoding[idxs.length];
+            for (int i = 0; i < idxs.length; i++) {
+                idxs[i] = schema.getIndexOfColumn(keyColumns.get(i));
+                encodings[i] = CompositeKeyWritable.encodingFor(schema.getType(idxs[i]));
             }
-            key = sb.toString();
+            keyColumnIdxs = idxs;
         }
 
-        return new Tuple2<>(key,writables);
+        return new Tuple2<>(CompositeKeyWritable.create(writables, keyColumnIdxs, encodings), writables);
     }
 }
@@ -0,0 +1,33 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.reduce;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.reduce.ReducerAccumulator;
+
+/**
+ * Merge two partial reducer accumulators (combineByKey "mergeCombiners")
+ */
+public class MergeReducerAccumulatorsFunction implements Function2<ReducerAccumulator,ReducerAccumulator,ReducerAccumulator> {
+
+    @Override
+    public ReducerAccumulator call(ReducerAccumulator first, ReducerAccumulator second) throws Exception {
+        first.merge(second);
+        return first;
+    }
+}
@@ -14,22 +14,22 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.join;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+package org.datavec.spark.transform.reduce;
+
+import org.apache.spark.api.java.function.Function;
+import org.datavec.api.transform.reduce.ReducerAccumulator;
 import org.datavec.api.writable.Writable;
 
-import java.io.Serializable;
 import java.util.List;
 
 /**
- * Simple helper class for executing joins
+ * Get the reduced example from a (fully merged) reducer accumulator
  */
-@AllArgsConstructor @Data
-public class JoinValue implements Serializable {
-
-    private final boolean left;
-    private final List<Writable> values;
+public class ReducerAccumulatorResultFunction implements Function<ReducerAccumulator,List<Writable>> {
 
+    @Override
+    public List<Writable> call(ReducerAccumulator accumulator) throws Exception {
+        return accumulator.get();
+    }
 }
@@ -18,6 +18,7 @@ package org.datavec.spark.transform.reduce;
 
 import lombok.AllArgsConstructor;
 import org.apache.spark.api.java.function.Function;
+import org.datavec.api.writable.CompositeKeyWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.reduce.IReducer;
 import scala.Tuple2;
@@ -31,12 +32,12 @@ import java.util.List;
  * @author Alex Black
  */
 @AllArgsConstructor
-public class ReducerFunction implements Function<Tuple2<String,Iterable<List<Writable>>>,List<Writable>> {
+public class ReducerFunction implements Function<Tuple2<CompositeKeyWritable,Iterable<List<Writable>>>,List<Writable>> {
 
     private final IReducer reducer;
 
     @Override
-    public List<Writable> call(Tuple2<String, Iterable<List<Writable>>> t2) throws Exception {
+    public List<Writable> call(Tuple2<CompositeKeyWritable, Iterable<List<Writable>>> t2) throws Exception {
         List<List<Writable>> list = new ArrayList<>();
         for(List<Writable> c : t2._2()){
             list.add(c);
@@ -0,0 +1,49 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.apache.spark.api.java.function.PairFunction;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.List;
+
+/**
+ * Spark function to map an example to a ((sequence key, example), null) pair, for sorting with
+ * {@link SequenceSortKeyComparator}. The sequence key is the value of the key column, as a {@link CompositeKeyWritable}.
+ */
+public class MapToSequenceSortKeyFunction
+        implements PairFunction<List<Writable>,Tuple2<CompositeKeyWritable,List<Writable>>,Writable> {
+
+    private final int keyColumnIdx;
+    private final CompositeKeyWritable.Encoding encoding;
+
+    public MapToSequenceSortKeyFunction(int keyColumnIdx, CompositeKeyWritable.Encoding encoding) {
+        this.keyColumnIdx = keyColumnIdx;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public Tuple2<Tuple2<CompositeKeyWritable, List<Writable>>, Writable> call(List<Writable> writables) throws Exception {
+        CompositeKeyWritable key = CompositeKeyWritable.create(writables.get(keyColumnIdx), encoding);
+        return new Tuple2<Tuple2<CompositeKeyWritable, List<Writable>>, Writable>(new Tuple2<>(key, writables),
+                NullWritable.INSTANCE);
+    }
+}
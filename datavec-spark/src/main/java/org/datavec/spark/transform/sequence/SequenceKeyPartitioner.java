@@ -0,0 +1,57 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.apache.spark.Partitioner;
+import org.datavec.api.writable.CompositeKeyWritable;
+import scala.Tuple2;
+
+/**
+ * Partitioner for (sequence key, example) pairs that partitions on the sequence key only, so that all examples for
+ * a sequence end up in the same partition
+ */
+public class SequenceKeyPartitioner extends Partitioner {
+
+    private final int numPartitions;
+
+    public SequenceKeyPartitioner(int numPartitions) {
+        this.numPartitions = numPartitions;
+    }
+
+    @Override
+    public int numPartitions() {
+        return numPartitions;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+        CompositeKeyWritable sequenceKey = (CompositeKeyWritable) ((Tuple2<?, ?>) key)._1();
+        int mod = sequenceKey.hashCode() % numPartitions;
+        return (mod < 0 ? mod + numPartitions : mod);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SequenceKeyPartitioner && ((SequenceKeyPartitioner) o).numPartitions == numPartitions;
+    }
+
+    @Override
+    public int hashCode() {
+        return numPartitions;
+    }
+}
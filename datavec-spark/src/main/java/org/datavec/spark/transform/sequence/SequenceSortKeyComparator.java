@@ -14,37 +14,35 @@
  *  *    limitations under the License.
  */
 
+
 package org.datavec.spark.transform.sequence;
 
-import lombok.AllArgsConstructor;
-import org.apache.spark.api.java.function.Function;
-import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.sequence.SequenceComparator;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.Writable;
 import scala.Tuple2;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.Serializable;
+import java.util.Comparator;
 import java.util.List;
 
 /**
- * Spark function for grouping independent values/examples into a sequence, and then sorting them
- * using a provided {@link SequenceComparator}
- *
- * @author Alex Black
+ * Comparator for (sequence key, example) pairs: orders first by sequence key, and then by the
+ * {@link SequenceComparator} within each sequence. Used to sort examples into sequences during the shuffle
+ * (a "secondary sort").
  */
-@AllArgsConstructor
-public class SparkGroupToSequenceFunction implements Function<Tuple2<Writable,Iterable<List<Writable>>>,List<List<Writable>>> {
+public class SequenceSortKeyComparator implements Comparator<Tuple2<CompositeKeyWritable,List<Writable>>>, Serializable {
 
     private final SequenceComparator comparator;
 
-    @Override
-    public List<List<Writable>> call(Tuple2<Writable, Iterable<List<Writable>>> tuple) throws Exception {
-
-        List<List<Writable>> list = new ArrayList<>();
-        for (List<Writable> writables : tuple._2()) list.add(writables);
-
-        Collections.sort(list,comparator);
+    public SequenceSortKeyComparator(SequenceComparator comparator) {
+        this.comparator = comparator;
+    }
 
-        return list;
+    @Override
+    public int compare(Tuple2<CompositeKeyWritable, List<Writable>> o1, Tuple2<CompositeKeyWritable, List<Writable>> o2) {
+        int c = o1._1().compareTo(o2._1());
+        if (c != 0) return c;
+        return comparator.compare(o1._2(), o2._2());
     }
 }
@@ -0,0 +1,109 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Spark function (for use with mapPartitions) that collects consecutive examples with the same sequence key into
+ * sequences. The partition must already be sorted by sequence key (and within each sequence, by the sequence
+ * comparator), as by repartitionAndSortWithinPartitions with {@link SequenceKeyPartitioner} and
+ * {@link SequenceSortKeyComparator}.<br>
+ * Sequences are produced lazily while iterating over the partition: only one sequence is held in memory at a time.
+ * Optionally, a maximum sequence length may be set: sequences longer than this are emitted as consecutive (ordered)
+ * sequences of at most the maximum length, so that memory is bounded even for keys with a very large number of examples.
+ */
+public class SortedExamplesToSequenceFunction implements
+        FlatMapFunction<Iterator<Tuple2<Tuple2<CompositeKeyWritable,List<Writable>>,Writable>>,List<List<Writable>>> {
+
+    private final int maxSequenceLength;
+
+    public SortedExamplesToSequenceFunction() {
+        this(0);
+    }
+
+    /**
+     * @param maxSequenceLength Maximum length of the output sequences; longer sequences are split into consecutive
+     *                          sequences of at most this length. 0 for no limit
+     */
+    public SortedExamplesToSequenceFunction(int maxSequenceLength) {
+        if (maxSequenceLength < 0) throw new IllegalArgumentException("Invalid maximum sequence length: " + maxSequenceLength);
+        this.maxSequenceLength = maxSequenceLength;
+    }
+
+    @Override
+    public Iterable<List<List<Writable>>> call(final Iterator<Tuple2<Tuple2<CompositeKeyWritable, List<Writable>>, Writable>> iter)
+            throws Exception {
+        return new Iterable<List<List<Writable>>>() {
+            @Override
+            public Iterator<List<List<Writable>>> iterator() {
+                return new SequenceIterator(iter, maxSequenceLength);
+            }
+        };
+    }
+
+    private static class SequenceIterator implements Iterator<List<List<Writable>>> {
+        private final Iterator<Tuple2<Tuple2<CompositeKeyWritable, List<Writable>>, Writable>> iter;
+        private final int maxSequenceLength;
+        private Tuple2<CompositeKeyWritable, List<Writable>> next;
+
+        private SequenceIterator(Iterator<Tuple2<Tuple2<CompositeKeyWritable, List<Writable>>, Writable>> iter,
+                                 int maxSequenceLength) {
+            this.iter = iter;
+            this.maxSequenceLength = maxSequenceLength;
+            if (iter.hasNext()) next = iter.next()._1();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public List<List<Writable>> next() {
+            if (next == null) throw new NoSuchElementException();
+            CompositeKeyWritable key = next._1();
+            List<List<Writable>> sequence = new ArrayList<>();
+            sequence.add(next._2());
+            next = null;
+            while (iter.hasNext()) {
+                Tuple2<CompositeKeyWritable, List<Writable>> t = iter.next()._1();
+                if (!key.equals(t._1()) || sequence.size() == maxSequenceLength) {
+                    //Start of the next sequence, or the next part of this sequence
+                    next = t;
+                    break;
+                }
+                sequence.add(t._2());
+            }
+            return sequence;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
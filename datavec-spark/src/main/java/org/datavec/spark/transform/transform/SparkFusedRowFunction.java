@@ -0,0 +1,80 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.transform;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.datavec.api.transform.fused.FusedRowOperator;
+import org.datavec.api.writable.Writable;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Execute a {@link FusedRowOperator} on each partition, reusing a single row buffer for all examples in the partition.
+ * Examples are processed lazily, as the output is iterated over.
+ */
+@AllArgsConstructor
+public class SparkFusedRowFunction implements FlatMapFunction<Iterator<List<Writable>>, List<Writable>> {
+
+    private final FusedRowOperator operator;
+
+    @Override
+    public Iterable<List<Writable>> call(final Iterator<List<Writable>> iterator) throws Exception {
+        return new Iterable<List<Writable>>() {
+            @Override
+            public Iterator<List<Writable>> iterator() {
+                return new FusedIterator(iterator, operator);
+            }
+        };
+    }
+
+    private static class FusedIterator implements Iterator<List<Writable>> {
+        private final Iterator<List<Writable>> iterator;
+        private final FusedRowOperator operator;
+        private final FusedRowOperator.RowBuffer buffer;
+        private List<Writable> next;
+
+        private FusedIterator(Iterator<List<Writable>> iterator, FusedRowOperator operator) {
+            this.iterator = iterator;
+            this.operator = operator;
+            this.buffer = operator.newRowBuffer();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                next = operator.execute(iterator.next(), buffer);
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<Writable> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            List<Writable> out = next;
+            next = null;
+            return out;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -20,31 +20,97 @@ import org.datavec.spark.transform.misc.WritablesToStringFunction;
 import lombok.AllArgsConstructor;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.HashPartitioner;
+import org.apache.spark.SerializableWritable;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.Function;
 import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.utils.export.ExportConfig;
+import org.datavec.spark.transform.utils.export.RandomShuffleKeyFunction;
+import org.datavec.spark.transform.utils.export.WritePartitionFunction;
+import scala.Tuple2;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 /**
  * Created by Alex on 7/03/2016.
  */
 public class SparkExport {
 
+    /** Name of the manifest file written by {@link #exportPartitioned(String, JavaRDD, ExportConfig)} */
+    public static final String MANIFEST_FILE_NAME = "_manifest";
+
     //Quick and dirty CSV export (using Spark). Eventually, rework this to use DataVec record writers on Spark
     public static void exportCSVSpark(String directory, String delimiter, int outputSplits, JavaRDD<List<Writable>> data) {
 
         //NOTE: Order is probably not random here...
         JavaRDD<String> lines = data.map(new WritablesToStringFunction(delimiter));
-        lines.coalesce(outputSplits);
+        lines = lines.coalesce(outputSplits);
 
         lines.saveAsTextFile(directory);
     }
 
+    /**
+     * Export the data to a set of files in the specified output directory (local, HDFS, etc), in parallel.
+     * Each output file is written directly by an executor, with examples streamed to the file: unlike the
+     * exportCSVLocal methods, no data is collected on the driver.<br>
+     * The data may optionally be shuffled (deterministically, for a given seed and input partitioning), compressed
+     * and repartitioned to a specified number of files: see {@link ExportConfig}.<br>
+     * In addition to the data files, a manifest file ({@link #MANIFEST_FILE_NAME}) is written to the output
+     * directory, listing each file name and the number of examples it contains (tab separated, one file per line).
+     *
+     * @param outputDir Output directory
+     * @param data      Data to export
+     * @param config    Export configuration
+     * @return Map of output file name to the number of examples in that file, in file name order
+     */
+    public static Map<String, Long> exportPartitioned(String outputDir, JavaRDD<List<Writable>> data,
+                                                      ExportConfig config) throws IOException {
+        int numFiles = (config.getNumFiles() > 0 ? config.getNumFiles() : data.partitions().size());
+
+        JavaRDD<List<Writable>> toWrite;
+        if (config.isShuffle()) {
+            JavaPairRDD<Long, List<Writable>> keyed = JavaPairRDD.fromJavaRDD(
+                    data.mapPartitionsWithIndex(new RandomShuffleKeyFunction(config.getSeed()), true));
+            toWrite = keyed.repartitionAndSortWithinPartitions(new HashPartitioner(numFiles)).values();
+        } else if (numFiles < data.partitions().size()) {
+            toWrite = data.coalesce(numFiles);
+        } else if (numFiles > data.partitions().size()) {
+            toWrite = data.repartition(numFiles);
+        } else {
+            toWrite = data;
+        }
+
+        Configuration conf = data.context().hadoopConfiguration();
+        List<Tuple2<String, Long>> written = toWrite.mapPartitionsWithIndex(
+                new WritePartitionFunction(outputDir, config, new SerializableWritable<>(conf)), true).collect();
+
+        Map<String, Long> counts = new TreeMap<>();
+        for (Tuple2<String, Long> t2 : written) {
+            counts.put(t2._1(), t2._2());
+        }
+
+        Path outputPath = new Path(outputDir);
+        FileSystem fs = outputPath.getFileSystem(conf);
+        fs.delete(new Path(outputPath, WritePartitionFunction.TEMP_DIR), true);
+        try (Writer w = new OutputStreamWriter(fs.create(new Path(outputPath, MANIFEST_FILE_NAME), true),
+                StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> e : counts.entrySet()) {
+                w.write(e.getKey() + "\t" + e.getValue() + "\n");
+            }
+        }
+        return counts;
+    }
+
     //Another quick and dirty CSV export (local). Dumps all values into a single file
     public static void exportCSVLocal(File outputFile, String delimiter, JavaRDD<List<Writable>> data, int rngSeed) throws Exception {
 
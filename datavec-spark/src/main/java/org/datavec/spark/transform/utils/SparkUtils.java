@@ -30,6 +30,7 @@ import org.datavec.api.transform.split.SplitStrategy;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.datavec.api.transform.ui.HtmlAnalysis;
 import org.datavec.api.writable.*;
+import org.datavec.spark.kryo.DataVecKryoRegistrator;
 
 import java.io.*;
 import java.util.*;
@@ -219,9 +220,14 @@ public class SparkUtils {
     }
 
     /**
-     * Register the DataVec writable classes for Kryo
+     * Register the DataVec writable classes for Kryo. If no other Kryo registrator has been set, this also sets the
+     * {@link DataVecKryoRegistrator}, so that writables (and lists of writables) are serialized using compact serializers
      */
     public static void registerKryoClasses(SparkConf conf){
+        if (!conf.contains("spark.kryo.registrator")) {
+            conf.set("spark.kryo.registrator", DataVecKryoRegistrator.class.getName());
+        }
+
         List<Class<?>> classes = Arrays.asList((Class<?>)
                         BooleanWritable.class,
                 ByteWritable.class,
@@ -0,0 +1,136 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.utils.export;
+
+import lombok.Data;
+import org.datavec.api.transform.schema.Schema;
+
+import java.io.Serializable;
+
+/**
+ * Configuration for partitioned exports of data from Spark: see
+ * {@link org.datavec.spark.transform.utils.SparkExport#exportPartitioned(String, org.apache.spark.api.java.JavaRDD, ExportConfig)}
+ * <br>
+ * Use {@link Builder} to create an ExportConfig.
+ */
+@Data
+public class ExportConfig implements Serializable {
+
+    /**
+     * Output format.<br>
+     * CSV: one line per record, with values separated by the delimiter<br>
+     * BINARY: the schema-aware binary format of {@link org.datavec.api.records.writer.impl.binary.BinaryRecordWriter},
+     * which can be read with {@link org.datavec.api.records.reader.impl.binary.BinaryRecordReader}
+     */
+    public enum Format {CSV, BINARY}
+
+    private final Format format;
+    private final String delimiter;
+    private final int numFiles;
+    private final String compressionCodec;
+    private final boolean shuffle;
+    private final long seed;
+    private final String filePrefix;
+    private final Schema schema;
+
+    private ExportConfig(Builder builder) {
+        this.format = builder.format;
+        this.delimiter = builder.delimiter;
+        this.numFiles = builder.numFiles;
+        this.compressionCodec = builder.compressionCodec;
+        this.shuffle = builder.shuffle;
+        this.seed = builder.seed;
+        this.filePrefix = builder.filePrefix;
+        this.schema = builder.schema;
+    }
+
+    public static class Builder {
+        private Format format = Format.CSV;
+        private String delimiter = ",";
+        private int numFiles = -1;
+        private String compressionCodec;
+        private boolean shuffle = false;
+        private long seed = 12345;
+        private String filePrefix = "part-";
+        private Schema schema;
+
+        /**
+         * Export in CSV format (default), with the specified delimiter
+         */
+        public Builder csv(String delimiter) {
+            this.format = Format.CSV;
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * Export in the binary format of BinaryRecordWriter. The schema of the data is required.
+         * Note that compression is not supported for the binary format, as BinaryRecordReader requires random access
+         */
+        public Builder binary(Schema schema) {
+            this.format = Format.BINARY;
+            this.schema = schema;
+            return this;
+        }
+
+        /**
+         * Number of output files. If not set, one file is written for each partition of the data
+         */
+        public Builder numFiles(int numFiles) {
+            this.numFiles = numFiles;
+            return this;
+        }
+
+        /**
+         * Compress the output files with the specified Hadoop compression codec. For example,
+         * "org.apache.hadoop.io.compress.GzipCodec"
+         */
+        public Builder compressionCodec(String compressionCodecClass) {
+            this.compressionCodec = compressionCodecClass;
+            return this;
+        }
+
+        /**
+         * Randomly shuffle the records before export, using the specified seed. For the same input data and
+         * partitioning, the same seed will result in the same output files
+         */
+        public Builder shuffle(long seed) {
+            this.shuffle = true;
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Prefix for the names of the output files (default: "part-")
+         */
+        public Builder filePrefix(String filePrefix) {
+            this.filePrefix = filePrefix;
+            return this;
+        }
+
+        public ExportConfig build() {
+            if (format == Format.BINARY) {
+                if (schema == null) throw new IllegalStateException("Schema must be provided for binary format export");
+                if (compressionCodec != null) {
+                    throw new IllegalStateException("Compression is not supported for binary format export");
+                }
+            }
+            if (shuffle && numFiles == 0) throw new IllegalStateException("Invalid number of files: " + numFiles);
+            return new ExportConfig(this);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.utils.export;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Spark function (for use with mapPartitionsWithIndex) that pairs each example with a random key, for shuffling.
+ * The random number generator for each partition is seeded using both the seed and the partition index, so the keys
+ * are deterministic for a given seed and input partitioning
+ */
+public class RandomShuffleKeyFunction implements
+        Function2<Integer, Iterator<List<Writable>>, Iterator<Tuple2<Long, List<Writable>>>> {
+
+    private final long seed;
+
+    public RandomShuffleKeyFunction(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public Iterator<Tuple2<Long, List<Writable>>> call(Integer partitionIdx, final Iterator<List<Writable>> iter)
+            throws Exception {
+        final Random r = new Random(seed ^ (0x9E3779B97F4A7C15L * (partitionIdx + 1)));
+        return new Iterator<Tuple2<Long, List<Writable>>>() {
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public Tuple2<Long, List<Writable>> next() {
+                return new Tuple2<>(r.nextLong(), iter.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
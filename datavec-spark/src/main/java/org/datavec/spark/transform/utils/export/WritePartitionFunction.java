@@ -0,0 +1,120 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.utils.export;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.spark.SerializableWritable;
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.records.writer.impl.binary.BinaryRecordWriter;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.utils.SparkUtils;
+import scala.Tuple2;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Spark function (for use with mapPartitionsWithIndex) that writes all examples in a partition to one output file,
+ * directly from the executor, using the Hadoop FileSystem API (so the output directory may be local or on HDFS, etc).<br>
+ * Examples are streamed to the file, and are not held in memory. Each task attempt writes to a temporary file,
+ * which is renamed to the final file name once complete.<br>
+ * Returns a single (file name, number of examples) pair for the partition.
+ */
+public class WritePartitionFunction implements
+        Function2<Integer, Iterator<List<Writable>>, Iterator<Tuple2<String, Long>>> {
+
+    /** Name of the directory (within the output directory) for in-progress output files */
+    public static final String TEMP_DIR = "_temporary";
+
+    private final String outputDir;
+    private final ExportConfig config;
+    private final SerializableWritable<Configuration> hadoopConf;
+
+    public WritePartitionFunction(String outputDir, ExportConfig config, SerializableWritable<Configuration> hadoopConf) {
+        this.outputDir = outputDir;
+        this.config = config;
+        this.hadoopConf = hadoopConf;
+    }
+
+    /**
+     * Get the name of the output file for the given partition
+     */
+    public static String fileName(ExportConfig config, int partitionIdx, CompressionCodec codec) {
+        String extension = (config.getFormat() == ExportConfig.Format.CSV ? ".csv" : ".bin");
+        if (codec != null) extension += codec.getDefaultExtension();
+        return config.getFilePrefix() + String.format("%05d", partitionIdx) + extension;
+    }
+
+    @Override
+    public Iterator<Tuple2<String, Long>> call(Integer partitionIdx, Iterator<List<Writable>> iter) throws Exception {
+        Configuration conf = hadoopConf.value();
+        CompressionCodec codec = null;
+        if (config.getCompressionCodec() != null) {
+            codec = ReflectionUtils.newInstance(SparkUtils.getCompressionCodeClass(config.getCompressionCodec()), conf);
+        }
+        String fileName = fileName(config, partitionIdx, codec);
+
+        TaskContext tc = TaskContext.get();
+        int attempt = (tc != null ? tc.attemptNumber() : 0);
+        Path tempPath = new Path(new Path(outputDir, TEMP_DIR), fileName + ".attempt" + attempt);
+        Path finalPath = new Path(outputDir, fileName);
+        FileSystem fs = finalPath.getFileSystem(conf);
+
+        long count = 0;
+        OutputStream os = fs.create(tempPath, true);
+        if (codec != null) os = codec.createOutputStream(os);
+        if (config.getFormat() == ExportConfig.Format.CSV) {
+            String delimiter = config.getDelimiter();
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 1 << 16)) {
+                while (iter.hasNext()) {
+                    boolean first = true;
+                    for (Writable writable : iter.next()) {
+                        if (!first) w.write(delimiter);
+                        w.write(writable.toString());
+                        first = false;
+                    }
+                    w.write('\n');
+                    count++;
+                }
+            }
+        } else {
+            BinaryRecordWriter writer = new BinaryRecordWriter(os, config.getSchema());
+            try {
+                while (iter.hasNext()) {
+                    writer.write(iter.next());
+                    count++;
+                }
+            } finally {
+                writer.close();
+            }
+        }
+
+        if (fs.exists(finalPath)) fs.delete(finalPath, false);
+        if (!fs.rename(tempPath, finalPath)) {
+            throw new IOException("Could not rename temporary output file " + tempPath + " to " + finalPath);
+        }
+        return Collections.singletonList(new Tuple2<>(fileName, count)).iterator();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.functions;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.PairFunction;
+import org.apache.spark.input.PortableDataStream;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVSequenceRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.BaseSparkTest;
+import org.datavec.spark.functions.data.RecordReaderBytesPartitionFunction;
+import org.junit.Test;
+import scala.Tuple2;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestRecordReaderPartitionFunction extends BaseSparkTest {
+
+    private String getPath() throws Exception {
+        String path = new ClassPathResource("/csvsequence/csvsequence_0.txt").getFile().getAbsolutePath();
+        return path.substring(0, path.length() - 17) + "*";
+    }
+
+    private static List<List<Writable>> readLocal(String folder, boolean firstRecordOnly) throws Exception {
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CSVRecordReader rr = new CSVRecordReader(1, ",");
+            rr.initialize(new FileSplit(new File(folder, "csvsequence_" + i + ".txt")));
+            while (rr.hasNext()) {
+                out.add(new ArrayList<>(rr.next()));
+                if (firstRecordOnly) break;
+            }
+        }
+        return out;
+    }
+
+    private static Set<List<Writable>> toSet(List<List<Writable>> list) {
+        Set<List<Writable>> set = new HashSet<>(list);
+        assertEquals(list.size(), set.size());
+        return set;
+    }
+
+    @Test
+    public void testRecordReaderPartitionFunction() throws Exception {
+        JavaSparkContext sc = getContext();
+        String path = getPath();
+        String folder = path.substring(0, path.length() - 1);
+
+        JavaPairRDD<String, PortableDataStream> origData = sc.binaryFiles(path);
+        assertEquals(3, origData.count());
+
+        //All records in each file (CSV: 4 records per file, after skipping 1 line per file)
+        List<List<Writable>> all = origData.mapPartitions(new RecordReaderPartitionFunction(new CSVRecordReader(1, ","))).collect();
+        assertEquals(12, all.size());
+        assertEquals(toSet(readLocal(folder, false)), toSet(all));
+
+        //One record per file
+        List<List<Writable>> first = origData.mapPartitions(new RecordReaderPartitionFunction(new CSVRecordReader(1, ","), true)).collect();
+        assertEquals(3, first.size());
+        assertEquals(toSet(readLocal(folder, true)), toSet(first));
+
+        //Binary objects
+        JavaPairRDD<Text, BytesWritable> bytes = origData.mapToPair(new PairFunction<Tuple2<String, PortableDataStream>, Text, BytesWritable>() {
+            @Override
+            public Tuple2<Text, BytesWritable> call(Tuple2<String, PortableDataStream> t) throws Exception {
+                return new Tuple2<>(new Text(t._1()), new BytesWritable(t._2().toArray()));
+            }
+        });
+        List<List<Writable>> fromBytes = bytes.mapPartitions(new RecordReaderBytesPartitionFunction(new CSVRecordReader(1, ","))).collect();
+        assertEquals(toSet(all), toSet(fromBytes));
+    }
+
+    @Test
+    public void testSequenceRecordReaderPartitionFunction() throws Exception {
+        JavaSparkContext sc = getContext();
+        JavaPairRDD<String, PortableDataStream> origData = sc.binaryFiles(getPath());
+
+        List<List<List<Writable>>> sequences = origData.mapPartitions(
+                new SequenceRecordReaderPartitionFunction(new CSVSequenceRecordReader(1, ","))).collect();
+        List<Collection<Collection<Writable>>> expected = origData.map(
+                new SequenceRecordReaderFunction(new CSVSequenceRecordReader(1, ","))).collect();
+
+        assertEquals(3, sequences.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(4, sequences.get(i).size());
+            List<List<Writable>> exp = new ArrayList<>();
+            for (Collection<Writable> c : expected.get(i)) exp.add(new ArrayList<>(c));
+            assertEquals(exp, sequences.get(i));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.kryo;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.serializer.JavaSerializer;
+import org.apache.spark.serializer.KryoSerializer;
+import org.apache.spark.serializer.SerializerInstance;
+import org.datavec.api.writable.*;
+import org.datavec.spark.functions.pairdata.BytesPairWritable;
+import org.datavec.spark.transform.utils.SparkUtils;
+import org.junit.Test;
+import scala.reflect.ClassTag;
+import scala.reflect.ClassTag$;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestKryoSerialization {
+
+    private static final ClassTag<Object> TAG = ClassTag$.MODULE$.apply(Object.class);
+
+    private static SerializerInstance kryo() {
+        SparkConf conf = new SparkConf();
+        SparkUtils.registerKryoClasses(conf);
+        assertEquals(DataVecKryoRegistrator.class.getName(), conf.get("spark.kryo.registrator"));
+        return new KryoSerializer(conf).newInstance();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(SerializerInstance si, T object) {
+        ByteBuffer bb = si.serialize(object, TAG);
+        return (T) si.deserialize(bb, TAG);
+    }
+
+    @Test
+    public void testWritables() {
+        SerializerInstance si = kryo();
+        List<Writable> writables = Arrays.<Writable>asList(new BooleanWritable(true), new ByteWritable((byte) -3),
+                new IntWritable(-12345), new LongWritable(Long.MAX_VALUE), new FloatWritable(1.5f),
+                new DoubleWritable(-0.25), new Text("text \u00e9\u4e2d"), NullWritable.INSTANCE,
+                CompositeKeyWritable.create(new Text("key"), CompositeKeyWritable.Encoding.STRING),
+                new SparseVectorWritable(50000, new int[]{3, 49999}, new double[]{1.0, -0.5}),
+                new CategoricalWritable(CategoricalDictionary.intern(Arrays.asList("a", "b", "c")), 2),
+                //Detached: dictionary not registered in this JVM
+                CategoricalWritable.create(12345L, 1, "state"));
+        for (Writable w : writables) {
+            Writable out = roundTrip(si, w);
+            assertEquals(w.getClass(), out.getClass());
+            assertEquals(w, out);
+            assertEquals(w.toString(), out.toString());
+        }
+
+        BytesPairWritable bpw = new BytesPairWritable(new byte[]{1, 2, 3}, new byte[]{4}, "file:/a", "file:/b");
+        BytesPairWritable bpwOut = roundTrip(si, bpw);
+        assertArrayEquals(bpw.getFirst(), bpwOut.getFirst());
+        assertArrayEquals(bpw.getSecond(), bpwOut.getSecond());
+        assertEquals(bpw.getUriFirst(), bpwOut.getUriFirst());
+        assertEquals(bpw.getUriSecond(), bpwOut.getUriSecond());
+    }
+
+    @Test
+    public void testLists() {
+        SerializerInstance si = kryo();
+
+        List<Writable> uniform = new ArrayList<>();
+        for (int i = 0; i < 10; i++) uniform.add(new DoubleWritable(i));
+
+        List<Writable> mixed = new ArrayList<>(Arrays.<Writable>asList(new Text("a"), new IntWritable(1),
+                NullWritable.INSTANCE, new LongWritable(-2), CompositeKeyWritable.create(new IntWritable(3),
+                        CompositeKeyWritable.Encoding.INT)));
+
+        List<List<Writable>> sequence = new ArrayList<>();
+        sequence.add(uniform);
+        sequence.add(mixed);
+        sequence.add(new ArrayList<Writable>());
+        sequence.add(Arrays.<Writable>asList(new Text("x"), new Text("y")));
+
+        List<Object> other = new ArrayList<>(Arrays.<Object>asList("string", null, 3, new IntWritable(4)));
+
+        for (Object list : Arrays.<Object>asList(uniform, mixed, sequence, other, new ArrayList<>())) {
+            Object out = roundTrip(si, list);
+            assertEquals(list, out);
+        }
+
+        //Rows should be much smaller than with Java serialization
+        SerializerInstance java = new JavaSerializer(new SparkConf()).newInstance();
+        int kryoBytes = si.serialize(uniform, TAG).remaining();
+        int javaBytes = java.serialize(uniform, TAG).remaining();
+        assertTrue(kryoBytes + " vs. " + javaBytes, kryoBytes < javaBytes / 2);
+        assertTrue(String.valueOf(kryoBytes), kryoBytes <= 10 * 8 + 4);
+    }
+
+    @Test
+    public void testCategoricalLists() {
+        SerializerInstance si = kryo();
+        CategoricalDictionary d = CategoricalDictionary.intern(Arrays.asList("first state", "second state", "third state"));
+
+        List<Writable> row = new ArrayList<>();
+        for (int i = 0; i < 10; i++) row.add(new CategoricalWritable(d, i % 3));
+        List<Writable> out = roundTrip(si, row);
+        assertEquals(row, out);
+        for (Writable w : out) assertSame(d, ((CategoricalWritable) w).getDictionary());
+
+        //Row: class and reference marker, size, type header, one byte per value, and the dictionary (reference marker
+        //plus fingerprint) once: much smaller than the equivalent Text values
+        int categoricalBytes = si.serialize(row, TAG).remaining();
+        List<Writable> textRow = new ArrayList<>();
+        for (Writable w : row) textRow.add(new Text(w.toString()));
+        int textBytes = si.serialize(textRow, TAG).remaining();
+        assertTrue(categoricalBytes + " vs. " + textBytes, categoricalBytes <= 2 + 1 + 1 + 10 + 9);
+        assertTrue(categoricalBytes + " vs. " + textBytes, categoricalBytes < textBytes / 4);
+
+        //Mixed with other types, detached values, and nested in sequences (dictionary written once per sequence)
+        CategoricalWritable detached = CategoricalWritable.create(12345L, 1, "state");
+        List<Writable> mixed = new ArrayList<>(Arrays.<Writable>asList(new CategoricalWritable(d, 2), new IntWritable(1),
+                detached, new Text("a")));
+        List<List<Writable>> sequence = new ArrayList<>();
+        for (int i = 0; i < 5; i++) sequence.add(new ArrayList<>(Arrays.<Writable>asList(new CategoricalWritable(d, i % 3))));
+        sequence.add(mixed);
+        List<List<Writable>> sequenceOut = roundTrip(si, sequence);
+        assertEquals(sequence, sequenceOut);
+        assertNull(((CategoricalWritable) sequenceOut.get(5).get(2)).getDictionary());
+        assertEquals("state", sequenceOut.get(5).get(2).toString());
+    }
+}
@@ -21,6 +21,11 @@ import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
 import org.datavec.api.transform.analysis.columns.DoubleAnalysis;
 import org.datavec.api.transform.analysis.columns.IntegerAnalysis;
 import org.datavec.api.transform.analysis.columns.TimeAnalysis;
+import org.datavec.api.transform.quality.DataQualityAnalysis;
+import org.datavec.api.transform.quality.columns.ColumnQuality;
+import org.datavec.api.transform.quality.columns.DoubleQuality;
+import org.datavec.api.transform.quality.columns.IntegerQuality;
+import org.datavec.api.transform.quality.columns.StringQuality;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.spark.transform.AnalyzeSpark;
 import org.datavec.spark.transform.BaseSparkTest;
@@ -28,12 +33,15 @@ import org.apache.spark.api.java.JavaRDD;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.joda.time.DateTimeZone;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -86,6 +94,22 @@ public class TestAnalysis extends BaseSparkTest {
         assertEquals(20000, ta.getMax());
         assertEquals(4, ta.getCountTotal());
 
+        //Sample variance: sum of squared deviations from the mean, divided by (n-1)
+        double intVar = (1.75*1.75 + 3.25*3.25 + 1.25*1.25 + 2.75*2.75) / 3;
+        assertEquals(1.75, ia.getMean(), 1e-9);
+        assertEquals(intVar, ia.getSampleVariance(), 1e-9);
+        assertEquals(Math.sqrt(intVar), ia.getSampleStdev(), 1e-9);
+
+        double doubleVar = (1.5*1.5 + 2.5*2.5 + 7.5*7.5 + 3.5*3.5) / 3;
+        assertEquals(2.5, dba.getMean(), 1e-9);
+        assertEquals(doubleVar, dba.getSampleVariance(), 1e-9);
+        assertEquals(Math.sqrt(doubleVar), dba.getSampleStdev(), 1e-9);
+
+        double timeVar = (5500.0*5500 + 4500.0*4500 + 3500.0*3500 + 13500.0*13500) / 3;
+        assertEquals(6500.0, ta.getMean(), 1e-9);
+        assertEquals(timeVar, ta.getSampleVariance(), 1e-3);
+        assertEquals(Math.sqrt(timeVar), ta.getSampleStdev(), 1e-6);
+
         assertNotNull(ia.getHistogramBuckets());
         assertNotNull(ia.getHistogramBucketCounts());
 
@@ -105,4 +129,69 @@ public class TestAnalysis extends BaseSparkTest {
         assertEquals(1, countD[countD.length-1]);
     }
 
+    @Test
+    public void testAnalysisEmpty(){
+        Schema schema = new Schema.Builder()
+                .addColumnInteger("intCol")
+                .addColumnString("stringCol")
+                .build();
+
+        JavaRDD<List<Writable>> rdd = sc.parallelize(Collections.<List<Writable>>emptyList());
+
+        DataAnalysis da = AnalyzeSpark.analyze(schema, rdd);
+        assertEquals(2, da.getColumnAnalysis().size());
+        assertEquals(0, ((IntegerAnalysis)da.getColumnAnalysis().get(0)).getCountTotal());
+
+        DataQualityAnalysis dqa = AnalyzeSpark.analyzeQuality(schema, rdd);
+        assertEquals(2, dqa.getColumnQualityList().size());
+        for(ColumnQuality cq : dqa.getColumnQualityList()){
+            assertEquals(0, cq.getCountTotal());
+            assertEquals(0, cq.getCountValid());
+        }
+        assertEquals(0, ((StringQuality)dqa.getColumnQualityList().get(1)).getCountUnique());
+    }
+
+    @Test
+    public void testAnalyzeQuality(){
+        Schema schema = new Schema.Builder()
+                .addColumnInteger("intCol", 0, 10)
+                .addColumnDouble("doubleCol")
+                .addColumnString("stringCol")
+                .build();
+
+        List<List<Writable>> data = new ArrayList<>();
+        data.add(Arrays.asList((Writable)new IntWritable(0), new DoubleWritable(1.0), new Text("a")));
+        data.add(Arrays.asList((Writable)new IntWritable(5), new DoubleWritable(Double.NaN), new Text("b")));
+        data.add(Arrays.asList((Writable)new IntWritable(20), new Text(""), new Text("a")));
+        data.add(Arrays.asList((Writable)NullWritable.INSTANCE, new DoubleWritable(2.0), new Text("")));
+        data.add(Arrays.asList((Writable)new Text("abc"), new DoubleWritable(Double.POSITIVE_INFINITY), new Text("12")));
+
+        //Several partitions, so the per-partition states are combined
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 3);
+
+        DataQualityAnalysis dqa = AnalyzeSpark.analyzeQuality(schema, rdd);
+        List<ColumnQuality> list = dqa.getColumnQualityList();
+        assertEquals(3, list.size());
+
+        IntegerQuality iq = (IntegerQuality)list.get(0);
+        assertEquals(5, iq.getCountTotal());
+        assertEquals(2, iq.getCountValid());
+        assertEquals(2, iq.getCountInvalid());
+        assertEquals(1, iq.getCountMissing());
+        assertEquals(2, iq.getCountNonInteger());
+
+        DoubleQuality dq = (DoubleQuality)list.get(1);
+        assertEquals(5, dq.getCountTotal());
+        assertEquals(1, dq.getCountMissing());
+        assertEquals(1, dq.getCountNonReal());
+        assertEquals(1, dq.getCountNaN());
+        assertEquals(1, dq.getCountInfinite());
+
+        StringQuality sq = (StringQuality)list.get(2);
+        assertEquals(5, sq.getCountTotal());
+        assertEquals(5, sq.getCountValid());
+        assertEquals(1, sq.getCountEmptyString());
+        assertEquals(1, sq.getCountNumerical());
+        assertEquals(4, sq.getCountUnique());
+    }
 }
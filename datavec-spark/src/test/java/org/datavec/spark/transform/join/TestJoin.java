@@ -0,0 +1,248 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.Accumulator;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.BaseSparkTest;
+import org.datavec.spark.transform.SparkTransformExecutor;
+import org.junit.Test;
+import scala.Tuple2;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestJoin extends BaseSparkTest {
+
+    private static List<String> sorted(List<List<Writable>> data) {
+        List<String> out = new ArrayList<>();
+        for (List<Writable> l : data) out.add(l.toString());
+        Collections.sort(out);
+        return out;
+    }
+
+    @Test
+    public void testJoinAllTypes() {
+        Schema leftSchema = new Schema.Builder()
+                .addColumnInteger("key")
+                .addColumnString("left")
+                .build();
+        Schema rightSchema = new Schema.Builder()
+                .addColumnInteger("key")
+                .addColumnString("right")
+                .build();
+
+        //Keys 0 to 29 on the left, 20 to 49 on the right; keys occur multiple times on each side (many-to-many)
+        Random r = new Random(12345);
+        List<List<Writable>> left = new ArrayList<>();
+        List<List<Writable>> right = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            left.add(Arrays.<Writable>asList(new IntWritable(r.nextInt(30)), new Text("l" + i)));
+            right.add(Arrays.<Writable>asList(new IntWritable(20 + r.nextInt(30)), new Text("r" + i)));
+        }
+        JavaRDD<List<Writable>> leftRDD = sc.parallelize(left, 4);
+        JavaRDD<List<Writable>> rightRDD = sc.parallelize(right, 3);
+
+        for (Join.JoinType joinType : Join.JoinType.values()) {
+            Join join = new Join.Builder(joinType)
+                    .setKeyColumns("key")
+                    .setSchemas(leftSchema, rightSchema)
+                    .build();
+
+            List<List<Writable>> expected = new ArrayList<>();
+            Set<List<Writable>> matchedRight = new HashSet<>();
+            for (List<Writable> l : left) {
+                boolean matched = false;
+                for (List<Writable> rr : right) {
+                    if (l.get(0).equals(rr.get(0))) {
+                        expected.add(join.joinExamples(l, rr));
+                        matchedRight.add(rr);
+                        matched = true;
+                    }
+                }
+                if (!matched && (joinType == Join.JoinType.LeftOuter || joinType == Join.JoinType.FullOuter)) {
+                    expected.add(join.joinExamples(l, null));
+                }
+            }
+            if (joinType == Join.JoinType.RightOuter || joinType == Join.JoinType.FullOuter) {
+                for (List<Writable> rr : right) {
+                    if (!matchedRight.contains(rr)) expected.add(join.joinExamples(null, rr));
+                }
+            }
+
+            //Thresholds: partitioned (cogroup) join only; right side above the threshold; broadcast join
+            for (long threshold : new long[]{0, 1, Long.MAX_VALUE}) {
+                SparkTransformExecutor exec = new SparkTransformExecutor();
+                exec.setBroadcastJoinThreshold(threshold);
+                List<List<Writable>> actual = exec.executeJoin(join, leftRDD, rightRDD).collect();
+                assertEquals(joinType + ", threshold " + threshold, sorted(expected), sorted(actual));
+            }
+        }
+    }
+
+    @Test
+    public void testBroadcastHashJoinFunctionLazy() throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnInteger("key")
+                .addColumnString("value")
+                .build();
+        Join join = new Join.Builder(Join.JoinType.LeftOuter)
+                .setKeyColumns("key")
+                .setSchemas(schema, schema)
+                .build();
+        List<List<Writable>> right = Arrays.asList(
+                Arrays.<Writable>asList(new IntWritable(0), new Text("r0")),
+                Arrays.<Writable>asList(new IntWritable(0), new Text("r1")));
+
+        BroadcastHashJoinFunction f = new BroadcastHashJoinFunction(join,
+                sc.broadcast(BroadcastHashJoinFunction.buildHashTable(join, right)));
+
+        //Left examples are only consumed as the output is consumed
+        final int[] numConsumed = new int[1];
+        final Iterator<List<Writable>> leftIter = Arrays.asList(
+                Arrays.<Writable>asList(new IntWritable(0), new Text("l0")),
+                Arrays.<Writable>asList(new IntWritable(1), new Text("l1")),
+                Arrays.<Writable>asList(new IntWritable(0), new Text("l2"))).iterator();
+        Iterator<List<Writable>> counting = new Iterator<List<Writable>>() {
+            @Override
+            public boolean hasNext() {
+                return leftIter.hasNext();
+            }
+
+            @Override
+            public List<Writable> next() {
+                numConsumed[0]++;
+                return leftIter.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        Iterator<List<Writable>> out = f.call(counting).iterator();
+        assertEquals(0, numConsumed[0]);
+        assertEquals(Arrays.<Writable>asList(new IntWritable(0), new Text("l0"), new Text("r0")), out.next());
+        assertEquals(Arrays.<Writable>asList(new IntWritable(0), new Text("l0"), new Text("r1")), out.next());
+        assertEquals(1, numConsumed[0]);
+        List<List<Writable>> rest = new ArrayList<>();
+        while (out.hasNext()) rest.add(out.next());
+        assertEquals(3, rest.size());
+        assertEquals(3, numConsumed[0]);
+    }
+
+    @Test
+    public void testCoGroupedJoinFunctionLazy() throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnInteger("key")
+                .addColumnInteger("value")
+                .build();
+        Join join = new Join.Builder(Join.JoinType.Inner)
+                .setKeyColumns("key")
+                .setSchemas(schema, schema)
+                .build();
+
+        //A hot key: 10,000 x 10,000 matches. Only the consumed combinations should be generated
+        final int n = 10000;
+        final List<List<Writable>> examples = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) examples.add(Arrays.<Writable>asList(new IntWritable(0), new IntWritable(i)));
+        final int[] leftConsumed = new int[1];
+        Iterable<List<Writable>> left = new Iterable<List<Writable>>() {
+            @Override
+            public Iterator<List<Writable>> iterator() {
+                final Iterator<List<Writable>> iter = examples.iterator();
+                return new Iterator<List<Writable>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iter.hasNext();
+                    }
+
+                    @Override
+                    public List<Writable> next() {
+                        leftConsumed[0]++;
+                        return iter.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+
+        Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>> grouped = new Tuple2<>(left, (Iterable<List<Writable>>) examples);
+        Iterator<List<Writable>> out = new ExecuteCoGroupedJoinFunction(join)
+                .call(new Tuple2<>(CompositeKeyWritable.create(new IntWritable(0), CompositeKeyWritable.Encoding.INT), grouped))
+                .iterator();
+
+        for (int i = 0; i < n + 1; i++) {
+            List<Writable> joined = out.next();
+            assertEquals(Arrays.<Writable>asList(new IntWritable(0), new IntWritable(i / n), new IntWritable(i % n)), joined);
+        }
+        assertTrue(out.hasNext());
+        //Only the first two left examples have been consumed
+        assertEquals(2, leftConsumed[0]);
+    }
+
+    @Test
+    public void testBroadcastJoinComputesRightOnce() {
+        Schema schema = new Schema.Builder()
+                .addColumnInteger("key")
+                .addColumnInteger("value")
+                .build();
+        Join join = new Join.Builder(Join.JoinType.Inner)
+                .setKeyColumns("key")
+                .setSchemas(schema, schema)
+                .build();
+
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 100; i++) data.add(Arrays.<Writable>asList(new IntWritable(i), new IntWritable(i)));
+        Accumulator<Integer> rightCount = sc.accumulator(0);
+        JavaRDD<List<Writable>> right = sc.parallelize(data, 4).map(new CountingFunction(rightCount));
+
+        List<List<Writable>> joined = new SparkTransformExecutor().executeJoin(join, sc.parallelize(data, 2), right).collect();
+        assertEquals(100, joined.size());
+        //Size estimate and collect for the broadcast: the right data is only computed once
+        assertEquals(100, (int) rightCount.value());
+    }
+
+    private static class CountingFunction implements Function<List<Writable>, List<Writable>> {
+        private final Accumulator<Integer> count;
+
+        private CountingFunction(Accumulator<Integer> count) {
+            this.count = count;
+        }
+
+        @Override
+        public List<Writable> call(List<Writable> v1) throws Exception {
+            count.add(1);
+            return v1;
+        }
+    }
+}
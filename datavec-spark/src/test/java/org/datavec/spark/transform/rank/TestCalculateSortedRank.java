@@ -18,21 +18,28 @@ package org.datavec.spark.transform.rank;
 
 import org.datavec.spark.transform.BaseSparkTest;
 import org.datavec.spark.transform.SparkTransformExecutor;
+import org.apache.spark.Accumulator;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function;
 import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.datavec.api.writable.comparator.IntWritableComparator;
 import org.datavec.api.transform.schema.Schema;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 1/06/2016.
@@ -78,4 +85,117 @@ public class TestCalculateSortedRank extends BaseSparkTest {
         }
     }
 
+    @Test
+    public void testCalculateSortedRankManyPartitions(){
+        //Values 0 to 999, each appearing twice, in shuffled order
+        List<List<Writable>> data = new ArrayList<>();
+        for( int i=0; i<2000; i++ ){
+            int value = (i * 7919) % 1000;
+            data.add(Arrays.asList((Writable)new IntWritable(i), new IntWritable(value)));
+        }
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 8);
+
+        Schema schema = new Schema.Builder()
+                .addColumnsInteger("id", "value")
+                .build();
+
+        //Built-in comparator (binary keys) and a custom comparator; ascending and descending
+        List<Comparator<Writable>> comparators = Arrays.asList(new IntWritableComparator(), new CustomIntComparator());
+        for(Comparator<Writable> comparator : comparators) {
+            for(boolean ascending : new boolean[]{true, false}) {
+                TransformProcess tp = new TransformProcess.Builder(schema)
+                        .calculateSortedRank("rank", "value", comparator, ascending)
+                        .build();
+
+                List<List<Writable>> collected = new SparkTransformExecutor().execute(rdd, tp).collect();
+                assertEquals(2000, collected.size());
+
+                boolean[] seen = new boolean[2000];
+                for (List<Writable> example : collected) {
+                    int value = example.get(1).toInt();
+                    int rank = example.get(2).toInt();
+                    assertTrue(!seen[rank]);
+                    seen[rank] = true;
+                    int expectedValue = (ascending ? rank / 2 : 999 - rank / 2);
+                    assertEquals(expectedValue, value);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testApproximatePercentileRank(){
+        List<List<Writable>> data = new ArrayList<>();
+        for( int i=0; i<1000; i++ ){
+            data.add(Arrays.asList((Writable)new Text(String.valueOf(i)), new DoubleWritable(i / 10.0)));
+        }
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 4);
+
+        Schema schema = new Schema.Builder()
+                .addColumnsString("TextCol")
+                .addColumnDouble("DoubleCol")
+                .build();
+
+        for(boolean ascending : new boolean[]{true, false}) {
+            TransformProcess tp = new TransformProcess.Builder(schema)
+                    .calculateApproximatePercentileRank("percentile", "DoubleCol", ascending)
+                    .build();
+            assertEquals(ColumnType.Double, tp.getFinalSchema().getType(2));
+
+            List<List<Writable>> collected = new SparkTransformExecutor().execute(rdd, tp).collect();
+            assertEquals(1000, collected.size());
+            for (List<Writable> example : collected) {
+                int exampleNum = example.get(0).toInt();
+                double expected = (ascending ? exampleNum : 999 - exampleNum) / 1000.0;
+                assertEquals(expected, example.get(2).toDouble(), 0.02);
+            }
+        }
+    }
+
+    @Test
+    public void testCalculateSortedRankComputesInputOnce(){
+        List<List<Writable>> data = new ArrayList<>();
+        for( int i=0; i<500; i++ ){
+            data.add(Arrays.asList((Writable)new IntWritable(i), new IntWritable((i * 7919) % 500)));
+        }
+        Accumulator<Integer> inputCount = sc.accumulator(0);
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 4).map(new CountingFunction(inputCount));
+
+        Schema schema = new Schema.Builder()
+                .addColumnsInteger("id", "value")
+                .build();
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .calculateSortedRank("rank", "value", new IntWritableComparator())
+                .build();
+
+        List<List<Writable>> collected = new SparkTransformExecutor().execute(rdd, tp).collect();
+        assertEquals(500, collected.size());
+        for (List<Writable> example : collected) {
+            assertEquals(example.get(1).toInt(), example.get(2).toInt());
+        }
+
+        //Sampling, counting and sorting should not recompute the input
+        assertEquals(500, (int) inputCount.value());
+    }
+
+    private static class CountingFunction implements Function<List<Writable>, List<Writable>> {
+        private final Accumulator<Integer> count;
+
+        private CountingFunction(Accumulator<Integer> count) {
+            this.count = count;
+        }
+
+        @Override
+        public List<Writable> call(List<Writable> v1) throws Exception {
+            count.add(1);
+            return v1;
+        }
+    }
+
+    private static class CustomIntComparator implements Comparator<Writable>, Serializable {
+        @Override
+        public int compare(Writable o1, Writable o2) {
+            return Integer.compare(o1.toInt(), o2.toInt());
+        }
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.sequence.comparator.NumericalColumnComparator;
+import org.datavec.api.writable.CompositeKeyWritable;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.BaseSparkTest;
+import org.datavec.spark.transform.SparkTransformExecutor;
+import org.junit.Test;
+import scala.Tuple2;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestConvertToSequence extends BaseSparkTest {
+
+    private static final Schema SCHEMA = new Schema.Builder()
+            .addColumnString("key")
+            .addColumnLong("time")
+            .build();
+
+    /**
+     * Examples for 10 keys, with (key i) having 50*(i+1) examples, with distinct times, in shuffled order
+     */
+    private static List<List<Writable>> createData() {
+        List<List<Writable>> data = new ArrayList<>();
+        for (int k = 0; k < 10; k++) {
+            for (int j = 0; j < 50 * (k + 1); j++) {
+                data.add(Arrays.<Writable>asList(new Text("key" + k), new LongWritable(1000L * j + k)));
+            }
+        }
+        Collections.shuffle(data, new Random(12345));
+        return data;
+    }
+
+    private static TransformProcess convertToSequence() {
+        return new TransformProcess.Builder(SCHEMA)
+                .convertToSequence("key", new NumericalColumnComparator("time"))
+                .build();
+    }
+
+    @Test
+    public void testConvertToSequence() {
+        JavaRDD<List<Writable>> rdd = sc.parallelize(createData(), 7);
+        List<List<List<Writable>>> sequences = new SparkTransformExecutor().executeToSequence(rdd, convertToSequence()).collect();
+
+        assertEquals(10, sequences.size());
+        Set<String> keys = new HashSet<>();
+        for (List<List<Writable>> sequence : sequences) {
+            String key = sequence.get(0).get(0).toString();
+            assertTrue(keys.add(key));
+            int k = Integer.parseInt(key.substring(3));
+            assertEquals(50 * (k + 1), sequence.size());
+            for (int j = 0; j < sequence.size(); j++) {
+                assertEquals(key, sequence.get(j).get(0).toString());
+                assertEquals(1000L * j + k, sequence.get(j).get(1).toLong());
+            }
+        }
+    }
+
+    @Test
+    public void testMaxSequenceLength() {
+        JavaRDD<List<Writable>> rdd = sc.parallelize(createData(), 7);
+        SparkTransformExecutor exec = new SparkTransformExecutor();
+        exec.setMaxSequenceLength(120);
+        List<List<List<Writable>>> sequences = exec.executeToSequence(rdd, convertToSequence()).collect();
+
+        //Parts of each key's sequence are emitted consecutively and in order, each of at most 120 examples
+        Map<String, List<List<Writable>>> joined = new HashMap<>();
+        int numParts = 0;
+        for (List<List<Writable>> sequence : sequences) {
+            assertTrue(sequence.size() <= 120);
+            String key = sequence.get(0).get(0).toString();
+            List<List<Writable>> soFar = joined.get(key);
+            if (soFar == null) {
+                soFar = new ArrayList<>();
+                joined.put(key, soFar);
+            }
+            soFar.addAll(sequence);
+            numParts++;
+        }
+        int expectedParts = 0;
+        for (int k = 0; k < 10; k++) expectedParts += (50 * (k + 1) + 119) / 120;
+        assertEquals(expectedParts, numParts);
+
+        assertEquals(10, joined.size());
+        for (Map.Entry<String, List<List<Writable>>> e : joined.entrySet()) {
+            int k = Integer.parseInt(e.getKey().substring(3));
+            List<List<Writable>> sequence = e.getValue();
+            assertEquals(50 * (k + 1), sequence.size());
+            for (int j = 0; j < sequence.size(); j++) {
+                assertEquals(1000L * j + k, sequence.get(j).get(1).toLong());
+            }
+        }
+    }
+
+    @Test
+    public void testSortKeyFunctionsAndPartitioner() throws Exception {
+        MapToSequenceSortKeyFunction f = new MapToSequenceSortKeyFunction(0, CompositeKeyWritable.encodingFor(SCHEMA.getType(0)));
+        SequenceKeyPartitioner partitioner = new SequenceKeyPartitioner(5);
+        NumericalColumnComparator timeComparator = new NumericalColumnComparator("time");
+        timeComparator.setSchema(SCHEMA);
+        SequenceSortKeyComparator comparator = new SequenceSortKeyComparator(timeComparator);
+
+        List<Tuple2<CompositeKeyWritable, List<Writable>>> keys = new ArrayList<>();
+        for (List<Writable> example : createData()) {
+            Tuple2<CompositeKeyWritable, List<Writable>> key = f.call(example)._1();
+            assertEquals(example, key._2());
+            keys.add(key);
+        }
+
+        //All examples for a key in the same partition
+        Map<CompositeKeyWritable, Integer> partitions = new HashMap<>();
+        for (Tuple2<CompositeKeyWritable, List<Writable>> key : keys) {
+            int p = partitioner.getPartition(key);
+            assertTrue(p >= 0 && p < 5);
+            Integer prev = partitions.put(key._1(), p);
+            if (prev != null) assertEquals((int) prev, p);
+        }
+        assertEquals(10, partitions.size());
+        assertEquals(partitioner, new SequenceKeyPartitioner(5));
+
+        //Secondary sort: by sequence key, then by time within each key
+        Collections.sort(keys, comparator);
+        for (int i = 1; i < keys.size(); i++) {
+            int c = keys.get(i - 1)._1().compareTo(keys.get(i)._1());
+            assertTrue(c <= 0);
+            if (c == 0) {
+                assertTrue(keys.get(i - 1)._2().get(1).toLong() < keys.get(i)._2().get(1).toLong());
+            }
+        }
+    }
+}
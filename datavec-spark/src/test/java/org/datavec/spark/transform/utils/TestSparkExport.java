@@ -0,0 +1,140 @@
+/*
+ *  * Copyright 2016 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.spark.api.java.JavaRDD;
+import org.datavec.api.records.reader.impl.binary.BinaryRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.BaseSparkTest;
+import org.datavec.spark.transform.utils.export.ExportConfig;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class TestSparkExport extends BaseSparkTest {
+
+    private List<List<Writable>> getData(int n) {
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            data.add(Arrays.<Writable>asList(new IntWritable(i), new DoubleWritable(i / 10.0), new Text("s" + i)));
+        }
+        return data;
+    }
+
+    private static List<String> readGzipLines(File f) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(f)), "UTF-8"))) {
+            String line;
+            while ((line = br.readLine()) != null) lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    public void testExportCSVShuffleCompressed() throws Exception {
+        List<List<Writable>> data = getData(1000);
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 4);
+
+        ExportConfig config = new ExportConfig.Builder()
+                .csv(",")
+                .numFiles(3)
+                .shuffle(12345)
+                .compressionCodec("org.apache.hadoop.io.compress.GzipCodec")
+                .build();
+
+        List<List<String>> allFileContents = new ArrayList<>();
+        for (int rep = 0; rep < 2; rep++) {
+            File dir = Files.createTempDirectory("testExportCSV").toFile();
+            dir.delete();
+            Map<String, Long> counts = SparkExport.exportPartitioned(dir.getAbsolutePath(), rdd, config);
+            assertEquals(3, counts.size());
+
+            List<String> expectedManifest = new ArrayList<>();
+            List<String> contents = new ArrayList<>();
+            long total = 0;
+            for (Map.Entry<String, Long> e : counts.entrySet()) {
+                assertTrue(e.getKey(), e.getKey().matches("part-\\d{5}\\.csv\\.gz"));
+                List<String> lines = readGzipLines(new File(dir, e.getKey()));
+                assertEquals((long) e.getValue(), lines.size());
+                contents.addAll(lines);
+                total += e.getValue();
+                expectedManifest.add(e.getKey() + "\t" + e.getValue());
+            }
+            assertEquals(1000, total);
+            assertEquals(expectedManifest, FileUtils.readLines(new File(dir, SparkExport.MANIFEST_FILE_NAME), "UTF-8"));
+            assertFalse(new File(dir, "_temporary").exists());
+
+            //Same set of examples, but not in the original order
+            List<String> expected = new ArrayList<>();
+            for (List<Writable> l : data) {
+                expected.add(l.get(0) + "," + l.get(1) + "," + l.get(2));
+            }
+            assertNotEquals(expected, contents);
+            assertEquals(new HashSet<>(expected), new HashSet<>(contents));
+            allFileContents.add(contents);
+
+            FileUtils.deleteDirectory(dir);
+        }
+
+        //Same seed: same output
+        assertEquals(allFileContents.get(0), allFileContents.get(1));
+    }
+
+    @Test
+    public void testExportBinary() throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnInteger("int")
+                .addColumnDouble("double")
+                .addColumnString("string")
+                .build();
+        List<List<Writable>> data = getData(100);
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 3);
+
+        File dir = Files.createTempDirectory("testExportBinary").toFile();
+        Map<String, Long> counts = SparkExport.exportPartitioned(dir.getAbsolutePath(), rdd,
+                new ExportConfig.Builder().binary(schema).filePrefix("data_").build());
+        assertEquals(3, counts.size());
+
+        //No shuffling: partitions (and hence file name order) match the original order
+        List<List<Writable>> read = new ArrayList<>();
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            assertTrue(e.getKey(), e.getKey().matches("data_\\d{5}\\.bin"));
+            BinaryRecordReader rr = new BinaryRecordReader();
+            rr.initialize(new FileSplit(new File(dir, e.getKey())));
+            assertEquals(schema.getColumnNames(), rr.getSchema().getColumnNames());
+            assertEquals((long) e.getValue(), rr.numRecords());
+            while (rr.hasNext()) {
+                read.add(new ArrayList<>(rr.next()));
+            }
+            rr.close();
+        }
+        assertEquals(data, read);
+
+        FileUtils.deleteDirectory(dir);
+    }
+}